@@ -0,0 +1,445 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.codegen;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+
+/**
+ * Generates the source code of the type adapter for an annotated class, and of the type adapter
+ * factory for all annotated classes.
+ */
+final class AdapterGenerator {
+  private static final String HEADER =
+      "// Generated by " + GenerateTypeAdapterProcessor.class.getName() + ", do not edit\n";
+
+  private final Types types;
+  private final TypeRenderer renderer;
+
+  AdapterGenerator(Types types, TypeRenderer renderer) {
+    this.types = types;
+    this.renderer = renderer;
+  }
+
+  /**
+   * Returns the source code of the adapter for the class.
+   *
+   * @param fields the fields of the class and its superclasses; fields which cannot be serialized,
+   *     respectively deserialized, by the generated code are only used to check that the {@code
+   *     Gson} instance excludes them.
+   */
+  String generateAdapter(
+      TypeElement typeElement, String packageName, String adapterName, List<FieldModel> fields) {
+    String className = typeElement.getQualifiedName().toString();
+    String adapterType = "com.google.gson.TypeAdapter<" + className + ">";
+
+    List<FieldModel> serialized = new ArrayList<>();
+    List<FieldModel> deserialized = new ArrayList<>();
+    List<FieldModel> included = new ArrayList<>();
+    boolean usesFieldNames = false;
+    for (FieldModel field : fields) {
+      if (field.readable) {
+        serialized.add(field);
+      }
+      if (field.writable) {
+        deserialized.add(field);
+      }
+      if (field.readable || field.writable) {
+        included.add(field);
+        usesFieldNames |= field.usesFieldName;
+      }
+    }
+
+    StringBuilder out = new StringBuilder(HEADER);
+    if (!packageName.isEmpty()) {
+      out.append("package ").append(packageName).append(";\n\n");
+    }
+    out.append("/** Type adapter for {@link ")
+        .append(className)
+        .append("}, generated at compile time. */\n");
+    out.append("public final class ")
+        .append(adapterName)
+        .append(" extends ")
+        .append(adapterType)
+        .append(" {\n");
+
+    // Names
+    List<String> matchedNames = new ArrayList<>();
+    for (FieldModel field : deserialized) {
+      matchedNames.addAll(field.names);
+    }
+    out.append("  private static final com.google.gson.stream.NameMatcher NAMES =\n")
+        .append("      com.google.gson.stream.NameMatcher.of(");
+    appendStringList(out, matchedNames);
+    out.append(");\n");
+    for (FieldModel field : serialized) {
+      int i = fields.indexOf(field);
+      out.append("  private static final com.google.gson.stream.EncodedName NAME")
+          .append(i)
+          .append(" =\n      com.google.gson.stream.EncodedName.of(")
+          .append(stringLiteral(field.serializedName()))
+          .append(");\n");
+    }
+    out.append('\n');
+
+    // Instance fields
+    for (FieldModel field : included) {
+      int i = fields.indexOf(field);
+      String fieldAdapterType =
+          "com.google.gson.TypeAdapter<" + renderer.boxedSource(field.type) + ">";
+      out.append("  private final ")
+          .append(fieldAdapterType)
+          .append(" adapter")
+          .append(i)
+          .append(";\n");
+      if (field.readable) {
+        out.append("  private final ")
+            .append(fieldAdapterType)
+            .append(" writeAdapter")
+            .append(i)
+            .append(";\n");
+        out.append("  private final boolean serialize").append(i).append(";\n");
+      }
+      if (field.writable) {
+        out.append("  private final boolean deserialize").append(i).append(";\n");
+      }
+    }
+    out.append('\n');
+
+    // Constructor
+    out.append("  @SuppressWarnings(\"unchecked\")\n");
+    out.append("  private ").append(adapterName).append("(com.google.gson.Gson gson) {\n");
+    for (FieldModel field : included) {
+      int i = fields.indexOf(field);
+      String fieldAdapterType =
+          "com.google.gson.TypeAdapter<" + renderer.boxedSource(field.type) + ">";
+      List<String> conditions = new ArrayList<>();
+      if (field.readable) {
+        out.append("    serialize")
+            .append(i)
+            .append(" = !")
+            .append(excludeCall(field, true))
+            .append(";\n");
+        conditions.add("serialize" + i);
+      }
+      if (field.writable) {
+        out.append("    deserialize")
+            .append(i)
+            .append(" = !")
+            .append(excludeCall(field, false))
+            .append(";\n");
+        conditions.add("deserialize" + i);
+      }
+      // Like the reflection-based adapter only look up adapters for fields which are not excluded,
+      // looking up adapters for other fields might fail
+      out.append("    if (").append(String.join(" || ", conditions)).append(") {\n");
+      out.append("      java.lang.reflect.Type type")
+          .append(i)
+          .append(" = ")
+          .append(renderer.typeExpression(field.type))
+          .append(";\n");
+      String lookup =
+          "("
+              + fieldAdapterType
+              + ") gson.getAdapter(com.google.gson.reflect.TypeToken.get(type"
+              + i
+              + "))";
+      String wrap =
+          "com.google.gson.GeneratedAdapterSupport.runtimeTypeAdapter(gson, adapter"
+              + i
+              + ", type"
+              + i
+              + ")";
+      if (field.jsonAdapter != null) {
+        out.append("      com.google.gson.TypeAdapter<?> jsonAdapter")
+            .append(i)
+            .append(" =\n          com.google.gson.GeneratedAdapterSupport.jsonAdapter(\n")
+            .append("              gson,\n")
+            .append("              com.google.gson.reflect.TypeToken.get(type")
+            .append(i)
+            .append("),\n")
+            .append("              new ")
+            .append(field.jsonAdapter.getQualifiedName())
+            .append("(),\n")
+            .append("              ")
+            .append(field.jsonAdapterNullSafe)
+            .append(");\n");
+        out.append("      if (jsonAdapter").append(i).append(" != null) {\n");
+        out.append("        adapter")
+            .append(i)
+            .append(" = (")
+            .append(fieldAdapterType)
+            .append(") jsonAdapter")
+            .append(i)
+            .append(";\n");
+        if (field.readable) {
+          out.append("        writeAdapter").append(i).append(" = adapter").append(i).append(";\n");
+        }
+        out.append("      } else {\n");
+        out.append("        adapter").append(i).append(" = ").append(lookup).append(";\n");
+        if (field.readable) {
+          out.append("        writeAdapter").append(i).append(" = ").append(wrap).append(";\n");
+        }
+        out.append("      }\n");
+      } else {
+        out.append("      adapter").append(i).append(" = ").append(lookup).append(";\n");
+        if (field.readable) {
+          out.append("      writeAdapter").append(i).append(" = ").append(wrap).append(";\n");
+        }
+      }
+      out.append("    } else {\n");
+      out.append("      adapter").append(i).append(" = null;\n");
+      if (field.readable) {
+        out.append("      writeAdapter").append(i).append(" = null;\n");
+      }
+      out.append("    }\n");
+    }
+    out.append("  }\n\n");
+
+    // Factory method
+    out.append("  /**\n")
+        .append(
+            "   * Returns the adapter, or {@code null} if the configuration of {@code gson}"
+                + " requires\n")
+        .append("   * the reflection-based adapter.\n")
+        .append("   */\n");
+    out.append("  public static ")
+        .append(adapterType)
+        .append(" create(com.google.gson.Gson gson) {\n");
+    out.append("    if (!com.google.gson.GeneratedAdapterSupport.canUseGeneratedAdapter(gson, ")
+        .append(usesFieldNames)
+        .append(")) {\n");
+    out.append("      return null;\n");
+    out.append("    }\n");
+    for (FieldModel field : fields) {
+      // The generated code cannot access these fields; the reflection-based adapter has to be used
+      // if they are not excluded
+      List<String> conditions = new ArrayList<>();
+      if (!field.readable) {
+        conditions.add("!" + excludeCall(field, true));
+      }
+      if (!field.writable) {
+        conditions.add("!" + excludeCall(field, false));
+      }
+      if (!conditions.isEmpty()) {
+        out.append("    // Field ").append(field.element.getSimpleName()).append('\n');
+        out.append("    if (").append(String.join("\n        || ", conditions)).append(") {\n");
+        out.append("      return null;\n");
+        out.append("    }\n");
+      }
+    }
+    out.append("    return new ").append(adapterName).append("(gson);\n");
+    out.append("  }\n\n");
+
+    // Serialization
+    out.append("  @Override\n");
+    out.append("  public void write(com.google.gson.stream.JsonWriter out, ")
+        .append(className)
+        .append(" value)\n      throws java.io.IOException {\n");
+    out.append("    if (value == null) {\n");
+    out.append("      out.nullValue();\n");
+    out.append("      return;\n");
+    out.append("    }\n");
+    out.append("    out.beginObject();\n");
+    for (FieldModel field : serialized) {
+      int i = fields.indexOf(field);
+      out.append("    if (serialize").append(i).append(") {\n");
+      if (field.type.getKind().isPrimitive()
+          || !types.isAssignable(typeElement.asType(), types.erasure(field.type))) {
+        out.append("      out.encodedName(NAME").append(i).append(");\n");
+        out.append("      writeAdapter")
+            .append(i)
+            .append(".write(out, ")
+            .append(field.access)
+            .append(");\n");
+      } else {
+        // Avoid direct recursion, like the reflection-based adapter
+        out.append("      ")
+            .append(renderer.source(field.type))
+            .append(" fieldValue")
+            .append(i)
+            .append(" = ")
+            .append(field.access)
+            .append(";\n");
+        out.append("      if (fieldValue").append(i).append(" != value) {\n");
+        out.append("        out.encodedName(NAME").append(i).append(");\n");
+        out.append("        writeAdapter")
+            .append(i)
+            .append(".write(out, fieldValue")
+            .append(i)
+            .append(");\n");
+        out.append("      }\n");
+      }
+      out.append("    }\n");
+    }
+    out.append("    out.endObject();\n");
+    out.append("  }\n\n");
+
+    // Deserialization
+    out.append("  @Override\n");
+    out.append("  public ")
+        .append(className)
+        .append(" read(com.google.gson.stream.JsonReader in) throws java.io.IOException {\n");
+    out.append("    if (in.peek() == com.google.gson.stream.JsonToken.NULL) {\n");
+    out.append("      in.nextNull();\n");
+    out.append("      return null;\n");
+    out.append("    }\n");
+    out.append("    ").append(className).append(" value = new ").append(className).append("();\n");
+    out.append("    try {\n");
+    out.append("      in.beginObject();\n");
+    out.append("      while (in.hasNext()) {\n");
+    out.append("        switch (in.nextName(NAMES)) {\n");
+    int nameIndex = 0;
+    for (FieldModel field : deserialized) {
+      int i = fields.indexOf(field);
+      for (int n = 0; n < field.names.size(); n++) {
+        out.append("          case ").append(nameIndex++).append(":\n");
+      }
+      out.append("            if (deserialize").append(i).append(") {\n");
+      TypeMirror type = field.type;
+      if (type.getKind().isPrimitive()) {
+        out.append("              ")
+            .append(renderer.boxedSource(type))
+            .append(" fieldValue")
+            .append(i)
+            .append(" = adapter")
+            .append(i)
+            .append(".read(in);\n");
+        out.append("              // Ignore null for primitive fields\n");
+        out.append("              if (fieldValue").append(i).append(" != null) {\n");
+        out.append("                ")
+            .append(field.access)
+            .append(" = fieldValue")
+            .append(i)
+            .append(";\n");
+        out.append("              }\n");
+      } else {
+        out.append("              ")
+            .append(field.access)
+            .append(" = adapter")
+            .append(i)
+            .append(".read(in);\n");
+      }
+      out.append("            } else {\n");
+      out.append("              in.skipValue();\n");
+      out.append("            }\n");
+      out.append("            break;\n");
+    }
+    out.append("          default:\n");
+    out.append("            in.skipValue();\n");
+    out.append("            break;\n");
+    out.append("        }\n");
+    out.append("      }\n");
+    out.append("    } catch (java.lang.IllegalStateException e) {\n");
+    out.append("      throw new com.google.gson.JsonSyntaxException(e);\n");
+    out.append("    }\n");
+    out.append("    in.endObject();\n");
+    out.append("    return value;\n");
+    out.append("  }\n");
+    out.append("}\n");
+    return out.toString();
+  }
+
+  /** Returns the source code of the type adapter factory for the adapters. */
+  String generateFactory(
+      String packageName, String factoryName, List<String> classNames, List<String> adapterNames) {
+    StringBuilder out = new StringBuilder(HEADER);
+    if (!packageName.isEmpty()) {
+      out.append("package ").append(packageName).append(";\n\n");
+    }
+    out.append("/**\n")
+        .append(
+            " * Type adapter factory for the type adapters generated at compile time. Returns\n")
+        .append(" * {@code null} if the configuration of the {@code Gson} instance requires the\n")
+        .append(" * reflection-based adapter.\n")
+        .append(" */\n");
+    out.append("public final class ")
+        .append(factoryName)
+        .append(" implements com.google.gson.TypeAdapterFactory {\n");
+    out.append("  @Override\n");
+    out.append("  @SuppressWarnings(\"unchecked\")\n");
+    out.append("  public <T> com.google.gson.TypeAdapter<T> create(\n")
+        .append("      com.google.gson.Gson gson, com.google.gson.reflect.TypeToken<T> type) {\n");
+    out.append("    Class<? super T> rawType = type.getRawType();\n");
+    for (int i = 0; i < classNames.size(); i++) {
+      out.append("    if (rawType == ").append(classNames.get(i)).append(".class) {\n");
+      out.append("      return (com.google.gson.TypeAdapter<T>) ")
+          .append(adapterNames.get(i))
+          .append(".create(gson);\n");
+      out.append("    }\n");
+    }
+    out.append("    return null;\n");
+    out.append("  }\n");
+    out.append("}\n");
+    return out.toString();
+  }
+
+  private static String excludeCall(FieldModel field, boolean serialize) {
+    return "com.google.gson.GeneratedAdapterSupport.excludeField(gson, "
+        + field.rawTypeLiteral
+        + ", "
+        + field.modifiers
+        + ", "
+        + doubleLiteral(field.since)
+        + ", "
+        + doubleLiteral(field.until)
+        + ", "
+        + (serialize ? field.exposeSerialize : field.exposeDeserialize)
+        + ", "
+        + serialize
+        + ")";
+  }
+
+  private static String doubleLiteral(double value) {
+    if (Double.isNaN(value)) {
+      return "java.lang.Double.NaN";
+    } else if (value == Double.POSITIVE_INFINITY) {
+      return "java.lang.Double.POSITIVE_INFINITY";
+    } else if (value == Double.NEGATIVE_INFINITY) {
+      return "java.lang.Double.NEGATIVE_INFINITY";
+    }
+    return Double.toString(value);
+  }
+
+  private static void appendStringList(StringBuilder out, List<String> strings) {
+    for (int i = 0; i < strings.size(); i++) {
+      if (i > 0) {
+        out.append(", ");
+      }
+      out.append(stringLiteral(strings.get(i)));
+    }
+  }
+
+  /** Returns the Java string literal for the string, with all non-ASCII characters escaped. */
+  static String stringLiteral(String s) {
+    StringBuilder builder = new StringBuilder(s.length() + 2).append('"');
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      if (c == '"' || c == '\\') {
+        builder.append('\\').append(c);
+      } else if (c < 0x20 || c >= 0x7F) {
+        builder.append(String.format("\\u%04x", (int) c));
+      } else {
+        builder.append(c);
+      }
+    }
+    return builder.append('"').toString();
+  }
+}
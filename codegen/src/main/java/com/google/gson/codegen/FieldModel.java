@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.codegen;
+
+import java.lang.reflect.Modifier;
+import java.util.List;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+
+/** A field of an annotated class, or of one of its superclasses, as seen by the generated code. */
+final class FieldModel {
+  final VariableElement element;
+
+  /** Type of the field, with type variables of generic superclasses resolved */
+  final TypeMirror type;
+
+  /**
+   * Class literal of the raw type of the field, or {@code java.lang.Object.class} if the generated
+   * code cannot refer to it
+   */
+  final String rawTypeLiteral;
+
+  /** Name used for serialization, followed by the alternate names used for deserialization */
+  final List<String> names;
+
+  /** Whether the field has no {@code @SerializedName}, so its name depends on the naming policy */
+  final boolean usesFieldName;
+
+  /** Modifiers as defined by {@link java.lang.reflect.Modifier} */
+  final int modifiers;
+
+  /** Value of {@code @Since}, or {@code NaN} */
+  final double since;
+
+  /** Value of {@code @Until}, or {@code NaN} */
+  final double until;
+
+  final boolean exposeSerialize;
+  final boolean exposeDeserialize;
+
+  /** The {@code @JsonAdapter} class, or {@code null} */
+  final TypeElement jsonAdapter;
+
+  final boolean jsonAdapterNullSafe;
+
+  /** Source code expression referring to the field, with {@code value} being the object */
+  final String access;
+
+  /** Whether the generated code can read, respectively assign the field */
+  final boolean readable;
+
+  final boolean writable;
+
+  FieldModel(
+      VariableElement element,
+      TypeMirror type,
+      String rawTypeLiteral,
+      List<String> names,
+      boolean usesFieldName,
+      int modifiers,
+      double since,
+      double until,
+      boolean exposeSerialize,
+      boolean exposeDeserialize,
+      TypeElement jsonAdapter,
+      boolean jsonAdapterNullSafe,
+      String access,
+      boolean readable,
+      boolean writable) {
+    this.element = element;
+    this.type = type;
+    this.rawTypeLiteral = rawTypeLiteral;
+    this.names = names;
+    this.usesFieldName = usesFieldName;
+    this.modifiers = modifiers;
+    this.since = since;
+    this.until = until;
+    this.exposeSerialize = exposeSerialize;
+    this.exposeDeserialize = exposeDeserialize;
+    this.jsonAdapter = jsonAdapter;
+    this.jsonAdapterNullSafe = jsonAdapterNullSafe;
+    this.access = access;
+    this.readable = readable;
+    this.writable = writable;
+  }
+
+  String serializedName() {
+    return names.get(0);
+  }
+
+  /**
+   * Whether the field is serialized and deserialized with the default Gson configuration, which
+   * excludes {@code static} and {@code transient} fields.
+   */
+  boolean isIncludedByDefault() {
+    return (modifiers & (Modifier.STATIC | Modifier.TRANSIENT)) == 0;
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.codegen;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Requests generation of a {@link com.google.gson.TypeAdapter TypeAdapter} for the annotated class
+ * at compile time by the {@link GenerateTypeAdapterProcessor} annotation processor. The generated
+ * adapter reads and writes the fields of the class directly, without reflection.
+ *
+ * <p>For a class {@code com.example.Outer.Point} the adapter {@code
+ * com.example.Outer_Point_GsonTypeAdapter} is generated. Additionally a single {@link
+ * com.google.gson.TypeAdapterFactory TypeAdapterFactory} for all annotated classes of a compilation
+ * is generated, which has to be registered with {@link
+ * com.google.gson.GsonBuilder#registerTypeAdapterFactory(com.google.gson.TypeAdapterFactory)
+ * GsonBuilder.registerTypeAdapterFactory}:
+ *
+ * <pre>
+ * Gson gson = new GsonBuilder()
+ *     .registerTypeAdapterFactory(new GeneratedTypeAdapterFactory())
+ *     .create();
+ * </pre>
+ *
+ * <p>The factory is named {@code GeneratedTypeAdapterFactory} and placed in the package of the
+ * annotated classes. If the annotated classes are in different packages, its fully qualified name
+ * has to be specified with the annotation processor option {@code -Agson.codegen.factory=...}.
+ *
+ * <p>The generated adapter behaves like the reflection-based adapter of Gson: it honors the {@link
+ * com.google.gson.annotations.SerializedName SerializedName}, {@link
+ * com.google.gson.annotations.Expose Expose}, {@link com.google.gson.annotations.Since Since},
+ * {@link com.google.gson.annotations.Until Until} and {@link
+ * com.google.gson.annotations.JsonAdapter JsonAdapter} annotations of the fields, and the exclusion
+ * settings of the {@code Gson} instance. If the {@code Gson} instance uses an {@link
+ * com.google.gson.ExclusionStrategy ExclusionStrategy} or a field naming strategy other than {@link
+ * com.google.gson.FieldNamingPolicy#IDENTITY}, which both require reflection, the factory does not
+ * create an adapter and Gson falls back to the reflection-based adapter. Differences are:
+ *
+ * <ul>
+ *   <li>Instances are created with the no-args constructor of the class; {@link
+ *       com.google.gson.InstanceCreator InstanceCreator}s are not used
+ *   <li>Fields which are serialized or deserialized with the default Gson configuration must be
+ *       accessible from the generated adapter, that is, not {@code private}, and must not be {@code
+ *       final}
+ * </ul>
+ *
+ * <p>The annotated class must be a non-generic, non-abstract top-level or static nested class
+ * without {@link com.google.gson.annotations.JsonAdapter JsonAdapter} annotation.
+ *
+ * @since $next-version$
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateTypeAdapter {}
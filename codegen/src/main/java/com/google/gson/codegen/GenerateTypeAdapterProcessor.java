@@ -0,0 +1,493 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.codegen;
+
+import com.google.gson.annotations.Expose;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.annotations.Since;
+import com.google.gson.annotations.Until;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+/**
+ * Annotation processor generating type adapters for classes annotated with {@link
+ * GenerateTypeAdapter}, and a type adapter factory for all of them.
+ *
+ * @since $next-version$
+ */
+public final class GenerateTypeAdapterProcessor extends AbstractProcessor {
+  /** Option specifying the fully qualified name of the generated type adapter factory. */
+  public static final String FACTORY_OPTION = "gson.codegen.factory";
+
+  private static final String DEFAULT_FACTORY_NAME = "GeneratedTypeAdapterFactory";
+  private static final String ADAPTER_SUFFIX = "_GsonTypeAdapter";
+  private static final String JSON_ADAPTER = "com.google.gson.annotations.JsonAdapter";
+  private static final List<String> JSON_ADAPTER_TYPES =
+      Arrays.asList(
+          "com.google.gson.TypeAdapter",
+          "com.google.gson.TypeAdapterFactory",
+          "com.google.gson.JsonSerializer",
+          "com.google.gson.JsonDeserializer");
+
+  private Types types;
+  private Elements elements;
+  private TypeRenderer renderer;
+  private AdapterGenerator generator;
+  private boolean factoryGenerated;
+
+  @Override
+  public synchronized void init(ProcessingEnvironment processingEnv) {
+    super.init(processingEnv);
+    types = processingEnv.getTypeUtils();
+    elements = processingEnv.getElementUtils();
+    renderer = new TypeRenderer(types, elements);
+    generator = new AdapterGenerator(types, renderer);
+  }
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return Collections.singleton(GenerateTypeAdapter.class.getName());
+  }
+
+  @Override
+  public Set<String> getSupportedOptions() {
+    return Collections.singleton(FACTORY_OPTION);
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    Set<? extends Element> annotated = roundEnv.getElementsAnnotatedWith(GenerateTypeAdapter.class);
+    if (annotated.isEmpty()) {
+      return false;
+    }
+    if (factoryGenerated) {
+      for (Element element : annotated) {
+        error(
+            element,
+            "@GenerateTypeAdapter classes must not be generated by other annotation processors,"
+                + " the type adapter factory has already been generated");
+      }
+      return false;
+    }
+    factoryGenerated = true;
+
+    List<TypeElement> classes = new ArrayList<>();
+    for (Element element : annotated) {
+      if (element.getKind() != ElementKind.CLASS) {
+        error(element, "@GenerateTypeAdapter can only be used on classes");
+      } else {
+        classes.add((TypeElement) element);
+      }
+    }
+
+    String factoryPackage;
+    String factoryName;
+    String factoryOption = processingEnv.getOptions().get(FACTORY_OPTION);
+    if (factoryOption != null) {
+      int lastDot = factoryOption.lastIndexOf('.');
+      factoryPackage = lastDot == -1 ? "" : factoryOption.substring(0, lastDot);
+      factoryName = factoryOption.substring(lastDot + 1);
+    } else {
+      Set<String> packages = new LinkedHashSet<>();
+      for (TypeElement typeElement : classes) {
+        packages.add(renderer.packageName(typeElement));
+      }
+      if (packages.size() > 1) {
+        error(
+            null,
+            "@GenerateTypeAdapter classes are in multiple packages "
+                + packages
+                + ", the name of the type adapter factory has to be specified with -A"
+                + FACTORY_OPTION
+                + "=...");
+        return false;
+      }
+      factoryPackage = packages.isEmpty() ? "" : packages.iterator().next();
+      factoryName = DEFAULT_FACTORY_NAME;
+    }
+
+    List<String> classNames = new ArrayList<>();
+    List<String> adapterNames = new ArrayList<>();
+    List<Element> originatingElements = new ArrayList<>();
+    boolean success = true;
+    for (TypeElement typeElement : classes) {
+      String packageName = renderer.packageName(typeElement);
+      String adapterName = adapterName(typeElement);
+      List<FieldModel> fields = processClass(typeElement, packageName);
+      if (fields == null) {
+        success = false;
+        continue;
+      }
+      if (!renderer.isAccessible(typeElement, factoryPackage)) {
+        error(
+            typeElement,
+            "@GenerateTypeAdapter class must be public to be accessible from the type adapter"
+                + " factory in package "
+                + factoryPackage);
+        success = false;
+        continue;
+      }
+      String qualifiedAdapterName =
+          packageName.isEmpty() ? adapterName : packageName + "." + adapterName;
+      writeSource(
+          qualifiedAdapterName,
+          generator.generateAdapter(typeElement, packageName, adapterName, fields),
+          typeElement);
+      classNames.add(typeElement.getQualifiedName().toString());
+      adapterNames.add(qualifiedAdapterName);
+      originatingElements.add(typeElement);
+    }
+
+    if (success) {
+      writeSource(
+          factoryPackage.isEmpty() ? factoryName : factoryPackage + "." + factoryName,
+          generator.generateFactory(factoryPackage, factoryName, classNames, adapterNames),
+          originatingElements.toArray(new Element[0]));
+    }
+    return false;
+  }
+
+  /** Returns the simple name of the adapter, for example {@code Outer_Point_GsonTypeAdapter}. */
+  private static String adapterName(TypeElement typeElement) {
+    StringBuilder name = new StringBuilder(typeElement.getSimpleName());
+    Element enclosing = typeElement.getEnclosingElement();
+    while (enclosing.getKind() != ElementKind.PACKAGE) {
+      name.insert(0, enclosing.getSimpleName() + "_");
+      enclosing = enclosing.getEnclosingElement();
+    }
+    return name.append(ADAPTER_SUFFIX).toString();
+  }
+
+  /**
+   * Validates the annotated class and returns its fields, or {@code null} if it is not supported.
+   */
+  private List<FieldModel> processClass(TypeElement typeElement, String packageName) {
+    boolean valid = true;
+    if (typeElement.getModifiers().contains(Modifier.ABSTRACT)) {
+      error(typeElement, "@GenerateTypeAdapter class must not be abstract");
+      valid = false;
+    }
+    if (!typeElement.getTypeParameters().isEmpty()) {
+      error(typeElement, "@GenerateTypeAdapter class must not be generic");
+      valid = false;
+    }
+    for (Element current = typeElement;
+        current.getEnclosingElement().getKind() != ElementKind.PACKAGE;
+        current = current.getEnclosingElement()) {
+      if (!current.getModifiers().contains(Modifier.STATIC)) {
+        error(typeElement, "@GenerateTypeAdapter class must be a top-level or static nested class");
+        valid = false;
+        break;
+      }
+    }
+    if (!renderer.isAccessible(typeElement, packageName)) {
+      error(typeElement, "@GenerateTypeAdapter class must not be private");
+      valid = false;
+    }
+    if (findAnnotation(typeElement, JSON_ADAPTER) != null) {
+      error(typeElement, "@GenerateTypeAdapter class must not have a @JsonAdapter annotation");
+      valid = false;
+    }
+    if (!hasNoArgsConstructor(typeElement)) {
+      error(typeElement, "@GenerateTypeAdapter class must have a non-private no-args constructor");
+      valid = false;
+    }
+    if (!valid) {
+      return null;
+    }
+
+    List<FieldModel> fields = new ArrayList<>();
+    Map<String, VariableElement> namesInUse = new HashMap<>();
+    Set<String> visibleFieldNames = new HashSet<>();
+    DeclaredType current = (DeclaredType) typeElement.asType();
+    while (true) {
+      TypeElement currentElement = (TypeElement) current.asElement();
+      if (currentElement.getQualifiedName().contentEquals("java.lang.Object")) {
+        break;
+      }
+      for (VariableElement field : ElementFilter.fieldsIn(currentElement.getEnclosedElements())) {
+        String fieldName = field.getSimpleName().toString();
+        // A field of a superclass is hidden by a field with the same name of a subclass, and has
+        // to be accessed with a cast
+        boolean hidden = !visibleFieldNames.add(fieldName);
+        FieldModel fieldModel =
+            processField(
+                current,
+                field,
+                hidden ? "((" + currentElement.getQualifiedName() + ") value)" : "value",
+                packageName);
+        if (fieldModel == null) {
+          valid = false;
+          continue;
+        }
+        if (fieldModel.isIncludedByDefault()) {
+          for (String name : fieldModel.names) {
+            VariableElement previous = namesInUse.put(name, field);
+            if (previous != null) {
+              error(
+                  field,
+                  "Field "
+                      + fieldName
+                      + " has the same JSON name '"
+                      + name
+                      + "' as field "
+                      + previous.getEnclosingElement().getSimpleName()
+                      + "."
+                      + previous.getSimpleName());
+              valid = false;
+            }
+          }
+        }
+        fields.add(fieldModel);
+      }
+
+      TypeMirror superclass = null;
+      for (TypeMirror supertype : types.directSupertypes(current)) {
+        if (supertype.getKind() == TypeKind.DECLARED
+            && ((DeclaredType) supertype).asElement().getKind() == ElementKind.CLASS) {
+          superclass = supertype;
+          break;
+        }
+      }
+      if (superclass == null) {
+        break;
+      }
+      current = (DeclaredType) superclass;
+    }
+    return valid ? fields : null;
+  }
+
+  private FieldModel processField(
+      DeclaredType containing, VariableElement field, String receiver, String packageName) {
+    TypeMirror type = types.asMemberOf(containing, field);
+    TypeElement declaringClass = (TypeElement) field.getEnclosingElement();
+    String fieldName = field.getSimpleName().toString();
+    Set<Modifier> modifiers = field.getModifiers();
+
+    SerializedName serializedName = field.getAnnotation(SerializedName.class);
+    List<String> names = new ArrayList<>();
+    if (serializedName != null) {
+      names.add(serializedName.value());
+      Collections.addAll(names, serializedName.alternate());
+    } else {
+      names.add(fieldName);
+    }
+    Since since = field.getAnnotation(Since.class);
+    Until until = field.getAnnotation(Until.class);
+    Expose expose = field.getAnnotation(Expose.class);
+
+    int modifierBits = 0;
+    for (Modifier modifier : modifiers) {
+      modifierBits |= reflectModifier(modifier);
+    }
+
+    boolean valid = true;
+    TypeElement jsonAdapter = null;
+    boolean jsonAdapterNullSafe = true;
+    AnnotationMirror jsonAdapterAnnotation = findAnnotation(field, JSON_ADAPTER);
+    if (jsonAdapterAnnotation != null) {
+      for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+          elements.getElementValuesWithDefaults(jsonAdapterAnnotation).entrySet()) {
+        String member = entry.getKey().getSimpleName().toString();
+        Object memberValue = entry.getValue().getValue();
+        if (member.equals("value") && memberValue instanceof DeclaredType) {
+          jsonAdapter = (TypeElement) ((DeclaredType) memberValue).asElement();
+        } else if (member.equals("nullSafe")) {
+          jsonAdapterNullSafe = (Boolean) memberValue;
+        }
+      }
+    }
+
+    String typeError = renderer.checkSupported(type, packageName);
+    boolean includedByDefault =
+        !modifiers.contains(Modifier.STATIC) && !modifiers.contains(Modifier.TRANSIENT);
+    if (includedByDefault) {
+      if (modifiers.contains(Modifier.PRIVATE) || !isFieldAccessible(field, packageName)) {
+        error(field, "Field " + fieldName + " is not accessible from the generated type adapter");
+        valid = false;
+      }
+      if (modifiers.contains(Modifier.FINAL)) {
+        error(field, "Field " + fieldName + " must not be final");
+        valid = false;
+      }
+      if (receiver.startsWith("((") && !renderer.isAccessible(declaringClass, packageName)) {
+        error(
+            field,
+            "Hidden field " + fieldName + " of inaccessible class " + declaringClass + " is used");
+        valid = false;
+      }
+      if (typeError != null) {
+        error(field, "Field " + fieldName + " is not supported: " + typeError);
+        valid = false;
+      }
+      if (jsonAdapterAnnotation != null) {
+        String jsonAdapterError = checkJsonAdapter(jsonAdapter, packageName);
+        if (jsonAdapterError != null) {
+          error(field, "Invalid @JsonAdapter for field " + fieldName + ": " + jsonAdapterError);
+          valid = false;
+        }
+      }
+    }
+    if (!valid) {
+      return null;
+    }
+
+    // Fields excluded by default are not accessed by the generated code; the reflection-based
+    // adapter is used if the Gson instance includes them
+    String rawTypeLiteral =
+        typeError == null ? renderer.rawClassLiteral(type) : "java.lang.Object.class";
+    return new FieldModel(
+        field,
+        type,
+        rawTypeLiteral,
+        names,
+        serializedName == null,
+        modifierBits,
+        since == null ? Double.NaN : since.value(),
+        until == null ? Double.NaN : until.value(),
+        expose != null && expose.serialize(),
+        expose != null && expose.deserialize(),
+        jsonAdapter,
+        jsonAdapterNullSafe,
+        receiver + "." + fieldName,
+        includedByDefault,
+        includedByDefault);
+  }
+
+  private boolean isFieldAccessible(VariableElement field, String packageName) {
+    return field.getModifiers().contains(Modifier.PUBLIC)
+        || renderer.packageName(field).equals(packageName);
+  }
+
+  /** Returns why the {@code @JsonAdapter} class cannot be used, or {@code null} if it is valid. */
+  private String checkJsonAdapter(TypeElement jsonAdapter, String packageName) {
+    if (jsonAdapter == null) {
+      return "class cannot be resolved";
+    }
+    if (!renderer.isAccessible(jsonAdapter, packageName)) {
+      return "class " + jsonAdapter.getQualifiedName() + " is not accessible";
+    }
+    if (jsonAdapter.getModifiers().contains(Modifier.ABSTRACT)) {
+      return "class " + jsonAdapter.getQualifiedName() + " is abstract";
+    }
+    if (!hasNoArgsConstructor(jsonAdapter)) {
+      return "class " + jsonAdapter.getQualifiedName() + " has no accessible no-args constructor";
+    }
+    TypeMirror adapterType = types.erasure(jsonAdapter.asType());
+    for (String supportedType : JSON_ADAPTER_TYPES) {
+      TypeElement supportedElement = elements.getTypeElement(supportedType);
+      if (supportedElement != null
+          && types.isAssignable(adapterType, types.erasure(supportedElement.asType()))) {
+        return null;
+      }
+    }
+    return "class "
+        + jsonAdapter.getQualifiedName()
+        + " is not a TypeAdapter, TypeAdapterFactory, JsonSerializer or JsonDeserializer";
+  }
+
+  private static boolean hasNoArgsConstructor(TypeElement typeElement) {
+    for (ExecutableElement constructor :
+        ElementFilter.constructorsIn(typeElement.getEnclosedElements())) {
+      if (constructor.getParameters().isEmpty()
+          && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static AnnotationMirror findAnnotation(Element element, String annotationName) {
+    for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+      TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+      if (annotationType.getQualifiedName().contentEquals(annotationName)) {
+        return annotation;
+      }
+    }
+    return null;
+  }
+
+  private static int reflectModifier(Modifier modifier) {
+    switch (modifier) {
+      case PUBLIC:
+        return java.lang.reflect.Modifier.PUBLIC;
+      case PROTECTED:
+        return java.lang.reflect.Modifier.PROTECTED;
+      case PRIVATE:
+        return java.lang.reflect.Modifier.PRIVATE;
+      case STATIC:
+        return java.lang.reflect.Modifier.STATIC;
+      case FINAL:
+        return java.lang.reflect.Modifier.FINAL;
+      case TRANSIENT:
+        return java.lang.reflect.Modifier.TRANSIENT;
+      case VOLATILE:
+        return java.lang.reflect.Modifier.VOLATILE;
+      default:
+        return 0;
+    }
+  }
+
+  private void writeSource(String qualifiedName, String source, Element... originatingElements) {
+    try (Writer writer =
+        processingEnv
+            .getFiler()
+            .createSourceFile(qualifiedName, originatingElements)
+            .openWriter()) {
+      writer.write(source);
+    } catch (IOException e) {
+      error(null, "Failed writing " + qualifiedName + ": " + e);
+    }
+  }
+
+  private void error(Element element, String message) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+  }
+}
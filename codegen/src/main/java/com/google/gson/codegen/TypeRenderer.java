@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.codegen;
+
+import java.util.List;
+import java.util.Locale;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+/**
+ * Renders types as source code of generated classes. All names are fully qualified, so that the
+ * generated code does not depend on imports.
+ */
+final class TypeRenderer {
+  private final Types types;
+  private final Elements elements;
+
+  TypeRenderer(Types types, Elements elements) {
+    this.types = types;
+    this.elements = elements;
+  }
+
+  /**
+   * Returns why the type cannot be used in code generated in the package, or {@code null} if it can
+   * be used.
+   */
+  String checkSupported(TypeMirror type, String packageName) {
+    switch (type.getKind()) {
+      case BOOLEAN:
+      case BYTE:
+      case SHORT:
+      case INT:
+      case LONG:
+      case CHAR:
+      case FLOAT:
+      case DOUBLE:
+        return null;
+      case ARRAY:
+        return checkSupported(((ArrayType) type).getComponentType(), packageName);
+      case DECLARED:
+        DeclaredType declaredType = (DeclaredType) type;
+        TypeElement element = (TypeElement) declaredType.asElement();
+        if (!isAccessible(element, packageName)) {
+          return "type " + element.getQualifiedName() + " is not accessible";
+        }
+        for (TypeMirror typeArgument : declaredType.getTypeArguments()) {
+          String error = checkSupported(typeArgument, packageName);
+          if (error != null) {
+            return error;
+          }
+        }
+        return null;
+      case WILDCARD:
+        WildcardType wildcardType = (WildcardType) type;
+        TypeMirror bound =
+            wildcardType.getSuperBound() != null
+                ? wildcardType.getSuperBound()
+                : wildcardType.getExtendsBound();
+        return bound == null ? null : checkSupported(bound, packageName);
+      case TYPEVAR:
+        return "type variable " + type + " cannot be resolved";
+      default:
+        return "type " + type + " is not supported";
+    }
+  }
+
+  /** Returns whether code in the package can refer to the class. */
+  boolean isAccessible(TypeElement element, String packageName) {
+    boolean samePackage =
+        elements.getPackageOf(element).getQualifiedName().contentEquals(packageName);
+    Element current = element;
+    while (current.getKind() != ElementKind.PACKAGE) {
+      if (current.getModifiers().contains(Modifier.PRIVATE)
+          || (!samePackage && !current.getModifiers().contains(Modifier.PUBLIC))) {
+        return false;
+      }
+      current = current.getEnclosingElement();
+    }
+    return true;
+  }
+
+  /** Returns the source code of the type, with primitive types boxed for use as type argument. */
+  String boxedSource(TypeMirror type) {
+    if (type.getKind().isPrimitive()) {
+      return types.boxedClass(types.getPrimitiveType(type.getKind())).getQualifiedName().toString();
+    }
+    return source(type);
+  }
+
+  /** Returns the source code of the type. */
+  String source(TypeMirror type) {
+    switch (type.getKind()) {
+      case ARRAY:
+        return source(((ArrayType) type).getComponentType()) + "[]";
+      case DECLARED:
+        DeclaredType declaredType = (DeclaredType) type;
+        StringBuilder builder =
+            new StringBuilder(((TypeElement) declaredType.asElement()).getQualifiedName());
+        List<? extends TypeMirror> typeArguments = declaredType.getTypeArguments();
+        if (!typeArguments.isEmpty()) {
+          builder.append('<');
+          for (int i = 0; i < typeArguments.size(); i++) {
+            if (i > 0) {
+              builder.append(", ");
+            }
+            builder.append(boxedSource(typeArguments.get(i)));
+          }
+          builder.append('>');
+        }
+        return builder.toString();
+      case WILDCARD:
+        WildcardType wildcardType = (WildcardType) type;
+        if (wildcardType.getExtendsBound() != null) {
+          return "? extends " + source(wildcardType.getExtendsBound());
+        } else if (wildcardType.getSuperBound() != null) {
+          return "? super " + source(wildcardType.getSuperBound());
+        }
+        return "?";
+      default:
+        // Primitive types
+        return type.getKind().name().toLowerCase(Locale.ROOT);
+    }
+  }
+
+  /** Returns the source code of the class literal for the raw type. */
+  String rawClassLiteral(TypeMirror type) {
+    return source(types.erasure(type)) + ".class";
+  }
+
+  /** Returns a source code expression creating the {@link java.lang.reflect.Type} of the type. */
+  String typeExpression(TypeMirror type) {
+    switch (type.getKind()) {
+      case ARRAY:
+        TypeMirror componentType = ((ArrayType) type).getComponentType();
+        if (isRaw(componentType)) {
+          return rawClassLiteral(type);
+        }
+        return "com.google.gson.reflect.TypeToken.getArray("
+            + typeExpression(componentType)
+            + ").getType()";
+      case DECLARED:
+        List<? extends TypeMirror> typeArguments = ((DeclaredType) type).getTypeArguments();
+        if (typeArguments.isEmpty()) {
+          return rawClassLiteral(type);
+        }
+        StringBuilder builder =
+            new StringBuilder("com.google.gson.reflect.TypeToken.getParameterized(")
+                .append(rawClassLiteral(type));
+        for (TypeMirror typeArgument : typeArguments) {
+          builder.append(", ").append(typeExpression(typeArgument));
+        }
+        return builder.append(").getType()").toString();
+      case WILDCARD:
+        WildcardType wildcardType = (WildcardType) type;
+        if (wildcardType.getSuperBound() != null) {
+          return "com.google.gson.GeneratedAdapterSupport.supertypeOf("
+              + typeExpression(wildcardType.getSuperBound())
+              + ")";
+        }
+        TypeMirror bound = wildcardType.getExtendsBound();
+        return "com.google.gson.GeneratedAdapterSupport.subtypeOf("
+            + (bound == null ? "java.lang.Object.class" : typeExpression(bound))
+            + ")";
+      default:
+        return rawClassLiteral(type);
+    }
+  }
+
+  private static boolean isRaw(TypeMirror type) {
+    if (type.getKind() == TypeKind.ARRAY) {
+      return isRaw(((ArrayType) type).getComponentType());
+    }
+    return type.getKind() != TypeKind.DECLARED
+        || ((DeclaredType) type).getTypeArguments().isEmpty();
+  }
+
+  /** Returns the name of the package containing the element. */
+  String packageName(Element element) {
+    PackageElement packageElement = elements.getPackageOf(element);
+    return packageElement.getQualifiedName().toString();
+  }
+}
@@ -0,0 +1,451 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.codegen;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class GenerateTypeAdapterProcessorTest {
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  /** Result of compiling sources with the annotation processor */
+  private static class Compilation {
+    final boolean success;
+    final List<String> errors;
+    final ClassLoader classLoader;
+
+    Compilation(boolean success, List<String> errors, ClassLoader classLoader) {
+      this.success = success;
+      this.errors = errors;
+      this.classLoader = classLoader;
+    }
+
+    Class<?> loadClass(String name) throws ClassNotFoundException {
+      return Class.forName(name, true, classLoader);
+    }
+
+    Gson createGson(GsonBuilder builder) throws ReflectiveOperationException {
+      TypeAdapterFactory factory =
+          (TypeAdapterFactory)
+              loadClass("test.GeneratedTypeAdapterFactory").getConstructor().newInstance();
+      return builder.registerTypeAdapterFactory(factory).create();
+    }
+  }
+
+  private static class Source extends SimpleJavaFileObject {
+    private final String content;
+
+    Source(String className, String content) {
+      super(URI.create("string:///" + className.replace('.', '/') + ".java"), Kind.SOURCE);
+      this.content = content;
+    }
+
+    @Override
+    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+      return content;
+    }
+  }
+
+  private static String classPathEntry(Class<?> c) {
+    try {
+      return new File(c.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+    } catch (URISyntaxException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private Compilation compile(List<String> options, Source... sources) throws IOException {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    Path outputDir = temporaryFolder.newFolder().toPath();
+    // Gson and the annotation are needed on the classpath of the compiled code
+    String classPath =
+        classPathEntry(Gson.class) + File.pathSeparator + classPathEntry(GenerateTypeAdapter.class);
+
+    List<String> allOptions = new ArrayList<>(options);
+    allOptions.addAll(
+        Arrays.asList(
+            "-classpath",
+            classPath,
+            "-d",
+            outputDir.toString(),
+            "-Xlint:all,-processing",
+            "-Werror"));
+
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    boolean success;
+    try (StandardJavaFileManager fileManager =
+        compiler.getStandardFileManager(diagnostics, Locale.ROOT, StandardCharsets.UTF_8)) {
+      JavaCompiler.CompilationTask task =
+          compiler.getTask(
+              null, fileManager, diagnostics, allOptions, null, Arrays.asList(sources));
+      task.setProcessors(Collections.singletonList(new GenerateTypeAdapterProcessor()));
+      success = task.call();
+    }
+
+    List<String> errors = new ArrayList<>();
+    for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+      if (diagnostic.getKind() == Diagnostic.Kind.ERROR
+          || diagnostic.getKind() == Diagnostic.Kind.WARNING
+          || diagnostic.getKind() == Diagnostic.Kind.MANDATORY_WARNING) {
+        errors.add(diagnostic.getMessage(Locale.ROOT));
+      }
+    }
+    ClassLoader classLoader =
+        new URLClassLoader(
+            new URL[] {outputDir.toUri().toURL()},
+            GenerateTypeAdapterProcessorTest.class.getClassLoader());
+    return new Compilation(success, errors, classLoader);
+  }
+
+  private Compilation compile(Source... sources) throws IOException {
+    return compile(Collections.<String>emptyList(), sources);
+  }
+
+  private Compilation compileSuccessfully(Source... sources) throws IOException {
+    Compilation compilation = compile(sources);
+    assertThat(compilation.errors).isEmpty();
+    assertThat(compilation.success).isTrue();
+    return compilation;
+  }
+
+  private Compilation compileWithError(String expectedError, Source... sources) throws IOException {
+    Compilation compilation = compile(sources);
+    assertThat(compilation.success).isFalse();
+    assertThat(compilation.errors).contains(expectedError);
+    return compilation;
+  }
+
+  private static Source source(String simpleName, String... lines) {
+    return new Source("test." + simpleName, "package test;\n" + String.join("\n", lines) + "\n");
+  }
+
+  private static final Source POINT =
+      source(
+          "Point",
+          "@com.google.gson.codegen.GenerateTypeAdapter",
+          "public class Point {",
+          "  public int x;",
+          "  int y;",
+          "  public String label;",
+          "  public java.util.List<Point> neighbors;",
+          "}");
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    Compilation compilation = compileSuccessfully(POINT);
+    Class<?> pointClass = compilation.loadClass("test.Point");
+    Class<?> adapterClass = compilation.loadClass("test.Point_GsonTypeAdapter");
+    assertThat(Modifier.isPublic(adapterClass.getModifiers())).isTrue();
+
+    Gson gson = compilation.createGson(new GsonBuilder());
+    TypeAdapter<?> adapter = gson.getAdapter(pointClass);
+    assertThat(adapter.getClass()).isEqualTo(adapterClass);
+
+    String json = "{\"x\":1,\"y\":2,\"label\":\"a\",\"neighbors\":[{\"x\":3,\"y\":0}]}";
+    Object point = gson.fromJson(json, pointClass);
+    assertThat(pointClass.getDeclaredField("x").get(point)).isEqualTo(1);
+    assertThat(pointClass.getDeclaredField("label").get(point)).isEqualTo("a");
+    assertThat(gson.toJson(point)).isEqualTo(json);
+
+    // Same output as the reflection-based adapter
+    assertThat(new Gson().toJson(point)).isEqualTo(json);
+  }
+
+  @Test
+  public void testRead() throws Exception {
+    Compilation compilation = compileSuccessfully(POINT);
+    Class<?> pointClass = compilation.loadClass("test.Point");
+    Gson gson = compilation.createGson(new GsonBuilder());
+
+    // Unknown properties are skipped, null is ignored for primitive fields
+    Object point = gson.fromJson("{\"unknown\":[1],\"x\":null,\"y\":5}", pointClass);
+    assertThat(pointClass.getDeclaredField("x").get(point)).isEqualTo(0);
+    Field y = pointClass.getDeclaredField("y");
+    y.setAccessible(true);
+    assertThat(y.get(point)).isEqualTo(5);
+    assertThat(gson.fromJson("null", pointClass)).isNull();
+
+    JsonSyntaxException e =
+        assertThrows(JsonSyntaxException.class, () -> gson.fromJson("{\"x\":\"a\"}", pointClass));
+    assertThat(e).hasCauseThat().isInstanceOf(NumberFormatException.class);
+    assertThrows(JsonSyntaxException.class, () -> gson.fromJson("[]", pointClass));
+  }
+
+  @Test
+  public void testAnnotations() throws Exception {
+    Compilation compilation =
+        compileSuccessfully(
+            source(
+                "Annotated",
+                "import com.google.gson.annotations.*;",
+                "@com.google.gson.codegen.GenerateTypeAdapter",
+                "public class Annotated {",
+                "  @SerializedName(value = \"renamed\", alternate = {\"alt\"}) public int a;",
+                "  @Expose(serialize = false) public int b;",
+                "  @Since(2) public int c;",
+                "  @Until(2) public int d;",
+                "  public transient int e;",
+                "  public static int f;",
+                "  @JsonAdapter(UpperCaseAdapter.class) public String g;",
+                "}"),
+            source(
+                "UpperCaseAdapter",
+                "public class UpperCaseAdapter extends com.google.gson.TypeAdapter<String> {",
+                "  @Override public void write(com.google.gson.stream.JsonWriter out, String s)",
+                "      throws java.io.IOException {",
+                "    out.value(s.toUpperCase(java.util.Locale.ROOT));",
+                "  }",
+                "  @Override public String read(com.google.gson.stream.JsonReader in)",
+                "      throws java.io.IOException {",
+                "    return in.nextString().toUpperCase(java.util.Locale.ROOT);",
+                "  }",
+                "}"));
+    Class<?> annotatedClass = compilation.loadClass("test.Annotated");
+    Object value = annotatedClass.getConstructor().newInstance();
+    for (String name : Arrays.asList("a", "b", "c", "d", "e")) {
+      annotatedClass.getDeclaredField(name).setInt(value, 1);
+    }
+    annotatedClass.getDeclaredField("g").set(value, "g");
+
+    Gson gson = compilation.createGson(new GsonBuilder());
+    assertThat(gson.getAdapter(annotatedClass).getClass().getSimpleName())
+        .isEqualTo("Annotated_GsonTypeAdapter");
+    String json = "{\"renamed\":1,\"b\":1,\"c\":1,\"d\":1,\"g\":\"G\"}";
+    assertThat(gson.toJson(value)).isEqualTo(json);
+    assertThat(new Gson().toJson(value)).isEqualTo(json);
+
+    Object read = gson.fromJson("{\"alt\":2,\"g\":\"x\",\"e\":3}", annotatedClass);
+    assertThat(annotatedClass.getDeclaredField("a").get(read)).isEqualTo(2);
+    assertThat(annotatedClass.getDeclaredField("g").get(read)).isEqualTo("X");
+    assertThat(annotatedClass.getDeclaredField("e").get(read)).isEqualTo(0);
+
+    Gson versioned = compilation.createGson(new GsonBuilder().setVersion(1));
+    assertThat(versioned.toJson(value)).isEqualTo("{\"renamed\":1,\"b\":1,\"d\":1,\"g\":\"G\"}");
+
+    Gson exposeOnly =
+        compilation.createGson(new GsonBuilder().excludeFieldsWithoutExposeAnnotation());
+    assertThat(exposeOnly.toJson(value)).isEqualTo("{}");
+    read = exposeOnly.fromJson("{\"b\":4}", annotatedClass);
+    assertThat(annotatedClass.getDeclaredField("b").get(read)).isEqualTo(4);
+  }
+
+  @Test
+  public void testFallbackToReflection() throws Exception {
+    Compilation compilation =
+        compileSuccessfully(
+            source(
+                "Fallback",
+                "@com.google.gson.codegen.GenerateTypeAdapter",
+                "public class Fallback {",
+                "  public int someValue;",
+                "  public transient int excluded;",
+                "}"));
+    Class<?> fallbackClass = compilation.loadClass("test.Fallback");
+
+    Gson gson = compilation.createGson(new GsonBuilder());
+    assertThat(gson.getAdapter(fallbackClass).getClass().getSimpleName())
+        .isEqualTo("Fallback_GsonTypeAdapter");
+
+    // Naming policy requires reflection
+    gson =
+        compilation.createGson(
+            new GsonBuilder().setFieldNamingPolicy(FieldNamingPolicy.UPPER_CAMEL_CASE));
+    assertThat(gson.getAdapter(fallbackClass).getClass().getSimpleName())
+        .isNotEqualTo("Fallback_GsonTypeAdapter");
+    assertThat(gson.toJson(fallbackClass.getConstructor().newInstance()))
+        .isEqualTo("{\"SomeValue\":0}");
+
+    // Transient field is included, but cannot be accessed by the generated adapter
+    gson = compilation.createGson(new GsonBuilder().excludeFieldsWithModifiers(Modifier.STATIC));
+    assertThat(gson.getAdapter(fallbackClass).getClass().getSimpleName())
+        .isNotEqualTo("Fallback_GsonTypeAdapter");
+    assertThat(gson.toJson(fallbackClass.getConstructor().newInstance()))
+        .isEqualTo("{\"someValue\":0,\"excluded\":0}");
+  }
+
+  @Test
+  public void testInheritanceAndGenerics() throws Exception {
+    // Hidden superclass field with different JSON name
+    Compilation compilation =
+        compileSuccessfully(
+            source(
+                "Base",
+                "public class Base<T> {",
+                "  public T value;",
+                "  @com.google.gson.annotations.SerializedName(\"baseId\") public int id;",
+                "}"),
+            source(
+                "Derived",
+                "@com.google.gson.codegen.GenerateTypeAdapter",
+                "public class Derived extends Base<java.util.Map<String, ? extends Number>> {",
+                "  public int id;",
+                "  public int[][] matrix;",
+                "  public Derived self;",
+                "}"));
+    Class<?> derivedClass = compilation.loadClass("test.Derived");
+    Gson gson = compilation.createGson(new GsonBuilder());
+    String json2 = "{\"id\":1,\"matrix\":[[1,2]],\"value\":{\"a\":1.5},\"baseId\":2}";
+    Object derived = gson.fromJson(json2, derivedClass);
+    Field baseId = compilation.loadClass("test.Base").getDeclaredField("id");
+    assertThat(baseId.get(derived)).isEqualTo(2);
+    assertThat(derivedClass.getDeclaredField("id").get(derived)).isEqualTo(1);
+    // Type variable of the superclass is resolved to Map<String, ? extends Number>, so the value
+    // is read as Number instead of Double
+    Map<?, ?> map = (Map<?, ?>) derivedClass.getField("value").get(derived);
+    assertThat(map.get("a")).isInstanceOf(Number.class);
+    assertThat(map.get("a")).isNotInstanceOf(Double.class);
+    assertThat(((Number) map.get("a")).doubleValue()).isEqualTo(1.5);
+
+    // Direct self reference is skipped like by the reflection-based adapter
+    derivedClass.getDeclaredField("self").set(derived, derived);
+    assertThat(gson.toJson(derived)).isEqualTo(json2);
+    assertThat(new Gson().toJson(derived)).isEqualTo(json2);
+  }
+
+  @Test
+  public void testErrors() throws Exception {
+    compileWithError(
+        "Field p is not accessible from the generated type adapter",
+        source(
+            "A",
+            "@com.google.gson.codegen.GenerateTypeAdapter",
+            "class A {",
+            "  private int p;",
+            "}"));
+    compileWithError(
+        "Field f must not be final",
+        source(
+            "A",
+            "@com.google.gson.codegen.GenerateTypeAdapter",
+            "class A {",
+            "  final int f = 1;",
+            "}"));
+    compileWithError(
+        "@GenerateTypeAdapter class must not be generic",
+        source("A", "@com.google.gson.codegen.GenerateTypeAdapter", "class A<T> {", "}"));
+    compileWithError(
+        "@GenerateTypeAdapter class must not be abstract",
+        source("A", "@com.google.gson.codegen.GenerateTypeAdapter", "abstract class A {", "}"));
+    compileWithError(
+        "@GenerateTypeAdapter class must be a top-level or static nested class",
+        source("A", "class A {", "  @com.google.gson.codegen.GenerateTypeAdapter class B {}", "}"));
+    compileWithError(
+        "@GenerateTypeAdapter class must have a non-private no-args constructor",
+        source(
+            "A",
+            "@com.google.gson.codegen.GenerateTypeAdapter",
+            "class A {",
+            "  A(int i) {}",
+            "}"));
+    compileWithError(
+        "@GenerateTypeAdapter can only be used on classes",
+        source("A", "@com.google.gson.codegen.GenerateTypeAdapter", "interface A {", "}"));
+    compileWithError(
+        "Field b has the same JSON name 'a' as field A.a",
+        source(
+            "A",
+            "@com.google.gson.codegen.GenerateTypeAdapter",
+            "class A {",
+            "  int a;",
+            "  @com.google.gson.annotations.SerializedName(\"a\") int b;",
+            "}"));
+    compileWithError(
+        "Invalid @JsonAdapter for field s: class java.lang.String is not a TypeAdapter,"
+            + " TypeAdapterFactory, JsonSerializer or JsonDeserializer",
+        source(
+            "A",
+            "@com.google.gson.codegen.GenerateTypeAdapter",
+            "class A {",
+            "  @com.google.gson.annotations.JsonAdapter(String.class) String s;",
+            "}"));
+  }
+
+  @Test
+  public void testMultiplePackages() throws Exception {
+    Source first =
+        new Source(
+            "a.First",
+            "package a; @com.google.gson.codegen.GenerateTypeAdapter public class First {}");
+    Source second =
+        new Source(
+            "b.Second",
+            "package b; @com.google.gson.codegen.GenerateTypeAdapter public class Second {}");
+    Compilation compilation = compile(first, second);
+    assertThat(compilation.success).isFalse();
+    assertThat(compilation.errors)
+        .contains(
+            "@GenerateTypeAdapter classes are in multiple packages [a, b], the name of the type"
+                + " adapter factory has to be specified with -Agson.codegen.factory=...");
+
+    compilation =
+        compile(Collections.singletonList("-Agson.codegen.factory=c.Factory"), first, second);
+    assertThat(compilation.errors).isEmpty();
+    TypeAdapterFactory factory =
+        (TypeAdapterFactory) compilation.loadClass("c.Factory").getConstructor().newInstance();
+    Gson gson = new GsonBuilder().registerTypeAdapterFactory(factory).create();
+    assertThat(gson.getAdapter(compilation.loadClass("b.Second")).getClass().getName())
+        .isEqualTo("b.Second_GsonTypeAdapter");
+  }
+
+  @Test
+  public void testGeneratedSource() throws Exception {
+    Path sourceDir = temporaryFolder.newFolder().toPath();
+    compile(Arrays.asList("-s", sourceDir.toString()), POINT);
+    String adapterSource =
+        new String(
+            Files.readAllBytes(sourceDir.resolve("test/Point_GsonTypeAdapter.java")),
+            StandardCharsets.UTF_8);
+    // Fields are read and written directly
+    assertThat(adapterSource).contains("value.x = fieldValue0;");
+    assertThat(adapterSource).contains("writeAdapter1.write(out, value.y);");
+    assertThat(adapterSource).doesNotContain("java.lang.reflect.Field");
+  }
+}
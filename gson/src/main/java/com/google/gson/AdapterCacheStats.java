@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson;
+
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Snapshot of the statistics of the type adapter cache of a {@link Gson} instance. The counters are
+ * cumulative since creation of the {@code Gson} instance. Because they are updated concurrently,
+ * the values of a snapshot are not necessarily consistent with each other.
+ *
+ * @see Gson#getAdapterCacheStats()
+ * @since $next-version$
+ */
+public final class AdapterCacheStats {
+  private final long hitCount;
+  private final long missCount;
+  private final long waitCount;
+  private final long duplicateBuildCount;
+
+  AdapterCacheStats(long hitCount, long missCount, long waitCount, long duplicateBuildCount) {
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+    this.waitCount = waitCount;
+    this.duplicateBuildCount = duplicateBuildCount;
+  }
+
+  /**
+   * Returns the number of {@link Gson#getAdapter(TypeToken)} calls which returned an adapter from
+   * the cache.
+   */
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Returns the number of {@link Gson#getAdapter(TypeToken)} calls for which the adapter was not
+   * cached yet. This includes calls which waited for another thread creating the adapter, and
+   * recursive calls for types whose adapter is currently being created.
+   */
+  public long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Returns the number of times a {@link Gson#getAdapter(TypeToken)} call waited for another thread
+   * to finish creating the adapter for the same type.
+   */
+  public long getWaitCount() {
+    return waitCount;
+  }
+
+  /**
+   * Returns the number of adapters which were created although another thread was creating the
+   * adapter for the same type concurrently. This happens when waiting for the other thread could
+   * lead to a deadlock, and when the other thread did not finish within the short time a thread
+   * waits for it, see {@link Gson#getAdapter(TypeToken)}.
+   */
+  public long getDuplicateBuildCount() {
+    return duplicateBuildCount;
+  }
+
+  @Override
+  public String toString() {
+    return "{hits:"
+        + hitCount
+        + ",misses:"
+        + missCount
+        + ",waits:"
+        + waitCount
+        + ",duplicateBuilds:"
+        + duplicateBuildCount
+        + "}";
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson;
+
+/**
+ * State of a {@link JsonObject} or {@link JsonArray} which only lazily read and frozen containers
+ * need. It is kept in a separate object so that other containers only have a {@code null} reference
+ * to it.
+ */
+final class ContainerState {
+  /** Index from which the content is read on first access; {@code null} once it has been read */
+  LazyJsonIndex lazyIndex;
+
+  int lazyOrdinal;
+
+  /** Cached hash code of a frozen container; 0 if not computed yet */
+  int hashCode;
+
+  ContainerState() {}
+
+  ContainerState(LazyJsonIndex lazyIndex, int lazyOrdinal) {
+    this.lazyIndex = lazyIndex;
+    this.lazyOrdinal = lazyOrdinal;
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson;
+
+/**
+ * Defines how Gson reads and writes the values of fields when it uses reflection to serialize and
+ * deserialize a class, that is, for classes without a registered or built-in {@link TypeAdapter}.
+ *
+ * @see GsonBuilder#setFieldAccessStrategy(FieldAccessStrategy)
+ * @since $next-version$
+ */
+public enum FieldAccessStrategy {
+  /**
+   * Accesses fields using {@link java.lang.reflect.Field#get(Object)} and {@link
+   * java.lang.reflect.Field#set(Object, Object)}, and their variants for primitive values. This is
+   * the default.
+   */
+  REFLECTION,
+
+  /**
+   * Accesses fields through small classes which Gson generates at runtime for each field, and which
+   * read and write the field directly, the same way compiled code does. This avoids the overhead of
+   * reflection, and values of primitive fields are read and written without boxing them. Generating
+   * the classes takes some time and memory when an adapter for a class is created.
+   *
+   * <p>This requires Java 15 or newer. Gson falls back to {@link #REFLECTION} if it cannot generate
+   * an accessor for a field, for example for {@code static} fields, fields which cannot be made
+   * accessible, or fields of classes in named modules. {@code final} fields are always written
+   * using reflection.
+   */
+  GENERATED_ACCESSORS
+}
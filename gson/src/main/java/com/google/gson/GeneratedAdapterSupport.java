@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson;
+
+import com.google.gson.annotations.Expose;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.annotations.Since;
+import com.google.gson.annotations.Until;
+import com.google.gson.internal.GsonTypes;
+import com.google.gson.internal.bind.JsonAdapterAnnotationTypeAdapterFactory;
+import com.google.gson.internal.bind.TypeAdapterRuntimeTypeWrapper;
+import com.google.gson.reflect.TypeToken;
+import java.lang.reflect.Type;
+import java.util.Objects;
+
+/**
+ * Support methods for type adapters generated at compile time, such as the ones generated by the
+ * {@code gson-codegen} annotation processor. Because generated adapters do not use reflection they
+ * describe the fields of a class themselves, and use this class to apply the configuration of a
+ * {@link Gson} instance to them in the same way as the reflection-based adapter does.
+ *
+ * <p>This class is not intended to be used by hand-written code.
+ *
+ * @since $next-version$
+ */
+public final class GeneratedAdapterSupport {
+  private GeneratedAdapterSupport() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Returns whether a generated adapter can be used with the configuration of the Gson instance.
+   * This is not the case if an {@link ExclusionStrategy} has been registered, or if a {@link
+   * FieldNamingStrategy} other than {@link FieldNamingPolicy#IDENTITY} is used and {@code
+   * usesFieldNames} is {@code true}, because these require the {@link java.lang.reflect.Field
+   * Field}. In that case the reflection-based adapter should be used instead.
+   *
+   * @param usesFieldNames whether the class has fields without {@link
+   *     com.google.gson.annotations.SerializedName SerializedName} annotation, whose JSON name is
+   *     therefore determined by the field naming strategy.
+   */
+  public static boolean canUseGeneratedAdapter(Gson gson, boolean usesFieldNames) {
+    return !gson.excluder.hasExclusionStrategies()
+        && (!usesFieldNames || gson.fieldNamingStrategy == FieldNamingPolicy.IDENTITY);
+  }
+
+  /**
+   * Returns whether the Gson instance excludes the described field, for serialization if {@code
+   * serialize} is {@code true}, otherwise for deserialization.
+   *
+   * @param fieldType the raw type of the field.
+   * @param modifiers the modifiers of the field, as defined by {@link java.lang.reflect.Modifier}.
+   * @param since the value of the {@link Since} annotation of the field, or {@code NaN} if it has
+   *     none.
+   * @param until the value of the {@link Until} annotation of the field, or {@code NaN} if it has
+   *     none.
+   * @param exposed whether the field has an {@link Expose} annotation which includes it for
+   *     serialization respectively deserialization.
+   */
+  public static boolean excludeField(
+      Gson gson,
+      Class<?> fieldType,
+      int modifiers,
+      double since,
+      double until,
+      boolean exposed,
+      boolean serialize) {
+    return gson.excluder.excludeField(fieldType, modifiers, since, until, exposed, serialize);
+  }
+
+  /**
+   * Returns an adapter which serializes values with the adapter for their runtime type if it is
+   * more specific than the declared type of the field, and otherwise uses {@code delegate}. This is
+   * used for all fields which have no {@link JsonAdapter} annotation.
+   */
+  public static <T> TypeAdapter<T> runtimeTypeAdapter(
+      Gson gson, TypeAdapter<T> delegate, Type declaredType) {
+    return new TypeAdapterRuntimeTypeWrapper<>(
+        Objects.requireNonNull(gson), Objects.requireNonNull(delegate), declaredType);
+  }
+
+  /**
+   * Returns the adapter for an instance of the class specified by the {@link JsonAdapter}
+   * annotation of a field, or {@code null} if it is a {@link TypeAdapterFactory} which does not
+   * support the type of the field. In that case the adapter returned by {@link
+   * Gson#getAdapter(TypeToken)} should be used, like for a field without annotation.
+   */
+  public static TypeAdapter<?> jsonAdapter(
+      Gson gson, TypeToken<?> fieldType, Object adapter, boolean nullSafe) {
+    return JsonAdapterAnnotationTypeAdapterFactory.getTypeAdapter(
+        Objects.requireNonNull(gson),
+        Objects.requireNonNull(fieldType),
+        Objects.requireNonNull(adapter),
+        nullSafe,
+        false);
+  }
+
+  /** Returns the wildcard type {@code ? extends bound}. */
+  public static Type subtypeOf(Type bound) {
+    return GsonTypes.subtypeOf(bound);
+  }
+
+  /** Returns the wildcard type {@code ? super bound}. */
+  public static Type supertypeOf(Type bound) {
+    return GsonTypes.supertypeOf(bound);
+  }
+}
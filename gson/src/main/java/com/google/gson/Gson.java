@@ -23,6 +23,7 @@ import com.google.gson.internal.GsonBuildConfig;
 import com.google.gson.internal.LazilyParsedNumber;
 import com.google.gson.internal.Primitives;
 import com.google.gson.internal.Streams;
+import com.google.gson.internal.StripedCounter;
 import com.google.gson.internal.bind.ArrayTypeAdapter;
 import com.google.gson.internal.bind.CollectionTypeAdapterFactory;
 import com.google.gson.internal.bind.DefaultDateTypeAdapter;
@@ -37,12 +38,18 @@ import com.google.gson.internal.bind.SerializationDelegatingTypeAdapter;
 import com.google.gson.internal.bind.TypeAdapters;
 import com.google.gson.internal.SqlTypesSupport;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonProjection;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 import com.google.gson.stream.MalformedJsonException;
+import com.google.gson.stream.StringCache;
+import com.google.gson.stream.Utf8JsonReader;
+import com.google.gson.stream.Utf8JsonWriter;
 import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
@@ -50,8 +57,14 @@ import java.io.Writer;
 import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.text.DateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -59,6 +72,9 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicLongArray;
 
@@ -164,27 +180,52 @@ public final class Gson {
   static final ToNumberStrategy DEFAULT_OBJECT_TO_NUMBER_STRATEGY = ToNumberPolicy.DOUBLE;
   static final ToNumberStrategy DEFAULT_NUMBER_TO_NUMBER_STRATEGY =
       ToNumberPolicy.LAZILY_PARSED_NUMBER;
+  static final FieldAccessStrategy DEFAULT_FIELD_ACCESS_STRATEGY = FieldAccessStrategy.REFLECTION;
+  static final int DEFAULT_ADAPTER_GENERATION_THRESHOLD = -1;
+  static final int DEFAULT_READER_BUFFER_SIZE = 1024;
+  static final int DEFAULT_STRING_CACHE_CAPACITY = 0;
 
   private static final String JSON_NON_EXECUTABLE_PREFIX = ")]}'\n";
 
   /**
-   * This thread local guards against reentrant calls to {@link #getAdapter(TypeToken)}. In certain
-   * object graphs, creating an adapter for a type may recursively require an adapter for the same
-   * type! Without intervention, the recursive lookup would stack overflow. We cheat by returning a
-   * proxy type adapter, {@link FutureTypeAdapter}, which is wired up once the initial adapter has
-   * been created.
-   *
-   * <p>The map stores the type adapters for ongoing {@code getAdapter} calls, with the type token
-   * provided to {@code getAdapter} as key and either {@code FutureTypeAdapter} or a regular {@code
-   * TypeAdapter} as value.
+   * Maximum time a thread waits for another thread to create an adapter, before creating the
+   * adapter itself. The other thread might directly or indirectly be waiting for the current
+   * thread, for example while initializing a class, so waiting without a limit could deadlock.
    */
-  @SuppressWarnings("ThreadLocalUsage")
-  private final ThreadLocal<Map<TypeToken<?>, TypeAdapter<?>>> threadLocalAdapterResults =
-      new ThreadLocal<>();
+  private static final long RESOLUTION_WAIT_TIMEOUT_MILLIS = 100;
+
+  /**
+   * The adapter resolutions which are currently in progress, with the thread performing them as
+   * key. This guards against reentrant calls to {@link #getAdapter(TypeToken)}. In certain object
+   * graphs, creating an adapter for a type may recursively require an adapter for the same type!
+   * Without intervention, the recursive lookup would stack overflow. We cheat by returning a proxy
+   * type adapter, {@link FutureTypeAdapter}, which is wired up once the initial adapter has been
+   * created.
+   *
+   * <p>A map keyed by thread is used instead of a {@code ThreadLocal} because the entries only
+   * exist while a thread creates adapters, and should not be kept for the lifetime of the thread.
+   */
+  private final ConcurrentMap<Thread, AdapterResolution> activeResolutions =
+      new ConcurrentHashMap<>();
+
+  /**
+   * The types whose adapter is currently being created, with the resolution creating it as value.
+   * Entries are added with {@link ConcurrentMap#putIfAbsent}, so only one thread creates the
+   * adapter for a type; other threads wait until the adapter has been published to {@link
+   * #typeTokenCache}.
+   */
+  private final ConcurrentMap<TypeToken<?>, AdapterResolution> pendingAdapters =
+      new ConcurrentHashMap<>();
 
   private final ConcurrentMap<TypeToken<?>, TypeAdapter<?>> typeTokenCache =
       new ConcurrentHashMap<>();
 
+  // Striped to keep contention low on the cache hit path; the other counters are rarely updated
+  private final StripedCounter adapterCacheHits = new StripedCounter();
+  private final AtomicLong adapterCacheMisses = new AtomicLong();
+  private final AtomicLong adapterWaits = new AtomicLong();
+  private final AtomicLong adapterDuplicateBuilds = new AtomicLong();
+
   private final ConstructorConstructor constructorConstructor;
   private final JsonAdapterAnnotationTypeAdapterFactory jsonAdapterFactory;
 
@@ -210,6 +251,13 @@ public final class Gson {
   final ToNumberStrategy objectToNumberStrategy;
   final ToNumberStrategy numberToNumberStrategy;
   final List<ReflectionAccessFilter> reflectionFilters;
+  final FieldAccessStrategy fieldAccessStrategy;
+  final int adapterGenerationThreshold;
+  final int readerBufferSize;
+  final int stringCacheCapacity;
+
+  /** Cache for the strings read by each thread; {@code null} if strings are not cached. */
+  private final ThreadLocal<StringCache> stringCaches;
 
   /**
    * Constructs a Gson object with default configuration. The default configuration has the
@@ -272,7 +320,11 @@ public final class Gson {
         Collections.<TypeAdapterFactory>emptyList(),
         DEFAULT_OBJECT_TO_NUMBER_STRATEGY,
         DEFAULT_NUMBER_TO_NUMBER_STRATEGY,
-        Collections.<ReflectionAccessFilter>emptyList());
+        Collections.<ReflectionAccessFilter>emptyList(),
+        DEFAULT_FIELD_ACCESS_STRATEGY,
+        DEFAULT_ADAPTER_GENERATION_THRESHOLD,
+        DEFAULT_READER_BUFFER_SIZE,
+        DEFAULT_STRING_CACHE_CAPACITY);
   }
 
   Gson(
@@ -296,7 +348,11 @@ public final class Gson {
       List<TypeAdapterFactory> factoriesToBeAdded,
       ToNumberStrategy objectToNumberStrategy,
       ToNumberStrategy numberToNumberStrategy,
-      List<ReflectionAccessFilter> reflectionFilters) {
+      List<ReflectionAccessFilter> reflectionFilters,
+      FieldAccessStrategy fieldAccessStrategy,
+      int adapterGenerationThreshold,
+      int readerBufferSize,
+      final int stringCacheCapacity) {
     this.excluder = excluder;
     this.fieldNamingStrategy = fieldNamingStrategy;
     this.instanceCreators = instanceCreators;
@@ -319,6 +375,21 @@ public final class Gson {
     this.objectToNumberStrategy = objectToNumberStrategy;
     this.numberToNumberStrategy = numberToNumberStrategy;
     this.reflectionFilters = reflectionFilters;
+    this.fieldAccessStrategy = fieldAccessStrategy;
+    this.adapterGenerationThreshold = adapterGenerationThreshold;
+    this.readerBufferSize = readerBufferSize;
+    this.stringCacheCapacity = stringCacheCapacity;
+    if (stringCacheCapacity > 0) {
+      stringCaches =
+          new ThreadLocal<StringCache>() {
+            @Override
+            protected StringCache initialValue() {
+              return new StringCache(stringCacheCapacity);
+            }
+          };
+    } else {
+      stringCaches = null;
+    }
 
     List<TypeAdapterFactory> factories = new ArrayList<>();
 
@@ -393,7 +464,9 @@ public final class Gson {
             fieldNamingStrategy,
             excluder,
             jsonAdapterFactory,
-            reflectionFilters));
+            reflectionFilters,
+            fieldAccessStrategy,
+            adapterGenerationThreshold));
 
     this.factories = Collections.unmodifiableList(factories);
   }
@@ -447,70 +520,12 @@ public final class Gson {
     return safeJsonToHtmlTranslation;
   }
 
-  private TypeAdapter<Number> doubleAdapter(boolean serializeSpecialFloatingPointValues) {
-    if (serializeSpecialFloatingPointValues) {
-      return TypeAdapters.DOUBLE;
-    }
-    return new TypeAdapter<Number>() {
-      @Override
-      public Double read(JsonReader in) throws IOException {
-        if (in.peek() == JsonToken.NULL) {
-          in.nextNull();
-          return null;
-        }
-        return in.nextDouble();
-      }
-
-      @Override
-      public void write(JsonWriter out, Number value) throws IOException {
-        if (value == null) {
-          out.nullValue();
-          return;
-        }
-        double doubleValue = value.doubleValue();
-        checkValidFloatingPoint(doubleValue);
-        out.value(doubleValue);
-      }
-    };
-  }
-
-  private TypeAdapter<Number> floatAdapter(boolean serializeSpecialFloatingPointValues) {
-    if (serializeSpecialFloatingPointValues) {
-      return TypeAdapters.FLOAT;
-    }
-    return new TypeAdapter<Number>() {
-      @Override
-      public Float read(JsonReader in) throws IOException {
-        if (in.peek() == JsonToken.NULL) {
-          in.nextNull();
-          return null;
-        }
-        return (float) in.nextDouble();
-      }
-
-      @Override
-      public void write(JsonWriter out, Number value) throws IOException {
-        if (value == null) {
-          out.nullValue();
-          return;
-        }
-        float floatValue = value.floatValue();
-        checkValidFloatingPoint(floatValue);
-        // For backward compatibility don't call `JsonWriter.value(float)` because that method has
-        // been newly added and not all custom JsonWriter implementations might override it yet
-        Number floatNumber = value instanceof Float ? value : floatValue;
-        out.value(floatNumber);
-      }
-    };
+  private static TypeAdapter<Number> doubleAdapter(boolean serializeSpecialFloatingPointValues) {
+    return serializeSpecialFloatingPointValues ? TypeAdapters.DOUBLE : TypeAdapters.STRICT_DOUBLE;
   }
 
-  static void checkValidFloatingPoint(double value) {
-    if (Double.isNaN(value) || Double.isInfinite(value)) {
-      throw new IllegalArgumentException(
-          value
-              + " is not a valid double value as per JSON specification. To override this"
-              + " behavior, use GsonBuilder.serializeSpecialFloatingPointValues() method.");
-    }
+  private static TypeAdapter<Number> floatAdapter(boolean serializeSpecialFloatingPointValues) {
+    return serializeSpecialFloatingPointValues ? TypeAdapters.FLOAT : TypeAdapters.STRICT_FLOAT;
   }
 
   private static TypeAdapter<Number> longAdapter(LongSerializationPolicy longSerializationPolicy) {
@@ -588,54 +603,105 @@ public final class Gson {
    * Returns the type adapter for {@code type}.
    *
    * <p>When calling this method concurrently from multiple threads and requesting an adapter for
-   * the same type this method may return different {@code TypeAdapter} instances. However, that
-   * should normally not be an issue because {@code TypeAdapter} implementations are supposed to be
-   * stateless.
+   * the same type, normally only one thread creates the adapter and the other threads wait for it.
+   * However, to avoid deadlocks a thread does not wait if it is itself creating an adapter for a
+   * different type, for example when called by a {@link TypeAdapterFactory}, and it only waits for
+   * a short time. Otherwise it creates the adapter as well, so this method may return different
+   * {@code TypeAdapter} instances in that case. That should normally not be an issue because {@code
+   * TypeAdapter} implementations are supposed to be stateless.
    *
    * @throws IllegalArgumentException if this Gson instance cannot serialize and deserialize {@code
    *     type}.
+   * @see #getAdapterCacheStats()
    */
   public <T> TypeAdapter<T> getAdapter(TypeToken<T> type) {
     Objects.requireNonNull(type, "type must not be null");
     TypeAdapter<?> cached = typeTokenCache.get(type);
     if (cached != null) {
+      adapterCacheHits.increment();
       @SuppressWarnings("unchecked")
       TypeAdapter<T> adapter = (TypeAdapter<T>) cached;
       return adapter;
     }
+    adapterCacheMisses.incrementAndGet();
 
-    Map<TypeToken<?>, TypeAdapter<?>> threadCalls = threadLocalAdapterResults.get();
-    boolean isInitialAdapterRequest = false;
-    if (threadCalls == null) {
-      threadCalls = new HashMap<>();
-      threadLocalAdapterResults.set(threadCalls);
-      isInitialAdapterRequest = true;
+    Thread currentThread = Thread.currentThread();
+    AdapterResolution resolution = activeResolutions.get(currentThread);
+    boolean isInitialAdapterRequest = resolution == null;
+    if (isInitialAdapterRequest) {
+      resolution = new AdapterResolution();
+      AdapterResolution pending;
+      while ((pending = pendingAdapters.putIfAbsent(type, resolution)) != null) {
+        // This thread is not creating any adapters yet, but the other thread might still be waiting
+        // for it outside of getAdapter, so only wait for a limited time
+        adapterWaits.incrementAndGet();
+        if (!pending.await()) {
+          // Create the adapter without waiting any longer
+          adapterDuplicateBuilds.incrementAndGet();
+          break;
+        }
+        // Adapter is not cached if creating it failed; then try to create it in this thread
+        @SuppressWarnings("unchecked")
+        TypeAdapter<T> adapter = (TypeAdapter<T>) typeTokenCache.get(type);
+        if (adapter != null) {
+          return adapter;
+        }
+      }
+      if (pending == null) {
+        resolution.ownedTypes.add(type);
+      }
     } else {
       // the key and value type parameters always agree
       @SuppressWarnings("unchecked")
-      TypeAdapter<T> ongoingCall = (TypeAdapter<T>) threadCalls.get(type);
+      TypeAdapter<T> ongoingCall = (TypeAdapter<T>) resolution.adapters.get(type);
       if (ongoingCall != null) {
         return ongoingCall;
       }
+
+      if (pendingAdapters.putIfAbsent(type, resolution) == null) {
+        resolution.ownedTypes.add(type);
+      } else {
+        // Another thread is creating the adapter, but it might itself be waiting for an adapter
+        // this thread is creating, so don't wait for it
+        adapterDuplicateBuilds.incrementAndGet();
+      }
     }
 
     TypeAdapter<T> candidate = null;
+    if (isInitialAdapterRequest) {
+      activeResolutions.put(currentThread, resolution);
+    }
     try {
       FutureTypeAdapter<T> call = new FutureTypeAdapter<>();
-      threadCalls.put(type, call);
+      resolution.adapters.put(type, call);
 
       for (TypeAdapterFactory factory : factories) {
         candidate = factory.create(this, type);
         if (candidate != null) {
           call.setDelegate(candidate);
           // Replace future adapter with actual adapter
-          threadCalls.put(type, candidate);
+          resolution.adapters.put(type, candidate);
           break;
         }
       }
+
+      if (isInitialAdapterRequest && candidate != null) {
+        /*
+         * Publish resolved adapters to all threads
+         * Can only do this for the initial request because cyclic dependency TypeA -> TypeB -> TypeA
+         * would otherwise publish adapter for TypeB which uses not yet resolved adapter for TypeA
+         * See https://github.com/google/gson/issues/625
+         */
+        typeTokenCache.putAll(resolution.adapters);
+      }
     } finally {
       if (isInitialAdapterRequest) {
-        threadLocalAdapterResults.remove();
+        activeResolutions.remove(currentThread);
+        for (TypeToken<?> ownedType : resolution.ownedTypes) {
+          pendingAdapters.remove(ownedType, resolution);
+        }
+        // Wake up waiting threads after the adapters have been published
+        resolution.finished.countDown();
       }
     }
 
@@ -643,16 +709,6 @@ public final class Gson {
       throw new IllegalArgumentException(
           "GSON (" + GsonBuildConfig.VERSION + ") cannot handle " + type);
     }
-
-    if (isInitialAdapterRequest) {
-      /*
-       * Publish resolved adapters to all threads
-       * Can only do this for the initial request because cyclic dependency TypeA -> TypeB -> TypeA
-       * would otherwise publish adapter for TypeB which uses not yet resolved adapter for TypeA
-       * See https://github.com/google/gson/issues/625
-       */
-      typeTokenCache.putAll(threadCalls);
-    }
     return candidate;
   }
 
@@ -666,6 +722,20 @@ public final class Gson {
     return getAdapter(TypeToken.get(type));
   }
 
+  /**
+   * Returns a snapshot of the statistics of the type adapter cache used by {@link
+   * #getAdapter(TypeToken)}.
+   *
+   * @since $next-version$
+   */
+  public AdapterCacheStats getAdapterCacheStats() {
+    return new AdapterCacheStats(
+        adapterCacheHits.sum(),
+        adapterCacheMisses.get(),
+        adapterWaits.get(),
+        adapterDuplicateBuilds.get());
+  }
+
   /**
    * This method is used to get an alternate type adapter for the specified type. This is used to
    * access a type adapter that is overridden by a {@link TypeAdapterFactory} that you may have
@@ -902,6 +972,73 @@ public final class Gson {
     }
   }
 
+  /**
+   * This method serializes the specified object into its equivalent JSON representation and writes
+   * it as UTF-8 encoded bytes to the output stream. This method should be used when the specified
+   * object is not a generic type. If the object is of generic type, use {@link #toJson(Object,
+   * Type, OutputStream)} instead.
+   *
+   * <p>The characters are encoded directly while the JSON is written, see {@link Utf8JsonWriter}.
+   * The output stream is flushed, but not closed, after the JSON has been written.
+   *
+   * @param src the object for which JSON representation is to be created
+   * @param out output stream to which the JSON representation needs to be written
+   * @throws JsonIOException if there was a problem writing to the output stream
+   * @since $next-version$
+   * @see #toJsonBytes(Object)
+   */
+  public void toJson(Object src, OutputStream out) throws JsonIOException {
+    if (src != null) {
+      toJson(src, src.getClass(), out);
+    } else {
+      toJson(JsonNull.INSTANCE, out);
+    }
+  }
+
+  /**
+   * This method serializes the specified object, including those of generic types, into its
+   * equivalent JSON representation and writes it as UTF-8 encoded bytes to the output stream. For
+   * non-generic objects, use {@link #toJson(Object, OutputStream)} instead.
+   *
+   * <p>The output stream is flushed, but not closed, after the JSON has been written.
+   *
+   * @param src the object for which JSON representation is to be created
+   * @param typeOfSrc The specific genericized type of src. You can obtain this type by using the
+   *     {@link com.google.gson.reflect.TypeToken} class.
+   * @param out output stream to which the JSON representation of src needs to be written
+   * @throws JsonIOException if there was a problem writing to the output stream
+   * @since $next-version$
+   * @see #toJsonBytes(Object, Type)
+   */
+  public void toJson(Object src, Type typeOfSrc, OutputStream out) throws JsonIOException {
+    try {
+      JsonWriter jsonWriter = newJsonWriter(out);
+      toJson(src, typeOfSrc, jsonWriter);
+      jsonWriter.flush();
+    } catch (IOException e) {
+      throw new JsonIOException(e);
+    }
+  }
+
+  /**
+   * Writes out the equivalent JSON for a tree of {@link JsonElement}s as UTF-8 encoded bytes. The
+   * output stream is flushed, but not closed, after the JSON has been written.
+   *
+   * @param jsonElement root of a tree of {@link JsonElement}s
+   * @param out output stream to which the JSON representation needs to be written
+   * @throws JsonIOException if there was a problem writing to the output stream
+   * @since $next-version$
+   */
+  public void toJson(JsonElement jsonElement, OutputStream out) throws JsonIOException {
+    try {
+      JsonWriter jsonWriter = newJsonWriter(out);
+      toJson(jsonElement, jsonWriter);
+      jsonWriter.flush();
+    } catch (IOException e) {
+      throw new JsonIOException(e);
+    }
+  }
+
   /**
    * Writes the JSON representation of {@code src} of type {@code typeOfSrc} to {@code writer}.
    *
@@ -1031,6 +1168,50 @@ public final class Gson {
     }
   }
 
+  /**
+   * This method serializes the specified object into its equivalent JSON representation as UTF-8
+   * encoded bytes. This is equivalent to {@code toJson(src).getBytes(UTF_8)}, but avoids creating
+   * the intermediate {@code String}. If the object is of generic type, use {@link
+   * #toJsonBytes(Object, Type)} instead.
+   *
+   * @param src the object for which JSON representation is to be created
+   * @return UTF-8 encoded JSON representation of {@code src}.
+   * @since $next-version$
+   * @see #toJson(Object)
+   */
+  public byte[] toJsonBytes(Object src) {
+    if (src == null) {
+      return toJsonBytes(JsonNull.INSTANCE, JsonElement.class);
+    }
+    return toJsonBytes(src, src.getClass());
+  }
+
+  /**
+   * This method serializes the specified object, including those of generic types, into its
+   * equivalent JSON representation as UTF-8 encoded bytes. For non-generic objects, use {@link
+   * #toJsonBytes(Object)} instead.
+   *
+   * @param src the object for which JSON representation is to be created
+   * @param typeOfSrc The specific genericized type of src. You can obtain this type by using the
+   *     {@link com.google.gson.reflect.TypeToken} class.
+   * @return UTF-8 encoded JSON representation of {@code src}.
+   * @since $next-version$
+   * @see #toJson(Object, Type)
+   */
+  public byte[] toJsonBytes(Object src, Type typeOfSrc) {
+    Utf8JsonWriter jsonWriter = new Utf8JsonWriter();
+    configureJsonWriter(jsonWriter);
+    toJson(src, typeOfSrc, jsonWriter);
+    byte[] bytes = jsonWriter.toByteArray();
+    if (generateNonExecutableJson) {
+      byte[] prefix = JSON_NON_EXECUTABLE_PREFIX.getBytes(StandardCharsets.UTF_8);
+      byte[] prefixed = Arrays.copyOf(prefix, prefix.length + bytes.length);
+      System.arraycopy(bytes, 0, prefixed, prefix.length, bytes.length);
+      bytes = prefixed;
+    }
+    return bytes;
+  }
+
   /**
    * Returns a new JSON writer configured for the settings on this Gson instance.
    *
@@ -1052,7 +1233,26 @@ public final class Gson {
     if (generateNonExecutableJson) {
       writer.write(JSON_NON_EXECUTABLE_PREFIX);
     }
-    JsonWriter jsonWriter = new JsonWriter(writer);
+    return configureJsonWriter(new JsonWriter(writer));
+  }
+
+  /**
+   * Returns a new JSON writer which writes UTF-8 encoded JSON data, configured for the settings on
+   * this Gson instance. The writer encodes the characters directly while writing, see {@link
+   * Utf8JsonWriter}.
+   *
+   * <p>The same settings as for {@link #newJsonWriter(Writer)} are considered.
+   *
+   * @since $next-version$
+   */
+  public JsonWriter newJsonWriter(OutputStream out) throws IOException {
+    if (generateNonExecutableJson) {
+      out.write(JSON_NON_EXECUTABLE_PREFIX.getBytes(StandardCharsets.UTF_8));
+    }
+    return configureJsonWriter(new Utf8JsonWriter(out));
+  }
+
+  private JsonWriter configureJsonWriter(JsonWriter jsonWriter) {
     jsonWriter.setFormattingStyle(formattingStyle);
     jsonWriter.setsafeJsonToHtmlTranslation(safeJsonToHtmlTranslation);
     jsonWriter.setStrictness(strictness == null ? Strictness.LEGACY_STRICT : strictness);
@@ -1070,11 +1270,32 @@ public final class Gson {
    *       GsonBuilder#setStrictness(Strictness) explicit strictness has been set} the created
    *       reader will have a strictness of {@link Strictness#LEGACY_STRICT}. Otherwise, the
    *       strictness of the {@code Gson} instance will be used for the created reader.
+   *   <li>{@link GsonBuilder#setReaderBufferSize(int)}
+   *   <li>{@link GsonBuilder#enableStringCache(int)}
    * </ul>
    */
   public JsonReader newJsonReader(Reader reader) {
-    JsonReader jsonReader = new JsonReader(reader);
+    return configureJsonReader(new JsonReader(reader, readerBufferSize));
+  }
+
+  /**
+   * Returns a new JSON reader for UTF-8 encoded JSON data, configured for the settings on this Gson
+   * instance. The reader parses the bytes of the stream directly, without decoding them to
+   * characters first, see {@link Utf8JsonReader}.
+   *
+   * <p>The same settings as for {@link #newJsonReader(Reader)} are considered.
+   *
+   * @since $next-version$
+   */
+  public JsonReader newJsonReader(InputStream in) {
+    return configureJsonReader(new Utf8JsonReader(in));
+  }
+
+  JsonReader configureJsonReader(JsonReader jsonReader) {
     jsonReader.setStrictness(strictness == null ? Strictness.LEGACY_STRICT : strictness);
+    if (stringCaches != null) {
+      jsonReader.setStringCache(stringCaches.get());
+    }
     return jsonReader;
   }
 
@@ -1262,6 +1483,261 @@ public final class Gson {
     return object;
   }
 
+  /**
+   * This method deserializes the UTF-8 encoded JSON read from the specified input stream into an
+   * object of the specified class. See {@link #fromJson(InputStream, TypeToken)} for details; this
+   * method is not suitable if the specified class is a generic type.
+   *
+   * @param <T> the type of the desired object
+   * @param json the input stream producing the UTF-8 encoded JSON from which the object is to be
+   *     deserialized
+   * @param classOfT the class of T
+   * @return an object of type T from the input stream. Returns {@code null} if {@code json} is at
+   *     EOF.
+   * @throws JsonIOException if there was a problem reading from the input stream
+   * @throws JsonSyntaxException if json is not a valid representation for an object of type
+   *     classOfT
+   * @since $next-version$
+   * @see #fromJson(Reader, Class)
+   * @see #fromJson(InputStream, TypeToken)
+   */
+  public <T> T fromJson(InputStream json, Class<T> classOfT)
+      throws JsonSyntaxException, JsonIOException {
+    T object = fromJson(json, TypeToken.get(classOfT));
+    return Primitives.wrap(classOfT).cast(object);
+  }
+
+  /**
+   * This method deserializes the UTF-8 encoded JSON read from the specified input stream into an
+   * object of the specified type. See {@link #fromJson(InputStream, TypeToken)} for details.
+   *
+   * <p>Since {@code Type} is not parameterized by T, this method is not type-safe and should be
+   * used carefully. If you are creating the {@code Type} from a {@link TypeToken}, prefer using
+   * {@link #fromJson(InputStream, TypeToken)} instead since its return type is based on the {@code
+   * TypeToken} and is therefore more type-safe.
+   *
+   * @param <T> the type of the desired object
+   * @param json the input stream producing the UTF-8 encoded JSON from which the object is to be
+   *     deserialized
+   * @param typeOfT The specific genericized type of src
+   * @return an object of type T from the input stream. Returns {@code null} if {@code json} is at
+   *     EOF.
+   * @throws JsonIOException if there was a problem reading from the input stream
+   * @throws JsonSyntaxException if json is not a valid representation for an object of type typeOfT
+   * @since $next-version$
+   * @see #fromJson(Reader, Type)
+   * @see #fromJson(InputStream, TypeToken)
+   */
+  @SuppressWarnings({"unchecked", "TypeParameterUnusedInFormals"})
+  public <T> T fromJson(InputStream json, Type typeOfT)
+      throws JsonIOException, JsonSyntaxException {
+    return (T) fromJson(json, TypeToken.get(typeOfT));
+  }
+
+  /**
+   * This method deserializes the UTF-8 encoded JSON read from the specified input stream into an
+   * object of the specified type. The bytes are parsed directly by a {@link Utf8JsonReader}, which
+   * avoids decoding the complete input with an {@link java.io.InputStreamReader InputStreamReader}
+   * first. Otherwise this method behaves like {@link #fromJson(Reader, TypeToken)}. The input
+   * stream is not closed.
+   *
+   * <p>An exception is thrown if the JSON data has multiple top-level JSON elements, or if there is
+   * trailing data. Use {@link #fromJson(JsonReader, TypeToken)} together with {@link
+   * #newJsonReader(InputStream)} if this behavior is not desired.
+   *
+   * @param <T> the type of the desired object
+   * @param json the input stream producing the UTF-8 encoded JSON from which the object is to be
+   *     deserialized
+   * @param typeOfT The specific genericized type of src. You should create an anonymous subclass of
+   *     {@code TypeToken} with the specific generic type arguments. For example, to get the type
+   *     for {@code Collection<Foo>}, you should use:
+   *     <pre>
+   * new TypeToken&lt;Collection&lt;Foo&gt;&gt;(){}
+   * </pre>
+   *
+   * @return an object of type T from the input stream. Returns {@code null} if {@code json} is at
+   *     EOF.
+   * @throws JsonIOException if there was a problem reading from the input stream
+   * @throws JsonSyntaxException if json is not a valid representation for an object of type of
+   *     typeOfT
+   * @since $next-version$
+   * @see #fromJson(Reader, TypeToken)
+   * @see #fromJson(byte[], TypeToken)
+   */
+  public <T> T fromJson(InputStream json, TypeToken<T> typeOfT)
+      throws JsonIOException, JsonSyntaxException {
+    JsonReader jsonReader = newJsonReader(json);
+    T object = fromJson(jsonReader, typeOfT);
+    assertFullConsumption(object, jsonReader);
+    return object;
+  }
+
+  /**
+   * This method deserializes the specified UTF-8 encoded JSON into an object of the specified
+   * class. See {@link #fromJson(byte[], TypeToken)} for details; this method is not suitable if the
+   * specified class is a generic type.
+   *
+   * @param <T> the type of the desired object
+   * @param json the UTF-8 encoded JSON from which the object is to be deserialized
+   * @param classOfT the class of T
+   * @return an object of type T from the bytes. Returns {@code null} if {@code json} is {@code
+   *     null} or if {@code json} is empty.
+   * @throws JsonSyntaxException if json is not a valid representation for an object of type
+   *     classOfT
+   * @since $next-version$
+   * @see #fromJson(String, Class)
+   * @see #fromJson(byte[], TypeToken)
+   */
+  public <T> T fromJson(byte[] json, Class<T> classOfT) throws JsonSyntaxException {
+    T object = fromJson(json, TypeToken.get(classOfT));
+    return Primitives.wrap(classOfT).cast(object);
+  }
+
+  /**
+   * This method deserializes the specified UTF-8 encoded JSON into an object of the specified type.
+   * See {@link #fromJson(byte[], TypeToken)} for details.
+   *
+   * <p>Since {@code Type} is not parameterized by T, this method is not type-safe and should be
+   * used carefully. If you are creating the {@code Type} from a {@link TypeToken}, prefer using
+   * {@link #fromJson(byte[], TypeToken)} instead since its return type is based on the {@code
+   * TypeToken} and is therefore more type-safe.
+   *
+   * @param <T> the type of the desired object
+   * @param json the UTF-8 encoded JSON from which the object is to be deserialized
+   * @param typeOfT The specific genericized type of src
+   * @return an object of type T from the bytes. Returns {@code null} if {@code json} is {@code
+   *     null} or if {@code json} is empty.
+   * @throws JsonSyntaxException if json is not a valid representation for an object of type typeOfT
+   * @since $next-version$
+   * @see #fromJson(String, Type)
+   * @see #fromJson(byte[], TypeToken)
+   */
+  @SuppressWarnings({"unchecked", "TypeParameterUnusedInFormals"})
+  public <T> T fromJson(byte[] json, Type typeOfT) throws JsonSyntaxException {
+    return (T) fromJson(json, TypeToken.get(typeOfT));
+  }
+
+  /**
+   * This method deserializes the specified UTF-8 encoded JSON into an object of the specified type.
+   * The bytes are parsed directly by a {@link Utf8JsonReader}, which avoids creating an
+   * intermediate {@code String}. Otherwise this method behaves like {@link #fromJson(String,
+   * TypeToken)}.
+   *
+   * <p>An exception is thrown if the JSON data has multiple top-level JSON elements, or if there is
+   * trailing data. Use {@link #fromJson(JsonReader, TypeToken)} if this behavior is not desired.
+   *
+   * @param <T> the type of the desired object
+   * @param json the UTF-8 encoded JSON from which the object is to be deserialized
+   * @param typeOfT The specific genericized type of src. You should create an anonymous subclass of
+   *     {@code TypeToken} with the specific generic type arguments. For example, to get the type
+   *     for {@code Collection<Foo>}, you should use:
+   *     <pre>
+   * new TypeToken&lt;Collection&lt;Foo&gt;&gt;(){}
+   * </pre>
+   *
+   * @return an object of type T from the bytes. Returns {@code null} if {@code json} is {@code
+   *     null} or if {@code json} is empty.
+   * @throws JsonSyntaxException if json is not a valid representation for an object of type typeOfT
+   * @since $next-version$
+   * @see #fromJson(String, TypeToken)
+   * @see #fromJson(InputStream, TypeToken)
+   */
+  public <T> T fromJson(byte[] json, TypeToken<T> typeOfT) throws JsonSyntaxException {
+    if (json == null) {
+      return null;
+    }
+    JsonReader jsonReader = configureJsonReader(new Utf8JsonReader(json));
+    T object = fromJson(jsonReader, typeOfT);
+    assertFullConsumption(object, jsonReader);
+    return object;
+  }
+
+  /**
+   * This method deserializes the UTF-8 encoded JSON in the specified file into an object of the
+   * specified class. See {@link #fromJson(Path, TypeToken)} for details; this method is not
+   * suitable if the specified class is a generic type.
+   *
+   * @param <T> the type of the desired object
+   * @param json the path of the file containing the UTF-8 encoded JSON from which the object is to
+   *     be deserialized
+   * @param classOfT the class of T
+   * @return an object of type T from the file. Returns {@code null} if the file is empty.
+   * @throws JsonIOException if there was a problem reading the file
+   * @throws JsonSyntaxException if json is not a valid representation for an object of type
+   *     classOfT
+   * @since $next-version$
+   * @see #fromJson(Path, TypeToken)
+   */
+  public <T> T fromJson(Path json, Class<T> classOfT) throws JsonSyntaxException, JsonIOException {
+    T object = fromJson(json, TypeToken.get(classOfT));
+    return Primitives.wrap(classOfT).cast(object);
+  }
+
+  /**
+   * This method deserializes the UTF-8 encoded JSON in the specified file into an object of the
+   * specified type. See {@link #fromJson(Path, TypeToken)} for details.
+   *
+   * <p>Since {@code Type} is not parameterized by T, this method is not type-safe and should be
+   * used carefully. If you are creating the {@code Type} from a {@link TypeToken}, prefer using
+   * {@link #fromJson(Path, TypeToken)} instead since its return type is based on the {@code
+   * TypeToken} and is therefore more type-safe.
+   *
+   * @param <T> the type of the desired object
+   * @param json the path of the file containing the UTF-8 encoded JSON from which the object is to
+   *     be deserialized
+   * @param typeOfT The specific genericized type of src
+   * @return an object of type T from the file. Returns {@code null} if the file is empty.
+   * @throws JsonIOException if there was a problem reading the file
+   * @throws JsonSyntaxException if json is not a valid representation for an object of type typeOfT
+   * @since $next-version$
+   * @see #fromJson(Path, TypeToken)
+   */
+  @SuppressWarnings({"unchecked", "TypeParameterUnusedInFormals"})
+  public <T> T fromJson(Path json, Type typeOfT) throws JsonIOException, JsonSyntaxException {
+    return (T) fromJson(json, TypeToken.get(typeOfT));
+  }
+
+  /**
+   * This method deserializes the UTF-8 encoded JSON in the specified file into an object of the
+   * specified type. The file is memory-mapped and its bytes are parsed directly by a {@link
+   * Utf8JsonReader}, see {@link Utf8JsonReader#Utf8JsonReader(FileChannel)}. Compared to reading
+   * the file with a {@link Reader}, this avoids copying and decoding the complete content into heap
+   * memory, which is useful for large files. Otherwise this method behaves like {@link
+   * #fromJson(Reader, TypeToken)}.
+   *
+   * <p>An exception is thrown if the JSON data has multiple top-level JSON elements, or if there is
+   * trailing data.
+   *
+   * @param <T> the type of the desired object
+   * @param json the path of the file containing the UTF-8 encoded JSON from which the object is to
+   *     be deserialized
+   * @param typeOfT The specific genericized type of src. You should create an anonymous subclass of
+   *     {@code TypeToken} with the specific generic type arguments. For example, to get the type
+   *     for {@code Collection<Foo>}, you should use:
+   *     <pre>
+   * new TypeToken&lt;Collection&lt;Foo&gt;&gt;(){}
+   * </pre>
+   *
+   * @return an object of type T from the file. Returns {@code null} if the file is empty.
+   * @throws JsonIOException if there was a problem reading the file
+   * @throws JsonSyntaxException if json is not a valid representation for an object of type of
+   *     typeOfT
+   * @since $next-version$
+   * @see #fromJson(Reader, TypeToken)
+   * @see #fromJson(InputStream, TypeToken)
+   */
+  public <T> T fromJson(Path json, TypeToken<T> typeOfT)
+      throws JsonIOException, JsonSyntaxException {
+    try (FileChannel channel = FileChannel.open(json, StandardOpenOption.READ)) {
+      JsonReader jsonReader = configureJsonReader(new Utf8JsonReader(channel));
+      T object = fromJson(jsonReader, typeOfT);
+      assertFullConsumption(object, jsonReader);
+      return object;
+    } catch (IOException e) {
+      throw new JsonIOException(e);
+    }
+  }
+
   // fromJson(JsonReader, Class) is unfortunately missing and cannot be added now without breaking
   // source compatibility in certain cases, see
   // https://github.com/google/gson/pull/1700#discussion_r973764414
@@ -1378,6 +1854,92 @@ public final class Gson {
     }
   }
 
+  /**
+   * Reads the projection of the JSON data read from {@code json} to the values selected by {@code
+   * projection}, and converts it to an object of type {@code typeOfT}. Only the selected values are
+   * decoded and kept in memory, all other values are skipped. See {@link #fromJson(JsonReader,
+   * JsonProjection, TypeToken)} for details.
+   *
+   * <p>An exception is thrown if the JSON data has multiple top-level JSON elements, or if there is
+   * trailing data.
+   *
+   * @param <T> the type of the desired object
+   * @param json the reader producing JSON from which the object is to be deserialized
+   * @param projection the projection selecting the values to deserialize
+   * @param typeOfT The specific genericized type of src
+   * @return an object of type T from the Reader. Returns {@code null} if {@code json} is at EOF.
+   * @throws JsonIOException if there was a problem reading from the Reader
+   * @throws JsonSyntaxException if the projected JSON is not a valid representation for an object
+   *     of type typeOfT
+   * @since $next-version$
+   */
+  public <T> T fromJson(Reader json, JsonProjection projection, TypeToken<T> typeOfT)
+      throws JsonIOException, JsonSyntaxException {
+    JsonReader jsonReader = newJsonReader(json);
+    T object = fromJson(jsonReader, projection, typeOfT);
+    assertFullConsumption(object, jsonReader);
+    return object;
+  }
+
+  /**
+   * Reads the next JSON value from {@code reader}, projects it to the values selected by {@code
+   * projection}, and converts the projected value to an object of type {@code typeOfT}. Returns
+   * {@code null}, if the {@code reader} is at EOF.
+   *
+   * <p>This is useful if only some fields of large JSON data are needed: the values which are not
+   * selected are {@linkplain JsonReader#skipValue() skipped} without being decoded, and only the
+   * selected values are kept in memory before they are converted. The selected values are converted
+   * as if the JSON data consisted only of them and their enclosing arrays and objects, see {@link
+   * JsonProjection}. Values which are not selected are therefore treated as missing by the type
+   * adapters, for example fields of a class remain at their default value.
+   *
+   * <p>Like {@link #fromJson(JsonReader, TypeToken)}, no exception is thrown if the JSON data has
+   * multiple top-level JSON elements, or if there is trailing data, and the strictness of the
+   * reader is handled in the same way.
+   *
+   * @param <T> the type of the desired object
+   * @param reader the reader whose next JSON value should be deserialized
+   * @param projection the projection selecting the values to deserialize
+   * @param typeOfT The specific genericized type of src
+   * @return an object of type T from the JsonReader. Returns {@code null} if {@code reader} is at
+   *     EOF.
+   * @throws JsonIOException if there was a problem reading from the JsonReader
+   * @throws JsonSyntaxException if the projected JSON is not a valid representation for an object
+   *     of the type typeOfT
+   * @since $next-version$
+   */
+  public <T> T fromJson(JsonReader reader, JsonProjection projection, TypeToken<T> typeOfT)
+      throws JsonIOException, JsonSyntaxException {
+    Objects.requireNonNull(projection, "projection == null");
+    boolean isEmpty = true;
+    Strictness oldStrictness = reader.getStrictness();
+
+    if (this.strictness != null) {
+      reader.setStrictness(this.strictness);
+    } else if (reader.getStrictness() != Strictness.STRICT) {
+      reader.setStrictness(Strictness.LENIENT);
+    }
+
+    JsonTreeWriter treeWriter = new JsonTreeWriter();
+    try {
+      JsonToken unused = reader.peek();
+      isEmpty = false;
+      projection.project(reader, treeWriter);
+    } catch (EOFException e) {
+      if (isEmpty) {
+        return null;
+      }
+      throw new JsonSyntaxException(e);
+    } catch (IllegalStateException e) {
+      throw new JsonSyntaxException(e);
+    } catch (IOException e) {
+      throw new JsonSyntaxException(e);
+    } finally {
+      reader.setStrictness(oldStrictness);
+    }
+    return fromJson(treeWriter.get(), typeOfT);
+  }
+
   /**
    * This method deserializes the JSON read from the specified parse tree into an object of the
    * specified type. It is not suitable to use if the specified class is a generic type since it
@@ -1460,7 +2022,74 @@ public final class Gson {
     return fromJson(new JsonTreeReader(json), typeOfT);
   }
 
-  private static void assertFullConsumption(Object obj, JsonReader reader) {
+  /**
+   * Deserializes the UTF-8 encoded JSON array in {@code json} into a list of elements of the
+   * specified type, deserializing the elements in parallel on {@code pool}. The order of the
+   * elements is preserved. This is useful for large arrays of independent records, which would
+   * otherwise be deserialized by a single thread. See {@link #fromJsonArray(ByteBuffer, TypeToken,
+   * ForkJoinPool)} for details.
+   *
+   * @param <T> the type of the elements
+   * @param json the byte array containing the UTF-8 encoded JSON array
+   * @param elementType the type of the elements
+   * @param pool the pool on which the elements are deserialized, for example the common pool
+   * @return the mutable list of elements. Returns {@code null} if {@code json} is empty or is the
+   *     JSON {@code null}.
+   * @throws JsonSyntaxException if json is not a valid representation for an array of elements of
+   *     type elementType
+   * @since $next-version$
+   */
+  public <T> List<T> fromJsonArray(byte[] json, TypeToken<T> elementType, ForkJoinPool pool)
+      throws JsonSyntaxException {
+    return fromJsonArray(ByteBuffer.wrap(json), elementType, pool);
+  }
+
+  /**
+   * Deserializes the UTF-8 encoded JSON array in the remaining bytes of {@code json} into a list of
+   * elements of the specified type, deserializing the elements in parallel on {@code pool}. The
+   * order of the elements is preserved, and the position of the buffer is not changed. The buffer
+   * can for example be a {@link java.nio.MappedByteBuffer} of a file.
+   *
+   * <p>A fast sequential pre-scan finds the range of each element in the data, only considering
+   * strings and brackets. The elements are then deserialized independently of each other by tasks
+   * on the pool, each element from its own {@link JsonReader}. Type adapters used for the elements
+   * must therefore be thread-safe, which is the case for the type adapters of Gson. Paths in
+   * exception messages are relative to the element; the exception for the invalid element with the
+   * lowest index is thrown, and mentions that index.
+   *
+   * <p>The result is the same as for {@link #fromJson(InputStream, TypeToken)} with a {@code
+   * List<T>} type. If the data is not a JSON array which the pre-scan supports, for example because
+   * it contains comments, or if it is malformed, it is deserialized sequentially with that method
+   * instead, so that exactly the same data is accepted.
+   *
+   * @param <T> the type of the elements
+   * @param json the buffer containing the UTF-8 encoded JSON array; its bytes must not be modified
+   *     while they are being deserialized
+   * @param elementType the type of the elements
+   * @param pool the pool on which the elements are deserialized, for example the common pool
+   * @return the mutable list of elements. Returns {@code null} if {@code json} is empty or is the
+   *     JSON {@code null}.
+   * @throws JsonSyntaxException if json is not a valid representation for an array of elements of
+   *     type elementType
+   * @since $next-version$
+   */
+  public <T> List<T> fromJsonArray(ByteBuffer json, TypeToken<T> elementType, ForkJoinPool pool)
+      throws JsonSyntaxException {
+    Objects.requireNonNull(elementType, "elementType == null");
+    Objects.requireNonNull(pool, "pool == null");
+    List<T> elements = ParallelArrayReader.read(this, json, elementType, pool);
+    if (elements == null) {
+      @SuppressWarnings("unchecked")
+      TypeToken<List<T>> listType =
+          (TypeToken<List<T>>) TypeToken.getParameterized(List.class, elementType.getType());
+      JsonReader jsonReader = configureJsonReader(new Utf8JsonReader(json));
+      elements = fromJson(jsonReader, listType);
+      assertFullConsumption(elements, jsonReader);
+    }
+    return elements;
+  }
+
+  static void assertFullConsumption(Object obj, JsonReader reader) {
     try {
       if (obj != null && reader.peek() != JsonToken.END_DOCUMENT) {
         throw new JsonSyntaxException("JSON document was not fully consumed.");
@@ -1478,7 +2107,7 @@ public final class Gson {
    * <p><b>Important:</b> Setting the delegate adapter is not thread-safe; instances of {@code
    * FutureTypeAdapter} must only be published to other threads after the delegate has been set.
    *
-   * @see Gson#threadLocalAdapterResults
+   * @see Gson#activeResolutions
    */
   static class FutureTypeAdapter<T> extends SerializationDelegatingTypeAdapter<T> {
     private TypeAdapter<T> delegate = null;
@@ -1519,6 +2148,34 @@ public final class Gson {
     }
   }
 
+  /** Adapters created by a thread for an initial {@link #getAdapter(TypeToken)} call */
+  private static final class AdapterResolution {
+    /**
+     * Type adapters for ongoing and finished {@code getAdapter} calls, with the requested type
+     * token as key and either {@code FutureTypeAdapter} or a regular {@code TypeAdapter} as value.
+     */
+    final Map<TypeToken<?>, TypeAdapter<?>> adapters = new HashMap<>();
+
+    /** Types for which this resolution has registered itself in {@link Gson#pendingAdapters} */
+    final List<TypeToken<?>> ownedTypes = new ArrayList<>();
+
+    final CountDownLatch finished = new CountDownLatch(1);
+
+    /**
+     * Waits until the resolution has finished. Returns {@code false} if it did not finish within
+     * {@link Gson#RESOLUTION_WAIT_TIMEOUT_MILLIS}, or if the current thread was interrupted,
+     * restoring the interrupt status.
+     */
+    boolean await() {
+      try {
+        return finished.await(RESOLUTION_WAIT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+  }
+
   @Override
   public String toString() {
     return "{serializeNulls:"
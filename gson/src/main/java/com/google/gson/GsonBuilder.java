@@ -16,16 +16,20 @@
 
 package com.google.gson;
 
+import static com.google.gson.Gson.DEFAULT_ADAPTER_GENERATION_THRESHOLD;
 import static com.google.gson.Gson.DEFAULT_COMPLEX_MAP_KEYS;
 import static com.google.gson.Gson.DEFAULT_DATE_PATTERN;
 import static com.google.gson.Gson.DEFAULT_ESCAPE_HTML;
+import static com.google.gson.Gson.DEFAULT_FIELD_ACCESS_STRATEGY;
 import static com.google.gson.Gson.DEFAULT_FORMATTING_STYLE;
 import static com.google.gson.Gson.DEFAULT_JSON_NON_EXECUTABLE;
 import static com.google.gson.Gson.DEFAULT_NUMBER_TO_NUMBER_STRATEGY;
 import static com.google.gson.Gson.DEFAULT_OBJECT_TO_NUMBER_STRATEGY;
+import static com.google.gson.Gson.DEFAULT_READER_BUFFER_SIZE;
 import static com.google.gson.Gson.DEFAULT_SERIALIZE_NULLS;
 import static com.google.gson.Gson.DEFAULT_SPECIALIZE_FLOAT_VALUES;
 import static com.google.gson.Gson.DEFAULT_STRICTNESS;
+import static com.google.gson.Gson.DEFAULT_STRING_CACHE_CAPACITY;
 import static com.google.gson.Gson.DEFAULT_USE_JDK_UNSAFE;
 
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
@@ -34,13 +38,14 @@ import com.google.gson.annotations.Since;
 import com.google.gson.annotations.Until;
 import com.google.gson.internal.Excluder;
 import com.google.gson.internal.GsonPreconditions;
+import com.google.gson.internal.SqlTypesSupport;
 import com.google.gson.internal.bind.DefaultDateTypeAdapter;
 import com.google.gson.internal.bind.TreeTypeAdapter;
 import com.google.gson.internal.bind.TypeAdapters;
-import com.google.gson.internal.SqlTypesSupport;
 import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.StringCache;
 import java.lang.reflect.Type;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
@@ -114,6 +119,10 @@ public final class GsonBuilder {
   private ToNumberStrategy objectToNumberStrategy = DEFAULT_OBJECT_TO_NUMBER_STRATEGY;
   private ToNumberStrategy numberToNumberStrategy = DEFAULT_NUMBER_TO_NUMBER_STRATEGY;
   private final ArrayDeque<ReflectionAccessFilter> reflectionFilters = new ArrayDeque<>();
+  private FieldAccessStrategy fieldAccessStrategy = DEFAULT_FIELD_ACCESS_STRATEGY;
+  private int adapterGenerationThreshold = DEFAULT_ADAPTER_GENERATION_THRESHOLD;
+  private int readerBufferSize = DEFAULT_READER_BUFFER_SIZE;
+  private int stringCacheCapacity = DEFAULT_STRING_CACHE_CAPACITY;
 
   /**
    * Creates a GsonBuilder instance that can be used to build Gson with various configuration
@@ -149,6 +158,10 @@ public final class GsonBuilder {
     this.objectToNumberStrategy = gson.objectToNumberStrategy;
     this.numberToNumberStrategy = gson.numberToNumberStrategy;
     this.reflectionFilters.addAll(gson.reflectionFilters);
+    this.fieldAccessStrategy = gson.fieldAccessStrategy;
+    this.adapterGenerationThreshold = gson.adapterGenerationThreshold;
+    this.readerBufferSize = gson.readerBufferSize;
+    this.stringCacheCapacity = gson.stringCacheCapacity;
   }
 
   /**
@@ -859,6 +872,100 @@ public final class GsonBuilder {
     return this;
   }
 
+  /**
+   * Configures how Gson reads and writes field values when it uses reflection to serialize and
+   * deserialize a class. By default {@link FieldAccessStrategy#REFLECTION} is used.
+   *
+   * <p>The strategy only affects fields which Gson is allowed to make accessible; fields subject to
+   * a {@link ReflectionAccessFilter} which blocks access to inaccessible members, as well as Record
+   * components, are always accessed using reflection.
+   *
+   * @param strategy the field access strategy
+   * @return a reference to this {@code GsonBuilder} object to fulfill the "Builder" pattern
+   * @see FieldAccessStrategy
+   * @since $next-version$
+   */
+  @CanIgnoreReturnValue
+  public GsonBuilder setFieldAccessStrategy(FieldAccessStrategy strategy) {
+    this.fieldAccessStrategy = Objects.requireNonNull(strategy);
+    return this;
+  }
+
+  /**
+   * Enables generating bytecode for the reflection-based adapters of classes which are used
+   * frequently. After a reflection-based adapter has been used {@code threshold} times for reading
+   * or writing, Gson generates a class which reads and writes the fields directly, instead of using
+   * reflection, and uses it for all further invocations of that adapter. A threshold of 0 generates
+   * the class on the first use. Generating the class takes time, so this only pays off for classes
+   * which are serialized or deserialized many times.
+   *
+   * <p>The generated class behaves the same as the reflection-based adapter. It is defined as
+   * hidden class, which requires Java 15 or newer. Gson keeps using reflection if the class cannot
+   * be generated, for example on older Java versions, for classes in named modules, or if a {@link
+   * ReflectionAccessFilter} does not {@linkplain ReflectionAccessFilter.FilterResult#ALLOW allow}
+   * full access to the class. Record classes always use reflection.
+   *
+   * @param threshold number of uses of a reflection-based adapter after which the class is
+   *     generated; must not be negative
+   * @return a reference to this {@code GsonBuilder} object to fulfill the "Builder" pattern
+   * @since $next-version$
+   */
+  @CanIgnoreReturnValue
+  public GsonBuilder enableAdapterGeneration(int threshold) {
+    if (threshold < 0) {
+      throw new IllegalArgumentException("Invalid threshold: " + threshold);
+    }
+    this.adapterGenerationThreshold = threshold;
+    return this;
+  }
+
+  /**
+   * Sets the initial size of the buffer of the {@link JsonReader} instances which Gson creates to
+   * read JSON from a {@link java.io.Reader Reader} or a {@code String}. A larger buffer reduces the
+   * number of {@code read} calls on the {@code Reader} for large JSON documents. The buffer grows
+   * when a single string value or name does not fit into it, and shrinks back to this size
+   * afterwards. By default a buffer of 1024 chars is used. Readers for UTF-8 encoded {@link
+   * java.io.InputStream InputStream} data use their own byte buffer and are not affected.
+   *
+   * @param size initial buffer size in chars; must be at least 16
+   * @return a reference to this {@code GsonBuilder} object to fulfill the "Builder" pattern
+   * @see JsonReader#JsonReader(java.io.Reader, int)
+   * @since $next-version$
+   */
+  @CanIgnoreReturnValue
+  public GsonBuilder setReaderBufferSize(int size) {
+    if (size < 16) {
+      throw new IllegalArgumentException("Invalid buffer size: " + size);
+    }
+    this.readerBufferSize = size;
+    return this;
+  }
+
+  /**
+   * Enables caching of the short strings which Gson reads, so that property names and values which
+   * occur repeatedly in the JSON data are represented by the same {@code String} instance instead
+   * of a new one for every occurrence. This reduces the allocation rate and the memory usage of the
+   * deserialized objects for JSON data which repeats the same strings many times.
+   *
+   * <p>Each thread uses its own {@link StringCache} with the given capacity, which is shared by all
+   * {@link JsonReader} instances this Gson instance creates on that thread. The cache of the
+   * current thread, including its hit and miss counts, can be obtained with {@code
+   * gson.newJsonReader(reader).getStringCache()}.
+   *
+   * @param capacity number of entries of the cache of each thread
+   * @return a reference to this {@code GsonBuilder} object to fulfill the "Builder" pattern
+   * @see JsonReader#setStringCache(StringCache)
+   * @since $next-version$
+   */
+  @CanIgnoreReturnValue
+  public GsonBuilder enableStringCache(int capacity) {
+    if (capacity <= 0 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Invalid capacity: " + capacity);
+    }
+    this.stringCacheCapacity = capacity;
+    return this;
+  }
+
   /**
    * Creates a {@link Gson} instance based on the current configuration. This method is free of
    * side-effects to this {@code GsonBuilder} instance and hence can be called multiple times.
@@ -898,7 +1005,11 @@ public final class GsonBuilder {
         factories,
         objectToNumberStrategy,
         numberToNumberStrategy,
-        new ArrayList<>(reflectionFilters));
+        new ArrayList<>(reflectionFilters),
+        fieldAccessStrategy,
+        adapterGenerationThreshold,
+        readerBufferSize,
+        stringCacheCapacity);
   }
 
   private static void addTypeAdaptersForDate(
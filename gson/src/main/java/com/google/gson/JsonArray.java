@@ -21,6 +21,7 @@ import com.google.gson.internal.NonNullElementWrapperList;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -33,11 +34,19 @@ import java.util.List;
  * <p>{@code JsonArray} only implements the {@link Iterable} interface but not the {@link List}
  * interface. A {@code List} view of it can be obtained with {@link #asList()}.
  *
+ * <p>A {@code JsonArray} can be made immutable with {@link #freeze()}; afterwards all methods
+ * modifying it throw an {@link UnsupportedOperationException}. Modified copies of a frozen array
+ * can be created with {@link #with(int, JsonElement)} and {@link #withAdded(JsonElement)}.
+ *
  * @author Inderjeet Singh
  * @author Joel Leitch
  */
 public final class JsonArray extends JsonElement implements Iterable<JsonElement> {
   private final ArrayList<JsonElement> elements;
+  private boolean frozen;
+
+  /** State of lazily read and of frozen arrays; {@code null} for other arrays */
+  private ContainerState state;
 
   /** Creates an empty JsonArray. */
   @SuppressWarnings("deprecation") // superclass constructor
@@ -57,16 +66,43 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
     elements = new ArrayList<>(capacity);
   }
 
+  /** Creates a frozen array with the given elements, which must all be frozen. */
+  @SuppressWarnings({"deprecation", "NonApiType"}) // superclass constructor; ArrayList field
+  private JsonArray(ArrayList<JsonElement> frozenElements) {
+    elements = frozenElements;
+    frozen = true;
+  }
+
+  /** Creates an array whose elements are read from the index when it is first accessed. */
+  @SuppressWarnings("deprecation") // superclass constructor
+  JsonArray(LazyJsonIndex lazyIndex, int lazyOrdinal) {
+    elements = new ArrayList<>();
+    state = new ContainerState(lazyIndex, lazyOrdinal);
+  }
+
+  @SuppressWarnings("NonApiType") // ArrayList field
+  private ArrayList<JsonElement> elements() {
+    ContainerState state = this.state;
+    if (state != null && state.lazyIndex != null) {
+      LazyJsonIndex index = state.lazyIndex;
+      // Afterwards the state is only needed to cache the hash code once this is frozen
+      this.state = null;
+      index.readArrayElements(state.lazyOrdinal, elements);
+    }
+    return elements;
+  }
+
   /**
-   * Creates a deep copy of this element and all its children.
+   * Creates a deep copy of this element and all its children. The copy is modifiable, even if this
+   * array is frozen.
    *
    * @since 2.8.2
    */
   @Override
   public JsonArray deepCopy() {
-    if (!elements.isEmpty()) {
-      JsonArray result = new JsonArray(elements.size());
-      for (JsonElement element : elements) {
+    if (!elements().isEmpty()) {
+      JsonArray result = new JsonArray(elements().size());
+      for (JsonElement element : elements()) {
         result.addElement(element.deepCopy());
       }
       return result;
@@ -81,7 +117,8 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    * @since 2.4
    */
   public void addBoolean(Boolean bool) {
-    elements.add(bool == null ? JsonNull.INSTANCE : new JsonPrimitive(bool));
+    checkNotFrozen();
+    elements().add(bool == null ? JsonNull.INSTANCE : new JsonPrimitive(bool));
   }
 
   /**
@@ -91,7 +128,8 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    * @since 2.4
    */
   public void addCharacter(Character character) {
-    elements.add(character == null ? JsonNull.INSTANCE : new JsonPrimitive(character));
+    checkNotFrozen();
+    elements().add(character == null ? JsonNull.INSTANCE : new JsonPrimitive(character));
   }
 
   /**
@@ -101,7 +139,8 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    * @since 2.4
    */
   public void addNumber(Number number) {
-    elements.add(number == null ? JsonNull.INSTANCE : new JsonPrimitive(number));
+    checkNotFrozen();
+    elements().add(number == null ? JsonNull.INSTANCE : new JsonPrimitive(number));
   }
 
   /**
@@ -111,7 +150,8 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    * @since 2.4
    */
   public void addString(String string) {
-    elements.add(string == null ? JsonNull.INSTANCE : new JsonPrimitive(string));
+    checkNotFrozen();
+    elements().add(string == null ? JsonNull.INSTANCE : new JsonPrimitive(string));
   }
 
   /**
@@ -120,10 +160,11 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    * @param element the element that needs to be added to the array.
    */
   public void addElement(JsonElement element) {
+    checkNotFrozen();
     if (element == null) {
       element = JsonNull.INSTANCE;
     }
-    elements.add(element);
+    elements().add(element);
   }
 
   /**
@@ -132,7 +173,8 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    * @param array the array whose elements need to be added to the array.
    */
   public void addAll(JsonArray array) {
-    elements.addAll(array.elements);
+    checkNotFrozen();
+    elements().addAll(array.elements());
   }
 
   /**
@@ -145,7 +187,8 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    */
   @CanIgnoreReturnValue
   public JsonElement set(int index, JsonElement element) {
-    return elements.set(index, element == null ? JsonNull.INSTANCE : element);
+    checkNotFrozen();
+    return elements().set(index, element == null ? JsonNull.INSTANCE : element);
   }
 
   /**
@@ -158,7 +201,8 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    */
   @CanIgnoreReturnValue
   public boolean remove(JsonElement element) {
-    return elements.remove(element);
+    checkNotFrozen();
+    return elements().remove(element);
   }
 
   /**
@@ -173,7 +217,93 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    */
   @CanIgnoreReturnValue
   public JsonElement remove(int index) {
-    return elements.remove(index);
+    checkNotFrozen();
+    return elements().remove(index);
+  }
+
+  private void checkNotFrozen() {
+    if (frozen) {
+      throw new UnsupportedOperationException("JsonArray is frozen");
+    }
+  }
+
+  /**
+   * Makes this array and all its elements immutable, and returns this array. See {@link
+   * JsonElement#freeze()}.
+   *
+   * @since $next-version$
+   */
+  @CanIgnoreReturnValue
+  @Override
+  public JsonArray freeze() {
+    if (!frozen) {
+      // Freeze this array first, so that freezing ends if this array is (incorrectly) its own
+      // descendant
+      frozen = true;
+      for (JsonElement element : elements()) {
+        element.freeze();
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Returns whether this array has been {@linkplain #freeze() frozen}.
+   *
+   * @since $next-version$
+   */
+  @Override
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  private void checkFrozen() {
+    if (!frozen) {
+      throw new IllegalStateException("JsonArray is not frozen; call freeze() first");
+    }
+  }
+
+  /**
+   * Returns a frozen copy of this frozen array, where the element at the given index is replaced
+   * with the given element. The other elements are not copied but shared with the returned array,
+   * so the cost of this method only depends on the size of this array, not on the size of the
+   * complete tree.
+   *
+   * <p>If the element is not frozen yet, it is frozen by this method. A {@code null} element is
+   * converted to a {@link JsonNull}.
+   *
+   * @param index index of the element to replace
+   * @param element element to be stored at the specified position
+   * @return frozen copy of this array with the element replaced.
+   * @throws IllegalStateException if this array is not frozen.
+   * @throws IndexOutOfBoundsException if the specified index is outside the array bounds
+   * @since $next-version$
+   */
+  public JsonArray with(int index, JsonElement element) {
+    checkFrozen();
+    ArrayList<JsonElement> newElements = new ArrayList<>(elements());
+    newElements.set(index, element == null ? JsonNull.INSTANCE : element.freeze());
+    return new JsonArray(newElements);
+  }
+
+  /**
+   * Returns a frozen copy of this frozen array, with the given element added at the end. The other
+   * elements are shared with the returned array, see {@link #with(int, JsonElement)}.
+   *
+   * <p>If the element is not frozen yet, it is frozen by this method. A {@code null} element is
+   * converted to a {@link JsonNull}.
+   *
+   * @param element the element to add.
+   * @return frozen copy of this array with the element added.
+   * @throws IllegalStateException if this array is not frozen.
+   * @since $next-version$
+   */
+  public JsonArray withAdded(JsonElement element) {
+    checkFrozen();
+    ArrayList<JsonElement> newElements = new ArrayList<>(elements().size() + 1);
+    newElements.addAll(elements());
+    newElements.add(element == null ? JsonNull.INSTANCE : element.freeze());
+    return new JsonArray(newElements);
   }
 
   /**
@@ -184,7 +314,7 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    * @since 2.3
    */
   public boolean contains(JsonElement element) {
-    return elements.contains(element);
+    return elements().contains(element);
   }
 
   /**
@@ -193,7 +323,7 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    * @return the number of elements in the array.
    */
   public int size() {
-    return elements.size();
+    return elements().size();
   }
 
   /**
@@ -203,7 +333,7 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    * @since 2.8.7
    */
   public boolean isEmpty() {
-    return elements.isEmpty();
+    return elements().isEmpty();
   }
 
   /**
@@ -214,7 +344,7 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    */
   @Override
   public Iterator<JsonElement> iterator() {
-    return elements.iterator();
+    return frozen ? Collections.unmodifiableList(elements()).iterator() : elements().iterator();
   }
 
   /**
@@ -226,13 +356,13 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    *     {@link #size()} of the array.
    */
   public JsonElement get(int i) {
-    return elements.get(i);
+    return elements().get(i);
   }
 
   private JsonElement getAsSingleElement() {
-    int size = elements.size();
+    int size = elements().size();
     if (size == 1) {
-      return elements.get(0);
+      return elements().get(0);
     }
     throw new IllegalStateException("Array must have size 1, but has size " + size);
   }
@@ -406,11 +536,16 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    * null} handling, a {@link NullPointerException} is thrown when trying to add {@code null}. Use
    * {@link JsonNull} for JSON null values.
    *
+   * <p>If this array is {@linkplain #freeze() frozen}, the {@code List} is read-only.
+   *
    * @return mutable {@code List} view
    * @since 2.10
    */
   public List<JsonElement> asList() {
-    return new NonNullElementWrapperList<>(elements);
+    if (frozen) {
+      return Collections.unmodifiableList(elements());
+    }
+    return new NonNullElementWrapperList<>(elements());
   }
 
   /**
@@ -419,7 +554,7 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    */
   @Override
   public boolean equals(Object o) {
-    return (o == this) || (o instanceof JsonArray && ((JsonArray) o).elements.equals(elements));
+    return (o == this) || (o instanceof JsonArray && ((JsonArray) o).elements().equals(elements()));
   }
 
   /**
@@ -428,6 +563,20 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    */
   @Override
   public int hashCode() {
-    return elements.hashCode();
+    if (!frozen) {
+      return elements().hashCode();
+    }
+    // Racy single-check caching, like String.hashCode(); is safe because the array is immutable
+    ContainerState state = this.state;
+    if (state == null) {
+      state = new ContainerState();
+      this.state = state;
+    }
+    int result = state.hashCode;
+    if (result == 0) {
+      result = elements().hashCode();
+      state.hashCode = result;
+    }
+    return result;
   }
 }
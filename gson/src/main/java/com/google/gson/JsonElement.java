@@ -48,6 +48,36 @@ public abstract class JsonElement {
    */
   public abstract JsonElement deepCopy();
 
+  /**
+   * Makes this element and all its children immutable, and returns this element. Afterwards all
+   * methods which would modify a frozen {@link JsonObject} or {@link JsonArray} throw an {@link
+   * UnsupportedOperationException}. A frozen element can be shared between threads without copying
+   * it, as long as it is published safely, for example through a {@code final} or {@code volatile}
+   * field, or a concurrent collection.
+   *
+   * <p>Primitives and nulls are immutable already, so for them this method has no effect. Use
+   * {@link #deepCopy()} to obtain a modifiable copy of a frozen element.
+   *
+   * @return this element
+   * @see JsonObject#with(String, JsonElement)
+   * @see JsonArray#with(int, JsonElement)
+   * @since $next-version$
+   */
+  @CanIgnoreReturnValue
+  public JsonElement freeze() {
+    return this;
+  }
+
+  /**
+   * Returns whether this element is immutable, that is, whether {@link #freeze()} has been called
+   * on it or one of its parents. Primitives and nulls are always immutable.
+   *
+   * @since $next-version$
+   */
+  public boolean isFrozen() {
+    return true;
+  }
+
   /**
    * Provides a check for verifying if this element is a JSON array or not.
    *
@@ -17,7 +17,7 @@
 package com.google.gson;
 
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
-import com.google.gson.internal.LinkedTreeMap;
+import com.google.gson.internal.LinkedArrayMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -31,25 +31,58 @@ import java.util.Set;
  * <p>{@code JsonObject} does not implement the {@link Map} interface, but a {@code Map} view of it
  * can be obtained with {@link #asMap()}.
  *
+ * <p>A {@code JsonObject} can be made immutable with {@link #freeze()}; afterwards all methods
+ * modifying it throw an {@link UnsupportedOperationException}. Modified copies of a frozen object
+ * can be created with {@link #with(String, JsonElement)} and {@link #without(String)}.
+ *
  * @author Inderjeet Singh
  * @author Joel Leitch
  */
 public final class JsonObject extends JsonElement {
-  private final LinkedTreeMap<String, JsonElement> members = new LinkedTreeMap<>(false);
+  private final LinkedArrayMap<JsonElement> members;
+
+  /** State of lazily read and of frozen objects; {@code null} for other objects */
+  private ContainerState state;
 
   /** Creates an empty JsonObject. */
   @SuppressWarnings("deprecation") // superclass constructor
-  public JsonObject() {}
+  public JsonObject() {
+    members = new LinkedArrayMap<>();
+  }
+
+  @SuppressWarnings("deprecation") // superclass constructor
+  private JsonObject(LinkedArrayMap<JsonElement> members) {
+    this.members = members;
+  }
+
+  /** Creates an object whose members are read from the index when it is first accessed. */
+  @SuppressWarnings("deprecation") // superclass constructor
+  JsonObject(LazyJsonIndex lazyIndex, int lazyOrdinal) {
+    members = new LinkedArrayMap<>();
+    state = new ContainerState(lazyIndex, lazyOrdinal);
+  }
+
+  private LinkedArrayMap<JsonElement> members() {
+    ContainerState state = this.state;
+    if (state != null && state.lazyIndex != null) {
+      LazyJsonIndex index = state.lazyIndex;
+      // Afterwards the state is only needed to cache the hash code once this is frozen
+      this.state = null;
+      index.readObjectMembers(state.lazyOrdinal, members);
+    }
+    return members;
+  }
 
   /**
-   * Creates a deep copy of this element and all its children.
+   * Creates a deep copy of this element and all its children. The copy is modifiable, even if this
+   * object is frozen.
    *
    * @since 2.8.2
    */
   @Override
   public JsonObject deepCopy() {
     JsonObject result = new JsonObject();
-    for (Map.Entry<String, JsonElement> entry : members.entrySet()) {
+    for (Map.Entry<String, JsonElement> entry : members().entrySet()) {
       result.add(entry.getKey(), entry.getValue().deepCopy());
     }
     return result;
@@ -64,7 +97,8 @@ public final class JsonObject extends JsonElement {
    * @param value the member object.
    */
   public void add(String property, JsonElement value) {
-    members.put(property, value == null ? JsonNull.INSTANCE : value);
+    checkNotFrozen();
+    members().put(property, value == null ? JsonNull.INSTANCE : value);
   }
 
   /**
@@ -77,7 +111,94 @@ public final class JsonObject extends JsonElement {
    */
   @CanIgnoreReturnValue
   public JsonElement remove(String property) {
-    return members.remove(property);
+    checkNotFrozen();
+    return members().remove(property);
+  }
+
+  private void checkNotFrozen() {
+    if (members().isFrozen()) {
+      throw new UnsupportedOperationException("JsonObject is frozen");
+    }
+  }
+
+  /**
+   * Makes this object and all its members immutable, and returns this object. See {@link
+   * JsonElement#freeze()}.
+   *
+   * @since $next-version$
+   */
+  @CanIgnoreReturnValue
+  @Override
+  public JsonObject freeze() {
+    if (!members().isFrozen()) {
+      // Freeze this object first, so that freezing ends if this object is (incorrectly) its own
+      // descendant
+      members().freeze();
+      for (JsonElement value : members().values()) {
+        value.freeze();
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Returns whether this object has been {@linkplain #freeze() frozen}.
+   *
+   * @since $next-version$
+   */
+  @Override
+  public boolean isFrozen() {
+    return members().isFrozen();
+  }
+
+  private void checkFrozen() {
+    if (!members().isFrozen()) {
+      throw new IllegalStateException("JsonObject is not frozen; call freeze() first");
+    }
+  }
+
+  /**
+   * Returns a frozen copy of this frozen object, where the member with the given name has the given
+   * value. If this object has no member with that name, the member is added at the end. The members
+   * of this object are not copied but shared with the returned object, so the cost of this method
+   * only depends on the number of members of this object, not on the size of the complete tree.
+   *
+   * <p>If the value is not frozen yet, it is frozen by this method. A {@code null} value is
+   * converted to a {@link JsonNull}.
+   *
+   * @param property name of the member.
+   * @param value the member value.
+   * @return frozen copy of this object with the member.
+   * @throws IllegalStateException if this object is not frozen.
+   * @since $next-version$
+   */
+  public JsonObject with(String property, JsonElement value) {
+    checkFrozen();
+    LinkedArrayMap<JsonElement> newMembers = new LinkedArrayMap<>(members());
+    newMembers.put(property, value == null ? JsonNull.INSTANCE : value.freeze());
+    newMembers.freeze();
+    return new JsonObject(newMembers);
+  }
+
+  /**
+   * Returns a frozen copy of this frozen object without the member with the given name. If there is
+   * no such member, this object is returned. The remaining members are shared with the returned
+   * object, see {@link #with(String, JsonElement)}.
+   *
+   * @param property name of the member.
+   * @return frozen copy of this object without the member.
+   * @throws IllegalStateException if this object is not frozen.
+   * @since $next-version$
+   */
+  public JsonObject without(String property) {
+    checkFrozen();
+    if (!members().containsKey(property)) {
+      return this;
+    }
+    LinkedArrayMap<JsonElement> newMembers = new LinkedArrayMap<>(members());
+    newMembers.remove(property);
+    newMembers.freeze();
+    return new JsonObject(newMembers);
   }
 
   /**
@@ -131,7 +252,7 @@ public final class JsonObject extends JsonElement {
    * @return a set of members of this object.
    */
   public Set<Map.Entry<String, JsonElement>> entrySet() {
-    return members.entrySet();
+    return members().entrySet();
   }
 
   /**
@@ -141,7 +262,7 @@ public final class JsonObject extends JsonElement {
    * @since 2.8.1
    */
   public Set<String> keySet() {
-    return members.keySet();
+    return members().keySet();
   }
 
   /**
@@ -151,7 +272,7 @@ public final class JsonObject extends JsonElement {
    * @since 2.7
    */
   public int size() {
-    return members.size();
+    return members().size();
   }
 
   /**
@@ -161,7 +282,7 @@ public final class JsonObject extends JsonElement {
    * @since 2.10.1
    */
   public boolean isEmpty() {
-    return members.size() == 0;
+    return members().size() == 0;
   }
 
   /**
@@ -171,7 +292,7 @@ public final class JsonObject extends JsonElement {
    * @return true if there is a member with the specified name, false otherwise.
    */
   public boolean has(String memberName) {
-    return members.containsKey(memberName);
+    return members().containsKey(memberName);
   }
 
   /**
@@ -181,7 +302,7 @@ public final class JsonObject extends JsonElement {
    * @return the member matching the name, or {@code null} if no such member exists.
    */
   public JsonElement get(String memberName) {
-    return members.get(memberName);
+    return members().get(memberName);
   }
 
   /**
@@ -193,7 +314,7 @@ public final class JsonObject extends JsonElement {
    * @throws ClassCastException if the member is not of type {@code JsonPrimitive}.
    */
   public JsonPrimitive getAsJsonPrimitive(String memberName) {
-    return (JsonPrimitive) members.get(memberName);
+    return (JsonPrimitive) members().get(memberName);
   }
 
   /**
@@ -205,7 +326,7 @@ public final class JsonObject extends JsonElement {
    * @throws ClassCastException if the member is not of type {@code JsonArray}.
    */
   public JsonArray getAsJsonArray(String memberName) {
-    return (JsonArray) members.get(memberName);
+    return (JsonArray) members().get(memberName);
   }
 
   /**
@@ -217,7 +338,7 @@ public final class JsonObject extends JsonElement {
    * @throws ClassCastException if the member is not of type {@code JsonObject}.
    */
   public JsonObject getAsJsonObject(String memberName) {
-    return (JsonObject) members.get(memberName);
+    return (JsonObject) members().get(memberName);
   }
 
   /**
@@ -228,12 +349,14 @@ public final class JsonObject extends JsonElement {
    * {@code null} handling, a {@link NullPointerException} is thrown when trying to add {@code
    * null}. Use {@link JsonNull} for JSON null values.
    *
+   * <p>If this object is {@linkplain #freeze() frozen}, the {@code Map} is read-only.
+   *
    * @return mutable {@code Map} view
    * @since 2.10
    */
   public Map<String, JsonElement> asMap() {
     // It is safe to expose the underlying map because it disallows null keys and values
-    return members;
+    return members();
   }
 
   /**
@@ -242,7 +365,7 @@ public final class JsonObject extends JsonElement {
    */
   @Override
   public boolean equals(Object o) {
-    return (o == this) || (o instanceof JsonObject && ((JsonObject) o).members.equals(members));
+    return (o == this) || (o instanceof JsonObject && ((JsonObject) o).members().equals(members()));
   }
 
   /**
@@ -251,6 +374,20 @@ public final class JsonObject extends JsonElement {
    */
   @Override
   public int hashCode() {
-    return members.hashCode();
+    if (!members().isFrozen()) {
+      return members().hashCode();
+    }
+    // Racy single-check caching, like String.hashCode(); is safe because the object is immutable
+    ContainerState state = this.state;
+    if (state == null) {
+      state = new ContainerState();
+      this.state = state;
+    }
+    int result = state.hashCode;
+    if (result == 0) {
+      result = members().hashCode();
+      state.hashCode = result;
+    }
+    return result;
   }
 }
@@ -23,6 +23,7 @@ import com.google.gson.stream.MalformedJsonException;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.util.Arrays;
 
 /**
  * A parser to parse JSON into a parse tree of {@link JsonElement}s.
@@ -110,6 +111,58 @@ public final class JsonParser {
     }
   }
 
+  /**
+   * Parses the specified JSON string into a lazily created parse tree. The JSON string is validated
+   * completely by this method, but the members of a {@link JsonObject} or {@link JsonArray} of the
+   * returned tree are only created when the object or array is first accessed. This reduces the
+   * parsing time and memory usage when only a small part of a large JSON document is accessed.
+   *
+   * <p>Unlike {@link #parseString(String)}, the JSON string is parsed in {@linkplain
+   * Strictness#STRICT strict mode}. Apart from that the returned tree behaves like the one created
+   * by {@code parseString}, and can be modified. However, the JSON string is retained until all
+   * objects and arrays of the tree have been accessed. Because accessing the tree modifies it
+   * internally, the tree must not be accessed concurrently without synchronization, even when it is
+   * only read; calling {@link JsonElement#freeze()} creates the complete tree, after which the tree
+   * can be read concurrently.
+   *
+   * @param json JSON text
+   * @return a lazily created parse tree of {@link JsonElement}s corresponding to the specified JSON
+   * @throws JsonParseException if the specified text is not valid JSON
+   * @since $next-version$
+   */
+  public static JsonElement parseStringLazily(String json) throws JsonSyntaxException {
+    char[] chars = json.toCharArray();
+    return LazyJsonIndex.parse(chars, chars.length);
+  }
+
+  /**
+   * Reads the complete JSON string provided by the reader and parses it into a lazily created parse
+   * tree, see {@link #parseStringLazily(String)}. The reader is not closed.
+   *
+   * @param reader JSON text
+   * @return a lazily created parse tree of {@link JsonElement}s corresponding to the specified JSON
+   * @throws JsonParseException if there is an IOException or if the specified text is not valid
+   *     JSON
+   * @since $next-version$
+   */
+  public static JsonElement parseReaderLazily(Reader reader)
+      throws JsonIOException, JsonSyntaxException {
+    char[] chars = new char[1024];
+    int length = 0;
+    try {
+      int read;
+      while ((read = reader.read(chars, length, chars.length - length)) != -1) {
+        length += read;
+        if (length == chars.length) {
+          chars = Arrays.copyOf(chars, chars.length * 2);
+        }
+      }
+    } catch (IOException e) {
+      throw new JsonIOException(e);
+    }
+    return LazyJsonIndex.parse(chars, length);
+  }
+
   /**
    * @deprecated Use {@link JsonParser#parseString}
    */
@@ -16,6 +16,7 @@
 
 package com.google.gson;
 
+import com.google.gson.internal.DoubleFormatter;
 import com.google.gson.internal.LazilyParsedNumber;
 import com.google.gson.internal.NumberLimits;
 import java.math.BigDecimal;
@@ -26,13 +27,51 @@ import java.util.Objects;
  * A class representing a JSON primitive value. A primitive value is either a String, a Java
  * primitive, or a Java primitive wrapper type.
  *
+ * <p>The {@code of} factory methods, such as {@link #of(long)}, store primitive values without
+ * boxing them and return shared instances for frequently used values. They are used for the parse
+ * trees created by Gson, so numeric values in large parse trees require less memory.
+ *
+ * <p>As a consequence, for numbers in parse trees created by Gson {@link #getAsNumber()} returns a
+ * {@link Long} if the JSON number is an integer with at most 18 digits and without leading zeros,
+ * and a {@link Double} if the JSON number is exactly the shortest string representing a {@code
+ * double}. Only for other numbers, for example numbers with an exponent or with trailing zeros, it
+ * returns a {@code Number} which parses the original JSON string on demand. Before Gson
+ * $next-version$ the latter was returned for all numbers in parse trees.
+ *
  * @author Inderjeet Singh
  * @author Joel Leitch
  */
 public final class JsonPrimitive extends JsonElement {
 
+  /** Marker {@link #value} of a primitive whose {@link #primitiveValue} is a {@code long} */
+  private static final Object LONG = new Object();
+
+  /**
+   * Marker {@link #value} of a primitive whose {@link #primitiveValue} holds {@code double} bits
+   */
+  private static final Object DOUBLE = new Object();
+
+  private static final JsonPrimitive TRUE = new JsonPrimitive(Boolean.TRUE);
+  private static final JsonPrimitive FALSE = new JsonPrimitive(Boolean.FALSE);
+  private static final JsonPrimitive EMPTY_STRING = new JsonPrimitive("");
+
+  private static final int SMALL_LONG_MIN = -128;
+  private static final JsonPrimitive[] SMALL_LONGS = new JsonPrimitive[256];
+
+  static {
+    for (int i = 0; i < SMALL_LONGS.length; i++) {
+      SMALL_LONGS[i] = new JsonPrimitive(LONG, SMALL_LONG_MIN + i);
+    }
+  }
+
   private final Object value;
 
+  /**
+   * The {@code long} value, or the bits of the {@code double} value, if {@link #value} is {@link
+   * #LONG} or {@link #DOUBLE}
+   */
+  private final long primitiveValue;
+
   /**
    * Create a primitive containing a boolean value.
    *
@@ -44,6 +83,7 @@ public final class JsonPrimitive extends JsonElement {
   @SuppressWarnings({"deprecation", "UnnecessaryBoxedVariable"})
   public JsonPrimitive(Boolean bool) {
     value = Objects.requireNonNull(bool);
+    primitiveValue = 0;
   }
 
   /**
@@ -54,6 +94,7 @@ public final class JsonPrimitive extends JsonElement {
   @SuppressWarnings("deprecation") // superclass constructor
   public JsonPrimitive(Number number) {
     value = Objects.requireNonNull(number);
+    primitiveValue = 0;
   }
 
   /**
@@ -64,6 +105,7 @@ public final class JsonPrimitive extends JsonElement {
   @SuppressWarnings("deprecation") // superclass constructor
   public JsonPrimitive(String string) {
     value = Objects.requireNonNull(string);
+    primitiveValue = 0;
   }
 
   /**
@@ -80,6 +122,66 @@ public final class JsonPrimitive extends JsonElement {
     // convert characters to strings since in JSON, characters are represented as a single
     // character string
     value = Objects.requireNonNull(c).toString();
+    primitiveValue = 0;
+  }
+
+  @SuppressWarnings("deprecation") // superclass constructor
+  private JsonPrimitive(Object marker, long primitiveValue) {
+    value = marker;
+    this.primitiveValue = primitiveValue;
+  }
+
+  /**
+   * Returns a primitive containing a boolean value. Unlike {@link #JsonPrimitive(Boolean)} this
+   * method returns shared instances.
+   *
+   * @param value the value of the primitive.
+   * @since $next-version$
+   */
+  public static JsonPrimitive of(boolean value) {
+    return value ? TRUE : FALSE;
+  }
+
+  /**
+   * Returns a primitive containing a {@code long} value. The primitive is equal to the one created
+   * by {@link #JsonPrimitive(Number)} for a {@link Long}, but stores the value without boxing it,
+   * and is a shared instance for small values.
+   *
+   * @param value the value of the primitive.
+   * @since $next-version$
+   */
+  public static JsonPrimitive of(long value) {
+    if (value >= SMALL_LONG_MIN && value < SMALL_LONG_MIN + SMALL_LONGS.length) {
+      return SMALL_LONGS[(int) value - SMALL_LONG_MIN];
+    }
+    return new JsonPrimitive(LONG, value);
+  }
+
+  /**
+   * Returns a primitive containing a {@code double} value. The primitive is equal to the one
+   * created by {@link #JsonPrimitive(Number)} for a {@link Double}, but stores the value without
+   * boxing it.
+   *
+   * @param value the value of the primitive.
+   * @since $next-version$
+   */
+  public static JsonPrimitive of(double value) {
+    return new JsonPrimitive(DOUBLE, Double.doubleToRawLongBits(value));
+  }
+
+  /**
+   * Returns a primitive containing a String value. Unlike {@link #JsonPrimitive(String)} this
+   * method returns a shared instance for the empty string.
+   *
+   * @param value the value of the primitive.
+   * @since $next-version$
+   */
+  public static JsonPrimitive of(String value) {
+    return value.isEmpty() ? EMPTY_STRING : new JsonPrimitive(value);
+  }
+
+  private double doubleValue() {
+    return Double.longBitsToDouble(primitiveValue);
   }
 
   /**
@@ -122,7 +224,7 @@ public final class JsonPrimitive extends JsonElement {
    * @return true if this primitive contains a Number, false otherwise.
    */
   public boolean isNumber() {
-    return value instanceof Number;
+    return value instanceof Number || value == LONG || value == DOUBLE;
   }
 
   /**
@@ -130,12 +232,21 @@ public final class JsonPrimitive extends JsonElement {
    * #isString() is a string}, a lazily parsed {@code Number} is constructed which parses the string
    * when any of its methods are called (which can lead to a {@link NumberFormatException}).
    *
+   * <p>For a primitive created with {@link #of(long)} or {@link #of(double)}, which includes most
+   * numbers in parse trees created by Gson, a {@link Long} or {@link Double} is returned; see the
+   * {@linkplain JsonPrimitive class documentation}. Code should therefore not rely on the concrete
+   * {@code Number} subclass.
+   *
    * @throws UnsupportedOperationException if this primitive is neither a number nor a string.
    */
   @Override
   public Number getAsNumber() {
     if (value instanceof Number) {
       return (Number) value;
+    } else if (value == LONG) {
+      return primitiveValue;
+    } else if (value == DOUBLE) {
+      return doubleValue();
     } else if (value instanceof String) {
       return new LazilyParsedNumber((String) value);
     }
@@ -156,6 +267,10 @@ public final class JsonPrimitive extends JsonElement {
   public String getAsString() {
     if (value instanceof String) {
       return (String) value;
+    } else if (value == LONG) {
+      return Long.toString(primitiveValue);
+    } else if (value == DOUBLE) {
+      return DoubleFormatter.toString(doubleValue());
     } else if (isNumber()) {
       return getAsNumber().toString();
     } else if (isBoolean()) {
@@ -169,6 +284,11 @@ public final class JsonPrimitive extends JsonElement {
    */
   @Override
   public double getAsDouble() {
+    if (value == LONG) {
+      return primitiveValue;
+    } else if (value == DOUBLE) {
+      return doubleValue();
+    }
     return isNumber() ? getAsNumber().doubleValue() : Double.parseDouble(getAsString());
   }
 
@@ -190,7 +310,7 @@ public final class JsonPrimitive extends JsonElement {
     return value instanceof BigInteger
         ? (BigInteger) value
         : isIntegral(this)
-            ? BigInteger.valueOf(this.getAsNumber().longValue())
+            ? BigInteger.valueOf(this.getAsLong())
             : NumberLimits.parseBigInteger(this.getAsString());
   }
 
@@ -210,6 +330,11 @@ public final class JsonPrimitive extends JsonElement {
    */
   @Override
   public long getAsLong() {
+    if (value == LONG) {
+      return primitiveValue;
+    } else if (value == DOUBLE) {
+      return (long) doubleValue();
+    }
     return isNumber() ? getAsNumber().longValue() : Long.parseLong(getAsString());
   }
 
@@ -226,6 +351,11 @@ public final class JsonPrimitive extends JsonElement {
    */
   @Override
   public int getAsInt() {
+    if (value == LONG) {
+      return (int) primitiveValue;
+    } else if (value == DOUBLE) {
+      return (int) doubleValue();
+    }
     return isNumber() ? getAsNumber().intValue() : Integer.parseInt(getAsString());
   }
 
@@ -261,11 +391,11 @@ public final class JsonPrimitive extends JsonElement {
     }
     // Using recommended hashing algorithm from Effective Java for longs and doubles
     if (isIntegral(this)) {
-      long value = getAsNumber().longValue();
+      long value = getAsLong();
       return (int) (value ^ (value >>> 32));
     }
-    if (value instanceof Number) {
-      long value = Double.doubleToLongBits(getAsNumber().doubleValue());
+    if (isNumber()) {
+      long value = Double.doubleToLongBits(getAsDouble());
       return (int) (value ^ (value >>> 32));
     }
     return value.hashCode();
@@ -290,13 +420,13 @@ public final class JsonPrimitive extends JsonElement {
     if (isIntegral(this) && isIntegral(other)) {
       return (this.value instanceof BigInteger || other.value instanceof BigInteger)
           ? this.getAsBigInteger().equals(other.getAsBigInteger())
-          : this.getAsNumber().longValue() == other.getAsNumber().longValue();
+          : this.getAsLong() == other.getAsLong();
     }
-    if (value instanceof Number && other.value instanceof Number) {
-      double a = getAsNumber().doubleValue();
+    if (isNumber() && other.isNumber()) {
+      double a = getAsDouble();
       // Java standard types other than double return true for two NaN. So, need
       // special handling for double.
-      double b = other.getAsNumber().doubleValue();
+      double b = other.getAsDouble();
       return a == b || (Double.isNaN(a) && Double.isNaN(b));
     }
     return value.equals(other.value);
@@ -307,6 +437,9 @@ public final class JsonPrimitive extends JsonElement {
    * BigInteger)
    */
   private static boolean isIntegral(JsonPrimitive primitive) {
+    if (primitive.value == LONG) {
+      return true;
+    }
     if (primitive.value instanceof Number) {
       Number number = (Number) primitive.value;
       return number instanceof BigInteger
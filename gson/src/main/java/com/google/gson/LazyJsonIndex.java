@@ -0,0 +1,474 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson;
+
+import com.google.gson.internal.Streams;
+import com.google.gson.stream.MalformedJsonException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Structural index over JSON text, used by {@link JsonParser#parseStringLazily(String)}.
+ *
+ * <p>The index is built by a single validating scan of the text, which records for every JSON
+ * object and array, in document order, the offset of its opening bracket, the offset of its closing
+ * bracket and the ordinal of the next object or array which is not nested inside it. A {@link
+ * JsonObject} or {@link JsonArray} backed by the index only reads its direct members from the text
+ * when it is first accessed; nested objects and arrays are skipped with the help of the index and
+ * are themselves backed by the index.
+ *
+ * <p>Once all objects and arrays have been read the text is released. This class is not
+ * thread-safe.
+ */
+final class LazyJsonIndex {
+  private static final int INITIAL_CAPACITY = 16;
+
+  /** The JSON text; {@code null} once all objects and arrays have been read */
+  private char[] chars;
+
+  private final int limit;
+
+  /** Offset of the opening bracket of each object and array */
+  private int[] starts = new int[INITIAL_CAPACITY];
+
+  /** Offset of the closing bracket of each object and array */
+  private int[] ends = new int[INITIAL_CAPACITY];
+
+  /** Ordinal of the first object or array following each object and array */
+  private int[] nextOrdinals = new int[INITIAL_CAPACITY];
+
+  /** Number of objects and arrays */
+  private int count;
+
+  /** Number of objects and arrays whose members have already been read */
+  private int readCount;
+
+  private LazyJsonIndex(char[] chars, int limit) {
+    this.chars = chars;
+    this.limit = limit;
+  }
+
+  /**
+   * Validates the JSON text in {@code chars[0, limit)} and returns its root element, whose nested
+   * objects and arrays are backed by an index over the text. The text must not be modified
+   * afterwards.
+   */
+  static JsonElement parse(char[] chars, int limit) throws JsonSyntaxException {
+    LazyJsonIndex index = new LazyJsonIndex(chars, limit);
+    int pos = index.skipWhitespace(0);
+    if (pos == limit) {
+      // Consistent with JsonParser.parseReader for an empty document
+      return JsonNull.INSTANCE;
+    }
+    index.scan(pos);
+    return index.readValue(new Cursor(pos, 0));
+  }
+
+  /** Reads the members of the object with the given ordinal into {@code members}. */
+  void readObjectMembers(int ordinal, Map<String, JsonElement> members) {
+    int end = ends[ordinal];
+    Cursor cursor = new Cursor(skipWhitespace(starts[ordinal] + 1), ordinal + 1);
+    while (cursor.pos < end) {
+      int nameEnd = stringEnd(cursor.pos);
+      String name = readString(cursor.pos, nameEnd);
+      // Skip the ':'
+      cursor.pos = skipWhitespace(skipWhitespace(nameEnd) + 1);
+      members.put(name, readValue(cursor));
+      skipSeparator(cursor, end);
+    }
+    onContainerRead();
+  }
+
+  /** Reads the elements of the array with the given ordinal into {@code elements}. */
+  void readArrayElements(int ordinal, List<JsonElement> elements) {
+    int end = ends[ordinal];
+    Cursor cursor = new Cursor(skipWhitespace(starts[ordinal] + 1), ordinal + 1);
+    while (cursor.pos < end) {
+      elements.add(readValue(cursor));
+      skipSeparator(cursor, end);
+    }
+    onContainerRead();
+  }
+
+  private void onContainerRead() {
+    if (++readCount == count) {
+      chars = null;
+    }
+  }
+
+  /** Position and ordinal of the next nested object or array while reading members */
+  private static final class Cursor {
+    int pos;
+    int nextOrdinal;
+
+    Cursor(int pos, int nextOrdinal) {
+      this.pos = pos;
+      this.nextOrdinal = nextOrdinal;
+    }
+  }
+
+  private JsonElement readValue(Cursor cursor) {
+    int pos = cursor.pos;
+    char c = chars[pos];
+    if (c == '{' || c == '[') {
+      int ordinal = cursor.nextOrdinal;
+      cursor.pos = ends[ordinal] + 1;
+      cursor.nextOrdinal = nextOrdinals[ordinal];
+      return c == '{' ? new JsonObject(this, ordinal) : new JsonArray(this, ordinal);
+    }
+
+    switch (c) {
+      case '"':
+        cursor.pos = stringEnd(pos);
+        return JsonPrimitive.of(readString(pos, cursor.pos));
+      case 't':
+        cursor.pos = pos + 4;
+        return JsonPrimitive.of(true);
+      case 'f':
+        cursor.pos = pos + 5;
+        return JsonPrimitive.of(false);
+      case 'n':
+        cursor.pos = pos + 4;
+        return JsonNull.INSTANCE;
+      default:
+        int end = pos + 1;
+        while (end < limit && isNumberChar(chars[end])) {
+          end++;
+        }
+        cursor.pos = end;
+        return Streams.numberPrimitive(new String(chars, pos, end - pos));
+    }
+  }
+
+  private static boolean isNumberChar(char c) {
+    return (c >= '0' && c <= '9') || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-';
+  }
+
+  /** Only ASCII hex digits; {@link Character#digit(char, int)} also accepts other Unicode digits */
+  private static boolean isHexDigit(char c) {
+    return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+  }
+
+  /** Skips the ',' following a member, if any; the text has already been validated */
+  private void skipSeparator(Cursor cursor, int end) {
+    int pos = skipWhitespace(cursor.pos);
+    cursor.pos = pos < end ? skipWhitespace(pos + 1) : pos;
+  }
+
+  /** Returns the offset after the closing quote of the validated string starting at {@code pos} */
+  private int stringEnd(int pos) {
+    char[] chars = this.chars;
+    int p = pos + 1;
+    while (true) {
+      char c = chars[p];
+      if (c == '"') {
+        return p + 1;
+      }
+      // For '\' skip the escaped char; for '\\u' the following hex digits contain no '"' or '\'
+      p += c == '\\' ? 2 : 1;
+    }
+  }
+
+  /** Reads the validated string in {@code chars[start, end)}, including the quotes */
+  private String readString(int start, int end) {
+    char[] chars = this.chars;
+    int contentStart = start + 1;
+    int contentEnd = end - 1;
+    int p = contentStart;
+    while (p < contentEnd && chars[p] != '\\') {
+      p++;
+    }
+    if (p == contentEnd) {
+      return new String(chars, contentStart, contentEnd - contentStart);
+    }
+
+    StringBuilder builder = new StringBuilder(contentEnd - contentStart);
+    builder.append(chars, contentStart, p - contentStart);
+    while (p < contentEnd) {
+      char c = chars[p++];
+      if (c != '\\') {
+        builder.append(c);
+        continue;
+      }
+      c = chars[p++];
+      switch (c) {
+        case 'b':
+          builder.append('\b');
+          break;
+        case 'f':
+          builder.append('\f');
+          break;
+        case 'n':
+          builder.append('\n');
+          break;
+        case 'r':
+          builder.append('\r');
+          break;
+        case 't':
+          builder.append('\t');
+          break;
+        case 'u':
+          builder.append((char) Integer.parseInt(new String(chars, p, 4), 16));
+          p += 4;
+          break;
+        default:
+          // '"', '\' and '/'
+          builder.append(c);
+          break;
+      }
+    }
+    return builder.toString();
+  }
+
+  private int skipWhitespace(int pos) {
+    char[] chars = this.chars;
+    while (pos < limit) {
+      char c = chars[pos];
+      if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+        break;
+      }
+      pos++;
+    }
+    return pos;
+  }
+
+  private int addContainer(int pos) {
+    if (count == starts.length) {
+      int newLength = count * 2;
+      starts = Arrays.copyOf(starts, newLength);
+      ends = Arrays.copyOf(ends, newLength);
+      nextOrdinals = Arrays.copyOf(nextOrdinals, newLength);
+    }
+    starts[count] = pos;
+    return count++;
+  }
+
+  /**
+   * Validates the JSON value starting at {@code pos} and the rest of the text, and records the
+   * offsets of all objects and arrays. Uses an explicit stack, so deeply nested JSON data does not
+   * cause a {@link StackOverflowError}.
+   */
+  private void scan(int pos) {
+    char[] chars = this.chars;
+    // Ordinals of the enclosing objects and arrays
+    int[] stack = new int[INITIAL_CAPACITY];
+    int depth = 0;
+
+    value:
+    while (true) {
+      if (pos == limit) {
+        throw syntaxError("End of input", pos);
+      }
+      char c = chars[pos];
+      if (c == '{' || c == '[') {
+        if (depth == stack.length) {
+          stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = addContainer(pos);
+        pos = skipWhitespace(pos + 1);
+        if (pos < limit && chars[pos] != (c == '{' ? '}' : ']')) {
+          if (c == '{') {
+            pos = scanName(pos);
+          }
+          continue;
+        }
+        // Empty object or array; closing bracket is handled below
+      } else {
+        pos = skipWhitespace(scanPrimitive(pos));
+      }
+
+      while (true) {
+        if (depth == 0) {
+          if (pos != limit) {
+            // Consistent with JsonParser.parseReader
+            throw new JsonSyntaxException("Did not consume the entire document.");
+          }
+          return;
+        }
+        if (pos == limit) {
+          throw syntaxError("End of input", pos);
+        }
+
+        int ordinal = stack[depth - 1];
+        boolean isObject = chars[starts[ordinal]] == '{';
+        c = chars[pos];
+        if (c == (isObject ? '}' : ']')) {
+          ends[ordinal] = pos;
+          nextOrdinals[ordinal] = count;
+          depth--;
+          pos = skipWhitespace(pos + 1);
+        } else if (c == ',') {
+          pos = skipWhitespace(pos + 1);
+          if (isObject) {
+            pos = scanName(pos);
+          }
+          continue value;
+        } else {
+          throw syntaxError(isObject ? "Expected ',' or '}'" : "Expected ',' or ']'", pos);
+        }
+      }
+    }
+  }
+
+  /**
+   * Validates the member name and ':' starting at {@code pos} and returns the offset of the member
+   * value.
+   */
+  private int scanName(int pos) {
+    if (pos == limit || chars[pos] != '"') {
+      throw syntaxError("Expected name", pos);
+    }
+    pos = skipWhitespace(scanString(pos));
+    if (pos == limit || chars[pos] != ':') {
+      throw syntaxError("Expected ':'", pos);
+    }
+    return skipWhitespace(pos + 1);
+  }
+
+  /** Validates the string, number or literal at {@code pos} and returns the offset after it. */
+  private int scanPrimitive(int pos) {
+    switch (chars[pos]) {
+      case '"':
+        return scanString(pos);
+      case 't':
+        return scanLiteral(pos, "true");
+      case 'f':
+        return scanLiteral(pos, "false");
+      case 'n':
+        return scanLiteral(pos, "null");
+      default:
+        return scanNumber(pos);
+    }
+  }
+
+  private int scanLiteral(int pos, String literal) {
+    int length = literal.length();
+    if (limit - pos < length) {
+      throw syntaxError("Expected value", pos);
+    }
+    for (int i = 0; i < length; i++) {
+      if (chars[pos + i] != literal.charAt(i)) {
+        throw syntaxError("Expected value", pos);
+      }
+    }
+    return pos + length;
+  }
+
+  private int scanNumber(int pos) {
+    char[] chars = this.chars;
+    int p = pos;
+    if (chars[p] == '-') {
+      p++;
+    }
+    if (p < limit && chars[p] == '0') {
+      p++;
+    } else {
+      int digitsStart = p;
+      p = scanDigits(p);
+      if (p == digitsStart) {
+        throw syntaxError(p == pos ? "Expected value" : "Malformed number", pos);
+      }
+    }
+    if (p < limit && chars[p] == '.') {
+      int digitsStart = ++p;
+      p = scanDigits(p);
+      if (p == digitsStart) {
+        throw syntaxError("Malformed number", pos);
+      }
+    }
+    if (p < limit && (chars[p] == 'e' || chars[p] == 'E')) {
+      p++;
+      if (p < limit && (chars[p] == '+' || chars[p] == '-')) {
+        p++;
+      }
+      int digitsStart = p;
+      p = scanDigits(p);
+      if (p == digitsStart) {
+        throw syntaxError("Malformed number", pos);
+      }
+    }
+    return p;
+  }
+
+  private int scanDigits(int pos) {
+    while (pos < limit && chars[pos] >= '0' && chars[pos] <= '9') {
+      pos++;
+    }
+    return pos;
+  }
+
+  private int scanString(int pos) {
+    char[] chars = this.chars;
+    int p = pos + 1;
+    while (p < limit) {
+      char c = chars[p];
+      if (c == '"') {
+        return p + 1;
+      } else if (c == '\\') {
+        p++;
+        if (p == limit) {
+          break;
+        }
+        switch (chars[p]) {
+          case '"':
+          case '\\':
+          case '/':
+          case 'b':
+          case 'f':
+          case 'n':
+          case 'r':
+          case 't':
+            p++;
+            break;
+          case 'u':
+            if (limit - p < 5) {
+              throw syntaxError("Unterminated escape sequence", p);
+            }
+            for (int i = 1; i <= 4; i++) {
+              if (!isHexDigit(chars[p + i])) {
+                throw syntaxError("Malformed Unicode escape sequence", p);
+              }
+            }
+            p += 5;
+            break;
+          default:
+            throw syntaxError("Invalid escape sequence", p);
+        }
+      } else if (c < 0x20) {
+        throw syntaxError("Unescaped control characters (\\u0000-\\u001F) are not allowed", p);
+      } else {
+        p++;
+      }
+    }
+    throw syntaxError("Unterminated string", pos);
+  }
+
+  private JsonSyntaxException syntaxError(String message, int pos) {
+    int line = 1;
+    int lineStart = 0;
+    for (int i = 0; i < pos; i++) {
+      if (chars[i] == '\n') {
+        line++;
+        lineStart = i + 1;
+      }
+    }
+    int column = pos - lineStart + 1;
+    return new JsonSyntaxException(
+        new MalformedJsonException(message + " at line " + line + " column " + column));
+  }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson;
+
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.Utf8JsonReader;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Deserializes the elements of a top-level JSON array in parallel, used by {@link
+ * Gson#fromJsonArray(ByteBuffer, TypeToken, ForkJoinPool)}.
+ *
+ * <p>A sequential pre-scan of the UTF-8 encoded data finds the byte range of every element, only
+ * tracking string boundaries and the nesting depth of brackets. The elements are then deserialized
+ * by tasks of a {@link ForkJoinPool}, each of which deserializes a contiguous range of elements,
+ * every element with its own {@link Utf8JsonReader}. The elements are stored at their index, so the
+ * order of the array is preserved.
+ */
+final class ParallelArrayReader<T> extends RecursiveAction {
+  private static final long serialVersionUID = 1L;
+
+  /** Element ranges whose data is at most this many bytes are not split into further tasks */
+  static final int MIN_TASK_BYTES = 32 * 1024;
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final Shared<T> shared;
+  private final int from;
+  private final int to;
+
+  private ParallelArrayReader(Shared<T> shared, int from, int to) {
+    this.shared = shared;
+    this.from = from;
+    this.to = to;
+  }
+
+  /** State shared by all tasks deserializing the same array */
+  private static final class Shared<T> {
+    final Gson gson;
+    final TypeToken<T> elementType;
+    final ByteBuffer data;
+
+    /** Offset of the first byte of each element in {@link #data} */
+    int[] starts = new int[INITIAL_CAPACITY];
+
+    /** Offset after the last byte of each element in {@link #data} */
+    int[] ends = new int[INITIAL_CAPACITY];
+
+    int count;
+    Object[] results;
+
+    /** Exception of the element with the lowest index which failed, if any */
+    RuntimeException failure;
+
+    /**
+     * Index of {@link #failure}, or {@link Integer#MAX_VALUE} if no element failed. Tasks stop at
+     * this index but still deserialize all elements below it, so that the failure of the lowest
+     * failing element is reported regardless of the order in which the tasks run.
+     */
+    volatile int failureIndex = Integer.MAX_VALUE;
+
+    Shared(Gson gson, TypeToken<T> elementType, ByteBuffer data) {
+      this.gson = gson;
+      this.elementType = elementType;
+      this.data = data;
+    }
+
+    void addElement(int start, int end) {
+      if (count == starts.length) {
+        starts = Arrays.copyOf(starts, count * 2);
+        ends = Arrays.copyOf(ends, count * 2);
+      }
+      starts[count] = start;
+      ends[count] = end;
+      count++;
+    }
+
+    synchronized void fail(int index, RuntimeException e) {
+      if (index < failureIndex) {
+        failure = e;
+        failureIndex = index;
+      }
+    }
+  }
+
+  /**
+   * Deserializes the JSON array in the remaining bytes of {@code data}, whose position is not
+   * changed. Returns {@code null} if the data is not a JSON array whose elements can be found by
+   * the pre-scan, for example because it contains comments or is malformed; the caller then has to
+   * deserialize the data sequentially.
+   */
+  static <T> List<T> read(Gson gson, ByteBuffer data, TypeToken<T> elementType, ForkJoinPool pool) {
+    Shared<T> shared = new Shared<>(gson, elementType, data);
+    if (!scan(shared)) {
+      return null;
+    }
+
+    shared.results = new Object[shared.count];
+    if (shared.count > 0) {
+      pool.invoke(new ParallelArrayReader<>(shared, 0, shared.count));
+    }
+    if (shared.failure != null) {
+      throw shared.failure;
+    }
+
+    @SuppressWarnings("unchecked")
+    List<T> elements = (List<T>) new ArrayList<>(Arrays.asList(shared.results));
+    return elements;
+  }
+
+  /**
+   * Finds the byte ranges of the elements of the array. Returns false if the data has a structure
+   * which is not supported by the pre-scan.
+   */
+  private static boolean scan(Shared<?> shared) {
+    ByteBuffer data = shared.data;
+    int limit = data.limit();
+    int pos = data.position();
+    // Skip the UTF-8 byte order mark, like Utf8JsonReader does
+    if (limit - pos >= 3
+        && data.get(pos) == (byte) 0xEF
+        && data.get(pos + 1) == (byte) 0xBB
+        && data.get(pos + 2) == (byte) 0xBF) {
+      pos += 3;
+    }
+    pos = skipWhitespace(data, pos, limit);
+    if (pos == limit || data.get(pos) != '[') {
+      return false;
+    }
+    pos = skipWhitespace(data, pos + 1, limit);
+    if (pos < limit && data.get(pos) == ']') {
+      // Empty array
+      return skipWhitespace(data, pos + 1, limit) == limit;
+    }
+
+    while (true) {
+      int start = pos;
+      int lastNonWhitespace = -1;
+      int depth = 0;
+      // Bytes of multi-byte UTF-8 sequences are negative and never match the ASCII chars below
+      while (true) {
+        if (pos == limit) {
+          return false;
+        }
+        byte b = data.get(pos);
+        if (depth == 0 && (b == ',' || b == ']')) {
+          break;
+        }
+        switch (b) {
+          case '"':
+            pos = stringEnd(data, pos + 1, limit);
+            if (pos == -1) {
+              return false;
+            }
+            lastNonWhitespace = pos - 1;
+            continue;
+          case '[':
+          case '{':
+            depth++;
+            break;
+          case ']':
+          case '}':
+            depth--;
+            if (depth < 0) {
+              return false;
+            }
+            break;
+          case '/':
+          case '#':
+          case '\'':
+            // Lenient syntax, such as comments, which the pre-scan does not support
+            return false;
+          case ' ':
+          case '\t':
+          case '\n':
+          case '\r':
+            pos++;
+            continue;
+          default:
+            break;
+        }
+        lastNonWhitespace = pos;
+        pos++;
+      }
+
+      if (lastNonWhitespace == -1) {
+        // Missing element, as in "[1,,2]"
+        return false;
+      }
+      shared.addElement(start, lastNonWhitespace + 1);
+
+      if (data.get(pos) == ']') {
+        return skipWhitespace(data, pos + 1, limit) == limit;
+      }
+      pos = skipWhitespace(data, pos + 1, limit);
+    }
+  }
+
+  private static int skipWhitespace(ByteBuffer data, int pos, int limit) {
+    while (pos < limit) {
+      byte b = data.get(pos);
+      if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+        break;
+      }
+      pos++;
+    }
+    return pos;
+  }
+
+  /**
+   * Returns the offset after the closing quote of the string whose content starts at {@code pos},
+   * or -1 if the string is not terminated.
+   */
+  private static int stringEnd(ByteBuffer data, int pos, int limit) {
+    while (pos < limit) {
+      byte b = data.get(pos++);
+      if (b == '"') {
+        return pos;
+      } else if (b == '\\') {
+        // Skip the escaped char; for "\\u" escapes the hex digits need no special handling
+        pos++;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  protected void compute() {
+    Shared<T> shared = this.shared;
+    if (to - from > 1 && shared.ends[to - 1] - shared.starts[from] > MIN_TASK_BYTES) {
+      int middle = (from + to) >>> 1;
+      invokeAll(
+          new ParallelArrayReader<>(shared, from, middle),
+          new ParallelArrayReader<>(shared, middle, to));
+      return;
+    }
+
+    ByteBuffer data = shared.data;
+    byte[] bytes;
+    int offset;
+    if (data.hasArray()) {
+      bytes = data.array();
+      offset = data.arrayOffset();
+    } else {
+      // Copy the data of all elements of this task at once, then read it as array
+      int start = shared.starts[from];
+      bytes = new byte[shared.ends[to - 1] - start];
+      ByteBuffer source = data.duplicate();
+      source.position(start);
+      source.get(bytes);
+      offset = -start;
+    }
+
+    for (int i = from; i < to && i < shared.failureIndex; i++) {
+      int start = shared.starts[i];
+      Utf8JsonReader reader = new Utf8JsonReader(bytes, offset + start, shared.ends[i] - start);
+      try {
+        T element =
+            shared.gson.fromJson(shared.gson.configureJsonReader(reader), shared.elementType);
+        Gson.assertFullConsumption(element, reader);
+        shared.results[i] = element;
+      } catch (JsonSyntaxException e) {
+        shared.fail(
+            i, new JsonSyntaxException("Failed to deserialize element " + i + " of JSON array", e));
+      } catch (RuntimeException e) {
+        shared.fail(i, e);
+      }
+    }
+  }
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.internal;
+
+import java.math.BigInteger;
+
+/**
+ * Formats {@code double} values as the shortest decimal string which parses back to the same value,
+ * using the Schubfach algorithm by Raffaello Giulietti ("The Schubfach way to render doubles",
+ * 2020). The output has the same format as {@link Double#toString(double)}, which since JDK 19 uses
+ * the same algorithm; older JDKs sometimes produce more digits than necessary.
+ *
+ * <p>The digits are written directly into a caller provided {@code char} array, so formatting does
+ * not allocate.
+ */
+public final class DoubleFormatter {
+  /** Maximum number of chars written by {@link #format}, for example "-2.2250738585072014E-308" */
+  public static final int MAX_LENGTH = 24;
+
+  private static final int P = 53; // Precision of double, including hidden bit
+  private static final int W = 11; // Width of the exponent
+  private static final int Q_MIN = -1074;
+  private static final int BQ_MASK = (1 << W) - 1;
+  private static final long T_MASK = (1L << (P - 1)) - 1;
+  private static final long C_MIN = 1L << (P - 1);
+  private static final long C_TINY = 3;
+  private static final long MASK_63 = (1L << 63) - 1;
+
+  private static final int K_MIN = -324;
+  private static final int K_MAX = 292;
+
+  /** High and low 63 bits of {@code g} for each {@code k}, see {@link #computeG(int)} */
+  private static final long[] G = new long[2 * (K_MAX - K_MIN + 1)];
+
+  private static final long[] POW10 = new long[18];
+
+  static {
+    for (int k = K_MIN; k <= K_MAX; k++) {
+      BigInteger g = computeG(k);
+      G[2 * (k - K_MIN)] = g.shiftRight(63).longValue();
+      G[2 * (k - K_MIN) + 1] = g.longValue() & MASK_63;
+    }
+    long pow10 = 1;
+    for (int i = 0; i < POW10.length; i++) {
+      POW10[i] = pow10;
+      pow10 *= 10;
+    }
+  }
+
+  private DoubleFormatter() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Returns {@code floor(10^-k 2^-r) + 1}, where {@code r} is chosen so that the result is in the
+   * range {@code [2^125, 2^126)}.
+   */
+  private static BigInteger computeG(int k) {
+    int shift = 125 - flog2pow10(-k);
+    BigInteger g;
+    if (k <= 0) {
+      BigInteger pow10 = BigInteger.TEN.pow(-k);
+      g = shift >= 0 ? pow10.shiftLeft(shift) : pow10.shiftRight(-shift);
+    } else {
+      g = BigInteger.ONE.shiftLeft(shift).divide(BigInteger.TEN.pow(k));
+    }
+    return g.add(BigInteger.ONE);
+  }
+
+  /** Returns {@code floor(log10(2^e))} */
+  private static int flog10pow2(int e) {
+    return (int) ((e * 661_971_961_083L) >> 41);
+  }
+
+  /** Returns {@code floor(log10(3/4 2^e))} */
+  private static int flog10threeQuartersPow2(int e) {
+    return (int) ((e * 661_971_961_083L - 274_743_187_321L) >> 41);
+  }
+
+  /** Returns {@code floor(log2(10^e))} */
+  static int flog2pow10(int e) {
+    return (int) ((e * 913_124_641_741L) >> 38);
+  }
+
+  /** Returns the high 64 bits of the signed 128 bit product; same as {@code Math.multiplyHigh}. */
+  static long multiplyHigh(long x, long y) {
+    long x1 = x >> 32;
+    long x2 = x & 0xFFFFFFFFL;
+    long y1 = y >> 32;
+    long y2 = y & 0xFFFFFFFFL;
+    long z2 = x2 * y2;
+    long t = x1 * y2 + (z2 >>> 32);
+    long z1 = t & 0xFFFFFFFFL;
+    long z0 = t >> 32;
+    z1 += x2 * y1;
+    return x1 * y1 + z0 + (z1 >> 32);
+  }
+
+  /** Returns the string representation of {@code value}, see {@link #format}. */
+  public static String toString(double value) {
+    char[] chars = new char[MAX_LENGTH];
+    return new String(chars, 0, format(value, chars, 0));
+  }
+
+  /**
+   * Writes the string representation of {@code value} to {@code chars} starting at {@code offset},
+   * and returns the offset after the last written char. At most {@link #MAX_LENGTH} chars are
+   * written.
+   */
+  public static int format(double value, char[] chars, int offset) {
+    long bits = Double.doubleToRawLongBits(value);
+    long t = bits & T_MASK;
+    int bq = (int) (bits >>> (P - 1)) & BQ_MASK;
+    if (bq == BQ_MASK) {
+      return t != 0
+          ? append(chars, offset, "NaN")
+          : append(chars, offset, bits > 0 ? "Infinity" : "-Infinity");
+    }
+
+    if (bits < 0) {
+      chars[offset++] = '-';
+    }
+    if (bq != 0) {
+      // Normal value
+      int mq = -Q_MIN + 1 - bq;
+      long c = C_MIN | t;
+      // Integer values with at most 53 bits
+      if (0 < mq && mq < P) {
+        long f = c >> mq;
+        if (f << mq == c) {
+          return toChars(f, 0, chars, offset);
+        }
+      }
+      return toDecimal(-mq, c, 0, chars, offset);
+    }
+    if (t != 0) {
+      // Subnormal value
+      return t < C_TINY
+          ? toDecimal(Q_MIN, 10 * t, -1, chars, offset)
+          : toDecimal(Q_MIN, t, 0, chars, offset);
+    }
+    return append(chars, offset, "0.0");
+  }
+
+  private static int append(char[] chars, int offset, String s) {
+    int length = s.length();
+    s.getChars(0, length, chars, offset);
+    return offset + length;
+  }
+
+  private static int toDecimal(int q, long c, int dk, char[] chars, int offset) {
+    int out = (int) c & 0x1;
+    long cb = c << 2;
+    long cbr = cb + 2;
+    long cbl;
+    int k;
+    if (c != C_MIN || q == Q_MIN) {
+      // Regular spacing
+      cbl = cb - 2;
+      k = flog10pow2(q);
+    } else {
+      // Irregular spacing
+      cbl = cb - 1;
+      k = flog10threeQuartersPow2(q);
+    }
+    int h = q + flog2pow10(-k) + 2;
+
+    int index = 2 * (k - K_MIN);
+    long g1 = G[index];
+    long g0 = G[index + 1];
+
+    long vb = rop(g1, g0, cb << h);
+    long vbl = rop(g1, g0, cbl << h);
+    long vbr = rop(g1, g0, cbr << h);
+
+    long s = vb >> 2;
+    if (s >= 100) {
+      // sp10 = 10 floor(s / 10)
+      long sp10 = 10 * multiplyHigh(s, 115_292_150_460_684_698L << 4);
+      long tp10 = sp10 + 10;
+      boolean upin = vbl + out <= sp10 << 2;
+      boolean wpin = (tp10 << 2) + out <= vbr;
+      if (upin != wpin) {
+        return toChars(upin ? sp10 : tp10, k, chars, offset);
+      }
+    }
+
+    long t = s + 1;
+    boolean uin = vbl + out <= s << 2;
+    boolean win = (t << 2) + out <= vbr;
+    if (uin != win) {
+      return toChars(uin ? s : t, k + dk, chars, offset);
+    }
+    // Both candidates are in the rounding interval; choose the one closest to the value
+    long cmp = vb - ((s + t) << 1);
+    return toChars(cmp < 0 || (cmp == 0 && (s & 0x1) == 0) ? s : t, k + dk, chars, offset);
+  }
+
+  /** Computes the rounded-to-odd value of {@code cp g 2^-127}, where {@code g = g1 2^63 + g0}. */
+  private static long rop(long g1, long g0, long cp) {
+    long x1 = multiplyHigh(g0, cp);
+    long y0 = g1 * cp;
+    long y1 = multiplyHigh(g1, cp);
+    long z = (y0 >>> 1) + x1;
+    long vbp = y1 + (z >>> 63);
+    return vbp | (((z & MASK_63) + MASK_63) >>> 63);
+  }
+
+  /** Writes {@code f 10^e} in the format of {@link Double#toString(double)}. */
+  private static int toChars(long f, int e, char[] chars, int offset) {
+    int length = 1;
+    while (length < POW10.length && f >= POW10[length]) {
+      length++;
+    }
+    // Value is 0.f 10^exponent
+    int exponent = e + length;
+    while (f % 10 == 0) {
+      f /= 10;
+      length--;
+    }
+
+    if (0 < exponent && exponent <= 7) {
+      // Plain format, without leading zeros
+      if (length <= exponent) {
+        writeDigits(f, length, length, chars, offset);
+        offset += length;
+        for (int i = length; i < exponent; i++) {
+          chars[offset++] = '0';
+        }
+        chars[offset++] = '.';
+        chars[offset++] = '0';
+        return offset;
+      }
+      return writeDigits(f, length, exponent, chars, offset);
+    }
+    if (-3 < exponent && exponent <= 0) {
+      // Plain format, with leading zeros
+      chars[offset++] = '0';
+      chars[offset++] = '.';
+      for (int i = exponent; i < 0; i++) {
+        chars[offset++] = '0';
+      }
+      return writeDigits(f, length, length, chars, offset);
+    }
+
+    // Scientific notation
+    if (length == 1) {
+      chars[offset++] = (char) ('0' + f);
+      chars[offset++] = '.';
+      chars[offset++] = '0';
+    } else {
+      offset = writeDigits(f, length, 1, chars, offset);
+    }
+    chars[offset++] = 'E';
+    int decimalExponent = exponent - 1;
+    if (decimalExponent < 0) {
+      chars[offset++] = '-';
+      decimalExponent = -decimalExponent;
+    }
+    if (decimalExponent >= 100) {
+      chars[offset++] = (char) ('0' + decimalExponent / 100);
+      decimalExponent %= 100;
+      chars[offset++] = (char) ('0' + decimalExponent / 10);
+    } else if (decimalExponent >= 10) {
+      chars[offset++] = (char) ('0' + decimalExponent / 10);
+    }
+    chars[offset++] = (char) ('0' + decimalExponent % 10);
+    return offset;
+  }
+
+  /**
+   * Writes the {@code length} digits of {@code f}, with a '.' after the first {@code dotPosition}
+   * digits unless {@code dotPosition == length}, and returns the offset after the last digit.
+   */
+  private static int writeDigits(long f, int length, int dotPosition, char[] chars, int offset) {
+    int end = offset + length + (dotPosition < length ? 1 : 0);
+    int i = end;
+    for (int digit = length - 1; digit >= 0; digit--) {
+      if (digit == dotPosition - 1 && dotPosition < length) {
+        chars[--i] = '.';
+      }
+      chars[--i] = (char) ('0' + f % 10);
+      f /= 10;
+    }
+    return end;
+  }
+}
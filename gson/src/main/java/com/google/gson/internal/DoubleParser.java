@@ -0,0 +1,266 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.internal;
+
+import java.math.BigInteger;
+
+/**
+ * Parses JSON number strings to {@code double} without creating a {@code String}, using Clinger's
+ * fast path and the Eisel-Lemire algorithm (Daniel Lemire, "Number Parsing at a Gigabyte per
+ * Second", 2021). Both produce correctly rounded results; for the rare cases they cannot decide,
+ * and for numbers with more than 19 significant digits, {@link #NOT_HANDLED} is returned and the
+ * caller has to fall back to {@link Double#parseDouble(String)}.
+ *
+ * <p>The input must be a valid JSON number, as already validated by the JSON reader.
+ */
+public final class DoubleParser {
+  /**
+   * Result if the number could not be parsed by the fast paths. JSON numbers are never NaN, so the
+   * result can be distinguished from parsed numbers with {@link Double#isNaN(double)}.
+   */
+  public static final double NOT_HANDLED = Double.NaN;
+
+  /** Maximum number of significant decimal digits which fit in an unsigned {@code long} */
+  private static final int MAX_DIGITS = 19;
+
+  /** Larger exponents are clamped, they are out of range for {@code double} anyway */
+  private static final int MAX_EXPONENT = 100_000;
+
+  /** Powers of ten which are exactly representable as {@code double} */
+  private static final double[] EXACT_POW10 = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+    1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  private DoubleParser() {
+    throw new UnsupportedOperationException();
+  }
+
+  /** Table for the Eisel-Lemire algorithm; in a holder class so that it is created on first use */
+  private static final class Pow10Table {
+    static final int MIN_EXPONENT = -342;
+    static final int MAX_EXPONENT = 308;
+
+    /**
+     * High and low 64 bits of the 128 bit approximation of each power of ten, normalized so that
+     * the most significant bit is set, and rounded down.
+     */
+    static final long[] TABLE = new long[2 * (MAX_EXPONENT - MIN_EXPONENT + 1)];
+
+    static {
+      for (int q = MIN_EXPONENT; q <= MAX_EXPONENT; q++) {
+        BigInteger mantissa;
+        if (q >= 0) {
+          mantissa = BigInteger.TEN.pow(q);
+          int shift = mantissa.bitLength() - 128;
+          mantissa = shift > 0 ? mantissa.shiftRight(shift) : mantissa.shiftLeft(-shift);
+        } else {
+          BigInteger divisor = BigInteger.TEN.pow(-q);
+          mantissa = BigInteger.ONE.shiftLeft(127 + divisor.bitLength()).divide(divisor);
+        }
+        int index = 2 * (q - MIN_EXPONENT);
+        TABLE[index] = mantissa.shiftRight(64).longValue();
+        TABLE[index + 1] = mantissa.longValue();
+      }
+    }
+  }
+
+  /** Parses the JSON number in {@code chars[start, end)}. */
+  public static double parse(char[] chars, int start, int end) {
+    int i = start;
+    boolean negative = chars[i] == '-';
+    if (negative) {
+      i++;
+    }
+    long significand = 0;
+    int digits = 0;
+    int exponent = 0;
+    boolean isFraction = false;
+    for (; i < end; i++) {
+      char c = chars[i];
+      if (c == '.') {
+        isFraction = true;
+        continue;
+      } else if (c < '0' || c > '9') {
+        break;
+      }
+      // Leading zeros are not significant
+      if (significand != 0 || c != '0') {
+        if (++digits > MAX_DIGITS) {
+          return NOT_HANDLED;
+        }
+        significand = significand * 10 + (c - '0');
+      }
+      if (isFraction) {
+        exponent--;
+      }
+    }
+    if (i < end) {
+      // Exponent
+      i++;
+      boolean negativeExponent = chars[i] == '-';
+      if (negativeExponent || chars[i] == '+') {
+        i++;
+      }
+      int explicitExponent = 0;
+      for (; i < end; i++) {
+        if (explicitExponent < MAX_EXPONENT) {
+          explicitExponent = explicitExponent * 10 + (chars[i] - '0');
+        }
+      }
+      exponent += negativeExponent ? -explicitExponent : explicitExponent;
+    }
+    return toDouble(significand, exponent, negative);
+  }
+
+  /** Parses the JSON number in {@code bytes[start, end)}, which is ASCII encoded. */
+  public static double parse(byte[] bytes, int start, int end) {
+    int i = start;
+    boolean negative = bytes[i] == '-';
+    if (negative) {
+      i++;
+    }
+    long significand = 0;
+    int digits = 0;
+    int exponent = 0;
+    boolean isFraction = false;
+    for (; i < end; i++) {
+      byte c = bytes[i];
+      if (c == '.') {
+        isFraction = true;
+        continue;
+      } else if (c < '0' || c > '9') {
+        break;
+      }
+      if (significand != 0 || c != '0') {
+        if (++digits > MAX_DIGITS) {
+          return NOT_HANDLED;
+        }
+        significand = significand * 10 + (c - '0');
+      }
+      if (isFraction) {
+        exponent--;
+      }
+    }
+    if (i < end) {
+      i++;
+      boolean negativeExponent = bytes[i] == '-';
+      if (negativeExponent || bytes[i] == '+') {
+        i++;
+      }
+      int explicitExponent = 0;
+      for (; i < end; i++) {
+        if (explicitExponent < MAX_EXPONENT) {
+          explicitExponent = explicitExponent * 10 + (bytes[i] - '0');
+        }
+      }
+      exponent += negativeExponent ? -explicitExponent : explicitExponent;
+    }
+    return toDouble(significand, exponent, negative);
+  }
+
+  /**
+   * Returns the {@code double} closest to {@code significand 10^exponent}, where the significand is
+   * unsigned.
+   */
+  private static double toDouble(long significand, int exponent, boolean negative) {
+    if (significand == 0) {
+      return negative ? -0.0 : 0.0;
+    }
+    // Clinger's fast path: significand and power of ten are exact, so a single rounding occurs
+    if ((significand >>> 53) == 0 && exponent >= -22 && exponent <= 22) {
+      double value = (double) significand;
+      value = exponent < 0 ? value / EXACT_POW10[-exponent] : value * EXACT_POW10[exponent];
+      return negative ? -value : value;
+    }
+    return eiselLemire(significand, exponent, negative);
+  }
+
+  private static boolean unsignedLessThan(long a, long b) {
+    return (a + Long.MIN_VALUE) < (b + Long.MIN_VALUE);
+  }
+
+  /** Returns the high 64 bits of the unsigned 128 bit product. */
+  private static long unsignedMultiplyHigh(long x, long y) {
+    return DoubleFormatter.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+  }
+
+  private static double eiselLemire(long significand, int exponent, boolean negative) {
+    if (exponent < Pow10Table.MIN_EXPONENT || exponent > Pow10Table.MAX_EXPONENT) {
+      return NOT_HANDLED;
+    }
+    long[] table = Pow10Table.TABLE;
+    int index = 2 * (exponent - Pow10Table.MIN_EXPONENT);
+
+    // Normalization
+    int leadingZeros = Long.numberOfLeadingZeros(significand);
+    significand <<= leadingZeros;
+    long resultExponent = ((217706L * exponent) >> 16) + 64 + 1023 - leadingZeros;
+
+    // Multiplication
+    long high = table[index];
+    long xHigh = unsignedMultiplyHigh(significand, high);
+    long xLow = significand * high;
+
+    // Wider approximation, if the lower bits of the product are all ones
+    if ((xHigh & 0x1FF) == 0x1FF && unsignedLessThan(xLow + significand, significand)) {
+      long low = table[index + 1];
+      long yHigh = unsignedMultiplyHigh(significand, low);
+      long yLow = significand * low;
+      long mergedHigh = xHigh;
+      long mergedLow = xLow + yHigh;
+      if (unsignedLessThan(mergedLow, xLow)) {
+        mergedHigh++;
+      }
+      if ((mergedHigh & 0x1FF) == 0x1FF
+          && mergedLow + 1 == 0
+          && unsignedLessThan(yLow + significand, significand)) {
+        return NOT_HANDLED;
+      }
+      xHigh = mergedHigh;
+      xLow = mergedLow;
+    }
+
+    // Shifting to 54 bits
+    int msb = (int) (xHigh >>> 63);
+    long mantissa = xHigh >>> (msb + 9);
+    resultExponent -= 1 ^ msb;
+
+    // Half-way ambiguity
+    if (xLow == 0 && (xHigh & 0x1FF) == 0 && (mantissa & 3) == 1) {
+      return NOT_HANDLED;
+    }
+
+    // From 54 to 53 bits
+    mantissa += mantissa & 1;
+    mantissa >>>= 1;
+    if ((mantissa >>> 53) > 0) {
+      mantissa >>>= 1;
+      resultExponent++;
+    }
+
+    // Subnormal, infinite or out of range
+    if (resultExponent <= 0 || resultExponent >= 0x7FF) {
+      return NOT_HANDLED;
+    }
+    long bits = (resultExponent << 52) | (mantissa & 0x000FFFFFFFFFFFFFL);
+    if (negative) {
+      bits |= Long.MIN_VALUE;
+    }
+    return Double.longBitsToDouble(bits);
+  }
+}
@@ -189,6 +189,49 @@ public final class Excluder implements TypeAdapterFactory, Cloneable {
     return false;
   }
 
+  /**
+   * Variant of {@link #excludeField(Field, boolean)} for type adapters generated at compile time,
+   * which describe the field instead of providing a {@code Field}. {@code since} and {@code until}
+   * are the values of the {@link Since} and {@link Until} annotations of the field, or {@code NaN}
+   * if it has no such annotation. {@code exposed} is whether the field has an {@link Expose}
+   * annotation which includes it for {@code serialize} respectively deserialization.
+   *
+   * <p>Exclusion strategies are not considered, see {@link #hasExclusionStrategies()}.
+   */
+  public boolean excludeField(
+      Class<?> fieldType,
+      int fieldModifiers,
+      double since,
+      double until,
+      boolean exposed,
+      boolean serialize) {
+    if ((modifiers & fieldModifiers) != 0) {
+      return true;
+    }
+
+    if (version != Excluder.IGNORE_VERSIONS && !isValidVersion(since, until)) {
+      return true;
+    }
+
+    if (requireExpose && !exposed) {
+      return true;
+    }
+
+    if (!serializeInnerClasses && isInnerClass(fieldType)) {
+      return true;
+    }
+
+    return isAnonymousOrNonStaticLocal(fieldType);
+  }
+
+  /**
+   * Returns whether any {@link ExclusionStrategy} has been registered, which requires the {@code
+   * Field} for deciding whether a field is excluded.
+   */
+  public boolean hasExclusionStrategies() {
+    return !serializationStrategies.isEmpty() || !deserializationStrategies.isEmpty();
+  }
+
   private boolean excludeClassChecks(Class<?> clazz) {
     if (version != Excluder.IGNORE_VERSIONS
         && !isValidVersion(clazz.getAnnotation(Since.class), clazz.getAnnotation(Until.class))) {
@@ -231,22 +274,12 @@ public final class Excluder implements TypeAdapterFactory, Cloneable {
   }
 
   private boolean isValidVersion(Since since, Until until) {
-    return isValidSince(since) && isValidUntil(until);
+    return isValidVersion(
+        since == null ? Double.NaN : since.value(), until == null ? Double.NaN : until.value());
   }
 
-  private boolean isValidSince(Since annotation) {
-    if (annotation != null) {
-      double annotationVersion = annotation.value();
-      return version >= annotationVersion;
-    }
-    return true;
-  }
-
-  private boolean isValidUntil(Until annotation) {
-    if (annotation != null) {
-      double annotationVersion = annotation.value();
-      return version < annotationVersion;
-    }
-    return true;
+  /** Checks the version; {@code NaN} represents a missing annotation */
+  private boolean isValidVersion(double since, double until) {
+    return !(version < since) && !(version >= until);
   }
 }
@@ -22,7 +22,9 @@ import java.io.ObjectStreamException;
 import java.math.BigDecimal;
 
 /**
- * This class holds a number value that is lazily converted to a specific number type
+ * This class holds a number value that is lazily converted to a specific number type. The results
+ * of {@link #longValue()} and {@link #doubleValue()} are cached, so repeatedly getting the value
+ * only parses the string once.
  *
  * @author Inderjeet Singh
  */
@@ -30,6 +32,15 @@ import java.math.BigDecimal;
 public final class LazilyParsedNumber extends Number {
   private final String value;
 
+  // Racy single-check caching, like String.hashCode(); is safe because Long and Double are
+  // immutable. Fields are transient because writeReplace() serializes a BigDecimal instead.
+
+  /** Cached result of {@link #longValue()}; {@code null} if not computed yet */
+  private transient Long longValue;
+
+  /** Cached result of {@link #doubleValue()}; {@code null} if not computed yet */
+  private transient Double doubleValue;
+
   /**
    * @param value must not be null
    */
@@ -43,24 +54,24 @@ public final class LazilyParsedNumber extends Number {
 
   @Override
   public int intValue() {
-    try {
-      return Integer.parseInt(value);
-    } catch (NumberFormatException e) {
-      try {
-        return (int) Long.parseLong(value);
-      } catch (NumberFormatException nfe) {
-        return asBigDecimal().intValue();
-      }
-    }
+    // Same as parsing as int; BigDecimal.intValue() and longValue() both return the low-order bits
+    return (int) longValue();
   }
 
   @Override
   public long longValue() {
-    try {
-      return Long.parseLong(value);
-    } catch (NumberFormatException e) {
-      return asBigDecimal().longValue();
+    Long result = longValue;
+    if (result == null) {
+      long parsed;
+      try {
+        parsed = Long.parseLong(value);
+      } catch (NumberFormatException e) {
+        parsed = asBigDecimal().longValue();
+      }
+      result = parsed;
+      longValue = result;
     }
+    return result;
   }
 
   @Override
@@ -70,7 +81,12 @@ public final class LazilyParsedNumber extends Number {
 
   @Override
   public double doubleValue() {
-    return Double.parseDouble(value);
+    Double result = doubleValue;
+    if (result == null) {
+      result = Double.parseDouble(value);
+      doubleValue = result;
+    }
+    return result;
   }
 
   @Override
@@ -0,0 +1,553 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.internal;
+
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A map of {@code String} keys to non-{@code null} values, which uses insertion order for iteration
+ * order. Keys and values are stored in two parallel arrays, which for small maps uses considerably
+ * less memory than a map with one node object per entry, and has better locality.
+ *
+ * <p>Small maps are searched with a linear scan. Once the map has more than {@value
+ * #LINEAR_SCAN_THRESHOLD} entries, an open addressing hash table storing the array positions of the
+ * keys is used. If that hash table degrades because too many keys have colliding hash codes, for
+ * example because the keys were chosen by an adversary, a {@code TreeMap} is used as index instead,
+ * so lookups remain logarithmic in the worst case.
+ *
+ * <p>Removed entries are marked by setting their key to {@code null}, so that removal does not have
+ * to move the other entries. The arrays are compacted once they are full and a considerable part of
+ * them consists of removed entries.
+ *
+ * <p>The map can be made read-only with {@link #freeze()}.
+ */
+public final class LinkedArrayMap<V> extends AbstractMap<String, V> {
+  /** Maximum number of entries for which lookups use a linear scan instead of an index */
+  static final int LINEAR_SCAN_THRESHOLD = 8;
+
+  /**
+   * Maximum number of probed hash table slots when adding an entry, before switching to the tree
+   * index
+   */
+  private static final int MAX_PROBES = 64;
+
+  private static final int MIN_CAPACITY = 4;
+
+  private static final String[] EMPTY_KEYS = {};
+  private static final Object[] EMPTY_VALUES = {};
+
+  /** Keys of the entries; {@code null} for removed entries */
+  private String[] keys = EMPTY_KEYS;
+
+  private Object[] values = EMPTY_VALUES;
+
+  /** Number of used array positions, including removed entries */
+  private int end = 0;
+
+  /** Number of entries */
+  private int size = 0;
+
+  private int modCount = 0;
+
+  /**
+   * Hash table of array positions plus 1, with 0 marking an empty slot; {@code null} if no hash
+   * table is used. Slots of removed entries are not cleared, they are skipped during lookups.
+   */
+  private int[] hashIndex = null;
+
+  /** Array positions by key, or {@code null} if no tree index is used */
+  private TreeMap<String, Integer> treeIndex = null;
+
+  /** Whether modifications throw an {@link UnsupportedOperationException} */
+  private boolean frozen = false;
+
+  public LinkedArrayMap() {}
+
+  /** Creates a modifiable copy of the other map, with the same iteration order. */
+  public LinkedArrayMap(LinkedArrayMap<V> other) {
+    int capacity = Math.max(MIN_CAPACITY, other.size + 1);
+    keys = new String[capacity];
+    values = new Object[capacity];
+    for (int i = 0; i < other.end; i++) {
+      String key = other.keys[i];
+      if (key != null) {
+        keys[end] = key;
+        values[end] = other.values[i];
+        end++;
+      }
+    }
+    size = end;
+    if (other.treeIndex != null) {
+      useTreeIndex();
+    } else {
+      rebuildIndex();
+    }
+  }
+
+  /**
+   * Makes this map read-only; afterwards all methods modifying it, including the ones of its views,
+   * throw an {@link UnsupportedOperationException}.
+   */
+  public void freeze() {
+    frozen = true;
+  }
+
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  private void checkNotFrozen() {
+    if (frozen) {
+      throw new UnsupportedOperationException("Map is read-only");
+    }
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public V get(Object key) {
+    int position = indexOf(key);
+    return position >= 0 ? valueAt(position) : null;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return indexOf(key) >= 0;
+  }
+
+  @CanIgnoreReturnValue
+  @Override
+  public V put(String key, V value) {
+    checkNotFrozen();
+    if (key == null) {
+      throw new NullPointerException("key == null");
+    }
+    if (value == null) {
+      throw new NullPointerException("value == null");
+    }
+
+    int position = indexOf(key);
+    if (position >= 0) {
+      V oldValue = valueAt(position);
+      values[position] = value;
+      return oldValue;
+    }
+
+    if (end == keys.length) {
+      makeRoom();
+    }
+    position = end;
+    keys[position] = key;
+    values[position] = value;
+    end++;
+    size++;
+    modCount++;
+    addToIndex(key, position);
+    return null;
+  }
+
+  @Override
+  public V remove(Object key) {
+    checkNotFrozen();
+    int position = indexOf(key);
+    if (position < 0) {
+      return null;
+    }
+    V oldValue = valueAt(position);
+    removeAt(position);
+    return oldValue;
+  }
+
+  @Override
+  public void clear() {
+    checkNotFrozen();
+    Arrays.fill(keys, 0, end, null);
+    Arrays.fill(values, 0, end, null);
+    end = 0;
+    size = 0;
+    modCount++;
+    hashIndex = null;
+    treeIndex = null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private V valueAt(int position) {
+    return (V) values[position];
+  }
+
+  private static int hash(String key) {
+    int h = key.hashCode();
+    // Spread bits, since only the lower bits are used for the hash table index
+    return h ^ (h >>> 16);
+  }
+
+  /** Returns the array position of the key, or -1 if there is no entry for it. */
+  private int indexOf(Object key) {
+    if (!(key instanceof String)) {
+      return -1;
+    }
+
+    String[] keys = this.keys;
+    int[] hashIndex = this.hashIndex;
+    if (hashIndex != null) {
+      int mask = hashIndex.length - 1;
+      for (int slot = hash((String) key) & mask; ; slot = (slot + 1) & mask) {
+        int position = hashIndex[slot] - 1;
+        if (position < 0) {
+          return -1;
+        }
+        String candidate = keys[position];
+        if (candidate != null && candidate.equals(key)) {
+          return position;
+        }
+      }
+    } else if (treeIndex != null) {
+      Integer position = treeIndex.get(key);
+      return position != null ? position : -1;
+    }
+
+    for (int i = 0; i < end; i++) {
+      String candidate = keys[i];
+      if (candidate != null && candidate.equals(key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private void removeAt(int position) {
+    checkNotFrozen();
+    if (treeIndex != null) {
+      treeIndex.remove(keys[position]);
+    }
+    keys[position] = null;
+    values[position] = null;
+    size--;
+    modCount++;
+    if (size == 0) {
+      // Reuse the arrays from the start
+      end = 0;
+      hashIndex = null;
+      treeIndex = null;
+    }
+  }
+
+  /** Called when the arrays are full; either removes the removed entries, or grows the arrays. */
+  private void makeRoom() {
+    int removed = end - size;
+    if (removed > 0 && removed >= end / 4) {
+      compact();
+    } else {
+      int newCapacity = Math.max(MIN_CAPACITY, end + (end >> 1));
+      keys = Arrays.copyOf(keys, newCapacity);
+      values = Arrays.copyOf(values, newCapacity);
+    }
+  }
+
+  private void compact() {
+    int newEnd = 0;
+    for (int i = 0; i < end; i++) {
+      if (keys[i] != null) {
+        keys[newEnd] = keys[i];
+        values[newEnd] = values[i];
+        newEnd++;
+      }
+    }
+    Arrays.fill(keys, newEnd, end, null);
+    Arrays.fill(values, newEnd, end, null);
+    end = newEnd;
+    rebuildIndex();
+  }
+
+  private void addToIndex(String key, int position) {
+    if (treeIndex != null) {
+      treeIndex.put(key, position);
+    } else if (hashIndex == null) {
+      if (end > LINEAR_SCAN_THRESHOLD) {
+        rebuildIndex();
+      }
+    } else if (end * 2 > hashIndex.length) {
+      // Keep the load factor of the hash table at most 0.5, counting removed entries as well
+      rebuildIndex();
+    } else if (!addToHashIndex(hashIndex, key, position)) {
+      useTreeIndex();
+    }
+  }
+
+  /**
+   * Adds the position to the hash table. Returns {@code false} if too many slots had to be probed.
+   */
+  private static boolean addToHashIndex(int[] hashIndex, String key, int position) {
+    int mask = hashIndex.length - 1;
+    int slot = hash(key) & mask;
+    for (int probes = 0; hashIndex[slot] != 0; probes++) {
+      if (probes == MAX_PROBES) {
+        return false;
+      }
+      slot = (slot + 1) & mask;
+    }
+    hashIndex[slot] = position + 1;
+    return true;
+  }
+
+  private void rebuildIndex() {
+    if (treeIndex != null) {
+      useTreeIndex();
+      return;
+    }
+    if (end <= LINEAR_SCAN_THRESHOLD) {
+      hashIndex = null;
+      return;
+    }
+
+    // Power of two which is at least twice the capacity
+    int tableSize = Integer.highestOneBit(keys.length) * 4;
+    int[] newHashIndex = new int[tableSize];
+    for (int i = 0; i < end; i++) {
+      String key = keys[i];
+      if (key != null && !addToHashIndex(newHashIndex, key, i)) {
+        useTreeIndex();
+        return;
+      }
+    }
+    hashIndex = newHashIndex;
+  }
+
+  private void useTreeIndex() {
+    hashIndex = null;
+    treeIndex = new TreeMap<>();
+    for (int i = 0; i < end; i++) {
+      String key = keys[i];
+      if (key != null) {
+        treeIndex.put(key, i);
+      }
+    }
+  }
+
+  private abstract class LinkedArrayMapIterator<T> implements Iterator<T> {
+    int next = nextPosition(0);
+    int lastReturned = -1;
+    int expectedModCount = modCount;
+
+    LinkedArrayMapIterator() {}
+
+    private int nextPosition(int start) {
+      int position = start;
+      while (position < end && keys[position] == null) {
+        position++;
+      }
+      return position;
+    }
+
+    @Override
+    public final boolean hasNext() {
+      return next < end;
+    }
+
+    final int nextIndex() {
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      int position = next;
+      if (position >= end) {
+        throw new NoSuchElementException();
+      }
+      next = nextPosition(position + 1);
+      return lastReturned = position;
+    }
+
+    @Override
+    public final void remove() {
+      if (lastReturned == -1) {
+        throw new IllegalStateException();
+      }
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      removeAt(lastReturned);
+      lastReturned = -1;
+      expectedModCount = modCount;
+      if (size == 0) {
+        // removeAt reset the arrays
+        next = 0;
+      }
+    }
+  }
+
+  /** View of the entry at an array position, only valid until the map is structurally modified. */
+  final class EntryView implements Entry<String, V> {
+    private final int position;
+
+    EntryView(int position) {
+      this.position = position;
+    }
+
+    @Override
+    public String getKey() {
+      return keys[position];
+    }
+
+    @Override
+    public V getValue() {
+      return valueAt(position);
+    }
+
+    @Override
+    public V setValue(V value) {
+      checkNotFrozen();
+      if (value == null) {
+        throw new NullPointerException("value == null");
+      }
+      V oldValue = valueAt(position);
+      values[position] = value;
+      return oldValue;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (o instanceof Entry) {
+        Entry<?, ?> other = (Entry<?, ?>) o;
+        return Objects.equals(getKey(), other.getKey())
+            && Objects.equals(getValue(), other.getValue());
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      String key = getKey();
+      V value = getValue();
+      return (key == null ? 0 : key.hashCode()) ^ (value == null ? 0 : value.hashCode());
+    }
+
+    @Override
+    public String toString() {
+      return getKey() + "=" + getValue();
+    }
+  }
+
+  private EntrySet entrySet;
+  private KeySet keySet;
+
+  @Override
+  public Set<Entry<String, V>> entrySet() {
+    EntrySet result = entrySet;
+    return result != null ? result : (entrySet = new EntrySet());
+  }
+
+  @Override
+  public Set<String> keySet() {
+    KeySet result = keySet;
+    return result != null ? result : (keySet = new KeySet());
+  }
+
+  /** Returns the array position of the entry, or -1 if this map has no equal entry. */
+  private int indexOfEntry(Entry<?, ?> entry) {
+    int position = indexOf(entry.getKey());
+    return position >= 0 && values[position].equals(entry.getValue()) ? position : -1;
+  }
+
+  final class EntrySet extends AbstractSet<Entry<String, V>> {
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public Iterator<Entry<String, V>> iterator() {
+      return new LinkedArrayMapIterator<Entry<String, V>>() {
+        @Override
+        public Entry<String, V> next() {
+          return new EntryView(nextIndex());
+        }
+      };
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return o instanceof Entry && indexOfEntry((Entry<?, ?>) o) >= 0;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+      if (!(o instanceof Entry)) {
+        return false;
+      }
+
+      int position = indexOfEntry((Entry<?, ?>) o);
+      if (position < 0) {
+        return false;
+      }
+      removeAt(position);
+      return true;
+    }
+
+    @Override
+    public void clear() {
+      LinkedArrayMap.this.clear();
+    }
+  }
+
+  final class KeySet extends AbstractSet<String> {
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+      return new LinkedArrayMapIterator<String>() {
+        @Override
+        public String next() {
+          return keys[nextIndex()];
+        }
+      };
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return containsKey(o);
+    }
+
+    @Override
+    public boolean remove(Object key) {
+      int position = indexOf(key);
+      if (position < 0) {
+        return false;
+      }
+      removeAt(position);
+      return true;
+    }
+
+    @Override
+    public void clear() {
+      LinkedArrayMap.this.clear();
+    }
+  }
+}
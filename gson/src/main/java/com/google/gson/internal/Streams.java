@@ -20,6 +20,7 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonIOException;
 import com.google.gson.JsonNull;
 import com.google.gson.JsonParseException;
+import com.google.gson.JsonPrimitive;
 import com.google.gson.JsonSyntaxException;
 import com.google.gson.internal.bind.TypeAdapters;
 import com.google.gson.stream.JsonReader;
@@ -37,6 +38,53 @@ public final class Streams {
     throw new UnsupportedOperationException();
   }
 
+  /** Integral numbers with at most this many digits always fit in a {@code long} */
+  private static final int MAX_LONG_DIGITS = 18;
+
+  /** Longer decimal strings are rarely canonical {@code double} strings, and are not checked */
+  private static final int MAX_DOUBLE_LENGTH = 24;
+
+  /**
+   * Creates the {@link JsonPrimitive} for a JSON number string read by a {@link JsonReader}.
+   * Integral numbers fitting in a {@code long}, and decimal numbers whose string is the canonical
+   * {@linkplain DoubleFormatter shortest string} of a {@code double}, are stored without boxing.
+   * Other numbers are stored as {@link LazilyParsedNumber}, so that their string is preserved.
+   */
+  public static JsonPrimitive numberPrimitive(String number) {
+    int length = number.length();
+    int start = length > 0 && number.charAt(0) == '-' ? 1 : 0;
+    boolean hasDot = false;
+    for (int i = start; i < length; i++) {
+      char c = number.charAt(i);
+      if (c == '.' && !hasDot) {
+        hasDot = true;
+      } else if (c < '0' || c > '9') {
+        // Exponent, or number string of lenient JsonReader
+        return new JsonPrimitive(new LazilyParsedNumber(number));
+      }
+    }
+
+    if (!hasDot) {
+      int digits = length - start;
+      // Long.toString does not preserve leading zeros and "-0"
+      boolean isCanonical =
+          digits > 0 && (number.charAt(start) != '0' || (digits == 1 && start == 0));
+      if (isCanonical && digits <= MAX_LONG_DIGITS) {
+        return JsonPrimitive.of(Long.parseLong(number));
+      }
+    } else if (length <= MAX_DOUBLE_LENGTH) {
+      try {
+        double value = Double.parseDouble(number);
+        if (DoubleFormatter.toString(value).equals(number)) {
+          return JsonPrimitive.of(value);
+        }
+      } catch (NumberFormatException e) {
+        // Fall through, for example for "." of lenient JsonReader
+      }
+    }
+    return new JsonPrimitive(new LazilyParsedNumber(number));
+  }
+
   /** Takes a reader in any state and returns the next value as a JsonElement. */
   public static JsonElement parse(JsonReader reader) throws JsonParseException {
     boolean isEmpty = true;
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.internal;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counter which can be incremented concurrently by many threads with little contention. Similar to
+ * {@code java.util.concurrent.atomic.LongAdder}, which cannot be used because it was added in Java
+ * 8. Each thread increments one of several cells, chosen based on the thread ID; the cells are
+ * spaced apart to avoid false sharing of cache lines.
+ */
+public final class StripedCounter {
+  private static final int STRIPES = 16;
+  // 8 longs = 64 bytes, a common cache line size
+  private static final int CELL_SPACING = 8;
+
+  private final AtomicLongArray cells = new AtomicLongArray(STRIPES * CELL_SPACING);
+
+  @SuppressWarnings("deprecation") // Thread.threadId() was added in Java 19
+  public void increment() {
+    int stripe = (int) (Thread.currentThread().getId() & (STRIPES - 1));
+    cells.incrementAndGet(stripe * CELL_SPACING);
+  }
+
+  /**
+   * Returns the current count. Increments happening concurrently to this call might not be
+   * included.
+   */
+  public long sum() {
+    long sum = 0;
+    for (int i = 0; i < STRIPES; i++) {
+      sum += cells.get(i * CELL_SPACING);
+    }
+    return sum;
+  }
+}
@@ -106,19 +106,23 @@ public final class JsonAdapterAnnotationTypeAdapterFactory implements TypeAdapte
       JsonAdapter annotation,
       boolean isClassAnnotation) {
     Object instance = createAdapter(constructorConstructor, annotation.value());
+    if (isClassAnnotation && instance instanceof TypeAdapterFactory) {
+      instance = putFactoryAndGetCurrent(type.getRawType(), (TypeAdapterFactory) instance);
+    }
+    return getTypeAdapter(gson, type, instance, annotation.nullSafe(), isClassAnnotation);
+  }
 
+  /**
+   * Returns the type adapter for an instance of the class specified by a {@code @JsonAdapter}
+   * annotation, or {@code null} if it is a factory which does not support the type.
+   */
+  public static TypeAdapter<?> getTypeAdapter(
+      Gson gson, TypeToken<?> type, Object instance, boolean nullSafe, boolean isClassAnnotation) {
     TypeAdapter<?> typeAdapter;
-    boolean nullSafe = annotation.nullSafe();
     if (instance instanceof TypeAdapter) {
       typeAdapter = (TypeAdapter<?>) instance;
     } else if (instance instanceof TypeAdapterFactory) {
-      TypeAdapterFactory factory = (TypeAdapterFactory) instance;
-
-      if (isClassAnnotation) {
-        factory = putFactoryAndGetCurrent(type.getRawType(), factory);
-      }
-
-      typeAdapter = factory.create(gson, type);
+      typeAdapter = ((TypeAdapterFactory) instance).create(gson, type);
     } else if (instance instanceof JsonSerializer || instance instanceof JsonDeserializer) {
       JsonSerializer<?> serializer =
           instance instanceof JsonSerializer ? (JsonSerializer<?>) instance : null;
@@ -25,6 +25,7 @@ import com.google.gson.JsonPrimitive;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.MalformedJsonException;
+import com.google.gson.stream.NameMatcher;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.Arrays;
@@ -195,6 +196,16 @@ public final class JsonTreeReader extends JsonReader {
     return nextName(false);
   }
 
+  @Override
+  public int nextName(NameMatcher matcher) throws IOException {
+    return matcher.indexOf(nextName());
+  }
+
+  @Override
+  public CharSequence nextNameView() throws IOException {
+    return nextName();
+  }
+
   @Override
   public String nextString() throws IOException {
     JsonToken token = peek();
@@ -209,6 +220,11 @@ public final class JsonTreeReader extends JsonReader {
     return result;
   }
 
+  @Override
+  public CharSequence nextStringView() throws IOException {
+    return nextString();
+  }
+
   @Override
   public boolean nextBoolean() throws IOException {
     expect(JsonToken.BOOLEAN);
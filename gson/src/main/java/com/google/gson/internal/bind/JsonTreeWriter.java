@@ -22,6 +22,8 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonNull;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.EncodedName;
+import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
 import java.io.IOException;
 import java.io.Writer;
@@ -157,6 +159,13 @@ public final class JsonTreeWriter extends JsonWriter {
     throw new IllegalStateException("Please begin an object before writing a name.");
   }
 
+  @CanIgnoreReturnValue
+  @Override
+  public JsonWriter encodedName(EncodedName name) throws IOException {
+    Objects.requireNonNull(name, "name == null");
+    return name(name.getName());
+  }
+
   @CanIgnoreReturnValue
   @Override
   public JsonWriter value(String value) throws IOException {
@@ -170,7 +179,7 @@ public final class JsonTreeWriter extends JsonWriter {
   @CanIgnoreReturnValue
   @Override
   public JsonWriter value(boolean value) throws IOException {
-    put(new JsonPrimitive(value));
+    put(JsonPrimitive.of(value));
     return this;
   }
 
@@ -200,14 +209,14 @@ public final class JsonTreeWriter extends JsonWriter {
     if (!isLenient() && (Double.isNaN(value) || Double.isInfinite(value))) {
       throw new IllegalArgumentException("JSON forbids NaN and infinities: " + value);
     }
-    put(new JsonPrimitive(value));
+    put(JsonPrimitive.of(value));
     return this;
   }
 
   @CanIgnoreReturnValue
   @Override
   public JsonWriter value(long value) throws IOException {
-    put(new JsonPrimitive(value));
+    put(JsonPrimitive.of(value));
     return this;
   }
 
@@ -236,6 +245,14 @@ public final class JsonTreeWriter extends JsonWriter {
     return this;
   }
 
+  @CanIgnoreReturnValue
+  @Override
+  public JsonWriter copyValue(JsonReader in) throws IOException {
+    // The value becomes part of the tree anyway, so read it as JsonElement
+    put(TypeAdapters.JSON_ELEMENT.read(in));
+    return this;
+  }
+
   @Override
   public JsonWriter jsonValue(String value) throws IOException {
     throw new UnsupportedOperationException();
@@ -0,0 +1,678 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.internal.bind;
+
+import static com.google.gson.internal.reflect.ClassFileBuilder.AALOAD;
+import static com.google.gson.internal.reflect.ClassFileBuilder.ACC_FINAL;
+import static com.google.gson.internal.reflect.ClassFileBuilder.ACC_PRIVATE;
+import static com.google.gson.internal.reflect.ClassFileBuilder.ACC_PUBLIC;
+import static com.google.gson.internal.reflect.ClassFileBuilder.ACC_SUPER;
+import static com.google.gson.internal.reflect.ClassFileBuilder.ACONST_NULL;
+import static com.google.gson.internal.reflect.ClassFileBuilder.ALOAD;
+import static com.google.gson.internal.reflect.ClassFileBuilder.ARETURN;
+import static com.google.gson.internal.reflect.ClassFileBuilder.ASTORE;
+import static com.google.gson.internal.reflect.ClassFileBuilder.ATHROW;
+import static com.google.gson.internal.reflect.ClassFileBuilder.CHECKCAST;
+import static com.google.gson.internal.reflect.ClassFileBuilder.D2F;
+import static com.google.gson.internal.reflect.ClassFileBuilder.DUP;
+import static com.google.gson.internal.reflect.ClassFileBuilder.GETFIELD;
+import static com.google.gson.internal.reflect.ClassFileBuilder.GETSTATIC;
+import static com.google.gson.internal.reflect.ClassFileBuilder.GOTO;
+import static com.google.gson.internal.reflect.ClassFileBuilder.I2L;
+import static com.google.gson.internal.reflect.ClassFileBuilder.IFEQ;
+import static com.google.gson.internal.reflect.ClassFileBuilder.IFNULL;
+import static com.google.gson.internal.reflect.ClassFileBuilder.IF_ACMPEQ;
+import static com.google.gson.internal.reflect.ClassFileBuilder.IF_ACMPNE;
+import static com.google.gson.internal.reflect.ClassFileBuilder.INVOKEINTERFACE;
+import static com.google.gson.internal.reflect.ClassFileBuilder.INVOKESPECIAL;
+import static com.google.gson.internal.reflect.ClassFileBuilder.INVOKESTATIC;
+import static com.google.gson.internal.reflect.ClassFileBuilder.INVOKEVIRTUAL;
+import static com.google.gson.internal.reflect.ClassFileBuilder.NEW;
+import static com.google.gson.internal.reflect.ClassFileBuilder.POP;
+import static com.google.gson.internal.reflect.ClassFileBuilder.PUTFIELD;
+import static com.google.gson.internal.reflect.ClassFileBuilder.RETURN;
+import static com.google.gson.internal.reflect.ClassFileBuilder.descriptor;
+import static com.google.gson.internal.reflect.ClassFileBuilder.internalName;
+import static com.google.gson.internal.reflect.ClassFileBuilder.typeName;
+import static com.google.gson.internal.reflect.HiddenClassDefiner.isAccessible;
+import static com.google.gson.internal.reflect.HiddenClassDefiner.isSameRuntimePackage;
+import static com.google.gson.internal.reflect.HiddenClassDefiner.isVisible;
+
+import com.google.gson.InstanceCreator;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.ReflectionAccessFilter;
+import com.google.gson.ReflectionAccessFilter.FilterResult;
+import com.google.gson.TypeAdapter;
+import com.google.gson.internal.ObjectConstructor;
+import com.google.gson.internal.Primitives;
+import com.google.gson.internal.ReflectionAccessFilterHelper;
+import com.google.gson.internal.bind.ReflectiveTypeAdapterFactory.BoundField;
+import com.google.gson.internal.bind.ReflectiveTypeAdapterFactory.FieldsData;
+import com.google.gson.internal.bind.ReflectiveTypeAdapterFactory.PrimitiveBoundField;
+import com.google.gson.internal.reflect.ClassFileBuilder;
+import com.google.gson.internal.reflect.ClassFileBuilder.Code;
+import com.google.gson.internal.reflect.ClassFileBuilder.Label;
+import com.google.gson.internal.reflect.HiddenClassDefiner;
+import com.google.gson.stream.EncodedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.NameMatcher;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates the bytecode of a type adapter equivalent to the reflection-based adapter of a class,
+ * and defines it as hidden class. The generated adapter accesses the fields with {@code getfield}
+ * and {@code putfield} instructions and dispatches on the index returned by {@link
+ * JsonReader#nextName(NameMatcher)} with a {@code tableswitch}, instead of using reflection and
+ * calling a bound field object per field. Like {@link PrimitiveBoundField}, primitive fields using
+ * the built-in adapter are read and written with the primitive methods of {@link JsonReader} and
+ * {@link JsonWriter}, without boxing their values.
+ *
+ * <p>The adapter uses the same type adapters and {@link ObjectConstructor} as the reflection-based
+ * adapter, so it behaves the same way. It is defined in the package and as nestmate of the
+ * serialized class, and only refers to classes in exported packages of Gson. No adapter is
+ * generated if that is not possible, or if the reflection-based adapter would perform access
+ * checks, see {@link #generate}.
+ */
+final class ReflectiveAdapterGenerator {
+  private static final String OBJECT = "java/lang/Object";
+  private static final String TYPE_ADAPTER = internalName(TypeAdapter.class);
+  private static final String JSON_READER = internalName(JsonReader.class);
+  private static final String JSON_WRITER = internalName(JsonWriter.class);
+  private static final String JSON_TOKEN = internalName(JsonToken.class);
+  private static final String NAME_MATCHER = internalName(NameMatcher.class);
+  private static final String ENCODED_NAME = internalName(EncodedName.class);
+  private static final String INSTANCE_CREATOR = internalName(InstanceCreator.class);
+  private static final String JSON_SYNTAX_EXCEPTION = internalName(JsonSyntaxException.class);
+  private static final String ILLEGAL_STATE_EXCEPTION = "java/lang/IllegalStateException";
+  private static final String NUMBER_FORMAT_EXCEPTION = "java/lang/NumberFormatException";
+
+  /** Gson classes the generated code refers to, which must be visible to the serialized class */
+  private static final List<Class<?>> REFERENCED_CLASSES =
+      Arrays.<Class<?>>asList(
+          TypeAdapter.class,
+          JsonReader.class,
+          JsonWriter.class,
+          JsonToken.class,
+          NameMatcher.class,
+          EncodedName.class,
+          InstanceCreator.class,
+          JsonSyntaxException.class);
+
+  private static final String READ_ADAPTERS = "readAdapters";
+  private static final String WRITE_ADAPTERS = "writeAdapters";
+  private static final String NAMES = "names";
+  private static final String MATCHER = "matcher";
+  private static final String CREATOR = "creator";
+
+  private ReflectiveAdapterGenerator() {}
+
+  /** Creates instances using the {@link ObjectConstructor} of the reflection-based adapter */
+  private static final class ConstructorInstanceCreator<T> implements InstanceCreator<T> {
+    private final ObjectConstructor<T> constructor;
+
+    ConstructorInstanceCreator(ObjectConstructor<T> constructor) {
+      this.constructor = constructor;
+    }
+
+    @Override
+    public T createInstance(Type type) {
+      return constructor.construct();
+    }
+  }
+
+  /**
+   * Generates the adapter for the class, or returns {@code null} if that is not possible. This is
+   * the case if hidden classes are not supported by the JVM, if the class is in a named module or
+   * its class loader does not see the Gson classes, if a {@link ReflectionAccessFilter} does not
+   * allow all access to the class or one of the superclasses declaring bound fields, or if one of
+   * the bound fields cannot be accessed with bytecode instructions (for example {@code static}
+   * fields, {@code final} fields which are deserialized, and inaccessible fields of superclasses).
+   */
+  static <T> TypeAdapter<T> generate(
+      Class<?> raw,
+      FieldsData fieldsData,
+      ObjectConstructor<T> constructor,
+      List<ReflectionAccessFilter> reflectionFilters) {
+    if (!HiddenClassDefiner.isSupported()
+        || raw.getClassLoader() == null
+        || HiddenClassDefiner.isInNamedModule(raw)
+        || !referencedClassesVisible(raw)) {
+      return null;
+    }
+
+    BoundField[] readFields = fieldsData.matchedFields;
+    List<BoundField> writeFields = fieldsData.serializedFields;
+    Set<Class<?>> checkedClasses = new HashSet<>();
+    for (BoundField field : readFields) {
+      if (!canAccess(raw, field.field, true, reflectionFilters, checkedClasses)) {
+        return null;
+      }
+    }
+    for (BoundField field : writeFields) {
+      if (!canAccess(raw, field.field, false, reflectionFilters, checkedClasses)) {
+        return null;
+      }
+    }
+
+    TypeAdapter<?>[] readAdapters = new TypeAdapter<?>[readFields.length];
+    for (int i = 0; i < readFields.length; i++) {
+      readAdapters[i] = readFields[i].readAdapter;
+    }
+    TypeAdapter<?>[] writeAdapters = new TypeAdapter<?>[writeFields.size()];
+    EncodedName[] names = new EncodedName[writeFields.size()];
+    for (int i = 0; i < writeFields.size(); i++) {
+      writeAdapters[i] = writeFields.get(i).writeAdapter;
+      names[i] = writeFields.get(i).encodedName;
+    }
+
+    try {
+      byte[] classBytes = generateClass(raw, readFields, writeFields);
+      Class<?> adapterClass = HiddenClassDefiner.defineNestmate(raw, classBytes).lookupClass();
+      @SuppressWarnings("unchecked")
+      TypeAdapter<T> adapter =
+          (TypeAdapter<T>)
+              adapterClass
+                  .getConstructor(
+                      TypeAdapter[].class,
+                      TypeAdapter[].class,
+                      EncodedName[].class,
+                      NameMatcher.class,
+                      InstanceCreator.class)
+                  .newInstance(
+                      readAdapters,
+                      writeAdapters,
+                      names,
+                      fieldsData.nameMatcher,
+                      new ConstructorInstanceCreator<>(constructor));
+      return adapter;
+    } catch (ReflectiveOperationException | IllegalStateException | LinkageError e) {
+      // Keep using the reflection-based adapter; the checks above should prevent this
+      return null;
+    }
+  }
+
+  private static boolean referencedClassesVisible(Class<?> raw) {
+    for (Class<?> c : REFERENCED_CLASSES) {
+      if (!isVisible(raw, c)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean canAccess(
+      Class<?> raw,
+      Field field,
+      boolean write,
+      List<ReflectionAccessFilter> reflectionFilters,
+      Set<Class<?>> checkedClasses) {
+    int modifiers = field.getModifiers();
+    if (Modifier.isStatic(modifiers) || (write && Modifier.isFinal(modifiers))) {
+      return false;
+    }
+
+    Class<?> declaringClass = field.getDeclaringClass();
+    if (checkedClasses.add(declaringClass)) {
+      // The reflection-based adapter performs access checks if the filter result is
+      // BLOCK_INACCESSIBLE, so only generate the adapter if access is fully allowed
+      if (ReflectionAccessFilterHelper.getFilterResult(reflectionFilters, declaringClass)
+          != FilterResult.ALLOW) {
+        return false;
+      }
+      if (declaringClass != raw && !isAccessible(raw, declaringClass)) {
+        return false;
+      }
+    }
+    // The generated class is a nestmate of `raw`, so it can access all fields of `raw`
+    if (declaringClass != raw
+        && !Modifier.isPublic(modifiers)
+        && (Modifier.isPrivate(modifiers) || !isSameRuntimePackage(raw, declaringClass))) {
+      return false;
+    }
+    return isAccessible(raw, field.getType());
+  }
+
+  /**
+   * Whether the value of the field is read or written with the primitive methods of {@link
+   * JsonReader} and {@link JsonWriter}, with the same behavior as {@link PrimitiveBoundField}.
+   * Values of {@code byte}, {@code short} and {@code char} fields, and written {@code float}
+   * values, are still boxed and passed to the built-in adapter, because they need conversions and
+   * checks which are only available to Gson-internal code.
+   */
+  private static boolean usesPrimitiveMethods(BoundField boundField, boolean write) {
+    if (!(boundField instanceof PrimitiveBoundField)) {
+      return false;
+    }
+    Class<?> type = boundField.field.getType();
+    return type == boolean.class
+        || type == int.class
+        || type == long.class
+        || type == double.class
+        || (type == float.class && !write);
+  }
+
+  private static byte[] generateClass(
+      Class<?> raw, BoundField[] readFields, List<BoundField> writeFields) {
+    String className = internalName(raw) + "$$GsonAdapter";
+    ClassFileBuilder builder =
+        new ClassFileBuilder(ACC_PUBLIC | ACC_FINAL | ACC_SUPER, className, TYPE_ADAPTER);
+    String adaptersDescriptor = "[L" + TYPE_ADAPTER + ";";
+    String namesDescriptor = "[L" + ENCODED_NAME + ";";
+    String matcherDescriptor = "L" + NAME_MATCHER + ";";
+    String creatorDescriptor = "L" + INSTANCE_CREATOR + ";";
+    builder.addField(ACC_PRIVATE | ACC_FINAL, READ_ADAPTERS, adaptersDescriptor);
+    builder.addField(ACC_PRIVATE | ACC_FINAL, WRITE_ADAPTERS, adaptersDescriptor);
+    builder.addField(ACC_PRIVATE | ACC_FINAL, NAMES, namesDescriptor);
+    builder.addField(ACC_PRIVATE | ACC_FINAL, MATCHER, matcherDescriptor);
+    builder.addField(ACC_PRIVATE | ACC_FINAL, CREATOR, creatorDescriptor);
+
+    // Constructor
+    Code code =
+        builder.addMethod(
+            ACC_PUBLIC,
+            "<init>",
+            "("
+                + adaptersDescriptor
+                + adaptersDescriptor
+                + namesDescriptor
+                + matcherDescriptor
+                + creatorDescriptor
+                + ")V",
+            2,
+            6);
+    code.local(ALOAD, 0);
+    code.invoke(INVOKESPECIAL, TYPE_ADAPTER, "<init>", "()V");
+    String[] fieldNames = {READ_ADAPTERS, WRITE_ADAPTERS, NAMES, MATCHER, CREATOR};
+    String[] fieldDescriptors = {
+      adaptersDescriptor, adaptersDescriptor, namesDescriptor, matcherDescriptor, creatorDescriptor
+    };
+    for (int i = 0; i < fieldNames.length; i++) {
+      code.local(ALOAD, 0);
+      code.local(ALOAD, i + 1);
+      code.field(PUTFIELD, className, fieldNames[i], fieldDescriptors[i]);
+    }
+    code.op(RETURN);
+    code.end();
+
+    generateWrite(builder, className, raw, writeFields);
+    generateRead(builder, className, raw, readFields);
+    return builder.toByteArray();
+  }
+
+  /**
+   * Generates {@code write(JsonWriter, Object)}, see {@code ReflectiveTypeAdapterFactory.Adapter}
+   */
+  private static void generateWrite(
+      ClassFileBuilder builder, String className, Class<?> raw, List<BoundField> writeFields) {
+    // Locals: 0 = this, 1 = writer, 2 = value, 3 = value cast to raw, 4 = field value
+    String rawName = internalName(raw);
+    String[] frameLocals = {className, JSON_WRITER, OBJECT, rawName, OBJECT};
+    Code code =
+        builder.addMethod(ACC_PUBLIC, "write", "(L" + JSON_WRITER + ";L" + OBJECT + ";)V", 6, 5);
+
+    Label nullValue = new Label();
+    code.local(ALOAD, 2);
+    code.jump(IFNULL, nullValue);
+    code.local(ALOAD, 2);
+    code.type(CHECKCAST, rawName);
+    code.local(ASTORE, 3);
+    code.op(ACONST_NULL);
+    code.local(ASTORE, 4);
+    code.local(ALOAD, 1);
+    code.invoke(INVOKEVIRTUAL, JSON_WRITER, "beginObject", "()L" + JSON_WRITER + ";");
+    code.op(POP);
+
+    for (int i = 0; i < writeFields.size(); i++) {
+      BoundField boundField = writeFields.get(i);
+      Field field = boundField.field;
+      Class<?> type = field.getType();
+      String owner = internalName(field.getDeclaringClass());
+
+      Label skip = null;
+      if (!type.isPrimitive()) {
+        code.local(ALOAD, 3);
+        code.field(GETFIELD, owner, field.getName(), descriptor(type));
+        code.local(ASTORE, 4);
+        // Avoid direct recursion, like the reflection-based adapter
+        skip = new Label();
+        code.local(ALOAD, 4);
+        code.local(ALOAD, 2);
+        code.jump(IF_ACMPEQ, skip);
+      }
+
+      code.local(ALOAD, 1);
+      code.local(ALOAD, 0);
+      code.field(GETFIELD, className, NAMES, "[L" + ENCODED_NAME + ";");
+      code.pushInt(i);
+      code.op(AALOAD);
+      code.invoke(
+          INVOKEVIRTUAL,
+          JSON_WRITER,
+          "encodedName",
+          "(L" + ENCODED_NAME + ";)L" + JSON_WRITER + ";");
+      code.op(POP);
+
+      if (usesPrimitiveMethods(boundField, true)) {
+        generatePrimitiveWrite(code, className, field, i, frameLocals);
+      } else {
+        generateAdapterWrite(code, className, field, i);
+      }
+      if (skip != null) {
+        code.bind(skip, frameLocals);
+      }
+    }
+
+    code.local(ALOAD, 1);
+    code.invoke(INVOKEVIRTUAL, JSON_WRITER, "endObject", "()L" + JSON_WRITER + ";");
+    code.op(POP);
+    code.op(RETURN);
+
+    code.bind(nullValue, className, JSON_WRITER, OBJECT);
+    code.local(ALOAD, 1);
+    code.invoke(INVOKEVIRTUAL, JSON_WRITER, "nullValue", "()L" + JSON_WRITER + ";");
+    code.op(POP);
+    code.op(RETURN);
+    code.end();
+  }
+
+  /** Generates code writing the field value with the write adapter at {@code index} */
+  private static void generateAdapterWrite(Code code, String className, Field field, int index) {
+    Class<?> type = field.getType();
+    code.local(ALOAD, 0);
+    code.field(GETFIELD, className, WRITE_ADAPTERS, "[L" + TYPE_ADAPTER + ";");
+    code.pushInt(index);
+    code.op(AALOAD);
+    code.local(ALOAD, 1);
+    if (type.isPrimitive()) {
+      code.local(ALOAD, 3);
+      code.field(
+          GETFIELD, internalName(field.getDeclaringClass()), field.getName(), descriptor(type));
+      String wrapper = internalName(Primitives.wrap(type));
+      code.invoke(INVOKESTATIC, wrapper, "valueOf", "(" + descriptor(type) + ")L" + wrapper + ";");
+    } else {
+      code.local(ALOAD, 4);
+    }
+    code.invoke(INVOKEVIRTUAL, TYPE_ADAPTER, "write", "(L" + JSON_WRITER + ";L" + OBJECT + ";)V");
+  }
+
+  /**
+   * Generates code writing the value of a primitive field with {@code JsonWriter.value}, see {@code
+   * PrimitiveBoundField.writeValue}
+   */
+  private static void generatePrimitiveWrite(
+      Code code, String className, Field field, int index, String[] frameLocals) {
+    Class<?> type = field.getType();
+    String owner = internalName(field.getDeclaringClass());
+    String fieldDescriptor = descriptor(type);
+    Label end = null;
+    if (type == double.class) {
+      // Let the adapter write or reject NaN and infinity, depending on whether it is STRICT_DOUBLE
+      Label boxed = new Label();
+      end = new Label();
+      code.local(ALOAD, 3);
+      code.field(GETFIELD, owner, field.getName(), fieldDescriptor);
+      code.invoke(INVOKESTATIC, "java/lang/Double", "isFinite", "(D)Z");
+      code.jump(IFEQ, boxed);
+      code.local(ALOAD, 1);
+      code.local(ALOAD, 3);
+      code.field(GETFIELD, owner, field.getName(), fieldDescriptor);
+      code.invoke(INVOKEVIRTUAL, JSON_WRITER, "value", "(D)L" + JSON_WRITER + ";");
+      code.op(POP);
+      code.jump(GOTO, end);
+      code.bind(boxed, frameLocals);
+      generateAdapterWrite(code, className, field, index);
+      code.bind(end, frameLocals);
+      return;
+    }
+
+    code.local(ALOAD, 1);
+    code.local(ALOAD, 3);
+    code.field(GETFIELD, owner, field.getName(), fieldDescriptor);
+    String valueDescriptor;
+    if (type == boolean.class) {
+      valueDescriptor = "Z";
+    } else {
+      if (type == int.class) {
+        code.op(I2L);
+      }
+      valueDescriptor = "J";
+    }
+    code.invoke(
+        INVOKEVIRTUAL, JSON_WRITER, "value", "(" + valueDescriptor + ")L" + JSON_WRITER + ";");
+    code.op(POP);
+  }
+
+  /** Generates {@code read(JsonReader)}, see {@code ReflectiveTypeAdapterFactory.Adapter} */
+  private static void generateRead(
+      ClassFileBuilder builder, String className, Class<?> raw, BoundField[] readFields) {
+    // Locals: 0 = this, 1 = reader, 2 = created instance, 3 = field value
+    String rawName = internalName(raw);
+    String[] frameLocals = {className, JSON_READER, rawName, OBJECT};
+    Code code =
+        builder.addMethod(ACC_PUBLIC, "read", "(L" + JSON_READER + ";)L" + OBJECT + ";", 5, 4);
+
+    Label notNull = new Label();
+    code.local(ALOAD, 1);
+    code.invoke(INVOKEVIRTUAL, JSON_READER, "peek", "()L" + JSON_TOKEN + ";");
+    code.field(GETSTATIC, JSON_TOKEN, "NULL", "L" + JSON_TOKEN + ";");
+    code.jump(IF_ACMPNE, notNull);
+    code.local(ALOAD, 1);
+    code.invoke(INVOKEVIRTUAL, JSON_READER, "nextNull", "()V");
+    code.op(ACONST_NULL);
+    code.op(ARETURN);
+
+    code.bind(notNull, className, JSON_READER);
+    code.local(ALOAD, 0);
+    code.field(GETFIELD, className, CREATOR, "L" + INSTANCE_CREATOR + ";");
+    code.op(ACONST_NULL);
+    code.invoke(
+        INVOKEINTERFACE,
+        INSTANCE_CREATOR,
+        "createInstance",
+        "(Ljava/lang/reflect/Type;)L" + OBJECT + ";");
+    code.type(CHECKCAST, rawName);
+    code.local(ASTORE, 2);
+    code.op(ACONST_NULL);
+    code.local(ASTORE, 3);
+
+    Label tryStart = new Label();
+    Label loop = new Label();
+    Label end = new Label();
+    Label handler = new Label();
+    Label unknownName = new Label();
+    Label numberFormatHandler = new Label();
+    boolean catchesNumberFormat = false;
+
+    code.mark(tryStart);
+    code.local(ALOAD, 1);
+    code.invoke(INVOKEVIRTUAL, JSON_READER, "beginObject", "()V");
+    code.bind(loop, frameLocals);
+    code.local(ALOAD, 1);
+    code.invoke(INVOKEVIRTUAL, JSON_READER, "hasNext", "()Z");
+    code.jump(IFEQ, end);
+    code.local(ALOAD, 1);
+    code.local(ALOAD, 0);
+    code.field(GETFIELD, className, MATCHER, "L" + NAME_MATCHER + ";");
+    code.invoke(INVOKEVIRTUAL, JSON_READER, "nextName", "(L" + NAME_MATCHER + ";)I");
+
+    Label[] cases = new Label[readFields.length];
+    for (int i = 0; i < cases.length; i++) {
+      cases[i] = new Label();
+    }
+    if (cases.length == 0) {
+      code.op(POP);
+    } else {
+      code.tableSwitch(unknownName, cases);
+    }
+    code.bind(unknownName, frameLocals);
+    code.local(ALOAD, 1);
+    code.invoke(INVOKEVIRTUAL, JSON_READER, "skipValue", "()V");
+    code.jump(GOTO, loop);
+
+    for (int i = 0; i < cases.length; i++) {
+      Field field = readFields[i].field;
+      Class<?> type = field.getType();
+      String owner = internalName(field.getDeclaringClass());
+      code.bind(cases[i], frameLocals);
+      if (usesPrimitiveMethods(readFields[i], false)) {
+        catchesNumberFormat |=
+            generatePrimitiveRead(
+                code, className, field, i, frameLocals, loop, numberFormatHandler);
+        continue;
+      }
+      if (!type.isPrimitive()) {
+        code.local(ALOAD, 2);
+      }
+      code.local(ALOAD, 0);
+      code.field(GETFIELD, className, READ_ADAPTERS, "[L" + TYPE_ADAPTER + ";");
+      code.pushInt(i);
+      code.op(AALOAD);
+      code.local(ALOAD, 1);
+      code.invoke(INVOKEVIRTUAL, TYPE_ADAPTER, "read", "(L" + JSON_READER + ";)L" + OBJECT + ";");
+      if (type.isPrimitive()) {
+        // Like the reflection-based adapter ignore null for primitive fields
+        code.local(ASTORE, 3);
+        code.local(ALOAD, 3);
+        code.jump(IFNULL, loop);
+        code.local(ALOAD, 2);
+        code.local(ALOAD, 3);
+        String wrapper = internalName(Primitives.wrap(type));
+        code.type(CHECKCAST, wrapper);
+        code.invoke(INVOKEVIRTUAL, wrapper, type.getName() + "Value", "()" + descriptor(type));
+      } else {
+        code.type(CHECKCAST, typeName(type));
+      }
+      code.field(PUTFIELD, owner, field.getName(), descriptor(type));
+      code.jump(GOTO, loop);
+    }
+
+    code.bind(end, frameLocals);
+    code.local(ALOAD, 1);
+    code.invoke(INVOKEVIRTUAL, JSON_READER, "endObject", "()V");
+    code.local(ALOAD, 2);
+    code.op(ARETURN);
+
+    code.bindWithStack(handler, frameLocals, new String[] {ILLEGAL_STATE_EXCEPTION});
+    code.local(ASTORE, 3);
+    code.type(NEW, JSON_SYNTAX_EXCEPTION);
+    code.op(DUP);
+    code.local(ALOAD, 3);
+    code.invoke(INVOKESPECIAL, JSON_SYNTAX_EXCEPTION, "<init>", "(Ljava/lang/Throwable;)V");
+    code.op(ATHROW);
+    code.tryCatch(tryStart, end, handler, ILLEGAL_STATE_EXCEPTION);
+
+    if (catchesNumberFormat) {
+      // Like TypeAdapters.readInt and readLong
+      code.bindWithStack(numberFormatHandler, frameLocals, new String[] {NUMBER_FORMAT_EXCEPTION});
+      code.local(ASTORE, 3);
+      code.type(NEW, JSON_SYNTAX_EXCEPTION);
+      code.op(DUP);
+      code.local(ALOAD, 3);
+      code.invoke(INVOKESPECIAL, JSON_SYNTAX_EXCEPTION, "<init>", "(Ljava/lang/Throwable;)V");
+      code.op(ATHROW);
+    }
+    code.end();
+  }
+
+  /**
+   * Generates code reading the value of a primitive field with the primitive methods of {@code
+   * JsonReader}, see {@code PrimitiveBoundField.readIntoField}. Returns whether a handler for
+   * {@code NumberFormatException} at {@code numberFormatHandler} is needed.
+   */
+  private static boolean generatePrimitiveRead(
+      Code code,
+      String className,
+      Field field,
+      int index,
+      String[] frameLocals,
+      Label loop,
+      Label numberFormatHandler) {
+    Class<?> type = field.getType();
+    String owner = internalName(field.getDeclaringClass());
+    String fieldDescriptor = descriptor(type);
+
+    // Let the built-in adapter handle null, which is ignored for primitive fields
+    Label notNull = new Label();
+    code.local(ALOAD, 1);
+    code.invoke(INVOKEVIRTUAL, JSON_READER, "peek", "()L" + JSON_TOKEN + ";");
+    code.field(GETSTATIC, JSON_TOKEN, "NULL", "L" + JSON_TOKEN + ";");
+    code.jump(IF_ACMPNE, notNull);
+    code.local(ALOAD, 0);
+    code.field(GETFIELD, className, READ_ADAPTERS, "[L" + TYPE_ADAPTER + ";");
+    code.pushInt(index);
+    code.op(AALOAD);
+    code.local(ALOAD, 1);
+    code.invoke(INVOKEVIRTUAL, TYPE_ADAPTER, "read", "(L" + JSON_READER + ";)L" + OBJECT + ";");
+    code.op(POP);
+    code.jump(GOTO, loop);
+    code.bind(notNull, frameLocals);
+
+    if (type == boolean.class) {
+      // Like TypeAdapters.readBoolean support strings for compatibility with Gson 1.7
+      Label notString = new Label();
+      code.local(ALOAD, 1);
+      code.invoke(INVOKEVIRTUAL, JSON_READER, "peek", "()L" + JSON_TOKEN + ";");
+      code.field(GETSTATIC, JSON_TOKEN, "STRING", "L" + JSON_TOKEN + ";");
+      code.jump(IF_ACMPNE, notString);
+      code.local(ALOAD, 2);
+      code.local(ALOAD, 1);
+      code.invoke(INVOKEVIRTUAL, JSON_READER, "nextString", "()Ljava/lang/String;");
+      code.invoke(INVOKESTATIC, "java/lang/Boolean", "parseBoolean", "(Ljava/lang/String;)Z");
+      code.field(PUTFIELD, owner, field.getName(), fieldDescriptor);
+      code.jump(GOTO, loop);
+      code.bind(notString, frameLocals);
+      code.local(ALOAD, 2);
+      code.local(ALOAD, 1);
+      code.invoke(INVOKEVIRTUAL, JSON_READER, "nextBoolean", "()Z");
+      code.field(PUTFIELD, owner, field.getName(), fieldDescriptor);
+      code.jump(GOTO, loop);
+      return false;
+    }
+
+    boolean catchesNumberFormat = type == int.class || type == long.class;
+    Label start = new Label();
+    Label end = new Label();
+    code.local(ALOAD, 2);
+    code.mark(start);
+    code.local(ALOAD, 1);
+    if (type == int.class) {
+      code.invoke(INVOKEVIRTUAL, JSON_READER, "nextInt", "()I");
+    } else if (type == long.class) {
+      code.invoke(INVOKEVIRTUAL, JSON_READER, "nextLong", "()J");
+    } else {
+      code.invoke(INVOKEVIRTUAL, JSON_READER, "nextDouble", "()D");
+      if (type == float.class) {
+        code.op(D2F);
+      }
+    }
+    code.mark(end);
+    if (catchesNumberFormat) {
+      code.tryCatch(start, end, numberFormatHandler, NUMBER_FORMAT_EXCEPTION);
+    }
+    code.field(PUTFIELD, owner, field.getName(), fieldDescriptor);
+    code.jump(GOTO, loop);
+    return catchesNumberFormat;
+  }
+}
@@ -16,6 +16,7 @@
 
 package com.google.gson.internal.bind;
 
+import com.google.gson.FieldAccessStrategy;
 import com.google.gson.FieldNamingStrategy;
 import com.google.gson.Gson;
 import com.google.gson.JsonIOException;
@@ -34,11 +35,15 @@ import com.google.gson.internal.ObjectConstructor;
 import com.google.gson.internal.Primitives;
 import com.google.gson.internal.ReflectionAccessFilterHelper;
 import com.google.gson.internal.TroubleshootingGuide;
+import com.google.gson.internal.reflect.FieldAccessor;
 import com.google.gson.internal.reflect.ReflectionHelper;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.EncodedName;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.NameMatcher;
+import com.google.gson.stream.Utf8JsonWriter;
 import java.io.IOException;
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Constructor;
@@ -63,18 +68,24 @@ public final class ReflectiveTypeAdapterFactory implements TypeAdapterFactory {
   private final Excluder excluder;
   private final JsonAdapterAnnotationTypeAdapterFactory jsonAdapterFactory;
   private final List<ReflectionAccessFilter> reflectionFilters;
+  private final FieldAccessStrategy fieldAccessStrategy;
+  private final int adapterGenerationThreshold;
 
   public ReflectiveTypeAdapterFactory(
       ConstructorConstructor constructorConstructor,
       FieldNamingStrategy fieldNamingPolicy,
       Excluder excluder,
       JsonAdapterAnnotationTypeAdapterFactory jsonAdapterFactory,
-      List<ReflectionAccessFilter> reflectionFilters) {
+      List<ReflectionAccessFilter> reflectionFilters,
+      FieldAccessStrategy fieldAccessStrategy,
+      int adapterGenerationThreshold) {
     this.constructorConstructor = constructorConstructor;
     this.fieldNamingPolicy = fieldNamingPolicy;
     this.excluder = excluder;
     this.jsonAdapterFactory = jsonAdapterFactory;
     this.reflectionFilters = reflectionFilters;
+    this.fieldAccessStrategy = fieldAccessStrategy;
+    this.adapterGenerationThreshold = adapterGenerationThreshold;
   }
 
   private boolean includeField(Field f, boolean serialize) {
@@ -133,7 +144,11 @@ public final class ReflectiveTypeAdapterFactory implements TypeAdapterFactory {
 
     ObjectConstructor<T> constructor = constructorConstructor.get(type);
     return new FieldReflectionAdapter<>(
-        constructor, getBoundFields(gson, type, raw, blockInaccessible, false));
+        constructor,
+        getBoundFields(gson, type, raw, blockInaccessible, false),
+        raw,
+        blockInaccessible ? -1 : adapterGenerationThreshold,
+        reflectionFilters);
   }
 
   private static <M extends AccessibleObject & Member> void checkAccessible(
@@ -163,6 +178,15 @@ public final class ReflectiveTypeAdapterFactory implements TypeAdapterFactory {
     int modifiers = field.getModifiers();
     final boolean isStaticFinalField = Modifier.isStatic(modifiers) && Modifier.isFinal(modifiers);
 
+    // Fields which are not made accessible (inaccessible ones, and record fields which are read
+    // through their accessor method) are accessed with reflection, which performs the access checks
+    final FieldAccessor fieldAccessor =
+        FieldAccessor.create(
+            field,
+            blockInaccessible || accessor != null
+                ? FieldAccessStrategy.REFLECTION
+                : fieldAccessStrategy);
+
     JsonAdapter annotation = field.getAnnotation(JsonAdapter.class);
     TypeAdapter<?> mapped = null;
     if (annotation != null) {
@@ -178,6 +202,25 @@ public final class ReflectiveTypeAdapterFactory implements TypeAdapterFactory {
 
     @SuppressWarnings("unchecked")
     final TypeAdapter<Object> typeAdapter = (TypeAdapter<Object>) mapped;
+
+    // Primitive fields using the built-in adapter are read and written without boxing their values;
+    // record components are excluded because they are read through their accessor method
+    if (isPrimitive && !jsonAdapterPresent && accessor == null) {
+      BoundField primitiveField =
+          PrimitiveBoundField.create(
+              context,
+              serializedName,
+              field,
+              fieldAccessor,
+              typeAdapter,
+              new TypeAdapterRuntimeTypeWrapper<>(context, typeAdapter, fieldType.getType()),
+              blockInaccessible,
+              isStaticFinalField);
+      if (primitiveField != null) {
+        return primitiveField;
+      }
+    }
+
     final TypeAdapter<Object> writeTypeAdapter;
     if (serialize) {
       writeTypeAdapter =
@@ -188,7 +231,7 @@ public final class ReflectiveTypeAdapterFactory implements TypeAdapterFactory {
       // Will never actually be used, but we set it to avoid confusing nullness-analysis tools
       writeTypeAdapter = typeAdapter;
     }
-    return new BoundField(serializedName, field) {
+    return new BoundField(serializedName, field, typeAdapter, writeTypeAdapter) {
       @Override
       void write(JsonWriter writer, Object source) throws IOException, IllegalAccessException {
         if (blockInaccessible) {
@@ -212,13 +255,13 @@ public final class ReflectiveTypeAdapterFactory implements TypeAdapterFactory {
                 "Accessor " + accessorDescription + " threw exception", e.getCause());
           }
         } else {
-          fieldValue = field.get(source);
+          fieldValue = fieldAccessor.get(source);
         }
         if (fieldValue == source) {
           // avoid direct recursion
           return;
         }
-        writer.name(serializedName);
+        writer.encodedName(encodedName);
         writeTypeAdapter.write(writer, fieldValue);
       }
 
@@ -250,25 +293,31 @@ public final class ReflectiveTypeAdapterFactory implements TypeAdapterFactory {
             String fieldDescription = ReflectionHelper.getAccessibleObjectDescription(field, false);
             throw new JsonIOException("Cannot set value of 'static final' " + fieldDescription);
           }
-          field.set(target, fieldValue);
+          fieldAccessor.set(target, fieldValue);
         }
       }
     };
   }
 
-  private static class FieldsData {
+  static class FieldsData {
     public static final FieldsData EMPTY =
         new FieldsData(
             Collections.<String, BoundField>emptyMap(), Collections.<BoundField>emptyList());
 
-    /** Maps from JSON member name to field */
-    public final Map<String, BoundField> deserializedFields;
+    /**
+     * Matches the JSON member names of the deserialized fields; the fields are at the matched index
+     * in {@link #matchedFields}
+     */
+    public final NameMatcher nameMatcher;
+
+    public final BoundField[] matchedFields;
 
     public final List<BoundField> serializedFields;
 
     public FieldsData(
         Map<String, BoundField> deserializedFields, List<BoundField> serializedFields) {
-      this.deserializedFields = deserializedFields;
+      this.nameMatcher = NameMatcher.of(new ArrayList<>(deserializedFields.keySet()));
+      this.matchedFields = deserializedFields.values().toArray(new BoundField[0]);
       this.serializedFields = serializedFields;
     }
   }
@@ -403,15 +452,31 @@ public final class ReflectiveTypeAdapterFactory implements TypeAdapterFactory {
     /** Name used for serialization (but not for deserialization) */
     final String serializedName;
 
+    /** Pre-encoded {@link #serializedName}, written without escaping it again for every object */
+    final EncodedName encodedName;
+
     final Field field;
 
     /** Name of the underlying field */
     final String fieldName;
 
-    protected BoundField(String serializedName, Field field) {
+    /** Adapter used for deserialization */
+    final TypeAdapter<?> readAdapter;
+
+    /** Adapter used for serialization, considering the runtime type of the value if necessary */
+    final TypeAdapter<?> writeAdapter;
+
+    protected BoundField(
+        String serializedName,
+        Field field,
+        TypeAdapter<?> readAdapter,
+        TypeAdapter<?> writeAdapter) {
       this.serializedName = serializedName;
+      this.encodedName = EncodedName.of(serializedName);
       this.field = field;
       this.fieldName = field.getName();
+      this.readAdapter = readAdapter;
+      this.writeAdapter = writeAdapter;
     }
 
     /** Read this field value from the source, and append its JSON value to the writer */
@@ -430,6 +495,323 @@ public final class ReflectiveTypeAdapterFactory implements TypeAdapterFactory {
         throws IOException, IllegalAccessException;
   }
 
+  /**
+   * Bound field for a field of primitive type whose value is read and written with the primitive
+   * methods of {@link FieldAccessor}, {@link JsonReader} and {@link JsonWriter}, without boxing it.
+   * Behaves the same as the built-in adapter of the primitive type, which is still used for JSON
+   * null values.
+   */
+  abstract static class PrimitiveBoundField extends BoundField {
+    final FieldAccessor fieldAccessor;
+    private final boolean blockInaccessible;
+    private final boolean isStaticFinalField;
+
+    PrimitiveBoundField(
+        String serializedName,
+        Field field,
+        FieldAccessor fieldAccessor,
+        TypeAdapter<?> typeAdapter,
+        TypeAdapter<?> writeTypeAdapter,
+        boolean blockInaccessible,
+        boolean isStaticFinalField) {
+      super(serializedName, field, typeAdapter, writeTypeAdapter);
+      this.fieldAccessor = fieldAccessor;
+      this.blockInaccessible = blockInaccessible;
+      this.isStaticFinalField = isStaticFinalField;
+    }
+
+    /**
+     * Creates the bound field, or returns {@code null} if {@code typeAdapter} is not the built-in
+     * adapter of the primitive type, or if a different adapter has been registered for its wrapper
+     * type, which is used for serialization.
+     */
+    static PrimitiveBoundField create(
+        Gson context,
+        String serializedName,
+        Field field,
+        FieldAccessor fieldAccessor,
+        TypeAdapter<?> typeAdapter,
+        TypeAdapter<?> writeTypeAdapter,
+        boolean blockInaccessible,
+        boolean isStaticFinalField) {
+      Class<?> type = field.getType();
+      if (context.getAdapter(Primitives.wrap(type)) != typeAdapter) {
+        return null;
+      }
+
+      if (type == boolean.class) {
+        if (typeAdapter != TypeAdapters.BOOLEAN) {
+          return null;
+        }
+        return new PrimitiveBoundField(
+            serializedName,
+            field,
+            fieldAccessor,
+            typeAdapter,
+            writeTypeAdapter,
+            blockInaccessible,
+            isStaticFinalField) {
+          @Override
+          void writeValue(JsonWriter writer, Object source)
+              throws IOException, IllegalAccessException {
+            writer.value(fieldAccessor.getBoolean(source));
+          }
+
+          @Override
+          void readValue(JsonReader reader, Object target)
+              throws IOException, IllegalAccessException {
+            fieldAccessor.setBoolean(target, TypeAdapters.readBoolean(reader));
+          }
+        };
+      } else if (type == byte.class) {
+        if (typeAdapter != TypeAdapters.BYTE) {
+          return null;
+        }
+        return new PrimitiveBoundField(
+            serializedName,
+            field,
+            fieldAccessor,
+            typeAdapter,
+            writeTypeAdapter,
+            blockInaccessible,
+            isStaticFinalField) {
+          @Override
+          void writeValue(JsonWriter writer, Object source)
+              throws IOException, IllegalAccessException {
+            writer.value(fieldAccessor.getByte(source));
+          }
+
+          @Override
+          void readValue(JsonReader reader, Object target)
+              throws IOException, IllegalAccessException {
+            fieldAccessor.setByte(target, TypeAdapters.readByte(reader));
+          }
+        };
+      } else if (type == char.class) {
+        if (typeAdapter != TypeAdapters.CHARACTER) {
+          return null;
+        }
+        return new PrimitiveBoundField(
+            serializedName,
+            field,
+            fieldAccessor,
+            typeAdapter,
+            writeTypeAdapter,
+            blockInaccessible,
+            isStaticFinalField) {
+          @Override
+          void writeValue(JsonWriter writer, Object source)
+              throws IOException, IllegalAccessException {
+            writer.value(String.valueOf(fieldAccessor.getChar(source)));
+          }
+
+          @Override
+          void readValue(JsonReader reader, Object target)
+              throws IOException, IllegalAccessException {
+            fieldAccessor.setChar(target, TypeAdapters.readChar(reader));
+          }
+        };
+      } else if (type == short.class) {
+        if (typeAdapter != TypeAdapters.SHORT) {
+          return null;
+        }
+        return new PrimitiveBoundField(
+            serializedName,
+            field,
+            fieldAccessor,
+            typeAdapter,
+            writeTypeAdapter,
+            blockInaccessible,
+            isStaticFinalField) {
+          @Override
+          void writeValue(JsonWriter writer, Object source)
+              throws IOException, IllegalAccessException {
+            writer.value(fieldAccessor.getShort(source));
+          }
+
+          @Override
+          void readValue(JsonReader reader, Object target)
+              throws IOException, IllegalAccessException {
+            fieldAccessor.setShort(target, TypeAdapters.readShort(reader));
+          }
+        };
+      } else if (type == int.class) {
+        if (typeAdapter != TypeAdapters.INTEGER) {
+          return null;
+        }
+        return new PrimitiveBoundField(
+            serializedName,
+            field,
+            fieldAccessor,
+            typeAdapter,
+            writeTypeAdapter,
+            blockInaccessible,
+            isStaticFinalField) {
+          @Override
+          void writeValue(JsonWriter writer, Object source)
+              throws IOException, IllegalAccessException {
+            writer.value(fieldAccessor.getInt(source));
+          }
+
+          @Override
+          void readValue(JsonReader reader, Object target)
+              throws IOException, IllegalAccessException {
+            fieldAccessor.setInt(target, TypeAdapters.readInt(reader));
+          }
+        };
+      } else if (type == long.class) {
+        // Only for LongSerializationPolicy.DEFAULT
+        if (typeAdapter != TypeAdapters.LONG) {
+          return null;
+        }
+        return new PrimitiveBoundField(
+            serializedName,
+            field,
+            fieldAccessor,
+            typeAdapter,
+            writeTypeAdapter,
+            blockInaccessible,
+            isStaticFinalField) {
+          @Override
+          void writeValue(JsonWriter writer, Object source)
+              throws IOException, IllegalAccessException {
+            writer.value(fieldAccessor.getLong(source));
+          }
+
+          @Override
+          void readValue(JsonReader reader, Object target)
+              throws IOException, IllegalAccessException {
+            fieldAccessor.setLong(target, TypeAdapters.readLong(reader));
+          }
+        };
+      } else if (type == float.class) {
+        final boolean checkValid;
+        if (typeAdapter == TypeAdapters.STRICT_FLOAT) {
+          checkValid = true;
+        } else if (typeAdapter == TypeAdapters.FLOAT) {
+          checkValid = false;
+        } else {
+          return null;
+        }
+        return new PrimitiveBoundField(
+            serializedName,
+            field,
+            fieldAccessor,
+            typeAdapter,
+            writeTypeAdapter,
+            blockInaccessible,
+            isStaticFinalField) {
+          @Override
+          void writeValue(JsonWriter writer, Object source)
+              throws IOException, IllegalAccessException {
+            float value = fieldAccessor.getFloat(source);
+            if (checkValid) {
+              TypeAdapters.checkValidFloatingPoint(value);
+            }
+            if (overridesFloatValue(writer)) {
+              writer.value(value);
+            } else {
+              // For backward compatibility don't call `JsonWriter.value(float)` on custom
+              // JsonWriter implementations, see TypeAdapters.FLOAT
+              writer.value((Number) value);
+            }
+          }
+
+          @Override
+          void readValue(JsonReader reader, Object target)
+              throws IOException, IllegalAccessException {
+            fieldAccessor.setFloat(target, (float) reader.nextDouble());
+          }
+        };
+      } else if (type == double.class) {
+        final boolean checkValid;
+        if (typeAdapter == TypeAdapters.STRICT_DOUBLE) {
+          checkValid = true;
+        } else if (typeAdapter == TypeAdapters.DOUBLE) {
+          checkValid = false;
+        } else {
+          return null;
+        }
+        return new PrimitiveBoundField(
+            serializedName,
+            field,
+            fieldAccessor,
+            typeAdapter,
+            writeTypeAdapter,
+            blockInaccessible,
+            isStaticFinalField) {
+          @Override
+          void writeValue(JsonWriter writer, Object source)
+              throws IOException, IllegalAccessException {
+            double value = fieldAccessor.getDouble(source);
+            if (checkValid) {
+              TypeAdapters.checkValidFloatingPoint(value);
+            }
+            writer.value(value);
+          }
+
+          @Override
+          void readValue(JsonReader reader, Object target)
+              throws IOException, IllegalAccessException {
+            fieldAccessor.setDouble(target, reader.nextDouble());
+          }
+        };
+      }
+      return null;
+    }
+
+    /**
+     * Whether the writer is one of the Gson implementations, which all support {@code value(float)}
+     */
+    static boolean overridesFloatValue(JsonWriter writer) {
+      Class<?> writerClass = writer.getClass();
+      return writerClass == JsonWriter.class
+          || writerClass == Utf8JsonWriter.class
+          || writerClass == JsonTreeWriter.class;
+    }
+
+    /** Reads the field value from the source and writes it to the writer, without boxing it */
+    abstract void writeValue(JsonWriter writer, Object source)
+        throws IOException, IllegalAccessException;
+
+    /** Reads the non-null value from the reader and sets it on the target, without boxing it */
+    abstract void readValue(JsonReader reader, Object target)
+        throws IOException, IllegalAccessException;
+
+    @Override
+    void write(JsonWriter writer, Object source) throws IOException, IllegalAccessException {
+      if (blockInaccessible) {
+        checkAccessible(source, field);
+      }
+      writer.encodedName(encodedName);
+      writeValue(writer, source);
+    }
+
+    @Override
+    void readIntoArray(JsonReader reader, int index, Object[] target) {
+      // Primitive bound fields are not created for record components
+      throw new AssertionError("Unexpected record component " + fieldName);
+    }
+
+    @Override
+    void readIntoField(JsonReader reader, Object target)
+        throws IOException, IllegalAccessException {
+      if (reader.peek() == JsonToken.NULL) {
+        // Let the built-in adapter handle null, which is ignored for primitive fields (or rejected
+        // by the adapter)
+        readAdapter.read(reader);
+        return;
+      }
+      if (blockInaccessible) {
+        checkAccessible(target, field);
+      } else if (isStaticFinalField) {
+        String fieldDescription = ReflectionHelper.getAccessibleObjectDescription(field, false);
+        throw new JsonIOException("Cannot set value of 'static final' " + fieldDescription);
+      }
+      readValue(reader, target);
+    }
+  }
+
   /**
    * Base class for Adapters produced by this factory.
    *
@@ -478,17 +860,17 @@ public final class ReflectiveTypeAdapterFactory implements TypeAdapterFactory {
       }
 
       A accumulator = createAccumulator();
-      Map<String, BoundField> deserializedFields = fieldsData.deserializedFields;
+      NameMatcher nameMatcher = fieldsData.nameMatcher;
+      BoundField[] matchedFields = fieldsData.matchedFields;
 
       try {
         in.beginObject();
         while (in.hasNext()) {
-          String name = in.nextName();
-          BoundField field = deserializedFields.get(name);
-          if (field == null) {
+          int index = in.nextName(nameMatcher);
+          if (index == -1) {
             in.skipValue();
           } else {
-            readField(accumulator, in, field);
+            readField(accumulator, in, matchedFields[index]);
           }
         }
       } catch (IllegalStateException e) {
@@ -516,10 +898,76 @@ public final class ReflectiveTypeAdapterFactory implements TypeAdapterFactory {
 
   private static final class FieldReflectionAdapter<T> extends Adapter<T, T> {
     private final ObjectConstructor<T> constructor;
+    private final FieldsData fieldsData;
+    private final Class<?> raw;
+    private final List<ReflectionAccessFilter> reflectionFilters;
 
-    FieldReflectionAdapter(ObjectConstructor<T> constructor, FieldsData fieldsData) {
+    /**
+     * Number of uses remaining until the adapter is generated, or -1 if no adapter is generated.
+     * Updated without synchronization; lost updates only delay the generation.
+     */
+    private int usesUntilGeneration;
+
+    /** Adapter generated by {@link ReflectiveAdapterGenerator}, or {@code null} */
+    private volatile TypeAdapter<T> generatedAdapter;
+
+    FieldReflectionAdapter(
+        ObjectConstructor<T> constructor,
+        FieldsData fieldsData,
+        Class<?> raw,
+        int generationThreshold,
+        List<ReflectionAccessFilter> reflectionFilters) {
       super(fieldsData);
       this.constructor = constructor;
+      this.fieldsData = fieldsData;
+      this.raw = raw;
+      this.usesUntilGeneration = generationThreshold;
+      this.reflectionFilters = reflectionFilters;
+    }
+
+    /** Returns the generated adapter to use instead of reflection, or {@code null} */
+    private TypeAdapter<T> generatedAdapter() {
+      TypeAdapter<T> adapter = generatedAdapter;
+      if (adapter != null) {
+        return adapter;
+      }
+      int remainingUses = usesUntilGeneration;
+      if (remainingUses < 0) {
+        return null;
+      } else if (remainingUses > 0) {
+        usesUntilGeneration = remainingUses - 1;
+        return null;
+      }
+      return generateAdapter();
+    }
+
+    private synchronized TypeAdapter<T> generateAdapter() {
+      if (generatedAdapter == null && usesUntilGeneration >= 0) {
+        generatedAdapter =
+            ReflectiveAdapterGenerator.generate(raw, fieldsData, constructor, reflectionFilters);
+        // Don't try again if generation is not possible
+        usesUntilGeneration = -1;
+      }
+      return generatedAdapter;
+    }
+
+    @Override
+    public void write(JsonWriter out, T value) throws IOException {
+      TypeAdapter<T> adapter = generatedAdapter();
+      if (adapter != null) {
+        adapter.write(out, value);
+      } else {
+        super.write(out, value);
+      }
+    }
+
+    @Override
+    public T read(JsonReader in) throws IOException {
+      TypeAdapter<T> adapter = generatedAdapter();
+      if (adapter != null) {
+        return adapter.read(in);
+      }
+      return super.read(in);
     }
 
     @Override
@@ -24,12 +24,17 @@ import java.io.IOException;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 
-final class TypeAdapterRuntimeTypeWrapper<T> extends TypeAdapter<T> {
+/**
+ * Adapter which for serialization uses the adapter for the runtime type of the value if it is more
+ * specific than the declared type.
+ */
+// This class is public because it is used by com.google.gson.GeneratedAdapterSupport
+public final class TypeAdapterRuntimeTypeWrapper<T> extends TypeAdapter<T> {
   private final Gson context;
   private final TypeAdapter<T> delegate;
   private final Type type;
 
-  TypeAdapterRuntimeTypeWrapper(Gson context, TypeAdapter<T> delegate, Type type) {
+  public TypeAdapterRuntimeTypeWrapper(Gson context, TypeAdapter<T> delegate, Type type) {
     this.context = context;
     this.delegate = delegate;
     this.type = type;
@@ -29,6 +29,7 @@ import com.google.gson.TypeAdapterFactory;
 import com.google.gson.annotations.SerializedName;
 import com.google.gson.internal.LazilyParsedNumber;
 import com.google.gson.internal.NumberLimits;
+import com.google.gson.internal.Streams;
 import com.google.gson.internal.TroubleshootingGuide;
 import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
@@ -68,6 +69,77 @@ public final class TypeAdapters {
     throw new UnsupportedOperationException();
   }
 
+  /*
+   * Reading of non-null primitive values, shared by the adapters below and by the primitive fields
+   * of ReflectiveTypeAdapterFactory, which read them without boxing
+   */
+
+  static boolean readBoolean(JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.STRING) {
+      // support strings for compatibility with GSON 1.7
+      return Boolean.parseBoolean(in.nextString());
+    }
+    return in.nextBoolean();
+  }
+
+  static byte readByte(JsonReader in) throws IOException {
+    int intValue = readInt(in);
+    // Allow up to 255 to support unsigned values
+    if (intValue > 255 || intValue < Byte.MIN_VALUE) {
+      throw new JsonSyntaxException(
+          "Lossy conversion from " + intValue + " to byte; at path " + in.getPreviousPath());
+    }
+    return (byte) intValue;
+  }
+
+  static short readShort(JsonReader in) throws IOException {
+    int intValue = readInt(in);
+    // Allow up to 65535 to support unsigned values
+    if (intValue > 65535 || intValue < Short.MIN_VALUE) {
+      throw new JsonSyntaxException(
+          "Lossy conversion from " + intValue + " to short; at path " + in.getPreviousPath());
+    }
+    return (short) intValue;
+  }
+
+  static int readInt(JsonReader in) throws IOException {
+    try {
+      return in.nextInt();
+    } catch (NumberFormatException e) {
+      throw new JsonSyntaxException(e);
+    }
+  }
+
+  static long readLong(JsonReader in) throws IOException {
+    try {
+      return in.nextLong();
+    } catch (NumberFormatException e) {
+      throw new JsonSyntaxException(e);
+    }
+  }
+
+  static char readChar(JsonReader in) throws IOException {
+    String str = in.nextString();
+    if (str.length() != 1) {
+      throw new JsonSyntaxException(
+          "Expecting character, got: " + str + "; at " + in.getPreviousPath());
+    }
+    return str.charAt(0);
+  }
+
+  /**
+   * Throws an exception if the value is NaN or infinite, used when {@code
+   * GsonBuilder.serializeSpecialFloatingPointValues()} has not been called.
+   */
+  static void checkValidFloatingPoint(double value) {
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      throw new IllegalArgumentException(
+          value
+              + " is not a valid double value as per JSON specification. To override this"
+              + " behavior, use GsonBuilder.serializeSpecialFloatingPointValues() method.");
+    }
+  }
+
   @SuppressWarnings("rawtypes")
   public static final TypeAdapter<Class> CLASS =
       new TypeAdapter<Class>() {
@@ -156,11 +228,8 @@ public final class TypeAdapters {
           if (peek == JsonToken.NULL) {
             in.nextNull();
             return null;
-          } else if (peek == JsonToken.STRING) {
-            // support strings for compatibility with GSON 1.7
-            return Boolean.parseBoolean(in.nextString());
           }
-          return in.nextBoolean();
+          return readBoolean(in);
         }
 
         @Override
@@ -200,19 +269,7 @@ public final class TypeAdapters {
             in.nextNull();
             return null;
           }
-
-          int intValue;
-          try {
-            intValue = in.nextInt();
-          } catch (NumberFormatException e) {
-            throw new JsonSyntaxException(e);
-          }
-          // Allow up to 255 to support unsigned values
-          if (intValue > 255 || intValue < Byte.MIN_VALUE) {
-            throw new JsonSyntaxException(
-                "Lossy conversion from " + intValue + " to byte; at path " + in.getPreviousPath());
-          }
-          return (byte) intValue;
+          return readByte(in);
         }
 
         @Override
@@ -235,19 +292,7 @@ public final class TypeAdapters {
             in.nextNull();
             return null;
           }
-
-          int intValue;
-          try {
-            intValue = in.nextInt();
-          } catch (NumberFormatException e) {
-            throw new JsonSyntaxException(e);
-          }
-          // Allow up to 65535 to support unsigned values
-          if (intValue > 65535 || intValue < Short.MIN_VALUE) {
-            throw new JsonSyntaxException(
-                "Lossy conversion from " + intValue + " to short; at path " + in.getPreviousPath());
-          }
-          return (short) intValue;
+          return readShort(in);
         }
 
         @Override
@@ -271,11 +316,7 @@ public final class TypeAdapters {
             in.nextNull();
             return null;
           }
-          try {
-            return in.nextInt();
-          } catch (NumberFormatException e) {
-            throw new JsonSyntaxException(e);
-          }
+          return readInt(in);
         }
 
         @Override
@@ -367,11 +408,7 @@ public final class TypeAdapters {
             in.nextNull();
             return null;
           }
-          try {
-            return in.nextLong();
-          } catch (NumberFormatException e) {
-            throw new JsonSyntaxException(e);
-          }
+          return readLong(in);
         }
 
         @Override
@@ -389,8 +426,9 @@ public final class TypeAdapters {
 
         @Override
         public Number read(JsonReader in) throws IOException {
-            return (float) in.nextDouble();
+          return (float) in.nextDouble();
         }
+
         @Override
         public void write(JsonWriter out, Number value) throws IOException {
           if (value == null) {
@@ -410,8 +448,9 @@ public final class TypeAdapters {
 
         @Override
         public Number read(JsonReader in) throws IOException {
-            return in.nextDouble();
+          return in.nextDouble();
         }
+
         @Override
         public void write(JsonWriter out, Number value) throws IOException {
           if (value == null) {
@@ -422,6 +461,57 @@ public final class TypeAdapters {
         }
       };
 
+  /** Adapter for {@code double} which rejects NaN and infinite values when serializing. */
+  public static final TypeAdapter<Number> STRICT_DOUBLE =
+      new TypeAdapter<Number>() {
+        @Override
+        public Double read(JsonReader in) throws IOException {
+          if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+          }
+          return in.nextDouble();
+        }
+
+        @Override
+        public void write(JsonWriter out, Number value) throws IOException {
+          if (value == null) {
+            out.nullValue();
+            return;
+          }
+          double doubleValue = value.doubleValue();
+          checkValidFloatingPoint(doubleValue);
+          out.value(doubleValue);
+        }
+      };
+
+  /** Adapter for {@code float} which rejects NaN and infinite values when serializing. */
+  public static final TypeAdapter<Number> STRICT_FLOAT =
+      new TypeAdapter<Number>() {
+        @Override
+        public Float read(JsonReader in) throws IOException {
+          if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+          }
+          return (float) in.nextDouble();
+        }
+
+        @Override
+        public void write(JsonWriter out, Number value) throws IOException {
+          if (value == null) {
+            out.nullValue();
+            return;
+          }
+          float floatValue = value.floatValue();
+          checkValidFloatingPoint(floatValue);
+          // For backward compatibility don't call `JsonWriter.value(float)` because that method has
+          // been newly added and not all custom JsonWriter implementations might override it yet
+          Number floatNumber = value instanceof Float ? value : floatValue;
+          out.value(floatNumber);
+        }
+      };
+
   public static final TypeAdapter<Character> CHARACTER =
       new TypeAdapter<Character>() {
         @Override
@@ -430,12 +520,7 @@ public final class TypeAdapters {
             in.nextNull();
             return null;
           }
-          String str = in.nextString();
-          if (str.length() != 1) {
-            throw new JsonSyntaxException(
-                "Expecting character, got: " + str + "; at " + in.getPreviousPath());
-          }
-          return str.charAt(0);
+          return readChar(in);
         }
 
         @Override
@@ -831,12 +916,11 @@ public final class TypeAdapters {
         private JsonElement readTerminal(JsonReader in, JsonToken peeked) throws IOException {
           switch (peeked) {
             case STRING:
-              return new JsonPrimitive(in.nextString());
+              return JsonPrimitive.of(in.nextString());
             case NUMBER:
-              String number = in.nextString();
-              return new JsonPrimitive(new LazilyParsedNumber(number));
+              return Streams.numberPrimitive(in.nextString());
             case BOOLEAN:
-              return new JsonPrimitive(in.nextBoolean());
+              return JsonPrimitive.of(in.nextBoolean());
             case NULL:
               in.nextNull();
               return JsonNull.INSTANCE;
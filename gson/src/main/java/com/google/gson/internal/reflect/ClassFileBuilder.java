@@ -0,0 +1,559 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.internal.reflect;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal writer of Java class files, supporting only what is needed for the adapters generated by
+ * {@link com.google.gson.internal.bind.ReflectiveAdapterGenerator}: fields, methods, branches,
+ * {@code tableswitch}, exception handlers and stack map frames.
+ *
+ * <p>Stack map frames are not computed; the code has to {@linkplain Code#bind(Label, String...)
+ * bind} every branch target and every instruction following an unconditional jump together with the
+ * types of its local variables, and the operand stack must be empty there (except for exception
+ * handlers). Only reference types are supported for locals in frames.
+ */
+public final class ClassFileBuilder {
+  // Class file version 52 (Java 8), which requires stack map frames
+  private static final int MAJOR_VERSION = 52;
+
+  public static final int ACC_PUBLIC = 0x0001;
+  public static final int ACC_PRIVATE = 0x0002;
+  public static final int ACC_FINAL = 0x0010;
+  public static final int ACC_SUPER = 0x0020;
+
+  public static final int ACONST_NULL = 0x01;
+  public static final int ILOAD = 0x15;
+  public static final int LLOAD = 0x16;
+  public static final int FLOAD = 0x17;
+  public static final int DLOAD = 0x18;
+  public static final int ALOAD = 0x19;
+  public static final int ASTORE = 0x3A;
+  public static final int AALOAD = 0x32;
+  public static final int POP = 0x57;
+  public static final int DUP = 0x59;
+  public static final int I2L = 0x85;
+  public static final int D2F = 0x90;
+  public static final int IFEQ = 0x99;
+  public static final int IF_ACMPEQ = 0xA5;
+  public static final int IF_ACMPNE = 0xA6;
+  public static final int GOTO = 0xA7;
+  public static final int IRETURN = 0xAC;
+  public static final int LRETURN = 0xAD;
+  public static final int FRETURN = 0xAE;
+  public static final int DRETURN = 0xAF;
+  public static final int ARETURN = 0xB0;
+  public static final int RETURN = 0xB1;
+  public static final int GETSTATIC = 0xB2;
+  public static final int GETFIELD = 0xB4;
+  public static final int PUTFIELD = 0xB5;
+  public static final int INVOKEVIRTUAL = 0xB6;
+  public static final int INVOKESPECIAL = 0xB7;
+  public static final int INVOKESTATIC = 0xB8;
+  public static final int INVOKEINTERFACE = 0xB9;
+  public static final int NEW = 0xBB;
+  public static final int ATHROW = 0xBF;
+  public static final int CHECKCAST = 0xC0;
+  public static final int IFNULL = 0xC6;
+
+  private static final int ICONST_0 = 0x03;
+  private static final int BIPUSH = 0x10;
+  private static final int SIPUSH = 0x11;
+  private static final int LDC_W = 0x13;
+  private static final int TABLESWITCH = 0xAA;
+
+  private static final int CONSTANT_UTF8 = 1;
+  private static final int CONSTANT_INTEGER = 3;
+  private static final int CONSTANT_CLASS = 7;
+  private static final int CONSTANT_FIELDREF = 9;
+  private static final int CONSTANT_METHODREF = 10;
+  private static final int CONSTANT_INTERFACE_METHODREF = 11;
+  private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+  private final ByteArrayOutputStream constantPoolBytes = new ByteArrayOutputStream();
+  private final DataOutputStream constantPool = new DataOutputStream(constantPoolBytes);
+  private final Map<String, Integer> constants = new HashMap<>();
+  private int constantCount = 1;
+
+  private final int access;
+  private final int thisClass;
+  private final int superClass;
+  private final List<byte[]> fields = new ArrayList<>();
+  private final List<byte[]> methods = new ArrayList<>();
+
+  /**
+   * @param name internal name of the class, for example {@code com/example/MyClass}
+   * @param superName internal name of the superclass
+   */
+  public ClassFileBuilder(int access, String name, String superName) {
+    this.access = access;
+    this.thisClass = classConstant(name);
+    this.superClass = classConstant(superName);
+  }
+
+  private int constant(String key, int tag, int... values) {
+    Integer index = constants.get(key);
+    if (index != null) {
+      return index;
+    }
+    try {
+      constantPool.writeByte(tag);
+      if (tag == CONSTANT_UTF8) {
+        constantPool.writeUTF(key.substring(2));
+      } else if (tag == CONSTANT_INTEGER) {
+        constantPool.writeInt(values[0]);
+      } else {
+        for (int value : values) {
+          constantPool.writeShort(value);
+        }
+      }
+    } catch (IOException e) {
+      throw new AssertionError(e); // Cannot occur for ByteArrayOutputStream
+    }
+    index = constantCount++;
+    if (constantCount > 0xFFFF) {
+      throw new IllegalStateException("Too many constants");
+    }
+    constants.put(key, index);
+    return index;
+  }
+
+  private int utf8Constant(String value) {
+    return constant("U:" + value, CONSTANT_UTF8);
+  }
+
+  private int classConstant(String internalName) {
+    return constant("C:" + internalName, CONSTANT_CLASS, utf8Constant(internalName));
+  }
+
+  private int memberConstant(int tag, String owner, String name, String descriptor) {
+    int nameAndType =
+        constant(
+            "N:" + name + ":" + descriptor,
+            CONSTANT_NAME_AND_TYPE,
+            utf8Constant(name),
+            utf8Constant(descriptor));
+    return constant(
+        tag + ":" + owner + "." + name + ":" + descriptor, tag, classConstant(owner), nameAndType);
+  }
+
+  public void addField(int access, String name, String descriptor) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    try {
+      out.writeShort(access);
+      out.writeShort(utf8Constant(name));
+      out.writeShort(utf8Constant(descriptor));
+      out.writeShort(0); // attributes
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+    fields.add(bytes.toByteArray());
+  }
+
+  /**
+   * Adds a method; the method is complete once {@link Code#end()} has been called.
+   *
+   * @param maxStack maximum size of the operand stack; long and double values count twice
+   * @param maxLocals number of local variables, including {@code this} and the parameters
+   */
+  public Code addMethod(int access, String name, String descriptor, int maxStack, int maxLocals) {
+    return new Code(access, name, descriptor, maxStack, maxLocals);
+  }
+
+  public byte[] toByteArray() {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    try {
+      out.writeInt(0xCAFEBABE);
+      out.writeShort(0);
+      out.writeShort(MAJOR_VERSION);
+      out.writeShort(constantCount);
+      constantPoolBytes.writeTo(out);
+      out.writeShort(access);
+      out.writeShort(thisClass);
+      out.writeShort(superClass);
+      out.writeShort(0); // interfaces
+      out.writeShort(fields.size());
+      for (byte[] field : fields) {
+        out.write(field);
+      }
+      out.writeShort(methods.size());
+      for (byte[] method : methods) {
+        out.write(method);
+      }
+      out.writeShort(0); // attributes
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  /** Returns the internal name of the class, for example {@code com/example/MyClass}. */
+  public static String internalName(Class<?> c) {
+    return c.getName().replace('.', '/');
+  }
+
+  /** Returns the name of the class as used by {@code checkcast}. */
+  public static String typeName(Class<?> c) {
+    return c.isArray() ? descriptor(c) : internalName(c);
+  }
+
+  /**
+   * Returns the field descriptor of the type, for example {@code I} or {@code Ljava/lang/String;}.
+   */
+  public static String descriptor(Class<?> c) {
+    if (c.isPrimitive()) {
+      if (c == boolean.class) {
+        return "Z";
+      } else if (c == byte.class) {
+        return "B";
+      } else if (c == char.class) {
+        return "C";
+      } else if (c == short.class) {
+        return "S";
+      } else if (c == int.class) {
+        return "I";
+      } else if (c == long.class) {
+        return "J";
+      } else if (c == float.class) {
+        return "F";
+      } else if (c == double.class) {
+        return "D";
+      }
+      throw new IllegalArgumentException("Unexpected type " + c);
+    }
+    if (c.isArray()) {
+      return c.getName().replace('.', '/');
+    }
+    return "L" + internalName(c) + ";";
+  }
+
+  /** Position in the code of a method; bound to an offset with {@link Code#bind}. */
+  public static final class Label {
+    int offset = -1;
+  }
+
+  private static final class Frame {
+    final int offset;
+    final String[] locals;
+    final String[] stack;
+
+    Frame(int offset, String[] locals, String[] stack) {
+      this.offset = offset;
+      this.locals = locals;
+      this.stack = stack;
+    }
+  }
+
+  private static final class ExceptionHandler {
+    final Label start;
+    final Label end;
+    final Label handler;
+    final int catchType;
+
+    ExceptionHandler(Label start, Label end, Label handler, int catchType) {
+      this.start = start;
+      this.end = end;
+      this.handler = handler;
+      this.catchType = catchType;
+    }
+  }
+
+  /** Code of a method. */
+  public final class Code {
+    private final int access;
+    private final String name;
+    private final String descriptor;
+    private final int maxStack;
+    private final int maxLocals;
+    private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+
+    /** Offsets of 16-bit branch offsets, to be resolved in {@link #end()} */
+    private final List<Integer> jumpOffsets = new ArrayList<>();
+
+    private final List<Label> jumpLabels = new ArrayList<>();
+
+    /** Offsets of 32-bit switch offsets, relative to the corresponding switch instruction */
+    private final List<int[]> switchOffsets = new ArrayList<>();
+
+    private final List<Label> switchLabels = new ArrayList<>();
+    private final List<Frame> frames = new ArrayList<>();
+    private final List<ExceptionHandler> exceptionHandlers = new ArrayList<>();
+
+    Code(int access, String name, String descriptor, int maxStack, int maxLocals) {
+      this.access = access;
+      this.name = name;
+      this.descriptor = descriptor;
+      this.maxStack = maxStack;
+      this.maxLocals = maxLocals;
+    }
+
+    private void u1(int value) {
+      code.write(value);
+    }
+
+    private void u2(int value) {
+      code.write(value >>> 8);
+      code.write(value);
+    }
+
+    private void u4(int value) {
+      u2(value >>> 16);
+      u2(value);
+    }
+
+    /** Adds an instruction without operands. */
+    public void op(int opcode) {
+      u1(opcode);
+    }
+
+    /** Adds an instruction operating on a local variable, such as {@code aload}. */
+    public void local(int opcode, int index) {
+      if (index > 0xFF) {
+        throw new IllegalArgumentException("Wide local variable index " + index);
+      }
+      u1(opcode);
+      u1(index);
+    }
+
+    /** Adds an instruction pushing the {@code int} constant. */
+    public void pushInt(int value) {
+      if (value >= -1 && value <= 5) {
+        u1(ICONST_0 + value);
+      } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+        u1(BIPUSH);
+        u1(value);
+      } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+        u1(SIPUSH);
+        u2(value);
+      } else {
+        u1(LDC_W);
+        u2(constant("I:" + value, CONSTANT_INTEGER, value));
+      }
+    }
+
+    /** Adds an instruction referring to a class, such as {@code new} or {@code checkcast}. */
+    public void type(int opcode, String internalName) {
+      u1(opcode);
+      u2(classConstant(internalName));
+    }
+
+    /** Adds a field instruction, such as {@code getfield}. */
+    public void field(int opcode, String owner, String name, String descriptor) {
+      u1(opcode);
+      u2(memberConstant(CONSTANT_FIELDREF, owner, name, descriptor));
+    }
+
+    /** Adds a method invocation instruction. */
+    public void invoke(int opcode, String owner, String name, String descriptor) {
+      u1(opcode);
+      if (opcode == INVOKEINTERFACE) {
+        u2(memberConstant(CONSTANT_INTERFACE_METHODREF, owner, name, descriptor));
+        u1(argumentSlots(descriptor) + 1);
+        u1(0);
+      } else {
+        u2(memberConstant(CONSTANT_METHODREF, owner, name, descriptor));
+      }
+    }
+
+    /** Adds a branch instruction, such as {@code goto} or {@code ifeq}. */
+    public void jump(int opcode, Label target) {
+      int instructionOffset = code.size();
+      u1(opcode);
+      jumpOffsets.add(instructionOffset);
+      jumpLabels.add(target);
+      u2(0);
+    }
+
+    /**
+     * Adds a {@code tableswitch} for the values {@code 0} to {@code targets.length - 1}; there must
+     * be at least one target.
+     */
+    public void tableSwitch(Label defaultTarget, Label... targets) {
+      int instructionOffset = code.size();
+      u1(TABLESWITCH);
+      while (code.size() % 4 != 0) {
+        u1(0);
+      }
+      addSwitchOffset(instructionOffset, defaultTarget);
+      u4(0);
+      u4(targets.length - 1);
+      for (Label target : targets) {
+        addSwitchOffset(instructionOffset, target);
+      }
+    }
+
+    private void addSwitchOffset(int instructionOffset, Label target) {
+      switchOffsets.add(new int[] {code.size(), instructionOffset});
+      switchLabels.add(target);
+      u4(0);
+    }
+
+    /**
+     * Binds the label to the current offset, and records a stack map frame with the given types of
+     * the local variables and an empty operand stack.
+     *
+     * @param localTypes internal names of the types of the local variables
+     */
+    public void bind(Label label, String... localTypes) {
+      bindWithStack(label, localTypes, new String[0]);
+    }
+
+    /** Binds the label like {@link #bind}, with a non-empty operand stack. */
+    public void bindWithStack(Label label, String[] localTypes, String[] stackTypes) {
+      label.offset = code.size();
+      if (!frames.isEmpty() && frames.get(frames.size() - 1).offset == label.offset) {
+        frames.remove(frames.size() - 1);
+      }
+      frames.add(new Frame(label.offset, localTypes, stackTypes));
+    }
+
+    /** Binds the label without recording a frame; only allowed for the start and end of a range */
+    public void mark(Label label) {
+      label.offset = code.size();
+    }
+
+    /** Adds an exception handler for the range from {@code start} (inclusive) to {@code end}. */
+    public void tryCatch(Label start, Label end, Label handler, String exceptionType) {
+      exceptionHandlers.add(
+          new ExceptionHandler(start, end, handler, classConstant(exceptionType)));
+    }
+
+    /** Completes the method. */
+    public void end() {
+      byte[] bytes = code.toByteArray();
+      if (bytes.length > Short.MAX_VALUE) {
+        throw new IllegalStateException("Method " + name + " is too large");
+      }
+      for (int i = 0; i < jumpOffsets.size(); i++) {
+        int instructionOffset = jumpOffsets.get(i);
+        int jump = offsetOf(jumpLabels.get(i)) - instructionOffset;
+        bytes[instructionOffset + 1] = (byte) (jump >>> 8);
+        bytes[instructionOffset + 2] = (byte) jump;
+      }
+      for (int i = 0; i < switchOffsets.size(); i++) {
+        int[] offsets = switchOffsets.get(i);
+        int jump = offsetOf(switchLabels.get(i)) - offsets[1];
+        bytes[offsets[0]] = (byte) (jump >>> 24);
+        bytes[offsets[0] + 1] = (byte) (jump >>> 16);
+        bytes[offsets[0] + 2] = (byte) (jump >>> 8);
+        bytes[offsets[0] + 3] = (byte) jump;
+      }
+
+      ByteArrayOutputStream method = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(method);
+      try {
+        out.writeShort(access);
+        out.writeShort(utf8Constant(name));
+        out.writeShort(utf8Constant(descriptor));
+        out.writeShort(1); // attributes
+
+        byte[] stackMapTable = stackMapTable();
+        out.writeShort(utf8Constant("Code"));
+        int stackMapLength = stackMapTable == null ? 0 : 6 + stackMapTable.length;
+        out.writeInt(12 + bytes.length + 8 * exceptionHandlers.size() + stackMapLength);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        out.writeShort(exceptionHandlers.size());
+        for (ExceptionHandler handler : exceptionHandlers) {
+          out.writeShort(offsetOf(handler.start));
+          out.writeShort(offsetOf(handler.end));
+          out.writeShort(offsetOf(handler.handler));
+          out.writeShort(handler.catchType);
+        }
+        if (stackMapTable == null) {
+          out.writeShort(0);
+        } else {
+          out.writeShort(1);
+          out.writeShort(utf8Constant("StackMapTable"));
+          out.writeInt(stackMapTable.length);
+          out.write(stackMapTable);
+        }
+      } catch (IOException e) {
+        throw new AssertionError(e);
+      }
+      methods.add(method.toByteArray());
+    }
+
+    private int offsetOf(Label label) {
+      if (label.offset == -1) {
+        throw new IllegalStateException("Unbound label in method " + name);
+      }
+      return label.offset;
+    }
+
+    /** Returns the stack map table consisting of full frames, or {@code null} if there are none */
+    private byte[] stackMapTable() throws IOException {
+      if (frames.isEmpty()) {
+        return null;
+      }
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeShort(frames.size());
+      int previousOffset = -1;
+      for (Frame frame : frames) {
+        out.writeByte(255); // full_frame
+        out.writeShort(frame.offset - previousOffset - 1);
+        previousOffset = frame.offset;
+        writeTypes(out, frame.locals);
+        writeTypes(out, frame.stack);
+      }
+      return bytes.toByteArray();
+    }
+
+    private void writeTypes(DataOutputStream out, String[] types) throws IOException {
+      out.writeShort(types.length);
+      for (String type : types) {
+        out.writeByte(7); // Object_variable_info
+        out.writeShort(classConstant(type));
+      }
+    }
+  }
+
+  /** Returns the number of local variable slots used by the arguments of the method */
+  static int argumentSlots(String methodDescriptor) {
+    int slots = 0;
+    int i = 1;
+    while (methodDescriptor.charAt(i) != ')') {
+      char c = methodDescriptor.charAt(i);
+      if (c == 'J' || c == 'D') {
+        slots += 2;
+        i++;
+      } else {
+        slots++;
+        while (methodDescriptor.charAt(i) == '[') {
+          i++;
+        }
+        if (methodDescriptor.charAt(i) == 'L') {
+          i = methodDescriptor.indexOf(';', i);
+        }
+        i++;
+      }
+    }
+    return slots;
+  }
+}
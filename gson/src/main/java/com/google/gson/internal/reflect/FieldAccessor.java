@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.internal.reflect;
+
+import com.google.gson.FieldAccessStrategy;
+import java.lang.reflect.Field;
+
+/**
+ * Reads and writes the value of a field, implemented according to a {@link FieldAccessStrategy}.
+ * This class uses reflection; accessors for {@link FieldAccessStrategy#GENERATED_ACCESSORS} are
+ * generated subclasses which override the methods for the type of their field.
+ *
+ * <p>The methods for primitive values, such as {@link #getInt(Object)}, may only be used for fields
+ * of exactly that primitive type. They read and write the value without boxing it.
+ *
+ * <p>For instance fields the {@code target} is the object whose field is accessed; for static
+ * fields it is ignored. The field must have been made accessible already, if necessary.
+ */
+public class FieldAccessor {
+  final Field field;
+
+  /** Only for use by {@link #create} and generated subclasses. */
+  protected FieldAccessor(Field field) {
+    this.field = field;
+  }
+
+  /**
+   * Creates an accessor for the field. If the strategy is {@link
+   * FieldAccessStrategy#GENERATED_ACCESSORS} but no accessor class can be generated for the field,
+   * an accessor using reflection is returned.
+   */
+  public static FieldAccessor create(Field field, FieldAccessStrategy strategy) {
+    if (strategy == FieldAccessStrategy.GENERATED_ACCESSORS) {
+      FieldAccessor accessor = FieldAccessorGenerator.generate(field);
+      if (accessor != null) {
+        return accessor;
+      }
+    }
+    return new FieldAccessor(field);
+  }
+
+  public Object get(Object target) throws IllegalAccessException {
+    return field.get(target);
+  }
+
+  public void set(Object target, Object value) throws IllegalAccessException {
+    field.set(target, value);
+  }
+
+  public boolean getBoolean(Object target) throws IllegalAccessException {
+    return field.getBoolean(target);
+  }
+
+  public void setBoolean(Object target, boolean value) throws IllegalAccessException {
+    field.setBoolean(target, value);
+  }
+
+  public byte getByte(Object target) throws IllegalAccessException {
+    return field.getByte(target);
+  }
+
+  public void setByte(Object target, byte value) throws IllegalAccessException {
+    field.setByte(target, value);
+  }
+
+  public char getChar(Object target) throws IllegalAccessException {
+    return field.getChar(target);
+  }
+
+  public void setChar(Object target, char value) throws IllegalAccessException {
+    field.setChar(target, value);
+  }
+
+  public short getShort(Object target) throws IllegalAccessException {
+    return field.getShort(target);
+  }
+
+  public void setShort(Object target, short value) throws IllegalAccessException {
+    field.setShort(target, value);
+  }
+
+  public int getInt(Object target) throws IllegalAccessException {
+    return field.getInt(target);
+  }
+
+  public void setInt(Object target, int value) throws IllegalAccessException {
+    field.setInt(target, value);
+  }
+
+  public long getLong(Object target) throws IllegalAccessException {
+    return field.getLong(target);
+  }
+
+  public void setLong(Object target, long value) throws IllegalAccessException {
+    field.setLong(target, value);
+  }
+
+  public float getFloat(Object target) throws IllegalAccessException {
+    return field.getFloat(target);
+  }
+
+  public void setFloat(Object target, float value) throws IllegalAccessException {
+    field.setFloat(target, value);
+  }
+
+  public double getDouble(Object target) throws IllegalAccessException {
+    return field.getDouble(target);
+  }
+
+  public void setDouble(Object target, double value) throws IllegalAccessException {
+    field.setDouble(target, value);
+  }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.internal.reflect;
+
+import static com.google.gson.internal.reflect.ClassFileBuilder.ACC_FINAL;
+import static com.google.gson.internal.reflect.ClassFileBuilder.ACC_PUBLIC;
+import static com.google.gson.internal.reflect.ClassFileBuilder.ACC_SUPER;
+import static com.google.gson.internal.reflect.ClassFileBuilder.ALOAD;
+import static com.google.gson.internal.reflect.ClassFileBuilder.ARETURN;
+import static com.google.gson.internal.reflect.ClassFileBuilder.CHECKCAST;
+import static com.google.gson.internal.reflect.ClassFileBuilder.DLOAD;
+import static com.google.gson.internal.reflect.ClassFileBuilder.DRETURN;
+import static com.google.gson.internal.reflect.ClassFileBuilder.FLOAD;
+import static com.google.gson.internal.reflect.ClassFileBuilder.FRETURN;
+import static com.google.gson.internal.reflect.ClassFileBuilder.GETFIELD;
+import static com.google.gson.internal.reflect.ClassFileBuilder.ILOAD;
+import static com.google.gson.internal.reflect.ClassFileBuilder.INVOKESPECIAL;
+import static com.google.gson.internal.reflect.ClassFileBuilder.INVOKESTATIC;
+import static com.google.gson.internal.reflect.ClassFileBuilder.INVOKEVIRTUAL;
+import static com.google.gson.internal.reflect.ClassFileBuilder.IRETURN;
+import static com.google.gson.internal.reflect.ClassFileBuilder.LLOAD;
+import static com.google.gson.internal.reflect.ClassFileBuilder.LRETURN;
+import static com.google.gson.internal.reflect.ClassFileBuilder.PUTFIELD;
+import static com.google.gson.internal.reflect.ClassFileBuilder.RETURN;
+import static com.google.gson.internal.reflect.ClassFileBuilder.descriptor;
+import static com.google.gson.internal.reflect.ClassFileBuilder.internalName;
+import static com.google.gson.internal.reflect.ClassFileBuilder.typeName;
+
+import com.google.gson.internal.Primitives;
+import com.google.gson.internal.reflect.ClassFileBuilder.Code;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * Generates {@link FieldAccessor} subclasses which read and write a single field with {@code
+ * getfield} and {@code putfield} instructions. The class is defined as hidden nestmate of the class
+ * declaring the field, so it can access the field even if it is {@code private}, and the JIT
+ * compiler can inline the access like the access of a regular field.
+ */
+final class FieldAccessorGenerator {
+  private static final String FIELD_ACCESSOR = internalName(FieldAccessor.class);
+  private static final String OBJECT_DESCRIPTOR = "Ljava/lang/Object;";
+
+  private FieldAccessorGenerator() {}
+
+  /**
+   * Generates the accessor for the field, or returns {@code null} if that is not possible. This is
+   * the case if hidden classes are not supported by the JVM, if the field is {@code static} or has
+   * not been made accessible, if its class is in a named module or its class loader does not see
+   * the Gson classes, or if the type of the field cannot be referenced from the declaring class.
+   *
+   * <p>For {@code final} fields only the read methods are generated; writing them uses reflection.
+   */
+  @SuppressWarnings("deprecation") // isAccessible() is replaced by canAccess(Object) in Java 9
+  static FieldAccessor generate(Field field) {
+    Class<?> declaringClass = field.getDeclaringClass();
+    if (!HiddenClassDefiner.isSupported()
+        || Modifier.isStatic(field.getModifiers())
+        || !field.isAccessible()
+        || declaringClass.getClassLoader() == null
+        || HiddenClassDefiner.isInNamedModule(declaringClass)
+        // The generated class refers to the internal FieldAccessor, which a named Gson module
+        // does not export
+        || HiddenClassDefiner.isInNamedModule(FieldAccessor.class)
+        || !HiddenClassDefiner.isVisible(declaringClass, FieldAccessor.class)
+        || !HiddenClassDefiner.isAccessible(declaringClass, field.getType())) {
+      return null;
+    }
+
+    try {
+      byte[] classBytes = generateClass(field);
+      Class<?> accessorClass =
+          HiddenClassDefiner.defineNestmate(declaringClass, classBytes).lookupClass();
+      return (FieldAccessor) accessorClass.getConstructor(Field.class).newInstance(field);
+    } catch (ReflectiveOperationException | IllegalStateException | LinkageError e) {
+      // Keep using reflection; the checks above should prevent this
+      return null;
+    }
+  }
+
+  private static byte[] generateClass(Field field) {
+    Class<?> declaringClass = field.getDeclaringClass();
+    String owner = internalName(declaringClass);
+    Class<?> type = field.getType();
+    String fieldDescriptor = descriptor(type);
+    // Long and double values need two operand stack entries and two local variables
+    int valueSize = type == long.class || type == double.class ? 2 : 1;
+
+    ClassFileBuilder builder =
+        new ClassFileBuilder(
+            ACC_PUBLIC | ACC_FINAL | ACC_SUPER, owner + "$$GsonFieldAccessor", FIELD_ACCESSOR);
+
+    Code code = builder.addMethod(ACC_PUBLIC, "<init>", "(Ljava/lang/reflect/Field;)V", 2, 2);
+    code.local(ALOAD, 0);
+    code.local(ALOAD, 1);
+    code.invoke(INVOKESPECIAL, FIELD_ACCESSOR, "<init>", "(Ljava/lang/reflect/Field;)V");
+    code.op(RETURN);
+    code.end();
+
+    code =
+        builder.addMethod(
+            ACC_PUBLIC, "get", "(" + OBJECT_DESCRIPTOR + ")" + OBJECT_DESCRIPTOR, 1 + valueSize, 2);
+    loadTarget(code, owner);
+    code.field(GETFIELD, owner, field.getName(), fieldDescriptor);
+    if (type.isPrimitive()) {
+      String wrapper = internalName(Primitives.wrap(type));
+      code.invoke(INVOKESTATIC, wrapper, "valueOf", "(" + fieldDescriptor + ")L" + wrapper + ";");
+    }
+    code.op(ARETURN);
+    code.end();
+
+    String primitiveName = null;
+    if (type.isPrimitive()) {
+      primitiveName = Character.toUpperCase(type.getName().charAt(0)) + type.getName().substring(1);
+      code =
+          builder.addMethod(
+              ACC_PUBLIC,
+              "get" + primitiveName,
+              "(" + OBJECT_DESCRIPTOR + ")" + fieldDescriptor,
+              1 + valueSize,
+              2);
+      loadTarget(code, owner);
+      code.field(GETFIELD, owner, field.getName(), fieldDescriptor);
+      code.op(returnOpcode(type));
+      code.end();
+    }
+
+    // putfield is not allowed for final fields outside of the constructor of the declaring class
+    if (Modifier.isFinal(field.getModifiers())) {
+      return builder.toByteArray();
+    }
+
+    code =
+        builder.addMethod(
+            ACC_PUBLIC,
+            "set",
+            "(" + OBJECT_DESCRIPTOR + OBJECT_DESCRIPTOR + ")V",
+            1 + valueSize,
+            3);
+    loadTarget(code, owner);
+    code.local(ALOAD, 2);
+    if (type.isPrimitive()) {
+      String wrapper = internalName(Primitives.wrap(type));
+      code.type(CHECKCAST, wrapper);
+      code.invoke(INVOKEVIRTUAL, wrapper, type.getName() + "Value", "()" + fieldDescriptor);
+    } else if (type != Object.class) {
+      code.type(CHECKCAST, typeName(type));
+    }
+    code.field(PUTFIELD, owner, field.getName(), fieldDescriptor);
+    code.op(RETURN);
+    code.end();
+
+    if (type.isPrimitive()) {
+      code =
+          builder.addMethod(
+              ACC_PUBLIC,
+              "set" + primitiveName,
+              "(" + OBJECT_DESCRIPTOR + fieldDescriptor + ")V",
+              1 + valueSize,
+              2 + valueSize);
+      loadTarget(code, owner);
+      code.local(loadOpcode(type), 2);
+      code.field(PUTFIELD, owner, field.getName(), fieldDescriptor);
+      code.op(RETURN);
+      code.end();
+    }
+    return builder.toByteArray();
+  }
+
+  /** Loads the {@code target} parameter, cast to the class declaring the field. */
+  private static void loadTarget(Code code, String owner) {
+    code.local(ALOAD, 1);
+    code.type(CHECKCAST, owner);
+  }
+
+  private static int loadOpcode(Class<?> primitiveType) {
+    if (primitiveType == long.class) {
+      return LLOAD;
+    } else if (primitiveType == float.class) {
+      return FLOAD;
+    } else if (primitiveType == double.class) {
+      return DLOAD;
+    }
+    // boolean, byte, char, short and int values are all ints on the operand stack
+    return ILOAD;
+  }
+
+  private static int returnOpcode(Class<?> primitiveType) {
+    if (primitiveType == long.class) {
+      return LRETURN;
+    } else if (primitiveType == float.class) {
+      return FRETURN;
+    } else if (primitiveType == double.class) {
+      return DRETURN;
+    }
+    return IRETURN;
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.internal.reflect;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Defines hidden classes with {@code MethodHandles.Lookup.defineHiddenClass}, which was added in
+ * Java 15. Since Gson targets older Java versions, that method and related ones are called using
+ * reflection; on older JVMs {@link #isSupported()} returns {@code false}.
+ */
+public final class HiddenClassDefiner {
+  private static final Method PRIVATE_LOOKUP_IN;
+  private static final Method DEFINE_HIDDEN_CLASS;
+  private static final Object CLASS_OPTIONS;
+  private static final Method GET_MODULE;
+  private static final Method IS_NAMED_MODULE;
+
+  static {
+    Method privateLookupIn = null;
+    Method defineHiddenClass = null;
+    Object classOptions = null;
+    Method getModule = null;
+    Method isNamedModule = null;
+    try {
+      privateLookupIn =
+          MethodHandles.class.getMethod("privateLookupIn", Class.class, MethodHandles.Lookup.class);
+      @SuppressWarnings({"unchecked", "rawtypes"})
+      Class<? extends Enum> classOptionClass =
+          (Class<? extends Enum>)
+              Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+      classOptions = Array.newInstance(classOptionClass, 1);
+      @SuppressWarnings("unchecked")
+      Object nestmate = Enum.valueOf(classOptionClass, "NESTMATE");
+      Array.set(classOptions, 0, nestmate);
+      defineHiddenClass =
+          MethodHandles.Lookup.class.getMethod(
+              "defineHiddenClass", byte[].class, boolean.class, classOptions.getClass());
+      getModule = Class.class.getMethod("getModule");
+      isNamedModule = getModule.getReturnType().getMethod("isNamed");
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // Hidden classes are not supported by this JVM
+      defineHiddenClass = null;
+    }
+    PRIVATE_LOOKUP_IN = privateLookupIn;
+    DEFINE_HIDDEN_CLASS = defineHiddenClass;
+    CLASS_OPTIONS = classOptions;
+    GET_MODULE = getModule;
+    IS_NAMED_MODULE = isNamedModule;
+  }
+
+  private HiddenClassDefiner() {}
+
+  /** Returns whether this JVM supports defining hidden classes. */
+  public static boolean isSupported() {
+    return DEFINE_HIDDEN_CLASS != null;
+  }
+
+  /**
+   * Returns whether the class is in a named module. Must only be called if {@link #isSupported()}.
+   */
+  public static boolean isInNamedModule(Class<?> c) {
+    try {
+      return (boolean) IS_NAMED_MODULE.invoke(GET_MODULE.invoke(c));
+    } catch (IllegalAccessException | InvocationTargetException e) {
+      throw new IllegalStateException("Unexpected exception checking module of " + c, e);
+    }
+  }
+
+  /**
+   * Defines the hidden class described by the class file bytes as nestmate of {@code host}, that
+   * is, it can access the private members of {@code host}. The hidden class must be in the same
+   * package as {@code host}. Must only be called if {@link #isSupported()}.
+   *
+   * @return lookup with full privilege access to the hidden class
+   * @throws ReflectiveOperationException if defining the class fails, for example because Gson has
+   *     no private access to {@code host}
+   */
+  public static MethodHandles.Lookup defineNestmate(Class<?> host, byte[] classBytes)
+      throws ReflectiveOperationException {
+    try {
+      MethodHandles.Lookup hostLookup =
+          (MethodHandles.Lookup) PRIVATE_LOOKUP_IN.invoke(null, host, MethodHandles.lookup());
+      return (MethodHandles.Lookup)
+          DEFINE_HIDDEN_CLASS.invoke(hostLookup, classBytes, true, CLASS_OPTIONS);
+    } catch (InvocationTargetException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof ReflectiveOperationException) {
+        throw (ReflectiveOperationException) cause;
+      }
+      // Other exceptions and errors, such as VerifyError, are reported wrapped
+      throw e;
+    }
+  }
+
+  /**
+   * Returns whether the class loader of {@code host} resolves the name of {@code c} to {@code c}.
+   */
+  public static boolean isVisible(Class<?> host, Class<?> c) {
+    try {
+      return Class.forName(c.getName(), false, host.getClassLoader()) == c;
+    } catch (ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+
+  /** Returns whether both classes are in the same runtime package. */
+  public static boolean isSameRuntimePackage(Class<?> a, Class<?> b) {
+    if (a.getClassLoader() != b.getClassLoader()) {
+      return false;
+    }
+    String aName = a.getName();
+    String bName = b.getName();
+    int aIndex = aName.lastIndexOf('.');
+    int bIndex = bName.lastIndexOf('.');
+    return aIndex == bIndex && aName.regionMatches(0, bName, 0, Math.max(aIndex, 0));
+  }
+
+  /**
+   * Returns whether bytecode in the package of {@code host} can refer to the class. To keep this
+   * simple, nested classes of other packages are only considered accessible if they and all their
+   * enclosing classes are {@code public}.
+   */
+  public static boolean isAccessible(Class<?> host, Class<?> c) {
+    while (c.isArray()) {
+      c = c.getComponentType();
+    }
+    if (c.isPrimitive()) {
+      return true;
+    }
+    if (!isVisible(host, c)) {
+      return false;
+    }
+    if (isSameRuntimePackage(host, c)) {
+      return true;
+    }
+    for (Class<?> current = c; current != null; current = current.getEnclosingClass()) {
+      if (!Modifier.isPublic(current.getModifiers())) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.stream;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A property name whose quoted and escaped JSON representation has been computed in advance. This
+ * is useful for names which are written many times, such as the names of the fields of a class:
+ * {@link JsonWriter#encodedName(EncodedName)} writes the pre-encoded name as is, without escaping
+ * it again.
+ *
+ * <p>Instances are immutable and can be shared between multiple threads and writers.
+ *
+ * @since $next-version$
+ */
+public final class EncodedName {
+  private final String name;
+  private final char[] chars;
+  private final char[] htmlSafeChars;
+  private final byte[] utf8Bytes;
+  private final byte[] htmlSafeUtf8Bytes;
+
+  private EncodedName(String name) {
+    this.name = name;
+    this.chars = encodeChars(name, false);
+    this.utf8Bytes = encodeUtf8(name, false);
+
+    // Most names contain no HTML characters, in that case share the encoded representation
+    char[] htmlSafeChars = encodeChars(name, true);
+    if (Arrays.equals(chars, htmlSafeChars)) {
+      this.htmlSafeChars = chars;
+      this.htmlSafeUtf8Bytes = utf8Bytes;
+    } else {
+      this.htmlSafeChars = htmlSafeChars;
+      this.htmlSafeUtf8Bytes = encodeUtf8(name, true);
+    }
+  }
+
+  /**
+   * Creates the pre-encoded representation of the property name {@code name}.
+   *
+   * @param name the property name. May not be {@code null}.
+   */
+  public static EncodedName of(String name) {
+    return new EncodedName(Objects.requireNonNull(name, "name == null"));
+  }
+
+  private static char[] encodeChars(String name, boolean htmlSafe) {
+    StringWriter stringWriter = new StringWriter(name.length() + 2);
+    JsonWriter writer = new JsonWriter(stringWriter);
+    writer.setsafeJsonToHtmlTranslation(htmlSafe);
+    try {
+      writer.string(name);
+      writer.flush();
+    } catch (IOException e) {
+      throw new AssertionError("StringWriter threw exception", e);
+    }
+    return stringWriter.toString().toCharArray();
+  }
+
+  private static byte[] encodeUtf8(String name, boolean htmlSafe) {
+    Utf8JsonWriter writer = new Utf8JsonWriter(name.length() + 2);
+    writer.setsafeJsonToHtmlTranslation(htmlSafe);
+    try {
+      writer.string(name);
+    } catch (IOException e) {
+      throw new AssertionError("Utf8JsonWriter without OutputStream threw exception", e);
+    }
+    return writer.toByteArray();
+  }
+
+  /** Returns the unescaped property name. */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the quoted and escaped name; the returned array must not be modified.
+   *
+   * @param htmlSafe whether the HTML characters have been escaped, see {@link
+   *     JsonWriter#setsafeJsonToHtmlTranslation(boolean)}
+   */
+  char[] chars(boolean htmlSafe) {
+    return htmlSafe ? htmlSafeChars : chars;
+  }
+
+  /**
+   * Returns the quoted and escaped name encoded as UTF-8; the returned array must not be modified.
+   *
+   * @param htmlSafe whether the HTML characters have been escaped, see {@link
+   *     JsonWriter#setsafeJsonToHtmlTranslation(boolean)}
+   */
+  byte[] utf8Bytes(boolean htmlSafe) {
+    return htmlSafe ? htmlSafeUtf8Bytes : utf8Bytes;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof EncodedName && ((EncodedName) o).name.equals(name);
+  }
+
+  @Override
+  public int hashCode() {
+    return name.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.stream;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Projection of JSON data to the values at a set of JSON paths. {@link #project(JsonReader,
+ * JsonWriter)} copies only the selected values, together with the arrays and objects enclosing
+ * them, from a reader to a writer; all other values are {@linkplain JsonReader#skipValue() skipped}
+ * without being decoded. This is useful to extract a few values from large JSON data, see also
+ * {@link com.google.gson.Gson#fromJson(JsonReader, JsonProjection,
+ * com.google.gson.reflect.TypeToken) Gson.fromJson}.
+ *
+ * <p>The paths use the syntax of {@link JsonReader#getPathFile()}: {@code $} is the value being
+ * projected, {@code .name} selects the member {@code name} of an object, and {@code [index]}
+ * selects the element with the given index of an array. Additionally {@code [*]} selects all
+ * elements of an array. For example, projecting the JSON data
+ *
+ * <pre>
+ * {"id": 1, "users": [{"name": "a", "age": 20}, {"name": "b", "age": 30}]}
+ * </pre>
+ *
+ * with the paths {@code $.id} and {@code $.users[*].name} results in:
+ *
+ * <pre>
+ * {"id": 1, "users": [{"name": "a"}, {"name": "b"}]}
+ * </pre>
+ *
+ * <p>Skipped array elements are omitted, so the selected elements of an array are written to
+ * consecutive indices. A value which does not have the structure expected by the paths, for example
+ * a number where the paths select a member of an object, is skipped as well.
+ *
+ * <p>Instances are immutable and can be shared between multiple threads.
+ *
+ * @since $next-version$
+ */
+public final class JsonProjection {
+  private final Node root;
+
+  private JsonProjection(Node root) {
+    this.root = root;
+  }
+
+  /**
+   * Creates a projection to the values at the given paths.
+   *
+   * @throws IllegalArgumentException if one of the paths is not a valid path.
+   */
+  public static JsonProjection of(String... paths) {
+    return of(Arrays.asList(paths));
+  }
+
+  /**
+   * Creates a projection to the values at the given paths.
+   *
+   * @throws IllegalArgumentException if one of the paths is not a valid path.
+   */
+  public static JsonProjection of(Collection<String> paths) {
+    Node root = new Node();
+    for (String path : paths) {
+      addPath(root, Objects.requireNonNull(path, "path == null"));
+    }
+    mergeWildcards(root);
+    return new JsonProjection(root);
+  }
+
+  private static void addPath(Node root, String path) {
+    if (!path.startsWith("$")) {
+      throw new IllegalArgumentException("Invalid JSON path: " + path);
+    }
+    Node node = root;
+    int length = path.length();
+    int i = 1;
+    while (i < length) {
+      char c = path.charAt(i);
+      if (c == '.') {
+        int end = i + 1;
+        while (end < length && path.charAt(end) != '.' && path.charAt(end) != '[') {
+          end++;
+        }
+        node = node.member(path.substring(i + 1, end));
+        i = end;
+      } else if (c == '[') {
+        int end = path.indexOf(']', i);
+        if (end == -1) {
+          throw new IllegalArgumentException("Invalid JSON path: " + path);
+        }
+        String index = path.substring(i + 1, end);
+        if (index.equals("*")) {
+          node = node.anyElement();
+        } else {
+          node = node.element(parseIndex(index, path));
+        }
+        i = end + 1;
+      } else {
+        throw new IllegalArgumentException("Invalid JSON path: " + path);
+      }
+    }
+    node.isSelected = true;
+  }
+
+  private static int parseIndex(String index, String path) {
+    if (index.isEmpty() || index.length() > 9) {
+      throw new IllegalArgumentException("Invalid JSON path: " + path);
+    }
+    for (int i = 0; i < index.length(); i++) {
+      char c = index.charAt(i);
+      if (c < '0' || c > '9') {
+        throw new IllegalArgumentException("Invalid JSON path: " + path);
+      }
+    }
+    return Integer.parseInt(index);
+  }
+
+  /**
+   * Merges the paths below {@code [*]} into the nodes of the explicitly selected indices, so that
+   * for each element a single node has to be considered.
+   */
+  private static void mergeWildcards(Node node) {
+    if (node.elements != null) {
+      for (Node element : node.elements.values()) {
+        if (node.anyElement != null) {
+          merge(element, node.anyElement);
+        }
+        mergeWildcards(element);
+      }
+    }
+    if (node.anyElement != null) {
+      mergeWildcards(node.anyElement);
+    }
+    if (node.members != null) {
+      for (Node member : node.members.values()) {
+        mergeWildcards(member);
+      }
+    }
+  }
+
+  private static void merge(Node target, Node source) {
+    if (source.isSelected) {
+      target.isSelected = true;
+    }
+    if (source.members != null) {
+      for (Map.Entry<String, Node> entry : source.members.entrySet()) {
+        merge(target.member(entry.getKey()), entry.getValue());
+      }
+    }
+    if (source.elements != null) {
+      for (Map.Entry<Integer, Node> entry : source.elements.entrySet()) {
+        merge(target.element(entry.getKey()), entry.getValue());
+      }
+    }
+    if (source.anyElement != null) {
+      merge(target.anyElement(), source.anyElement);
+    }
+  }
+
+  /**
+   * Reads the next value from {@code in} and writes the projection of it to {@code out}. If no part
+   * of the value is selected by the paths of this projection, {@code null} is written.
+   *
+   * @param in the reader, positioned before a value.
+   * @param out the writer to which the projected value is written.
+   */
+  public void project(JsonReader in, JsonWriter out) throws IOException {
+    if (root.accepts(in.peek())) {
+      project(in, out, root);
+    } else {
+      in.skipValue();
+      out.nullValue();
+    }
+  }
+
+  /** Projects the next value, for which {@link Node#accepts(JsonToken)} must be true. */
+  private static void project(JsonReader in, JsonWriter out, Node node) throws IOException {
+    if (node.isSelected) {
+      out.copyValue(in);
+    } else if (node.members != null && in.peek() == JsonToken.BEGIN_OBJECT) {
+      in.beginObject();
+      out.beginObject();
+      while (in.hasNext()) {
+        String name = in.nextName();
+        Node member = node.members.get(name);
+        if (member != null && member.accepts(in.peek())) {
+          out.name(name);
+          project(in, out, member);
+        } else {
+          in.skipValue();
+        }
+      }
+      in.endObject();
+      out.endObject();
+    } else {
+      in.beginArray();
+      out.beginArray();
+      for (int index = 0; in.hasNext(); index++) {
+        Node element = node.elements != null ? node.elements.get(index) : null;
+        if (element == null) {
+          element = node.anyElement;
+        }
+        if (element != null && element.accepts(in.peek())) {
+          project(in, out, element);
+        } else {
+          in.skipValue();
+        }
+      }
+      in.endArray();
+      out.endArray();
+    }
+  }
+
+  /** Node of the tree of the paths; the children of the root are the first path segments. */
+  private static final class Node {
+    /** Whether the complete value at this node is selected */
+    boolean isSelected;
+
+    Map<String, Node> members;
+    Map<Integer, Node> elements;
+    Node anyElement;
+
+    Node member(String name) {
+      if (members == null) {
+        members = new HashMap<>();
+      }
+      Node node = members.get(name);
+      if (node == null) {
+        node = new Node();
+        members.put(name, node);
+      }
+      return node;
+    }
+
+    Node element(int index) {
+      if (elements == null) {
+        elements = new HashMap<>();
+      }
+      Node node = elements.get(index);
+      if (node == null) {
+        node = new Node();
+        elements.put(index, node);
+      }
+      return node;
+    }
+
+    Node anyElement() {
+      if (anyElement == null) {
+        anyElement = new Node();
+      }
+      return anyElement;
+    }
+
+    /** Returns whether a value starting with {@code token} contains selected values. */
+    boolean accepts(JsonToken token) {
+      if (isSelected) {
+        return true;
+      } else if (token == JsonToken.BEGIN_OBJECT) {
+        return members != null;
+      } else if (token == JsonToken.BEGIN_ARRAY) {
+        return elements != null || anyElement != null;
+      } else {
+        return false;
+      }
+    }
+  }
+}
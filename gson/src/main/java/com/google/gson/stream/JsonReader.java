@@ -19,6 +19,7 @@ package com.google.gson.stream;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.Strictness;
+import com.google.gson.internal.DoubleParser;
 import com.google.gson.internal.JsonReaderInternalAccess;
 import com.google.gson.internal.TroubleshootingGuide;
 import com.google.gson.internal.bind.JsonTreeReader;
@@ -209,56 +210,65 @@ import java.util.Objects;
  * @since 1.6
  */
 public class JsonReader implements Closeable {
-  private static final long MIN_INCOMPLETE_INTEGER = Long.MIN_VALUE / 10;
-
-  private static final int PEEKED_NONE = 0;
-  private static final int PEEKED_BEGIN_OBJECT = 1;
-  private static final int PEEKED_END_OBJECT = 2;
-  private static final int PEEKED_BEGIN_ARRAY = 3;
-  private static final int PEEKED_END_ARRAY = 4;
-  private static final int PEEKED_TRUE = 5;
-  private static final int PEEKED_FALSE = 6;
-  private static final int PEEKED_NULL = 7;
-  private static final int PEEKED_SINGLE_QUOTED = 8;
-  private static final int PEEKED_DOUBLE_QUOTED = 9;
-  private static final int PEEKED_UNQUOTED = 10;
+  static final long MIN_INCOMPLETE_INTEGER = Long.MIN_VALUE / 10;
+
+  static final int PEEKED_NONE = 0;
+  static final int PEEKED_BEGIN_OBJECT = 1;
+  static final int PEEKED_END_OBJECT = 2;
+  static final int PEEKED_BEGIN_ARRAY = 3;
+  static final int PEEKED_END_ARRAY = 4;
+  static final int PEEKED_TRUE = 5;
+  static final int PEEKED_FALSE = 6;
+  static final int PEEKED_NULL = 7;
+  static final int PEEKED_SINGLE_QUOTED = 8;
+  static final int PEEKED_DOUBLE_QUOTED = 9;
+  static final int PEEKED_UNQUOTED = 10;
 
   /** When this is returned, the string value is stored in peekedString. */
-  private static final int PEEKED_BUFFERED = 11;
+  static final int PEEKED_BUFFERED = 11;
 
-  private static final int PEEKED_SINGLE_QUOTED_NAME = 12;
-  private static final int PEEKED_DOUBLE_QUOTED_NAME = 13;
-  private static final int PEEKED_UNQUOTED_NAME = 14;
+  static final int PEEKED_SINGLE_QUOTED_NAME = 12;
+  static final int PEEKED_DOUBLE_QUOTED_NAME = 13;
+  static final int PEEKED_UNQUOTED_NAME = 14;
 
   /** When this is returned, the integer value is stored in peekedLong. */
-  private static final int PEEKED_LONG = 15;
+  static final int PEEKED_LONG = 15;
 
-  private static final int PEEKED_NUMBER = 16;
-  private static final int PEEKED_EOF = 17;
+  static final int PEEKED_NUMBER = 16;
+  static final int PEEKED_EOF = 17;
 
   /* State machine when parsing numbers */
-  private static final int NUMBER_CHAR_NONE = 0;
-  private static final int NUMBER_CHAR_SIGN = 1;
-  private static final int NUMBER_CHAR_DIGIT = 2;
-  private static final int NUMBER_CHAR_DECIMAL = 3;
-  private static final int NUMBER_CHAR_FRACTION_DIGIT = 4;
-  private static final int NUMBER_CHAR_EXP_E = 5;
-  private static final int NUMBER_CHAR_EXP_SIGN = 6;
-  private static final int NUMBER_CHAR_EXP_DIGIT = 7;
+  static final int NUMBER_CHAR_NONE = 0;
+  static final int NUMBER_CHAR_SIGN = 1;
+  static final int NUMBER_CHAR_DIGIT = 2;
+  static final int NUMBER_CHAR_DECIMAL = 3;
+  static final int NUMBER_CHAR_FRACTION_DIGIT = 4;
+  static final int NUMBER_CHAR_EXP_E = 5;
+  static final int NUMBER_CHAR_EXP_SIGN = 6;
+  static final int NUMBER_CHAR_EXP_DIGIT = 7;
 
   /** The input JSON. */
   private final Reader in;
 
   private Strictness strictness = Strictness.LEGACY_STRICT;
 
+  /** Default size of the buffer, and maximum length of a token which is reported as number. */
   static final int BUFFER_SIZE = 1024;
 
+  /** Minimum size of the buffer, large enough for all fixed length lookaheads. */
+  static final int MIN_BUFFER_SIZE = 16;
+
   /**
    * Use a manual buffer to easily read and unread upcoming characters, and also so we can create
-   * strings without an intermediate StringBuilder. We decode literals directly out of this buffer,
-   * so it must be at least as long as the longest token that can be reported as a number.
+   * strings without an intermediate StringBuilder. We decode literals directly out of this buffer.
+   * The buffer grows when a string or number does not fit into it.
+   */
+  private char[] buffer;
+
+  /**
+   * Configured size of {@link #buffer}, to which it shrinks again after it grew for a long token
    */
-  private final char[] buffer = new char[BUFFER_SIZE];
+  private final int bufferSize;
 
   private int pos = 0;
   private int limit = 0;
@@ -272,25 +282,25 @@ public class JsonReader implements Closeable {
    * A peeked value that was composed entirely of digits with an optional leading dash. Positive
    * values may not have a leading 0.
    */
-  private long peekedLong;
+  long peekedLong;
 
   /**
    * The number of characters in a peeked number literal. Increment 'pos' by this after reading a
    * number.
    */
-  private int peekedNumberLength;
+  int peekedNumberLength;
 
   /**
    * A peeked string that should be parsed on the next double, long or string. This is populated
    * before a numeric value is parsed and used if that parsing fails.
    */
-  private String peekedString;
+  String peekedString;
 
   /*
    * The nesting stack. Using a manual array rather than an ArrayList saves 20%.
    */
-  private int[] stack = new int[32];
-  private int stackSize = 0;
+  int[] stack = new int[32];
+  int stackSize = 0;
 
   {
     stack[stackSize++] = JsonScope.EMPTY_DOCUMENT;
@@ -304,12 +314,43 @@ public class JsonReader implements Closeable {
    * that array. Otherwise the value is undefined, and we take advantage of that
    * by incrementing pathIndices when doing so isn't useful.
    */
-  private String[] pathNames = new String[32];
-  private int[] pathIndices = new int[32];
+  CharSequence[] pathNames = new CharSequence[32];
+  int[] pathIndices = new int[32];
+
+  /**
+   * Reusable copies of the names returned by {@link #nextNameView()}, which {@link #pathNames}
+   * refers to, by nesting depth; created on first use.
+   */
+  private StringBuilder[] pathNameCopies;
+
+  /** Cache for the strings read by this reader; {@code null} if strings are not cached. */
+  private StringCache stringCache;
+
+  /** Reusable view returned by {@link #nextStringView()}; created on first use. */
+  private BufferView bufferView;
 
   /** Creates a new instance that reads a JSON-encoded stream from {@code in}. */
   public JsonReader(Reader in) {
+    this(in, BUFFER_SIZE);
+  }
+
+  /**
+   * Creates a new instance that reads a JSON-encoded stream from {@code in}, using a buffer of
+   * {@code bufferSize} chars. A larger buffer reduces the number of {@link Reader#read(char[], int,
+   * int) read} calls for large JSON documents. The buffer grows when a single string value or name
+   * does not fit into it, so that the string is created without copying it chunk by chunk, and
+   * shrinks back to {@code bufferSize} once that string has been consumed.
+   *
+   * @param bufferSize initial size of the buffer; must be at least 16
+   * @since $next-version$
+   */
+  public JsonReader(Reader in, int bufferSize) {
     this.in = Objects.requireNonNull(in, "in == null");
+    if (bufferSize < MIN_BUFFER_SIZE) {
+      throw new IllegalArgumentException("Invalid buffer size: " + bufferSize);
+    }
+    this.bufferSize = bufferSize;
+    this.buffer = new char[bufferSize];
   }
 
   /**
@@ -410,6 +451,32 @@ public class JsonReader implements Closeable {
     return strictness;
   }
 
+  /**
+   * Configures the cache from which this parser obtains the strings it reads.
+   *
+   * <p>With a {@link StringCache}, short names and values which occur repeatedly are returned as
+   * the same {@code String} instance. Without a cache (the default), a new {@code String} is
+   * created for every string which is read. A cache is not thread-safe, so it must only be shared
+   * by readers used on the same thread.
+   *
+   * @param stringCache the new string cache of this reader. May be {@code null} to disable caching.
+   * @since $next-version$
+   */
+  public final void setStringCache(StringCache stringCache) {
+    this.stringCache = stringCache;
+  }
+
+  /**
+   * Returns the {@linkplain StringCache string cache} of this reader, or {@code null} if caching is
+   * disabled.
+   *
+   * @see #setStringCache(StringCache)
+   * @since $next-version$
+   */
+  public final StringCache getStringCache() {
+    return stringCache;
+  }
+
   /**
    * Consumes the next token from the JSON stream and asserts that it is the beginning of a new
    * array.
@@ -533,6 +600,10 @@ public class JsonReader implements Closeable {
 
   @SuppressWarnings("fallthrough")
   int doPeek() throws IOException {
+    // No token is pending here, so the buffer can be replaced
+    if (buffer.length > bufferSize) {
+      shrinkBuffer();
+    }
     int peekStack = stack[stackSize - 1];
     if (peekStack == JsonScope.EMPTY_ARRAY) {
       stack[stackSize - 1] = JsonScope.NONEMPTY_ARRAY;
@@ -733,7 +804,7 @@ public class JsonReader implements Closeable {
     charactersOfNumber:
     for (; true; i++) {
       if (p + i == l) {
-        if (i == buffer.length) {
+        if (i == BUFFER_SIZE) {
           // Though this looks like a well-formed number, it's too long to continue reading. Give up
           // and let the application handle this as an unquoted literal.
           return PEEKED_NONE;
@@ -741,6 +812,8 @@ public class JsonReader implements Closeable {
         if (!fillBuffer(i + 1)) {
           break;
         }
+        // The buffer might have grown
+        buffer = this.buffer;
         p = pos;
         l = limit;
       }
@@ -878,6 +951,108 @@ public class JsonReader implements Closeable {
     return result;
   }
 
+  /**
+   * Consumes the next token, which must be a property name, and returns its index in {@code
+   * matcher}, or -1 if the name is not one of the names of the matcher. This behaves like {@code
+   * matcher.indexOf(nextName())}, except that for a known name without escape sequences no {@code
+   * String} is created; the name is matched directly against the buffered JSON data.
+   *
+   * @throws IllegalStateException if the next token is not a property name.
+   * @since $next-version$
+   */
+  public int nextName(NameMatcher matcher) throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+    if (p == PEEKED_DOUBLE_QUOTED_NAME && getClass() == JsonReader.class) {
+      char[] buffer = this.buffer;
+      int start = pos;
+      int hash = 0;
+      for (int i = start, l = limit; i < l; i++) {
+        char c = buffer[i];
+        if (c == '"') {
+          int index = matcher.indexOf(buffer, start, i, hash);
+          if (index != -1) {
+            pos = i + 1;
+            peeked = PEEKED_NONE;
+            pathNames[stackSize - 1] = matcher.name(index);
+            return index;
+          }
+          break;
+        } else if (c == '\\' || c < 0x20) {
+          // Escape sequences and control characters are handled by the regular code path
+          break;
+        }
+        hash = 31 * hash + c;
+      }
+    }
+    return matcher.indexOf(nextName());
+  }
+
+  /**
+   * Returns the next token, a {@link JsonToken#NAME property name}, and consumes it. This behaves
+   * like {@link #nextName()}, except that no {@code String} is created for a quoted name without
+   * escape sequences; instead a view of the JSON data in the internal buffer of this reader is
+   * returned, the same way as by {@link #nextStringView()}.
+   *
+   * <p>The returned sequence is only valid until the next method call on this reader; afterwards
+   * its content is undefined, and subsequent calls of this method may return the same instance.
+   * Names with escape sequences, and all names if this method is called on a subclass of {@code
+   * JsonReader}, are returned as {@code String}.
+   *
+   * @throws IllegalStateException if the next token is not a property name.
+   * @since $next-version$
+   */
+  public CharSequence nextNameView() throws IOException {
+    if (getClass() != JsonReader.class) {
+      // Subclasses might override nextName()
+      return nextName();
+    }
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+    CharSequence result;
+    if (p == PEEKED_DOUBLE_QUOTED_NAME) {
+      result = nextQuotedValueView('"');
+    } else if (p == PEEKED_SINGLE_QUOTED_NAME) {
+      result = nextQuotedValueView('\'');
+    } else {
+      return nextName();
+    }
+    peeked = PEEKED_NONE;
+    if (result instanceof BufferView) {
+      // The view does not stay valid, so the path refers to a copy which is reused for every name
+      // at the same depth
+      BufferView view = (BufferView) result;
+      StringBuilder copy = pathNameCopy(stackSize - 1);
+      copy.setLength(0);
+      copy.append(view.chars, view.offset, view.length);
+      pathNames[stackSize - 1] = copy;
+    } else {
+      pathNames[stackSize - 1] = result;
+    }
+    return result;
+  }
+
+  private StringBuilder pathNameCopy(int depth) {
+    StringBuilder[] copies = pathNameCopies;
+    if (copies == null || depth >= copies.length) {
+      copies =
+          copies == null
+              ? new StringBuilder[pathNames.length]
+              : Arrays.copyOf(copies, pathNames.length);
+      pathNameCopies = copies;
+    }
+    StringBuilder copy = copies[depth];
+    if (copy == null) {
+      copy = new StringBuilder();
+      copies[depth] = copy;
+    }
+    return copy;
+  }
+
   /**
    * Returns the {@link JsonToken#STRING string} value of the next token, consuming it. If the next
    * token is a number, this method will return its string form.
@@ -975,6 +1150,14 @@ public class JsonReader implements Closeable {
     }
 
     if (p == PEEKED_NUMBER) {
+      // Parse directly from the buffer; the fast path never produces infinity
+      double result = DoubleParser.parse(buffer, pos, pos + peekedNumberLength);
+      if (!Double.isNaN(result)) {
+        pos += peekedNumberLength;
+        peeked = PEEKED_NONE;
+        pathIndices[stackSize - 1]++;
+        return result;
+      }
       peekedString = new String(buffer, pos, peekedNumberLength);
       pos += peekedNumberLength;
     } else if (p == PEEKED_SINGLE_QUOTED || p == PEEKED_DOUBLE_QUOTED) {
@@ -1050,6 +1233,99 @@ public class JsonReader implements Closeable {
     return result;
   }
 
+  /**
+   * Returns the {@link JsonToken#STRING string} value of the next token, consuming it. This behaves
+   * like {@link #nextString()}, except that no {@code String} is created for a string without
+   * escape sequences and for a number which has not been peeked as {@code long}; instead a view of
+   * the JSON data in the internal buffer of this reader is returned. This allows processing values,
+   * for example comparing them or writing them elsewhere, without allocating a {@code String} for
+   * each of them.
+   *
+   * <p>The returned sequence is only valid until the next method call on this reader; afterwards
+   * its content is undefined, and subsequent calls of this method may return the same instance. Use
+   * {@link CharSequence#toString() toString()} to obtain a {@code String} which stays valid.
+   * Strings with escape sequences, and all values if this method is called on a subclass of {@code
+   * JsonReader}, are returned as {@code String}.
+   *
+   * @throws IllegalStateException if the next token is not a string or if this reader is closed.
+   * @since $next-version$
+   */
+  public CharSequence nextStringView() throws IOException {
+    if (getClass() != JsonReader.class) {
+      // Subclasses might override nextString()
+      return nextString();
+    }
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+    CharSequence result;
+    if (p == PEEKED_DOUBLE_QUOTED) {
+      result = nextQuotedValueView('"');
+    } else if (p == PEEKED_SINGLE_QUOTED) {
+      result = nextQuotedValueView('\'');
+    } else if (p == PEEKED_NUMBER) {
+      result = bufferView(pos, peekedNumberLength);
+      pos += peekedNumberLength;
+    } else {
+      return nextString();
+    }
+    peeked = PEEKED_NONE;
+    pathIndices[stackSize - 1]++;
+    return result;
+  }
+
+  private BufferView bufferView(int start, int length) {
+    BufferView view = this.bufferView;
+    if (view == null) {
+      view = new BufferView();
+      this.bufferView = view;
+    }
+    view.chars = buffer;
+    view.offset = start;
+    view.length = length;
+    return view;
+  }
+
+  /**
+   * Like {@link #nextQuotedValue(char)}, but returns a view of the buffer if the string contains no
+   * escape sequences.
+   */
+  private CharSequence nextQuotedValueView(char quote) throws IOException {
+    /* the number of characters after 'pos' which have already been scanned. */
+    int scanned = 0;
+    while (true) {
+      char[] buffer = this.buffer;
+      int start = pos;
+      int p = start + scanned;
+      int l = limit;
+      while (p < l) {
+        int c = buffer[p++];
+        if (c == quote) {
+          pos = p;
+          return bufferView(start, p - start - 1);
+        } else if (c == '\\' || (strictness == Strictness.STRICT && c < 0x20)) {
+          // Let the regular code path decode the escape sequence, respectively report the error
+          pos = start;
+          return nextQuotedValue(quote, p - 1 - start);
+        } else if (c == '\n') {
+          lineNumber++;
+          lineStart = p;
+        }
+      }
+
+      // Keep the string in the buffer, which grows if necessary; once the string starts at the
+      // beginning of the buffer, fillBuffer only appends to it, so this stays linear
+      scanned = p - start;
+      pos = start;
+      if (!fillBuffer(scanned + 1)) {
+        // Consume the rest of the data, so that the error location is at its end
+        pos = limit;
+        throw syntaxError("Unterminated string");
+      }
+    }
+  }
+
   /**
    * Returns the string up to but not including {@code quote}, unescaping any character escape
    * sequences encountered along the way. The opening quote should have already been read. This
@@ -1058,14 +1334,22 @@ public class JsonReader implements Closeable {
    * @param quote either ' or ".
    */
   private String nextQuotedValue(char quote) throws IOException {
-    // Like nextNonWhitespace, this uses locals 'p' and 'l' to save inner-loop field access.
-    char[] buffer = this.buffer;
+    return nextQuotedValue(quote, 0);
+  }
+
+  /**
+   * Like {@link #nextQuotedValue(char)}, but the first {@code scanned} characters after {@code pos}
+   * have already been checked and contain neither the quote nor an escape sequence.
+   */
+  private String nextQuotedValue(char quote, int scanned) throws IOException {
     StringBuilder builder = null;
     while (true) {
-      int p = pos;
-      int l = limit;
+      // Like nextNonWhitespace, this uses locals 'p' and 'l' to save inner-loop field access.
+      char[] buffer = this.buffer;
       /* the index of the first character not yet appended to the builder. */
-      int start = p;
+      int start = pos;
+      int p = start + scanned;
+      int l = limit;
       while (p < l) {
         int c = buffer[p++];
 
@@ -1078,7 +1362,10 @@ public class JsonReader implements Closeable {
           pos = p;
           int len = p - start - 1;
           if (builder == null) {
-            return new String(buffer, start, len);
+            StringCache stringCache = this.stringCache;
+            return stringCache != null
+                ? stringCache.get(buffer, start, len)
+                : new String(buffer, start, len);
           } else {
             builder.append(buffer, start, len);
             return builder.toString();
@@ -1102,12 +1389,18 @@ public class JsonReader implements Closeable {
       }
 
       if (builder == null) {
-        int estimatedLength = (p - start) * 2;
-        builder = new StringBuilder(Math.max(estimatedLength, 16));
+        // Keep the string in the buffer, which grows if necessary, so that it is copied only once
+        // when the string is created
+        scanned = p - start;
+        pos = start;
+      } else {
+        builder.append(buffer, start, p - start);
+        pos = p;
+        scanned = 0;
       }
-      builder.append(buffer, start, p - start);
-      pos = p;
-      if (!fillBuffer(1)) {
+      if (!fillBuffer(scanned + 1)) {
+        // Consume the rest of the data, so that the error location is at its end
+        pos = limit;
         throw syntaxError("Unterminated string");
       }
     }
@@ -1316,12 +1609,22 @@ public class JsonReader implements Closeable {
    *   <li>End of JSON document: Skipping has no effect, the next token continues to be the end of
    *       the document.
    * </ul>
+   *
+   * <p>The nested values of an array or object are validated the same way as when reading them.
+   * Well-formed JSON is skipped considerably faster though, because its tokens are checked directly
+   * in the buffer instead of being peeked one by one.
    */
   public void skipValue() throws IOException {
     int count = 0;
     do {
       int p = peeked;
       if (p == PEEKED_NONE) {
+        if (count > 0) {
+          count = skipNested(count);
+          if (count == 0) {
+            break;
+          }
+        }
         p = doPeek();
       }
 
@@ -1394,7 +1697,209 @@ public class JsonReader implements Closeable {
     pathIndices[stackSize - 1]++;
   }
 
-  private void push(int newTop) {
+  /**
+   * Skips the tokens of the arrays and objects entered by {@link #skipValue()}, together with the
+   * commas and colons between them, without peeking them. Unlike {@link #doPeek()} this only
+   * supports well-formed JSON: double-quoted strings and names, numbers and the literals {@code
+   * true}, {@code false} and {@code null}, separated by whitespace. It returns before any other
+   * token, which then has to be read with {@code doPeek()}; that also reports malformed JSON. The
+   * stack is updated, but not the path.
+   *
+   * @param count the number of arrays and objects which have been entered
+   * @return the number of arrays and objects which are still open
+   */
+  private int skipNested(int count) throws IOException {
+    char[] buffer = this.buffer;
+    int p = pos;
+    int l = limit;
+    while (count > 0) {
+      p = skipWhitespace(p);
+      if (p == l) {
+        pos = p;
+        if (!fillBuffer(1)) {
+          return count;
+        }
+        buffer = this.buffer;
+        p = pos;
+        l = limit;
+        continue;
+      }
+      // If the token is not skipped, doPeek() consumes the whitespace after a comma or colon
+      // again, so the lines in it must not be counted twice
+      int tokenStart = p;
+      int savedLineNumber = lineNumber;
+      int savedLineStart = lineStart;
+
+      int peekStack = stack[stackSize - 1];
+      boolean isObject =
+          peekStack != JsonScope.EMPTY_ARRAY && peekStack != JsonScope.NONEMPTY_ARRAY;
+      char c = buffer[p];
+      if (peekStack == JsonScope.DANGLING_NAME) {
+        if (c != ':') {
+          break;
+        }
+        p = skipWhitespace(p + 1);
+      } else if (c == (isObject ? '}' : ']')) {
+        p++;
+        stackSize--;
+        count--;
+        continue;
+      } else if (peekStack == JsonScope.NONEMPTY_ARRAY || peekStack == JsonScope.NONEMPTY_OBJECT) {
+        if (c != ',') {
+          break;
+        }
+        p = skipWhitespace(p + 1);
+      }
+
+      boolean isValue = peekStack == JsonScope.DANGLING_NAME || !isObject;
+      int end = -1;
+      if (p < l) {
+        c = buffer[p];
+        if (c == '"' || (isValue && (c == '[' || c == '{'))) {
+          end = p + 1;
+        } else if (isValue) {
+          end = literalEnd(p);
+        }
+      }
+      if (end == -1) {
+        lineNumber = savedLineNumber;
+        lineStart = savedLineStart;
+        p = tokenStart;
+        break;
+      }
+
+      if (peekStack == JsonScope.DANGLING_NAME) {
+        stack[stackSize - 1] = JsonScope.NONEMPTY_OBJECT;
+      } else {
+        stack[stackSize - 1] = isObject ? JsonScope.DANGLING_NAME : JsonScope.NONEMPTY_ARRAY;
+      }
+      p = end;
+      if (c == '"') {
+        // Fast path for strings without escapes, which end in the buffer
+        while (p < l && buffer[p] != '"' && buffer[p] != '\\' && buffer[p] != '\n') {
+          p++;
+        }
+        if (p < l && buffer[p] == '"') {
+          p++;
+        } else {
+          pos = p;
+          skipQuotedValue('"');
+          buffer = this.buffer;
+          p = pos;
+          l = limit;
+        }
+      } else if (c == '[') {
+        push(JsonScope.EMPTY_ARRAY);
+        count++;
+      } else if (c == '{') {
+        push(JsonScope.EMPTY_OBJECT);
+        count++;
+      }
+    }
+    pos = p;
+    return count;
+  }
+
+  /**
+   * Returns the index of the first char at or after {@code p} which is not whitespace, or {@link
+   * #limit} if there is none in the buffer. Unlike {@link #nextNonWhitespace} this neither fills
+   * the buffer nor skips comments.
+   */
+  private int skipWhitespace(int p) {
+    char[] buffer = this.buffer;
+    int l = limit;
+    for (; p < l; p++) {
+      char c = buffer[p];
+      if (c == '\n') {
+        lineNumber++;
+        lineStart = p + 1;
+      } else if (c != ' ' && c != '\r' && c != '\t') {
+        break;
+      }
+    }
+    return p;
+  }
+
+  /**
+   * Returns the index after the JSON number or the literal {@code true}, {@code false} or {@code
+   * null} which starts at {@code p}, or -1 if there is none, or if it is not followed by
+   * whitespace, a comma or a closing bracket in the buffer.
+   */
+  private int literalEnd(int p) {
+    char[] buffer = this.buffer;
+    int l = limit;
+    char c = buffer[p];
+    if (c == 't' || c == 'f' || c == 'n') {
+      String keyword = c == 't' ? "true" : c == 'f' ? "false" : "null";
+      int length = keyword.length();
+      if (l - p <= length) {
+        return -1;
+      }
+      for (int i = 1; i < length; i++) {
+        if (buffer[p + i] != keyword.charAt(i)) {
+          return -1;
+        }
+      }
+      p += length;
+    } else {
+      if (c == '-') {
+        p++;
+      }
+      // Leading '0' prefix is not allowed (since it could be octal), see peekNumber()
+      if (p < l && buffer[p] == '0') {
+        p++;
+      } else {
+        int start = p;
+        p = skipDigits(buffer, p, l);
+        if (p == start) {
+          return -1;
+        }
+      }
+      if (p < l && buffer[p] == '.') {
+        int start = ++p;
+        p = skipDigits(buffer, p, l);
+        if (p == start) {
+          return -1;
+        }
+      }
+      if (p < l && (buffer[p] == 'e' || buffer[p] == 'E')) {
+        p++;
+        if (p < l && (buffer[p] == '+' || buffer[p] == '-')) {
+          p++;
+        }
+        int start = p;
+        p = skipDigits(buffer, p, l);
+        if (p == start) {
+          return -1;
+        }
+      }
+    }
+
+    if (p == l) {
+      return -1;
+    }
+    switch (buffer[p]) {
+      case ' ':
+      case '\t':
+      case '\r':
+      case '\n':
+      case ',':
+      case ']':
+      case '}':
+        return p;
+      default:
+        return -1;
+    }
+  }
+
+  private static int skipDigits(char[] buffer, int p, int l) {
+    while (p < l && buffer[p] >= '0' && buffer[p] <= '9') {
+      p++;
+    }
+    return p;
+  }
+
+  void push(int newTop) {
     if (stackSize == stack.length) {
       int newLength = stackSize * 2;
       stack = Arrays.copyOf(stack, newLength);
@@ -1404,18 +1909,45 @@ public class JsonReader implements Closeable {
     stack[stackSize++] = newTop;
   }
 
+  /**
+   * Replaces a buffer which grew for a long token with one of the configured size again, once the
+   * remaining buffered chars fit into it.
+   */
+  private void shrinkBuffer() {
+    int remaining = limit - pos;
+    if (remaining <= bufferSize) {
+      char[] newBuffer = new char[bufferSize];
+      System.arraycopy(buffer, pos, newBuffer, 0, remaining);
+      buffer = newBuffer;
+      lineStart -= pos;
+      limit = remaining;
+      pos = 0;
+    }
+  }
+
   /**
    * Returns true once {@code limit - pos >= minimum}. If the data is exhausted before that many
-   * characters are available, this returns false.
+   * characters are available, this returns false. If {@code minimum} is larger than the buffer, the
+   * buffer is replaced with a larger one, which is then filled completely unless the data ends.
    */
   private boolean fillBuffer(int minimum) throws IOException {
     char[] buffer = this.buffer;
     lineStart -= pos;
-    if (limit != pos) {
+    boolean grown = false;
+    if (minimum > buffer.length) {
+      char[] newBuffer = new char[Math.max(buffer.length * 2, minimum)];
       limit -= pos;
-      System.arraycopy(buffer, pos, buffer, 0, limit);
-    } else {
+      System.arraycopy(buffer, pos, newBuffer, 0, limit);
+      buffer = newBuffer;
+      this.buffer = newBuffer;
+      grown = true;
+    } else if (limit == pos) {
       limit = 0;
+    } else if (pos != 0) {
+      // Callers keeping a long token in the buffer call this repeatedly with pos == 0; copying the
+      // buffer onto itself every time would make reading such a token quadratic
+      limit -= pos;
+      System.arraycopy(buffer, pos, buffer, 0, limit);
     }
 
     pos = 0;
@@ -1430,11 +1962,13 @@ public class JsonReader implements Closeable {
         minimum++;
       }
 
-      if (limit >= minimum) {
+      // After growing, fill the whole buffer so that the copy of its content is amortized over
+      // many chars, instead of growing again after the next small read
+      if (limit >= minimum && (!grown || limit == buffer.length)) {
         return true;
       }
     }
-    return false;
+    return limit >= minimum;
   }
 
   /**
@@ -1531,7 +2065,7 @@ public class JsonReader implements Closeable {
     }
   }
 
-  private void checkLenient() throws MalformedJsonException {
+  void checkLenient() throws MalformedJsonException {
     if (strictness != Strictness.LENIENT) {
       throw syntaxError(
           "Use JsonReader.setStrictness(Strictness.LENIENT) to accept malformed JSON");
@@ -1735,12 +2269,12 @@ public class JsonReader implements Closeable {
    * Throws a new {@link MalformedJsonException} with the given message and information about the
    * current location.
    */
-  private MalformedJsonException syntaxError(String message) throws MalformedJsonException {
+  MalformedJsonException syntaxError(String message) throws MalformedJsonException {
     throw new MalformedJsonException(
         message + locationString() + "\nSee " + TroubleshootingGuide.createUrl("malformed-json"));
   }
 
-  private IllegalStateException unexpectedTokenError(String expected) throws IOException {
+  IllegalStateException unexpectedTokenError(String expected) throws IOException {
     JsonToken peeked = peek();
     String troubleshootingId =
         peeked == JsonToken.NULL ? "adapter-not-null-safe" : "unexpected-json-structure";
@@ -1803,4 +2337,38 @@ public class JsonReader implements Closeable {
           }
         };
   }
+
+  /** A mutable char sequence pointing at a range of a char array. */
+  private static final class BufferView implements CharSequence {
+    char[] chars;
+    int offset;
+    int length;
+
+    @Override
+    public int length() {
+      return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+      if (index < 0 || index >= length) {
+        throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+      }
+      return chars[offset + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      if (start < 0 || end > length || start > end) {
+        throw new IndexOutOfBoundsException(
+            "start " + start + ", end " + end + ", length " + length);
+      }
+      return new String(chars, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+      return new String(chars, offset, length);
+    }
+  }
 }
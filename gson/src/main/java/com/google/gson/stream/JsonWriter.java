@@ -29,6 +29,7 @@ import com.google.gson.FormattingStyle;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.Strictness;
+import com.google.gson.internal.DoubleFormatter;
 import java.io.Closeable;
 import java.io.Flushable;
 import java.io.IOException;
@@ -199,9 +200,29 @@ public class JsonWriter implements Closeable, Flushable {
     HTML_SAFE_REPLACEMENT_CHARS['\''] = "\\u0027";
   }
 
+  /** Size of the buffer in which the output is collected before it is written to {@link #out}. */
+  static final int BUFFER_SIZE = 4096;
+
+  /** Maximum number of chars a single {@code char} is escaped to, which are the unicode escapes. */
+  private static final int MAX_CHARS_PER_CHAR = 6;
+
+  /** Number of chars of a string which are escaped at once, with a single capacity check. */
+  private static final int CHUNK_SIZE = BUFFER_SIZE / MAX_CHARS_PER_CHAR;
+
+  private static final char[] EMPTY_BUFFER = {};
+
   /** The JSON output destination */
   private final Writer out;
 
+  /**
+   * Output which has not been written to {@link #out} yet; created on first use, so that subclasses
+   * which override the low level output methods do not allocate it.
+   */
+  private char[] buffer = EMPTY_BUFFER;
+
+  /** Number of chars in {@link #buffer}. */
+  private int count;
+
   private int[] stack = new int[32];
   private int stackSize = 0;
 
@@ -209,6 +230,9 @@ public class JsonWriter implements Closeable, Flushable {
     push(EMPTY_DOCUMENT);
   }
 
+  /** Buffer for formatting {@code double} values; created on first use */
+  private char[] numberBuffer;
+
   private FormattingStyle formattingStyle;
   // These fields cache data derived from the formatting style, to avoid having to
   // re-evaluate it every time something is written
@@ -220,14 +244,33 @@ public class JsonWriter implements Closeable, Flushable {
 
   private boolean safeJsonToHtmlTranslation;
 
-  private String deferredName;
+  private CharSequence deferredName;
+
+  /** Pre-encoded form of {@link #deferredName}; {@code null} if the name was given as string */
+  private EncodedName deferredEncodedName;
+
+  /**
+   * Reusable copy of the name being copied by {@link #copyValue(JsonReader)}; created on first use
+   */
+  private StringBuilder copiedName;
+
+  /**
+   * Whether {@link #encodedName(EncodedName)} and {@link #copyValue(JsonReader)} can write names
+   * without creating a {@code String} for them. Subclasses might override {@link #name(String)}, so
+   * for them the name has to be passed to that method instead.
+   */
+  private final boolean writesEncodedNames =
+      getClass() == JsonWriter.class || getClass() == Utf8JsonWriter.class;
 
   private boolean serializeNulls = true;
 
   /**
-   * Creates a new instance that writes a JSON-encoded stream to {@code out}. For best performance,
-   * ensure {@link Writer} is buffered; wrapping in {@link java.io.BufferedWriter BufferedWriter} if
-   * necessary.
+   * Creates a new instance that writes a JSON-encoded stream to {@code out}.
+   *
+   * <p>The output is buffered internally, so {@code out} does not have to be buffered. The buffered
+   * chars are written to {@code out} in large chunks: when the buffer is full, when a complete
+   * top-level value has been written, and when this writer is {@linkplain #flush() flushed} or
+   * {@linkplain #close() closed}.
    */
   public JsonWriter(Writer out) {
     this.out = Objects.requireNonNull(out, "out == null");
@@ -436,7 +479,7 @@ public class JsonWriter implements Closeable, Flushable {
   private JsonWriter openScope(int empty, char openBracket) throws IOException {
     beforeValue();
     push(empty);
-    out.write(openBracket);
+    write(openBracket);
     return this;
   }
 
@@ -455,8 +498,8 @@ public class JsonWriter implements Closeable, Flushable {
     if (context == nonempty) {
       newline();
     }
-    out.write(closeBracket);
-    return this;
+    write(closeBracket);
+    return afterValue();
   }
 
   private void push(int newTop) {
@@ -488,6 +531,11 @@ public class JsonWriter implements Closeable, Flushable {
   @CanIgnoreReturnValue
   public JsonWriter name(String name) throws IOException {
     Objects.requireNonNull(name, "name == null");
+    setDeferredName(name);
+    return this;
+  }
+
+  private void setDeferredName(CharSequence name) {
     if (deferredName != null) {
       throw new IllegalStateException("Already wrote a name, expecting a value.");
     }
@@ -496,13 +544,36 @@ public class JsonWriter implements Closeable, Flushable {
       throw new IllegalStateException("Please begin an object before writing a name.");
     }
     deferredName = name;
+  }
+
+  /**
+   * Encodes the property name, writing its pre-encoded representation as is. Behaves the same as
+   * {@link #name(String) name(name.getName())}, except that the name does not have to be escaped
+   * every time it is written.
+   *
+   * @param name the name of the forthcoming value. May not be {@code null}.
+   * @return this writer.
+   * @since $next-version$
+   */
+  @CanIgnoreReturnValue
+  public JsonWriter encodedName(EncodedName name) throws IOException {
+    Objects.requireNonNull(name, "name == null");
+    name(name.getName());
+    if (writesEncodedNames) {
+      deferredEncodedName = name;
+    }
     return this;
   }
 
   private void writeDeferredName() throws IOException {
     if (deferredName != null) {
       beforeName();
-      string(deferredName);
+      if (deferredEncodedName != null) {
+        writeEncodedName(deferredEncodedName);
+        deferredEncodedName = null;
+      } else {
+        string(deferredName);
+      }
       deferredName = null;
     }
   }
@@ -521,7 +592,7 @@ public class JsonWriter implements Closeable, Flushable {
     writeDeferredName();
     beforeValue();
     string(value);
-    return this;
+    return afterValue();
   }
 
   /**
@@ -533,8 +604,8 @@ public class JsonWriter implements Closeable, Flushable {
   public JsonWriter value(boolean value) throws IOException {
     writeDeferredName();
     beforeValue();
-    out.write(value ? "true" : "false");
-    return this;
+    write(value ? "true" : "false");
+    return afterValue();
   }
 
   /**
@@ -550,8 +621,8 @@ public class JsonWriter implements Closeable, Flushable {
     }
     writeDeferredName();
     beforeValue();
-    out.write(value ? "true" : "false");
-    return this;
+    write(value ? "true" : "false");
+    return afterValue();
   }
 
   /**
@@ -571,12 +642,13 @@ public class JsonWriter implements Closeable, Flushable {
       throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
     }
     beforeValue();
-    out.append(Float.toString(value));
-    return this;
+    write(Float.toString(value));
+    return afterValue();
   }
 
   /**
-   * Encodes {@code value}.
+   * Encodes {@code value}. The value is written as the shortest decimal string which is parsed back
+   * to the same value, in the format of {@link Double#toString(double)}.
    *
    * @param value a finite value, or if {@link #setStrictness(Strictness) lenient}, also {@link
    *     Double#isNaN() NaN} or {@link Double#isInfinite() infinity}.
@@ -591,8 +663,13 @@ public class JsonWriter implements Closeable, Flushable {
       throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
     }
     beforeValue();
-    out.append(Double.toString(value));
-    return this;
+    char[] numberBuffer = this.numberBuffer;
+    if (numberBuffer == null) {
+      numberBuffer = new char[DoubleFormatter.MAX_LENGTH];
+      this.numberBuffer = numberBuffer;
+    }
+    write(numberBuffer, DoubleFormatter.format(value, numberBuffer, 0));
+    return afterValue();
   }
 
   /**
@@ -604,13 +681,14 @@ public class JsonWriter implements Closeable, Flushable {
   public JsonWriter value(long value) throws IOException {
     writeDeferredName();
     beforeValue();
-    out.write(Long.toString(value));
-    return this;
+    write(Long.toString(value));
+    return afterValue();
   }
 
   /**
    * Encodes {@code value}. The value is written by directly writing the {@link Number#toString()}
    * result to JSON. Implementations must make sure that the result represents a valid JSON number.
+   * {@link Double} values are written the same way as by {@link #value(double)}.
    *
    * @param value a finite value, or if {@link #setStrictness(Strictness) lenient}, also {@link
    *     Double#isNaN() NaN} or {@link Double#isInfinite() infinity}.
@@ -624,6 +702,9 @@ public class JsonWriter implements Closeable, Flushable {
     if (value == null) {
       return nullValue();
     }
+    if (value instanceof Double) {
+      return value(value.doubleValue());
+    }
 
     writeDeferredName();
     String string = value.toString();
@@ -642,8 +723,8 @@ public class JsonWriter implements Closeable, Flushable {
     }
 
     beforeValue();
-    out.append(string);
-    return this;
+    write(string);
+    return afterValue();
   }
 
   /**
@@ -658,12 +739,13 @@ public class JsonWriter implements Closeable, Flushable {
         writeDeferredName();
       } else {
         deferredName = null;
+        deferredEncodedName = null;
         return this; // skip the name and the value
       }
     }
     beforeValue();
-    out.write("null");
-    return this;
+    write("null");
+    return afterValue();
   }
 
   /**
@@ -683,10 +765,132 @@ public class JsonWriter implements Closeable, Flushable {
     }
     writeDeferredName();
     beforeValue();
-    out.append(value);
+    write(value);
+    return afterValue();
+  }
+
+  /**
+   * Copies the next value of {@code in}, including all elements of an array and all members of an
+   * object, to this writer. The value is copied token by token without creating a {@link
+   * com.google.gson.JsonElement} tree, so values of any size are copied with constant memory.
+   *
+   * <p>The text of numbers is written unchanged, and strings are written without creating a {@code
+   * String} for them where {@link JsonReader#nextStringView()} supports it. Strings are escaped
+   * according to the settings of this writer, for example {@link
+   * #setsafeJsonToHtmlTranslation(boolean)}. Unquoted strings accepted by a {@linkplain
+   * JsonReader#setStrictness(Strictness) lenient} reader are written as quoted strings. Null values
+   * in objects are omitted if this writer does not {@linkplain #setSerializeNulls(boolean)
+   * serialize nulls}.
+   *
+   * @param in the reader, positioned before a value.
+   * @return this writer.
+   * @throws IllegalStateException if the next token of the reader is not the start of a value.
+   * @since $next-version$
+   */
+  @CanIgnoreReturnValue
+  public JsonWriter copyValue(JsonReader in) throws IOException {
+    // Iterate instead of recursing, so that deeply nested values do not exhaust the stack
+    int depth = 0;
+    do {
+      JsonToken token = in.peek();
+      switch (token) {
+        case BEGIN_ARRAY:
+          in.beginArray();
+          beginArray();
+          depth++;
+          break;
+        case BEGIN_OBJECT:
+          in.beginObject();
+          beginObject();
+          depth++;
+          break;
+        case END_ARRAY:
+          if (depth == 0) {
+            throw unexpectedToken(in, token);
+          }
+          in.endArray();
+          endArray();
+          depth--;
+          break;
+        case END_OBJECT:
+          if (depth == 0) {
+            throw unexpectedToken(in, token);
+          }
+          in.endObject();
+          endObject();
+          depth--;
+          break;
+        case NAME:
+          if (depth == 0) {
+            throw unexpectedToken(in, token);
+          }
+          if (writesEncodedNames) {
+            copyName(in.nextNameView());
+          } else {
+            name(in.nextName());
+          }
+          break;
+        case STRING:
+          copyString(in.nextStringView());
+          break;
+        case NUMBER:
+          copyNumber(in.nextStringView());
+          break;
+        case BOOLEAN:
+          value(in.nextBoolean());
+          break;
+        case NULL:
+          in.nextNull();
+          nullValue();
+          break;
+        default:
+          throw unexpectedToken(in, token);
+      }
+    } while (depth > 0);
     return this;
   }
 
+  private static IllegalStateException unexpectedToken(JsonReader in, JsonToken token) {
+    return new IllegalStateException(
+        "Expected a value but was " + token + " at path " + in.getPathFile());
+  }
+
+  /**
+   * Like {@link #name(String)}, but copies the name, which is only valid until the reader
+   * continues, instead of creating a {@code String} for it.
+   */
+  private void copyName(CharSequence name) {
+    StringBuilder copy = copiedName;
+    if (copy == null) {
+      copy = new StringBuilder();
+      copiedName = copy;
+    }
+    copy.setLength(0);
+    copy.append(name);
+    setDeferredName(copy);
+  }
+
+  private void copyString(CharSequence value) throws IOException {
+    writeDeferredName();
+    beforeValue();
+    string(value);
+    afterValue();
+  }
+
+  private void copyNumber(CharSequence value) throws IOException {
+    // A JsonTreeReader reports non-finite Double and Float values as numbers
+    if (strictness != Strictness.LENIENT
+        && ("NaN".contentEquals(value)
+            || "Infinity".contentEquals(value)
+            || "-Infinity".contentEquals(value))) {
+      throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+    }
+    writeDeferredName();
+    beforeValue();
+    write(value);
+    afterValue();
+  }
+
   /**
    * Ensures all buffered data is written to the underlying {@link Writer} and flushes that writer.
    */
@@ -695,7 +899,7 @@ public class JsonWriter implements Closeable, Flushable {
     if (stackSize == 0) {
       throw new IllegalStateException("JsonWriter is closed.");
     }
-    out.flush();
+    flushOutput();
   }
 
   /**
@@ -705,7 +909,7 @@ public class JsonWriter implements Closeable, Flushable {
    */
   @Override
   public void close() throws IOException {
-    out.close();
+    closeOutput();
 
     int size = stackSize;
     if (size > 1 || (size == 1 && stack[size - 1] != NONEMPTY_DOCUMENT)) {
@@ -733,51 +937,164 @@ public class JsonWriter implements Closeable, Flushable {
         || c == AtomicLong.class;
   }
 
-  private void string(String value) throws IOException {
-    String[] replacements = safeJsonToHtmlTranslation ? HTML_SAFE_REPLACEMENT_CHARS : REPLACEMENT_CHARS;
-    out.write('\"');
-    int last = 0;
+  void string(CharSequence value) throws IOException {
+    String[] replacements =
+        safeJsonToHtmlTranslation ? HTML_SAFE_REPLACEMENT_CHARS : REPLACEMENT_CHARS;
+    require(1);
+    buffer[count++] = '\"';
     int length = value.length();
-    for (int i = 0; i < length; i++) {
-      char c = value.charAt(i);
-      String replacement = getReplacement(c, replacements);
-      if (replacement != null) {
-        writeSubString(value, last, i);
-        out.write(replacement);
-        last = i + 1;
+    int i = 0;
+    while (i < length) {
+      int chunkEnd = Math.min(length, i + CHUNK_SIZE);
+      require((chunkEnd - i) * MAX_CHARS_PER_CHAR);
+      // Use locals to avoid field access in the loop
+      char[] buffer = this.buffer;
+      int count = this.count;
+
+      for (; i < chunkEnd; i++) {
+        char c = value.charAt(i);
+        String replacement;
+        if (c < 128) {
+          replacement = replacements[c];
+        } else if (c == '\u2028') {
+          replacement = "\\u2028";
+        } else if (c == '\u2029') {
+          replacement = "\\u2029";
+        } else {
+          replacement = null;
+        }
+
+        if (replacement == null) {
+          buffer[count++] = c;
+        } else {
+          int replacementLength = replacement.length();
+          replacement.getChars(0, replacementLength, buffer, count);
+          count += replacementLength;
+        }
       }
+      this.count = count;
+    }
+    require(1);
+    buffer[count++] = '\"';
+  }
+
+  /**
+   * Makes sure that at least {@code length} more chars fit into the buffer, which must not be
+   * larger than {@link #BUFFER_SIZE}, by writing the buffered chars to the underlying writer.
+   */
+  private void require(int length) throws IOException {
+    if (length > buffer.length - count) {
+      flushBuffer();
+      if (buffer.length == 0) {
+        buffer = new char[BUFFER_SIZE];
+      }
+    }
+  }
+
+  /** Writes the buffered chars to the underlying writer. */
+  private void flushBuffer() throws IOException {
+    if (count > 0) {
+      out.write(buffer, 0, count);
+      count = 0;
     }
-    writeSubString(value, last, length);
-    out.write('\"');
   }
 
-  private String getReplacement(char c, String[] replacements) {
-    if (c < 128) {
-      return replacements[c];
-    } else if (c == '\u2028') {
-      return "\\u2028";
-    } else if (c == '\u2029') {
-      return "\\u2029";
+  /** Called after a value has been completely written. */
+  private JsonWriter afterValue() throws IOException {
+    if (stackSize == 1) {
+      afterTopLevelValue();
+    }
+    return this;
+  }
+
+  /**
+   * Called once a top-level value is complete; writes the buffered output to the underlying output,
+   * so that the JSON document is available there even if this writer is not flushed.
+   */
+  void afterTopLevelValue() throws IOException {
+    flushBuffer();
+  }
+
+  /**
+   * Writes a single character to the output. Subclasses which do not write to a {@link Writer}
+   * override this and the other low level output methods, all other output is written through them.
+   */
+  void write(char c) throws IOException {
+    require(1);
+    buffer[count++] = c;
+  }
+
+  /** Writes a string to the output, without escaping it. */
+  void write(String s) throws IOException {
+    int length = s.length();
+    if (length > BUFFER_SIZE) {
+      flushBuffer();
+      out.write(s);
     } else {
-      return null;
+      require(length);
+      s.getChars(0, length, buffer, count);
+      count += length;
     }
   }
 
-  private void writeSubString(String value, int startIndex, int endIndex) throws IOException {
-    if (endIndex > startIndex) {
-      out.write(value, startIndex, endIndex - startIndex);
+  /** Writes a char sequence to the output, without escaping it. */
+  void write(CharSequence s) throws IOException {
+    int length = s.length();
+    int i = 0;
+    while (i < length) {
+      int chunkEnd = Math.min(length, i + BUFFER_SIZE);
+      require(chunkEnd - i);
+      for (; i < chunkEnd; i++) {
+        buffer[count++] = s.charAt(i);
+      }
+    }
+  }
+
+  /** Writes the first {@code length} ASCII chars of {@code chars} to the output. */
+  void write(char[] chars, int length) throws IOException {
+    writeChars(chars, length);
+  }
+
+  /** Writes the quoted and escaped representation of the pre-encoded name. */
+  void writeEncodedName(EncodedName name) throws IOException {
+    char[] chars = name.chars(safeJsonToHtmlTranslation);
+    writeChars(chars, chars.length);
+  }
+
+  private void writeChars(char[] chars, int length) throws IOException {
+    if (length > BUFFER_SIZE) {
+      flushBuffer();
+      out.write(chars, 0, length);
+    } else {
+      require(length);
+      System.arraycopy(chars, 0, buffer, count, length);
+      count += length;
     }
   }
 
+  /** Flushes the output; only called while this writer is not closed. */
+  void flushOutput() throws IOException {
+    flushBuffer();
+    out.flush();
+  }
+
+  /** Closes the output; called when this writer is closed. */
+  void closeOutput() throws IOException {
+    try {
+      flushBuffer();
+    } finally {
+      out.close();
+    }
+  }
 
   private void newline() throws IOException {
     if (usesEmptyNewlineAndIndent) {
       return;
     }
 
-    out.write(formattingStyle.getNewline());
+    write(formattingStyle.getNewline());
     for (int i = 1, size = stackSize; i < size; i++) {
-      out.write(formattingStyle.getIndent());
+      write(formattingStyle.getIndent());
     }
   }
 
@@ -788,7 +1105,7 @@ public class JsonWriter implements Closeable, Flushable {
   private void beforeName() throws IOException {
     int context = peek();
     if (context == NONEMPTY_OBJECT) { // first in object
-      out.write(formattedComma);
+      write(formattedComma);
     } else if (context != EMPTY_OBJECT) { // not in an object!
       throw new IllegalStateException("Nesting problem.");
     }
@@ -818,12 +1135,12 @@ public class JsonWriter implements Closeable, Flushable {
         break;
 
       case NONEMPTY_ARRAY: // another in array
-        out.append(formattedComma);
+        write(formattedComma);
         newline();
         break;
 
       case DANGLING_NAME: // value for name
-        out.append(formattedColon);
+        write(formattedColon);
         replaceTop(NONEMPTY_OBJECT);
         break;
 
@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.stream;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A precomputed set of property names which {@link JsonReader#nextName(NameMatcher)} can match
+ * directly against the JSON data, without creating a {@code String} for the name.
+ *
+ * <p>The names are stored in a hash table which is, if possible, collision free (a <i>perfect
+ * hash</i>), so that matching a name requires computing its hash while scanning it, and a single
+ * comparison with the candidate name.
+ *
+ * <p>Instances are immutable and can be shared between multiple threads and readers.
+ *
+ * @since $next-version$
+ */
+public final class NameMatcher {
+  /** Multipliers tried for finding a collision free hash function, all of them odd. */
+  private static final int[] SEEDS = {
+    0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F, 0x165667B1, 0xD3A2646D, 0xFD7046C5, 0xB55A4F09
+  };
+
+  private final String[] names;
+
+  /** Names as char arrays, for comparing them against the buffer of a reader */
+  private final char[][] chars;
+
+  /** Hash table mapping to the index of the name plus 1; 0 denotes an empty slot */
+  private final int[] table;
+
+  private final int seed;
+  private final int shift;
+
+  private NameMatcher(String[] names) {
+    this.names = names;
+    this.chars = new char[names.length][];
+    for (int i = 0; i < names.length; i++) {
+      chars[i] = names[i].toCharArray();
+    }
+
+    int[] hashes = new int[names.length];
+    for (int i = 0; i < names.length; i++) {
+      hashes[i] = names[i].hashCode();
+    }
+
+    int minBits = 1;
+    while ((1 << minBits) < names.length * 2) {
+      minBits++;
+    }
+    // Try a few table sizes and seeds to find a collision free table; if there is none, resolve
+    // collisions by linear probing
+    int[] table = null;
+    int seed = SEEDS[0];
+    int shift = 32 - minBits;
+    search:
+    for (int bits = minBits; bits <= Math.min(minBits + 2, 30); bits++) {
+      for (int s : SEEDS) {
+        int[] candidate = new int[1 << bits];
+        if (fill(candidate, hashes, s, 32 - bits, false)) {
+          table = candidate;
+          seed = s;
+          shift = 32 - bits;
+          break search;
+        }
+      }
+    }
+    if (table == null) {
+      table = new int[1 << minBits];
+      fill(table, hashes, seed, shift, true);
+    }
+    this.table = table;
+    this.seed = seed;
+    this.shift = shift;
+  }
+
+  /**
+   * Adds the indices of all names to the table. Returns false if there was a collision and {@code
+   * probe} is false.
+   */
+  private static boolean fill(int[] table, int[] hashes, int seed, int shift, boolean probe) {
+    int mask = table.length - 1;
+    for (int i = 0; i < hashes.length; i++) {
+      int slot = (hashes[i] * seed) >>> shift;
+      while (table[slot] != 0) {
+        if (!probe) {
+          return false;
+        }
+        slot = (slot + 1) & mask;
+      }
+      table[slot] = i + 1;
+    }
+    return true;
+  }
+
+  /**
+   * Creates a matcher for the given names. The index of a name in the list is the index returned
+   * when matching it.
+   *
+   * @throws IllegalArgumentException if the names contain duplicates
+   */
+  public static NameMatcher of(List<String> names) {
+    String[] array = names.toArray(new String[0]);
+    for (String name : array) {
+      Objects.requireNonNull(name, "name == null");
+    }
+    if (new HashSet<>(names).size() != array.length) {
+      throw new IllegalArgumentException("Duplicate names: " + names);
+    }
+    return new NameMatcher(array);
+  }
+
+  /**
+   * Creates a matcher for the given names. The index of a name in the array is the index returned
+   * when matching it.
+   *
+   * @throws IllegalArgumentException if the names contain duplicates
+   */
+  public static NameMatcher of(String... names) {
+    return of(Arrays.asList(names));
+  }
+
+  /** Returns the number of names of this matcher. */
+  public int size() {
+    return names.length;
+  }
+
+  /** Returns the name with the given index. */
+  public String name(int index) {
+    return names[index];
+  }
+
+  /** Returns the index of {@code name}, or -1 if it is not one of the names of this matcher. */
+  public int indexOf(String name) {
+    int mask = table.length - 1;
+    for (int slot = (name.hashCode() * seed) >>> shift; ; slot = (slot + 1) & mask) {
+      int entry = table[slot];
+      if (entry == 0) {
+        return -1;
+      }
+      if (names[entry - 1].equals(name)) {
+        return entry - 1;
+      }
+    }
+  }
+
+  /**
+   * Returns the index of the name consisting of the chars {@code buffer[start, end)}, or -1 if it
+   * is not one of the names of this matcher. {@code hash} must be the {@link String#hashCode()} of
+   * the chars.
+   */
+  int indexOf(char[] buffer, int start, int end, int hash) {
+    int mask = table.length - 1;
+    int length = end - start;
+    for (int slot = (hash * seed) >>> shift; ; slot = (slot + 1) & mask) {
+      int entry = table[slot];
+      if (entry == 0) {
+        return -1;
+      }
+      char[] candidate = chars[entry - 1];
+      if (candidate.length == length && regionMatches(candidate, buffer, start)) {
+        return entry - 1;
+      }
+    }
+  }
+
+  /**
+   * Returns the index of the name consisting of the ASCII bytes {@code buffer[start, end)}, or -1
+   * if it is not one of the names of this matcher. {@code hash} must be the {@link
+   * String#hashCode()} of the name.
+   */
+  int indexOfAscii(byte[] buffer, int start, int end, int hash) {
+    int mask = table.length - 1;
+    int length = end - start;
+    for (int slot = (hash * seed) >>> shift; ; slot = (slot + 1) & mask) {
+      int entry = table[slot];
+      if (entry == 0) {
+        return -1;
+      }
+      char[] candidate = chars[entry - 1];
+      if (candidate.length == length && regionMatches(candidate, buffer, start)) {
+        return entry - 1;
+      }
+    }
+  }
+
+  private static boolean regionMatches(char[] candidate, char[] buffer, int start) {
+    for (int i = 0; i < candidate.length; i++) {
+      if (candidate[i] != buffer[start + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean regionMatches(char[] candidate, byte[] buffer, int start) {
+    for (int i = 0; i < candidate.length; i++) {
+      if (candidate[i] != buffer[start + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return "NameMatcher" + Arrays.toString(names);
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.stream;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Bounded cache of canonical {@code String} instances for the short strings read by a {@link
+ * JsonReader}. JSON data often repeats the same property names and enum-like values many times;
+ * with a cache, a reader returns the same {@code String} instance for each occurrence instead of
+ * creating a new one every time. See {@link JsonReader#setStringCache(StringCache)}.
+ *
+ * <p>The string is looked up by hashing the JSON data in the buffer of the reader, so no {@code
+ * String} is created if the string is found in the cache. Only strings without escape sequences
+ * which are not longer than the {@linkplain #getMaxLength() maximum length} are cached; for the
+ * UTF-8 encoded data read by {@link Utf8JsonReader} only strings consisting of ASCII characters are
+ * cached. Each string has a single slot in the cache, determined by its hash code; a string which
+ * is not found replaces the string in its slot.
+ *
+ * <p>Instances are not thread-safe. A cache may be shared by multiple readers, for example readers
+ * created one after another, as long as all of them are used by the same thread.
+ *
+ * @since $next-version$
+ */
+public final class StringCache {
+  /** Maximum length of cached strings used by {@link #StringCache(int)} */
+  public static final int DEFAULT_MAX_LENGTH = 32;
+
+  private final String[] strings;
+  private final int maxLength;
+  private long hitCount;
+  private long missCount;
+
+  /**
+   * Creates a cache with the given number of entries, rounded up to a power of two, which caches
+   * strings of at most {@value #DEFAULT_MAX_LENGTH} chars.
+   */
+  public StringCache(int capacity) {
+    this(capacity, DEFAULT_MAX_LENGTH);
+  }
+
+  /**
+   * Creates a cache with the given number of entries, rounded up to a power of two, which caches
+   * strings of at most {@code maxLength} chars.
+   */
+  public StringCache(int capacity, int maxLength) {
+    if (capacity <= 0 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Invalid capacity: " + capacity);
+    }
+    if (maxLength < 0) {
+      throw new IllegalArgumentException("Invalid max length: " + maxLength);
+    }
+    int size = Integer.highestOneBit(capacity);
+    if (size < capacity) {
+      size <<= 1;
+    }
+    this.strings = new String[size];
+    this.maxLength = maxLength;
+  }
+
+  /** Returns the number of entries of this cache. */
+  public int getCapacity() {
+    return strings.length;
+  }
+
+  /** Returns the maximum length of the strings which are cached. */
+  public int getMaxLength() {
+    return maxLength;
+  }
+
+  /** Returns the number of strings which have been found in this cache. */
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Returns the number of strings which have not been found in this cache and have been added to
+   * it. Strings which are not eligible for caching, for example because they are too long, are not
+   * counted.
+   */
+  public long getMissCount() {
+    return missCount;
+  }
+
+  private int index(int hash) {
+    // Spread the high bits, because the low bits of String hash codes of short strings are similar
+    return (hash ^ (hash >>> 16)) & (strings.length - 1);
+  }
+
+  /** Returns the string for {@code chars[start, start + length)}. */
+  String get(char[] chars, int start, int length) {
+    if (length > maxLength) {
+      return new String(chars, start, length);
+    }
+    int end = start + length;
+    int hash = 0;
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + chars[i];
+    }
+    int index = index(hash);
+    String cached = strings[index];
+    if (cached != null && cached.length() == length && cached.hashCode() == hash) {
+      int i = 0;
+      while (i < length && cached.charAt(i) == chars[start + i]) {
+        i++;
+      }
+      if (i == length) {
+        hitCount++;
+        return cached;
+      }
+    }
+    missCount++;
+    String result = new String(chars, start, length);
+    strings[index] = result;
+    return result;
+  }
+
+  /**
+   * Returns the string for the UTF-8 encoded {@code bytes[start, start + length)}, or {@code null}
+   * if the bytes are not eligible for caching and have to be decoded by the caller.
+   */
+  String get(byte[] bytes, int start, int length) {
+    if (length > maxLength) {
+      return null;
+    }
+    int end = start + length;
+    int hash = 0;
+    for (int i = start; i < end; i++) {
+      int b = bytes[i];
+      if (b < 0) {
+        // Not ASCII
+        return null;
+      }
+      hash = 31 * hash + b;
+    }
+    int index = index(hash);
+    String cached = strings[index];
+    if (cached != null && cached.length() == length && cached.hashCode() == hash) {
+      int i = 0;
+      while (i < length && cached.charAt(i) == bytes[start + i]) {
+        i++;
+      }
+      if (i == length) {
+        hitCount++;
+        return cached;
+      }
+    }
+    missCount++;
+    String result = new String(bytes, start, length, StandardCharsets.ISO_8859_1);
+    strings[index] = result;
+    return result;
+  }
+}
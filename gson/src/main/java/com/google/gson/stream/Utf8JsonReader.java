@@ -0,0 +1,1557 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.stream;
+
+import com.google.gson.Strictness;
+import com.google.gson.internal.DoubleParser;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * A {@link JsonReader} which reads UTF-8 encoded JSON directly from bytes, without decoding the
+ * complete input to characters first. The bytes can be provided as {@code byte[]}, as {@link
+ * ByteBuffer}, as {@link InputStream} or as memory-mapped {@link FileChannel}.
+ *
+ * <p>The structure of the JSON data is tokenized on the raw bytes. Strings and property names are
+ * only decoded once their value is requested with {@link #nextString()} or {@link #nextName()};
+ * skipped values are never decoded. Malformed UTF-8 byte sequences inside strings are replaced with
+ * {@code U+FFFD}, the same way an {@link java.io.InputStreamReader InputStreamReader} for UTF-8
+ * would handle them. A leading UTF-8 byte order mark (BOM) is ignored.
+ *
+ * <p>Except for the input format this class behaves exactly like {@link JsonReader}, and it
+ * supports the same {@linkplain #setStrictness(com.google.gson.Strictness) strictness} settings.
+ * The only difference is that the column numbers reported in exception messages are byte offsets
+ * within the line, and not character offsets.
+ *
+ * @since $next-version$
+ */
+public final class Utf8JsonReader extends JsonReader {
+  private static final Reader UNREADABLE_READER =
+      new Reader() {
+        @Override
+        public int read(char[] buffer, int offset, int count) {
+          throw new AssertionError();
+        }
+
+        @Override
+        public void close() {
+          throw new AssertionError();
+        }
+      };
+
+  /** Size of the buffer used for {@link InputStream}, direct {@link ByteBuffer} and file input. */
+  static final int STREAM_BUFFER_SIZE = 8192;
+
+  /**
+   * Size of the regions of a {@link FileChannel} which are mapped at once, because a single {@link
+   * java.nio.MappedByteBuffer MappedByteBuffer} cannot exceed 2 GB.
+   */
+  static final int MAP_WINDOW_SIZE = 1 << 30;
+
+  /** The input stream; {@code null} if the input is not read from a stream. */
+  private InputStream in;
+
+  /** Direct or read-only byte buffer the data is copied from; {@code null} if not used. */
+  private ByteBuffer source;
+
+  /** The file channel mapped to {@link #source}; {@code null} if not reading from a channel. */
+  private FileChannel channel;
+
+  /** Size of the regions of {@link #channel} which are mapped at once. */
+  private int windowSize;
+
+  /** Position in the channel of the first byte which has not been mapped yet. */
+  private long channelPosition;
+
+  /** Size of the file at the time this reader was created. */
+  private long channelSize;
+
+  /**
+   * The bytes being parsed. When reading from an array-backed source this is the array of the
+   * source itself, and it is never modified. Otherwise it is a buffer which is refilled from the
+   * source; it must be at least as long as the longest token that can be reported as a number.
+   */
+  private byte[] buffer;
+
+  private int pos;
+  private int limit;
+
+  private int lineNumber = 0;
+  private int lineStart = 0;
+
+  /** Whether a byte order mark at the start of the stream still has to be checked for. */
+  private boolean checkBom;
+
+  /** Creates a new instance that reads UTF-8 encoded JSON from {@code in}. */
+  public Utf8JsonReader(InputStream in) {
+    super(UNREADABLE_READER, MIN_BUFFER_SIZE);
+    this.in = Objects.requireNonNull(in, "in == null");
+    this.buffer = new byte[STREAM_BUFFER_SIZE];
+    this.checkBom = true;
+  }
+
+  /**
+   * Creates a new instance that reads UTF-8 encoded JSON from {@code bytes}. The array is not
+   * copied and must not be modified while it is being read.
+   */
+  public Utf8JsonReader(byte[] bytes) {
+    this(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Creates a new instance that reads UTF-8 encoded JSON from the {@code length} bytes starting at
+   * {@code offset} in {@code bytes}. The array is not copied and must not be modified while it is
+   * being read.
+   */
+  public Utf8JsonReader(byte[] bytes, int offset, int length) {
+    super(UNREADABLE_READER, MIN_BUFFER_SIZE);
+    Objects.requireNonNull(bytes, "bytes == null");
+    if (offset < 0 || length < 0 || length > bytes.length - offset) {
+      throw new IndexOutOfBoundsException(
+          "offset " + offset + ", length " + length + ", array length " + bytes.length);
+    }
+    initArray(bytes, offset, length);
+  }
+
+  /**
+   * Creates a new instance that reads UTF-8 encoded JSON from the remaining bytes of {@code
+   * buffer}. The position of the buffer is not changed. If the buffer is backed by an accessible
+   * array, that array is read directly and must not be modified while it is being read.
+   */
+  public Utf8JsonReader(ByteBuffer buffer) {
+    super(UNREADABLE_READER, MIN_BUFFER_SIZE);
+    Objects.requireNonNull(buffer, "buffer == null");
+    if (buffer.hasArray()) {
+      initArray(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+    } else {
+      this.source = buffer.duplicate();
+      this.buffer = new byte[STREAM_BUFFER_SIZE];
+      this.checkBom = true;
+    }
+  }
+
+  /**
+   * Creates a new instance that reads UTF-8 encoded JSON from the file of {@code channel}, from its
+   * current position to the end of the file. The file is memory-mapped, so its content is read
+   * directly from the operating system's page cache without being copied to the heap as a whole.
+   * Files larger than 2 GB are mapped in consecutive regions. The position of the channel is not
+   * changed, and the file must not be modified while it is being read. Closing this reader closes
+   * the channel.
+   *
+   * @since $next-version$
+   */
+  public Utf8JsonReader(FileChannel channel) throws IOException {
+    this(channel, MAP_WINDOW_SIZE);
+  }
+
+  /** Creates an instance reading from {@code channel}, mapping regions of {@code windowSize}. */
+  Utf8JsonReader(FileChannel channel, int windowSize) throws IOException {
+    super(UNREADABLE_READER, MIN_BUFFER_SIZE);
+    this.channel = Objects.requireNonNull(channel, "channel == null");
+    this.windowSize = windowSize;
+    this.channelPosition = channel.position();
+    this.channelSize = channel.size();
+    this.source = ByteBuffer.allocate(0);
+    this.buffer = new byte[STREAM_BUFFER_SIZE];
+    this.checkBom = true;
+  }
+
+  private void initArray(byte[] bytes, int offset, int length) {
+    this.buffer = bytes;
+    this.pos = offset;
+    this.limit = offset + length;
+    this.lineStart = offset;
+    if (length >= 3 && isBom(bytes, offset)) {
+      pos += 3;
+      lineStart += 3;
+    }
+  }
+
+  private static boolean isBom(byte[] bytes, int offset) {
+    return bytes[offset] == (byte) 0xEF
+        && bytes[offset + 1] == (byte) 0xBB
+        && bytes[offset + 2] == (byte) 0xBF;
+  }
+
+  @SuppressWarnings("fallthrough")
+  @Override
+  int doPeek() throws IOException {
+    int peekStack = stack[stackSize - 1];
+    if (peekStack == JsonScope.EMPTY_ARRAY) {
+      stack[stackSize - 1] = JsonScope.NONEMPTY_ARRAY;
+    } else if (peekStack == JsonScope.NONEMPTY_ARRAY) {
+      // Look for a comma before the next element.
+      int c = nextNonWhitespace(true);
+      switch (c) {
+        case ']':
+          return peeked = PEEKED_END_ARRAY;
+        case ';':
+          checkLenient(); // fall-through
+        case ',':
+          break;
+        default:
+          throw syntaxError("Unterminated array");
+      }
+    } else if (peekStack == JsonScope.EMPTY_OBJECT || peekStack == JsonScope.NONEMPTY_OBJECT) {
+      stack[stackSize - 1] = JsonScope.DANGLING_NAME;
+      // Look for a comma before the next element.
+      if (peekStack == JsonScope.NONEMPTY_OBJECT) {
+        int c = nextNonWhitespace(true);
+        switch (c) {
+          case '}':
+            return peeked = PEEKED_END_OBJECT;
+          case ';':
+            checkLenient(); // fall-through
+          case ',':
+            break;
+          default:
+            throw syntaxError("Unterminated object");
+        }
+      }
+      int c = nextNonWhitespace(true);
+      switch (c) {
+        case '"':
+          return peeked = PEEKED_DOUBLE_QUOTED_NAME;
+        case '\'':
+          checkLenient();
+          return peeked = PEEKED_SINGLE_QUOTED_NAME;
+        case '}':
+          if (peekStack != JsonScope.NONEMPTY_OBJECT) {
+            return peeked = PEEKED_END_OBJECT;
+          } else {
+            throw syntaxError("Expected name");
+          }
+        default:
+          checkLenient();
+          pos--; // Don't consume the first character in an unquoted string.
+          if (isLiteral(c)) {
+            return peeked = PEEKED_UNQUOTED_NAME;
+          } else {
+            throw syntaxError("Expected name");
+          }
+      }
+    } else if (peekStack == JsonScope.DANGLING_NAME) {
+      stack[stackSize - 1] = JsonScope.NONEMPTY_OBJECT;
+      // Look for a colon before the value.
+      int c = nextNonWhitespace(true);
+      switch (c) {
+        case ':':
+          break;
+        case '=':
+          checkLenient();
+          if ((pos < limit || fillBuffer(1)) && buffer[pos] == '>') {
+            pos++;
+          }
+          break;
+        default:
+          throw syntaxError("Expected ':'");
+      }
+    } else if (peekStack == JsonScope.EMPTY_DOCUMENT) {
+      if (getStrictness() == Strictness.LENIENT) {
+        consumeNonExecutePrefix();
+      }
+      stack[stackSize - 1] = JsonScope.NONEMPTY_DOCUMENT;
+    } else if (peekStack == JsonScope.NONEMPTY_DOCUMENT) {
+      int c = nextNonWhitespace(false);
+      if (c == -1) {
+        return peeked = PEEKED_EOF;
+      } else {
+        checkLenient();
+        pos--;
+      }
+    } else if (peekStack == JsonScope.CLOSED) {
+      throw new IllegalStateException("JsonReader is closed");
+    }
+
+    int c = nextNonWhitespace(true);
+    switch (c) {
+      case ']':
+        if (peekStack == JsonScope.EMPTY_ARRAY) {
+          return peeked = PEEKED_END_ARRAY;
+        }
+        // fall-through to handle ",]"
+      case ';':
+      case ',':
+        // In lenient mode, a 0-length literal in an array means 'null'.
+        if (peekStack == JsonScope.EMPTY_ARRAY || peekStack == JsonScope.NONEMPTY_ARRAY) {
+          checkLenient();
+          pos--;
+          return peeked = PEEKED_NULL;
+        } else {
+          throw syntaxError("Unexpected value");
+        }
+      case '\'':
+        checkLenient();
+        return peeked = PEEKED_SINGLE_QUOTED;
+      case '"':
+        return peeked = PEEKED_DOUBLE_QUOTED;
+      case '[':
+        return peeked = PEEKED_BEGIN_ARRAY;
+      case '{':
+        return peeked = PEEKED_BEGIN_OBJECT;
+      default:
+        pos--; // Don't consume the first character in a literal value.
+    }
+
+    int result = peekKeyword();
+    if (result != PEEKED_NONE) {
+      return result;
+    }
+
+    result = peekNumber();
+    if (result != PEEKED_NONE) {
+      return result;
+    }
+
+    if (!isLiteral(buffer[pos])) {
+      throw syntaxError("Expected value");
+    }
+
+    checkLenient();
+    return peeked = PEEKED_UNQUOTED;
+  }
+
+  private int peekKeyword() throws IOException {
+    // Figure out which keyword we're matching against by its first character.
+    byte c = buffer[pos];
+    String keyword;
+    String keywordUpper;
+    int peeking;
+
+    // Look at the first letter to determine what keyword we are trying to match.
+    if (c == 't' || c == 'T') {
+      keyword = "true";
+      keywordUpper = "TRUE";
+      peeking = PEEKED_TRUE;
+    } else if (c == 'f' || c == 'F') {
+      keyword = "false";
+      keywordUpper = "FALSE";
+      peeking = PEEKED_FALSE;
+    } else if (c == 'n' || c == 'N') {
+      keyword = "null";
+      keywordUpper = "NULL";
+      peeking = PEEKED_NULL;
+    } else {
+      return PEEKED_NONE;
+    }
+
+    // Uppercased keywords are not allowed in STRICT mode
+    boolean allowsUpperCased = getStrictness() != Strictness.STRICT;
+
+    // Confirm that bytes [0..length) match the keyword.
+    int length = keyword.length();
+    for (int i = 0; i < length; i++) {
+      if (pos + i >= limit && !fillBuffer(i + 1)) {
+        return PEEKED_NONE;
+      }
+      c = buffer[pos + i];
+      boolean matched = c == keyword.charAt(i) || (allowsUpperCased && c == keywordUpper.charAt(i));
+      if (!matched) {
+        return PEEKED_NONE;
+      }
+    }
+
+    if ((pos + length < limit || fillBuffer(length + 1)) && isLiteral(buffer[pos + length])) {
+      return PEEKED_NONE; // Don't match trues, falsey or nullsoft!
+    }
+
+    // We've found the keyword followed either by EOF or by a non-literal character.
+    pos += length;
+    return peeked = peeking;
+  }
+
+  private int peekNumber() throws IOException {
+    // Like nextNonWhitespace, this uses locals 'p' and 'l' to save inner-loop field access.
+    byte[] buffer = this.buffer;
+    int p = pos;
+    int l = limit;
+
+    long value = 0; // Negative to accommodate Long.MIN_VALUE more easily.
+    boolean negative = false;
+    boolean fitsInLong = true;
+    int last = NUMBER_CHAR_NONE;
+
+    int i = 0;
+
+    charactersOfNumber:
+    for (; true; i++) {
+      if (p + i == l) {
+        if (i == buffer.length && !isArraySource()) {
+          // Though this looks like a well-formed number, it's too long to continue reading. Give up
+          // and let the application handle this as an unquoted literal.
+          return PEEKED_NONE;
+        }
+        if (!fillBuffer(i + 1)) {
+          break;
+        }
+        p = pos;
+        l = limit;
+      }
+
+      int c = buffer[p + i];
+      switch (c) {
+        case '-':
+          if (last == NUMBER_CHAR_NONE) {
+            negative = true;
+            last = NUMBER_CHAR_SIGN;
+            continue;
+          } else if (last == NUMBER_CHAR_EXP_E) {
+            last = NUMBER_CHAR_EXP_SIGN;
+            continue;
+          }
+          return PEEKED_NONE;
+
+        case '+':
+          if (last == NUMBER_CHAR_EXP_E) {
+            last = NUMBER_CHAR_EXP_SIGN;
+            continue;
+          }
+          return PEEKED_NONE;
+
+        case 'e':
+        case 'E':
+          if (last == NUMBER_CHAR_DIGIT || last == NUMBER_CHAR_FRACTION_DIGIT) {
+            last = NUMBER_CHAR_EXP_E;
+            continue;
+          }
+          return PEEKED_NONE;
+
+        case '.':
+          if (last == NUMBER_CHAR_DIGIT) {
+            last = NUMBER_CHAR_DECIMAL;
+            continue;
+          }
+          return PEEKED_NONE;
+
+        default:
+          if (c < '0' || c > '9') {
+            if (!isLiteral(c)) {
+              break charactersOfNumber;
+            }
+            return PEEKED_NONE;
+          }
+          if (last == NUMBER_CHAR_SIGN || last == NUMBER_CHAR_NONE) {
+            value = -(c - '0');
+            last = NUMBER_CHAR_DIGIT;
+          } else if (last == NUMBER_CHAR_DIGIT) {
+            if (value == 0) {
+              return PEEKED_NONE; // Leading '0' prefix is not allowed (since it could be octal).
+            }
+            long newValue = value * 10 - (c - '0');
+            fitsInLong &=
+                value > MIN_INCOMPLETE_INTEGER
+                    || (value == MIN_INCOMPLETE_INTEGER && newValue < value);
+            value = newValue;
+          } else if (last == NUMBER_CHAR_DECIMAL) {
+            last = NUMBER_CHAR_FRACTION_DIGIT;
+          } else if (last == NUMBER_CHAR_EXP_E || last == NUMBER_CHAR_EXP_SIGN) {
+            last = NUMBER_CHAR_EXP_DIGIT;
+          }
+      }
+    }
+
+    // We've read a complete number. Decide if it's a PEEKED_LONG or a PEEKED_NUMBER.
+    // Don't store -0 as long; user might want to read it as double -0.0
+    // Don't try to convert Long.MIN_VALUE to positive long; it would overflow MAX_VALUE
+    if (last == NUMBER_CHAR_DIGIT
+        && fitsInLong
+        && (value != Long.MIN_VALUE || negative)
+        && (value != 0 || !negative)) {
+      peekedLong = negative ? value : -value;
+      pos += i;
+      return peeked = PEEKED_LONG;
+    } else if (last == NUMBER_CHAR_DIGIT
+        || last == NUMBER_CHAR_FRACTION_DIGIT
+        || last == NUMBER_CHAR_EXP_DIGIT) {
+      peekedNumberLength = i;
+      return peeked = PEEKED_NUMBER;
+    } else {
+      return PEEKED_NONE;
+    }
+  }
+
+  /**
+   * Returns whether {@code c} may be part of an unquoted literal. Bytes of multi-byte UTF-8
+   * sequences are negative and are therefore always considered part of the literal.
+   */
+  @SuppressWarnings("fallthrough")
+  private boolean isLiteral(int c) throws IOException {
+    switch (c) {
+      case '/':
+      case '\\':
+      case ';':
+      case '#':
+      case '=':
+        checkLenient(); // fall-through
+      case '{':
+      case '}':
+      case '[':
+      case ']':
+      case ':':
+      case ',':
+      case ' ':
+      case '\t':
+      case '\f':
+      case '\r':
+      case '\n':
+        return false;
+      default:
+        return true;
+    }
+  }
+
+  @Override
+  public String nextName() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+    String result;
+    if (p == PEEKED_UNQUOTED_NAME) {
+      result = nextUnquotedValue();
+    } else if (p == PEEKED_SINGLE_QUOTED_NAME) {
+      result = nextQuotedValue('\'');
+    } else if (p == PEEKED_DOUBLE_QUOTED_NAME) {
+      result = nextQuotedValue('"');
+    } else {
+      throw unexpectedTokenError("a name");
+    }
+    peeked = PEEKED_NONE;
+    pathNames[stackSize - 1] = result;
+    return result;
+  }
+
+  @Override
+  public int nextName(NameMatcher matcher) throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+    if (p == PEEKED_DOUBLE_QUOTED_NAME) {
+      byte[] buffer = this.buffer;
+      int start = pos;
+      int hash = 0;
+      for (int i = start, l = limit; i < l; i++) {
+        byte b = buffer[i];
+        if (b == '"') {
+          int index = matcher.indexOfAscii(buffer, start, i, hash);
+          if (index != -1) {
+            pos = i + 1;
+            peeked = PEEKED_NONE;
+            pathNames[stackSize - 1] = matcher.name(index);
+            return index;
+          }
+          break;
+        } else if (b == '\\' || b < 0x20) {
+          // Escape sequences, control characters and non-ASCII characters (negative bytes) are
+          // handled by the regular code path
+          break;
+        }
+        hash = 31 * hash + b;
+      }
+    }
+    return matcher.indexOf(nextName());
+  }
+
+  @Override
+  public String nextString() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+    String result;
+    if (p == PEEKED_UNQUOTED) {
+      result = nextUnquotedValue();
+    } else if (p == PEEKED_SINGLE_QUOTED) {
+      result = nextQuotedValue('\'');
+    } else if (p == PEEKED_DOUBLE_QUOTED) {
+      result = nextQuotedValue('"');
+    } else if (p == PEEKED_BUFFERED) {
+      result = peekedString;
+      peekedString = null;
+    } else if (p == PEEKED_LONG) {
+      result = Long.toString(peekedLong);
+    } else if (p == PEEKED_NUMBER) {
+      result = nextNumberString();
+    } else {
+      throw unexpectedTokenError("a string");
+    }
+    peeked = PEEKED_NONE;
+    pathIndices[stackSize - 1]++;
+    return result;
+  }
+
+  @Override
+  public double nextDouble() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+
+    if (p == PEEKED_LONG) {
+      peeked = PEEKED_NONE;
+      pathIndices[stackSize - 1]++;
+      return (double) peekedLong;
+    }
+
+    if (p == PEEKED_NUMBER) {
+      // Parse directly from the buffer; the fast path never produces infinity
+      double result = DoubleParser.parse(buffer, pos, pos + peekedNumberLength);
+      if (!Double.isNaN(result)) {
+        pos += peekedNumberLength;
+        peeked = PEEKED_NONE;
+        pathIndices[stackSize - 1]++;
+        return result;
+      }
+      peekedString = nextNumberString();
+    } else if (p == PEEKED_SINGLE_QUOTED || p == PEEKED_DOUBLE_QUOTED) {
+      peekedString = nextQuotedValue(p == PEEKED_SINGLE_QUOTED ? '\'' : '"');
+    } else if (p == PEEKED_UNQUOTED) {
+      peekedString = nextUnquotedValue();
+    } else if (p != PEEKED_BUFFERED) {
+      throw unexpectedTokenError("a double");
+    }
+
+    peeked = PEEKED_BUFFERED;
+    double result = Double.parseDouble(peekedString); // don't catch this NumberFormatException.
+    if (getStrictness() != Strictness.LENIENT
+        && (Double.isNaN(result) || Double.isInfinite(result))) {
+      throw syntaxError("JSON forbids NaN and infinities: " + result);
+    }
+    peekedString = null;
+    peeked = PEEKED_NONE;
+    pathIndices[stackSize - 1]++;
+    return result;
+  }
+
+  @Override
+  public long nextLong() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+
+    if (p == PEEKED_LONG) {
+      peeked = PEEKED_NONE;
+      pathIndices[stackSize - 1]++;
+      return peekedLong;
+    }
+
+    if (p == PEEKED_NUMBER) {
+      peekedString = nextNumberString();
+    } else if (p == PEEKED_SINGLE_QUOTED || p == PEEKED_DOUBLE_QUOTED || p == PEEKED_UNQUOTED) {
+      if (p == PEEKED_UNQUOTED) {
+        peekedString = nextUnquotedValue();
+      } else {
+        peekedString = nextQuotedValue(p == PEEKED_SINGLE_QUOTED ? '\'' : '"');
+      }
+      try {
+        long result = Long.parseLong(peekedString);
+        peeked = PEEKED_NONE;
+        pathIndices[stackSize - 1]++;
+        return result;
+      } catch (NumberFormatException ignored) {
+        // Fall back to parse as a double below.
+      }
+    } else {
+      throw unexpectedTokenError("a long");
+    }
+
+    peeked = PEEKED_BUFFERED;
+    double asDouble = Double.parseDouble(peekedString); // don't catch this NumberFormatException.
+    long result = (long) asDouble;
+    if (result != asDouble) { // Make sure no precision was lost casting to 'long'.
+      throw new NumberFormatException("Expected a long but was " + peekedString + locationString());
+    }
+    peekedString = null;
+    peeked = PEEKED_NONE;
+    pathIndices[stackSize - 1]++;
+    return result;
+  }
+
+  @Override
+  public int nextInt() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+
+    int result;
+    if (p == PEEKED_LONG) {
+      result = (int) peekedLong;
+      if (peekedLong != result) { // Make sure no precision was lost casting to 'int'.
+        throw new NumberFormatException("Expected an int but was " + peekedLong + locationString());
+      }
+      peeked = PEEKED_NONE;
+      pathIndices[stackSize - 1]++;
+      return result;
+    }
+
+    if (p == PEEKED_NUMBER) {
+      peekedString = nextNumberString();
+    } else if (p == PEEKED_SINGLE_QUOTED || p == PEEKED_DOUBLE_QUOTED || p == PEEKED_UNQUOTED) {
+      if (p == PEEKED_UNQUOTED) {
+        peekedString = nextUnquotedValue();
+      } else {
+        peekedString = nextQuotedValue(p == PEEKED_SINGLE_QUOTED ? '\'' : '"');
+      }
+      try {
+        result = Integer.parseInt(peekedString);
+        peeked = PEEKED_NONE;
+        pathIndices[stackSize - 1]++;
+        return result;
+      } catch (NumberFormatException ignored) {
+        // Fall back to parse as a double below.
+      }
+    } else {
+      throw unexpectedTokenError("an int");
+    }
+
+    peeked = PEEKED_BUFFERED;
+    double asDouble = Double.parseDouble(peekedString); // don't catch this NumberFormatException.
+    result = (int) asDouble;
+    if (result != asDouble) { // Make sure no precision was lost casting to 'int'.
+      throw new NumberFormatException("Expected an int but was " + peekedString + locationString());
+    }
+    peekedString = null;
+    peeked = PEEKED_NONE;
+    pathIndices[stackSize - 1]++;
+    return result;
+  }
+
+  /** Consumes the peeked number literal and returns it as string. */
+  private String nextNumberString() {
+    // Number literals only consist of ASCII characters, so Latin-1 decoding is sufficient
+    String result = new String(buffer, pos, peekedNumberLength, StandardCharsets.ISO_8859_1);
+    pos += peekedNumberLength;
+    return result;
+  }
+
+  /**
+   * Returns the string up to but not including {@code quote}, unescaping any character escape
+   * sequences encountered along the way. The opening quote should have already been read. This
+   * consumes the closing quote, but does not include it in the returned string.
+   *
+   * <p>The bytes of multi-byte UTF-8 sequences are never equal to an ASCII character, so the quote
+   * and backslash can be searched for without decoding the bytes first.
+   *
+   * @param quote either ' or ".
+   */
+  private String nextQuotedValue(char quote) throws IOException {
+    // Like nextNonWhitespace, this uses locals 'p' and 'l' to save inner-loop field access.
+    byte[] buffer = this.buffer;
+    boolean isStrict = getStrictness() == Strictness.STRICT;
+    StringBuilder builder = null;
+    while (true) {
+      int p = pos;
+      int l = limit;
+      /* the index of the first byte not yet appended to the builder. */
+      int start = p;
+      while (p < l) {
+        int c = buffer[p++];
+
+        // In strict mode, throw an exception when meeting unescaped control characters (U+0000
+        // through U+001F)
+        if (isStrict && c >= 0 && c < 0x20) {
+          throw syntaxError(
+              "Unescaped control characters (\\u0000-\\u001F) are not allowed in strict mode");
+        } else if (c == quote) {
+          pos = p;
+          int len = p - start - 1;
+          if (builder == null) {
+            StringCache stringCache = getStringCache();
+            String cached = stringCache != null ? stringCache.get(buffer, start, len) : null;
+            return cached != null ? cached : decode(start, len);
+          } else {
+            appendDecoded(builder, start, len);
+            return builder.toString();
+          }
+        } else if (c == '\\') {
+          pos = p;
+          int len = p - start - 1;
+          if (builder == null) {
+            int estimatedLength = (len + 1) * 2;
+            builder = new StringBuilder(Math.max(estimatedLength, 16));
+          }
+          appendDecoded(builder, start, len);
+          builder.append(readEscapeCharacter());
+          p = pos;
+          l = limit;
+          start = p;
+        } else if (c == '\n') {
+          lineNumber++;
+          lineStart = p;
+        }
+      }
+
+      if (builder == null) {
+        int estimatedLength = (p - start) * 2;
+        builder = new StringBuilder(Math.max(estimatedLength, 16));
+      }
+      // Keep an incomplete UTF-8 sequence at the end of the buffer for the next iteration
+      int end = completeSequenceEnd(start, p);
+      appendDecoded(builder, start, end - start);
+      pos = end;
+      if (!fillBuffer(1)) {
+        throw syntaxError("Unterminated string");
+      }
+    }
+  }
+
+  /** Returns an unquoted value as a string. */
+  @SuppressWarnings("fallthrough")
+  private String nextUnquotedValue() throws IOException {
+    StringBuilder builder = null;
+    int i = 0;
+
+    findNonLiteralCharacter:
+    while (true) {
+      for (; pos + i < limit; i++) {
+        switch (buffer[pos + i]) {
+          case '/':
+          case '\\':
+          case ';':
+          case '#':
+          case '=':
+            checkLenient(); // fall-through
+          case '{':
+          case '}':
+          case '[':
+          case ']':
+          case ':':
+          case ',':
+          case ' ':
+          case '\t':
+          case '\f':
+          case '\r':
+          case '\n':
+            break findNonLiteralCharacter;
+          default:
+            // skip byte to be included in string value
+        }
+      }
+
+      // Attempt to load the entire literal into the buffer at once.
+      if (i < buffer.length) {
+        if (fillBuffer(i + 1)) {
+          continue;
+        } else {
+          break;
+        }
+      }
+
+      // use a StringBuilder when the value is too long. This is too long to be a number!
+      if (builder == null) {
+        builder = new StringBuilder(Math.max(i, 16));
+      }
+      int end = completeSequenceEnd(pos, pos + i);
+      appendDecoded(builder, pos, end - pos);
+      i = pos + i - end;
+      pos = end;
+      if (!fillBuffer(1)) {
+        break;
+      }
+    }
+
+    String result;
+    if (builder == null) {
+      result = decode(pos, i);
+    } else {
+      appendDecoded(builder, pos, i);
+      result = builder.toString();
+    }
+    pos += i;
+    return result;
+  }
+
+  private String decode(int start, int length) {
+    return new String(buffer, start, length, StandardCharsets.UTF_8);
+  }
+
+  private void appendDecoded(StringBuilder builder, int start, int length) {
+    if (length > 0) {
+      builder.append(decode(start, length));
+    }
+  }
+
+  /**
+   * Returns the index where a UTF-8 sequence which is incomplete because it is cut off at {@code
+   * end} starts, or {@code end} if the bytes in the range {@code [start, end)} end with a complete
+   * sequence.
+   */
+  private int completeSequenceEnd(int start, int end) {
+    for (int i = end - 1; i >= start && i >= end - 3; i--) {
+      int b = buffer[i] & 0xFF;
+      if (b < 0x80) {
+        return end;
+      }
+      if (b >= 0xC0) {
+        // Found the leading byte of the last sequence
+        int sequenceLength = b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : 2;
+        return end - i >= sequenceLength ? end : i;
+      }
+      // Otherwise it is a continuation byte
+    }
+    return end;
+  }
+
+  private void skipQuotedValue(char quote) throws IOException {
+    // Like nextNonWhitespace, this uses locals 'p' and 'l' to save inner-loop field access.
+    byte[] buffer = this.buffer;
+    do {
+      int p = pos;
+      int l = limit;
+      while (p < l) {
+        int c = buffer[p++];
+        if (c == quote) {
+          pos = p;
+          return;
+        } else if (c == '\\') {
+          pos = p;
+          char unused = readEscapeCharacter();
+          p = pos;
+          l = limit;
+        } else if (c == '\n') {
+          lineNumber++;
+          lineStart = p;
+        }
+      }
+      pos = p;
+    } while (fillBuffer(1));
+    throw syntaxError("Unterminated string");
+  }
+
+  @SuppressWarnings("fallthrough")
+  private void skipUnquotedValue() throws IOException {
+    do {
+      int i = 0;
+      for (; pos + i < limit; i++) {
+        switch (buffer[pos + i]) {
+          case '/':
+          case '\\':
+          case ';':
+          case '#':
+          case '=':
+            checkLenient(); // fall-through
+          case '{':
+          case '}':
+          case '[':
+          case ']':
+          case ':':
+          case ',':
+          case ' ':
+          case '\t':
+          case '\f':
+          case '\r':
+          case '\n':
+            pos += i;
+            return;
+          default:
+            // skip the byte
+        }
+      }
+      pos += i;
+    } while (fillBuffer(1));
+  }
+
+  /** Closes this JSON reader and the underlying {@link InputStream}, if any. */
+  @Override
+  public void close() throws IOException {
+    peeked = PEEKED_NONE;
+    stack[0] = JsonScope.CLOSED;
+    stackSize = 1;
+    if (in != null) {
+      in.close();
+    } else if (channel != null) {
+      channel.close();
+    }
+  }
+
+  @Override
+  public void skipValue() throws IOException {
+    int count = 0;
+    do {
+      int p = peeked;
+      if (p == PEEKED_NONE) {
+        if (count > 0) {
+          count = skipNested(count);
+          if (count == 0) {
+            break;
+          }
+        }
+        p = doPeek();
+      }
+
+      switch (p) {
+        case PEEKED_BEGIN_ARRAY:
+          push(JsonScope.EMPTY_ARRAY);
+          count++;
+          break;
+        case PEEKED_BEGIN_OBJECT:
+          push(JsonScope.EMPTY_OBJECT);
+          count++;
+          break;
+        case PEEKED_END_ARRAY:
+          stackSize--;
+          count--;
+          break;
+        case PEEKED_END_OBJECT:
+          // Only update when object end is explicitly skipped, otherwise stack is not updated
+          // anyways
+          if (count == 0) {
+            // Free the last path name so that it can be garbage collected
+            pathNames[stackSize - 1] = null;
+          }
+          stackSize--;
+          count--;
+          break;
+        case PEEKED_UNQUOTED:
+          skipUnquotedValue();
+          break;
+        case PEEKED_SINGLE_QUOTED:
+          skipQuotedValue('\'');
+          break;
+        case PEEKED_DOUBLE_QUOTED:
+          skipQuotedValue('"');
+          break;
+        case PEEKED_UNQUOTED_NAME:
+          skipUnquotedValue();
+          // Only update when name is explicitly skipped, otherwise stack is not updated anyways
+          if (count == 0) {
+            pathNames[stackSize - 1] = "<skipped>";
+          }
+          break;
+        case PEEKED_SINGLE_QUOTED_NAME:
+          skipQuotedValue('\'');
+          // Only update when name is explicitly skipped, otherwise stack is not updated anyways
+          if (count == 0) {
+            pathNames[stackSize - 1] = "<skipped>";
+          }
+          break;
+        case PEEKED_DOUBLE_QUOTED_NAME:
+          skipQuotedValue('"');
+          // Only update when name is explicitly skipped, otherwise stack is not updated anyways
+          if (count == 0) {
+            pathNames[stackSize - 1] = "<skipped>";
+          }
+          break;
+        case PEEKED_NUMBER:
+          pos += peekedNumberLength;
+          break;
+        case PEEKED_EOF:
+          // Do nothing
+          return;
+        default:
+          // For all other tokens there is nothing to do; token has already been consumed from
+          // underlying input
+      }
+      peeked = PEEKED_NONE;
+    } while (count > 0);
+
+    pathIndices[stackSize - 1]++;
+  }
+
+  /** Like the {@code skipNested} method of {@code JsonReader}, but scans the UTF-8 bytes. */
+  private int skipNested(int count) throws IOException {
+    byte[] buffer = this.buffer;
+    int p = pos;
+    int l = limit;
+    while (count > 0) {
+      p = skipWhitespace(p);
+      if (p == l) {
+        pos = p;
+        if (!fillBuffer(1)) {
+          return count;
+        }
+        buffer = this.buffer;
+        p = pos;
+        l = limit;
+        continue;
+      }
+      int tokenStart = p;
+      int savedLineNumber = lineNumber;
+      int savedLineStart = lineStart;
+
+      int peekStack = stack[stackSize - 1];
+      boolean isObject =
+          peekStack != JsonScope.EMPTY_ARRAY && peekStack != JsonScope.NONEMPTY_ARRAY;
+      byte c = buffer[p];
+      if (peekStack == JsonScope.DANGLING_NAME) {
+        if (c != ':') {
+          break;
+        }
+        p = skipWhitespace(p + 1);
+      } else if (c == (isObject ? '}' : ']')) {
+        p++;
+        stackSize--;
+        count--;
+        continue;
+      } else if (peekStack == JsonScope.NONEMPTY_ARRAY || peekStack == JsonScope.NONEMPTY_OBJECT) {
+        if (c != ',') {
+          break;
+        }
+        p = skipWhitespace(p + 1);
+      }
+
+      boolean isValue = peekStack == JsonScope.DANGLING_NAME || !isObject;
+      int end = -1;
+      if (p < l) {
+        c = buffer[p];
+        if (c == '"' || (isValue && (c == '[' || c == '{'))) {
+          end = p + 1;
+        } else if (isValue) {
+          end = literalEnd(p);
+        }
+      }
+      if (end == -1) {
+        lineNumber = savedLineNumber;
+        lineStart = savedLineStart;
+        p = tokenStart;
+        break;
+      }
+
+      if (peekStack == JsonScope.DANGLING_NAME) {
+        stack[stackSize - 1] = JsonScope.NONEMPTY_OBJECT;
+      } else {
+        stack[stackSize - 1] = isObject ? JsonScope.DANGLING_NAME : JsonScope.NONEMPTY_ARRAY;
+      }
+      p = end;
+      if (c == '"') {
+        while (p < l && buffer[p] != '"' && buffer[p] != '\\' && buffer[p] != '\n') {
+          p++;
+        }
+        if (p < l && buffer[p] == '"') {
+          p++;
+        } else {
+          pos = p;
+          skipQuotedValue('"');
+          buffer = this.buffer;
+          p = pos;
+          l = limit;
+        }
+      } else if (c == '[') {
+        push(JsonScope.EMPTY_ARRAY);
+        count++;
+      } else if (c == '{') {
+        push(JsonScope.EMPTY_OBJECT);
+        count++;
+      }
+    }
+    pos = p;
+    return count;
+  }
+
+  /**
+   * Returns the index of the first byte at or after {@code p} which is not whitespace, or {@link
+   * #limit} if there is none in the buffer. Unlike {@link #nextNonWhitespace} this neither fills
+   * the buffer nor skips comments.
+   */
+  private int skipWhitespace(int p) {
+    byte[] buffer = this.buffer;
+    int l = limit;
+    for (; p < l; p++) {
+      byte c = buffer[p];
+      if (c == '\n') {
+        lineNumber++;
+        lineStart = p + 1;
+      } else if (c != ' ' && c != '\r' && c != '\t') {
+        break;
+      }
+    }
+    return p;
+  }
+
+  /** Like the {@code literalEnd} method of {@code JsonReader}, but scans the UTF-8 bytes. */
+  private int literalEnd(int p) {
+    byte[] buffer = this.buffer;
+    int l = limit;
+    byte c = buffer[p];
+    if (c == 't' || c == 'f' || c == 'n') {
+      String keyword = c == 't' ? "true" : c == 'f' ? "false" : "null";
+      int length = keyword.length();
+      if (l - p <= length) {
+        return -1;
+      }
+      for (int i = 1; i < length; i++) {
+        if (buffer[p + i] != keyword.charAt(i)) {
+          return -1;
+        }
+      }
+      p += length;
+    } else {
+      if (c == '-') {
+        p++;
+      }
+      if (p < l && buffer[p] == '0') {
+        p++;
+      } else {
+        int start = p;
+        p = skipDigits(buffer, p, l);
+        if (p == start) {
+          return -1;
+        }
+      }
+      if (p < l && buffer[p] == '.') {
+        int start = ++p;
+        p = skipDigits(buffer, p, l);
+        if (p == start) {
+          return -1;
+        }
+      }
+      if (p < l && (buffer[p] == 'e' || buffer[p] == 'E')) {
+        p++;
+        if (p < l && (buffer[p] == '+' || buffer[p] == '-')) {
+          p++;
+        }
+        int start = p;
+        p = skipDigits(buffer, p, l);
+        if (p == start) {
+          return -1;
+        }
+      }
+    }
+
+    if (p == l) {
+      return -1;
+    }
+    switch (buffer[p]) {
+      case ' ':
+      case '\t':
+      case '\r':
+      case '\n':
+      case ',':
+      case ']':
+      case '}':
+        return p;
+      default:
+        return -1;
+    }
+  }
+
+  private static int skipDigits(byte[] buffer, int p, int l) {
+    while (p < l && buffer[p] >= '0' && buffer[p] <= '9') {
+      p++;
+    }
+    return p;
+  }
+
+  /**
+   * Returns true once {@code limit - pos >= minimum}. If the data is exhausted before that many
+   * bytes are available, this returns false. When reading from an array this always returns false
+   * because all bytes are available from the start.
+   */
+  private boolean fillBuffer(int minimum) throws IOException {
+    if (isArraySource()) {
+      return false;
+    }
+
+    byte[] buffer = this.buffer;
+    lineStart -= pos;
+    if (limit != pos) {
+      limit -= pos;
+      System.arraycopy(buffer, pos, buffer, 0, limit);
+    } else {
+      limit = 0;
+    }
+
+    pos = 0;
+    int total;
+    while ((total = read(buffer, limit, buffer.length - limit)) != -1) {
+      limit += total;
+
+      // if this is the first read, consume an optional byte order mark (BOM) if it exists
+      if (checkBom) {
+        if (limit < 3 && buffer[0] == (byte) 0xEF) {
+          continue; // need more bytes to decide
+        }
+        checkBom = false;
+        if (limit >= 3 && isBom(buffer, 0)) {
+          pos += 3;
+          lineStart += 3;
+          minimum += 3;
+        }
+      }
+
+      if (limit >= minimum) {
+        return true;
+      }
+    }
+    // Only reached with remaining bytes if the stream ended while checking for a BOM
+    checkBom = false;
+    return limit >= minimum;
+  }
+
+  /**
+   * Whether all input bytes are in the buffer from the start, because they are read from an array.
+   */
+  private boolean isArraySource() {
+    return in == null && source == null;
+  }
+
+  private int read(byte[] buffer, int offset, int length) throws IOException {
+    if (in != null) {
+      return in.read(buffer, offset, length);
+    }
+    int remaining = source.remaining();
+    if (remaining == 0) {
+      if (channel == null || channelPosition >= channelSize) {
+        return -1;
+      }
+      // Map the next region; previously mapped regions are unmapped once garbage collected
+      long size = Math.min(windowSize, channelSize - channelPosition);
+      source = channel.map(FileChannel.MapMode.READ_ONLY, channelPosition, size);
+      channelPosition += size;
+      remaining = (int) size;
+    }
+    int count = Math.min(remaining, length);
+    source.get(buffer, offset, count);
+    return count;
+  }
+
+  /**
+   * Returns the next byte in the stream that is neither whitespace nor a part of a comment. When
+   * this returns, the returned byte is always at {@code buffer[pos-1]}; this means the caller can
+   * always push back the returned byte by decrementing {@code pos}.
+   */
+  private int nextNonWhitespace(boolean throwOnEof) throws IOException {
+    // Uses the locals 'p' and 'l' for the same reason as JsonReader
+    byte[] buffer = this.buffer;
+    int p = pos;
+    int l = limit;
+    while (true) {
+      if (p == l) {
+        pos = p;
+        if (!fillBuffer(1)) {
+          break;
+        }
+        p = pos;
+        l = limit;
+      }
+
+      int c = buffer[p++];
+      if (c == '\n') {
+        lineNumber++;
+        lineStart = p;
+        continue;
+      } else if (c == ' ' || c == '\r' || c == '\t') {
+        continue;
+      }
+
+      if (c == '/') {
+        pos = p;
+        if (p == l) {
+          pos--; // push back '/' so it's still in the buffer when this method returns
+          boolean bytesLoaded = fillBuffer(2);
+          pos++; // consume the '/' again
+          if (!bytesLoaded) {
+            return c;
+          }
+        }
+
+        checkLenient();
+        byte peek = buffer[pos];
+        switch (peek) {
+          case '*':
+            // skip a /* c-style comment */
+            pos++;
+            if (!skipTo("*/")) {
+              throw syntaxError("Unterminated comment");
+            }
+            p = pos + 2;
+            l = limit;
+            continue;
+
+          case '/':
+            // skip a // end-of-line comment
+            pos++;
+            skipToEndOfLine();
+            p = pos;
+            l = limit;
+            continue;
+
+          default:
+            return c;
+        }
+      } else if (c == '#') {
+        pos = p;
+        // Skip a # hash end-of-line comment, see JsonReader
+        checkLenient();
+        skipToEndOfLine();
+        p = pos;
+        l = limit;
+      } else {
+        pos = p;
+        return c;
+      }
+    }
+    if (throwOnEof) {
+      throw new EOFException("End of input" + locationString());
+    } else {
+      return -1;
+    }
+  }
+
+  /**
+   * Advances the position until after the next newline character. If the line is terminated by
+   * "\r\n", the '\n' must be consumed as whitespace by the caller.
+   */
+  private void skipToEndOfLine() throws IOException {
+    while (pos < limit || fillBuffer(1)) {
+      byte c = buffer[pos++];
+      if (c == '\n') {
+        lineNumber++;
+        lineStart = pos;
+        break;
+      } else if (c == '\r') {
+        break;
+      }
+    }
+  }
+
+  /**
+   * @param toFind an ASCII string to search for. Must not contain a newline.
+   */
+  private boolean skipTo(String toFind) throws IOException {
+    int length = toFind.length();
+    outer:
+    for (; pos + length <= limit || fillBuffer(length); pos++) {
+      if (buffer[pos] == '\n') {
+        lineNumber++;
+        lineStart = pos + 1;
+        continue;
+      }
+      for (int c = 0; c < length; c++) {
+        if (buffer[pos + c] != toFind.charAt(c)) {
+          continue outer;
+        }
+      }
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  String locationString() {
+    int line = lineNumber + 1;
+    int column = pos - lineStart + 1;
+    return " at line " + line + " column " + column + " path " + getPathFile();
+  }
+
+  /**
+   * Unescapes the character identified by the character or characters that immediately follow a
+   * backslash. The backslash '\' should have already been read. This supports both Unicode escapes
+   * "u000A" and two-character escapes "\n".
+   *
+   * @throws MalformedJsonException if the escape sequence is malformed
+   */
+  @SuppressWarnings("fallthrough")
+  private char readEscapeCharacter() throws IOException {
+    if (pos == limit && !fillBuffer(1)) {
+      throw syntaxError("Unterminated escape sequence");
+    }
+
+    byte escaped = buffer[pos++];
+    switch (escaped) {
+      case 'u':
+        if (pos + 4 > limit && !fillBuffer(4)) {
+          throw syntaxError("Unterminated escape sequence");
+        }
+        int result = 0;
+        for (int i = pos, end = i + 4; i < end; i++) {
+          byte c = buffer[i];
+          result <<= 4;
+          if (c >= '0' && c <= '9') {
+            result += (c - '0');
+          } else if (c >= 'a' && c <= 'f') {
+            result += (c - 'a' + 10);
+          } else if (c >= 'A' && c <= 'F') {
+            result += (c - 'A' + 10);
+          } else {
+            throw syntaxError("Malformed Unicode escape \\u" + decode(pos, 4));
+          }
+        }
+        pos += 4;
+        return (char) result;
+
+      case 't':
+        return '\t';
+
+      case 'b':
+        return '\b';
+
+      case 'n':
+        return '\n';
+
+      case 'r':
+        return '\r';
+
+      case 'f':
+        return '\f';
+
+      case '\n':
+        if (getStrictness() == Strictness.STRICT) {
+          throw syntaxError("Cannot escape a newline character in strict mode");
+        }
+        lineNumber++;
+        lineStart = pos;
+        // fall-through
+
+      case '\'':
+        if (getStrictness() == Strictness.STRICT) {
+          throw syntaxError("Invalid escaped character \"'\" in strict mode");
+        }
+        // fall-through
+      case '"':
+      case '\\':
+      case '/':
+        return (char) escaped;
+      default:
+        // throw error when none of the above cases are matched
+        throw syntaxError("Invalid escape sequence");
+    }
+  }
+
+  /** Consumes the non-execute prefix if it exists. */
+  private void consumeNonExecutePrefix() throws IOException {
+    // fast-forward through the leading whitespace
+    int unused = nextNonWhitespace(true);
+    pos--;
+
+    if (pos + 5 > limit && !fillBuffer(5)) {
+      return;
+    }
+
+    int p = pos;
+    byte[] buf = buffer;
+    if (buf[p] != ')'
+        || buf[p + 1] != ']'
+        || buf[p + 2] != '}'
+        || buf[p + 3] != '\''
+        || buf[p + 4] != '\n') {
+      return; // not a security token!
+    }
+
+    // we consumed a security token!
+    pos += 5;
+  }
+}
@@ -0,0 +1,309 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.stream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A {@link JsonWriter} which writes UTF-8 encoded JSON directly as bytes, either to an {@link
+ * OutputStream} or to a growable byte array.
+ *
+ * <p>Characters are encoded to UTF-8 while the JSON is written, so no separate encoding pass with
+ * an {@link java.io.OutputStreamWriter OutputStreamWriter} is needed. The escape sequences of the
+ * characters which have to be escaped are pre-encoded as bytes. Unpaired surrogate characters are
+ * written as {@code '?'}, the same way an {@code OutputStreamWriter} for UTF-8 would write them.
+ *
+ * <p>Output to an {@code OutputStream} is buffered; like {@link JsonWriter} does for its {@code
+ * Writer}, the buffered bytes are written to the stream when the buffer is full, when a complete
+ * top-level value has been written, and when this writer is {@linkplain #flush() flushed} or
+ * {@linkplain #close() closed}. Flushing and closing also flush and close the stream. For a writer
+ * which writes to a growable byte array, flushing has no effect.
+ *
+ * @since $next-version$
+ */
+public final class Utf8JsonWriter extends JsonWriter {
+  private static final Writer UNWRITABLE_WRITER =
+      new Writer() {
+        @Override
+        public void write(char[] buffer, int offset, int counter) {
+          throw new AssertionError();
+        }
+
+        @Override
+        public void flush() {
+          throw new AssertionError();
+        }
+
+        @Override
+        public void close() {
+          throw new AssertionError();
+        }
+      };
+
+  /** Size of the buffer used when writing to an {@link OutputStream}. */
+  static final int STREAM_BUFFER_SIZE = 8192;
+
+  /** Maximum number of bytes a single {@code char} is encoded to, which are the unicode escapes. */
+  private static final int MAX_BYTES_PER_CHAR = 6;
+
+  /** Number of chars of a string which are encoded at once, with a single capacity check. */
+  private static final int CHUNK_SIZE = 1024;
+
+  private static final byte[][] REPLACEMENT_BYTES;
+  private static final byte[][] HTML_SAFE_REPLACEMENT_BYTES;
+  private static final byte[] U2028_BYTES = ascii("\\u2028");
+  private static final byte[] U2029_BYTES = ascii("\\u2029");
+
+  static {
+    // Same escape sequences as used by JsonWriter
+    REPLACEMENT_BYTES = new byte[128][];
+    for (int i = 0; i <= 0x1f; i++) {
+      REPLACEMENT_BYTES[i] = ascii(String.format("\\u%04x", i));
+    }
+    REPLACEMENT_BYTES['"'] = ascii("\\\"");
+    REPLACEMENT_BYTES['\\'] = ascii("\\\\");
+    REPLACEMENT_BYTES['\t'] = ascii("\\t");
+    REPLACEMENT_BYTES['\b'] = ascii("\\b");
+    REPLACEMENT_BYTES['\n'] = ascii("\\n");
+    REPLACEMENT_BYTES['\r'] = ascii("\\r");
+    REPLACEMENT_BYTES['\f'] = ascii("\\f");
+    HTML_SAFE_REPLACEMENT_BYTES = REPLACEMENT_BYTES.clone();
+    HTML_SAFE_REPLACEMENT_BYTES['<'] = ascii("\\u003c");
+    HTML_SAFE_REPLACEMENT_BYTES['>'] = ascii("\\u003e");
+    HTML_SAFE_REPLACEMENT_BYTES['&'] = ascii("\\u0026");
+    HTML_SAFE_REPLACEMENT_BYTES['='] = ascii("\\u003d");
+    HTML_SAFE_REPLACEMENT_BYTES['\''] = ascii("\\u0027");
+  }
+
+  private static byte[] ascii(String s) {
+    return s.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  /** The output stream; {@code null} if the bytes are only collected in {@link #buffer}. */
+  private final OutputStream out;
+
+  private byte[] buffer;
+
+  /** Number of bytes in {@link #buffer}. */
+  private int count;
+
+  /**
+   * Creates a new instance that writes UTF-8 encoded JSON to {@code out}. The bytes are buffered
+   * internally, so {@code out} does not have to be buffered.
+   */
+  public Utf8JsonWriter(OutputStream out) {
+    super(UNWRITABLE_WRITER);
+    this.out = Objects.requireNonNull(out, "out == null");
+    this.buffer = new byte[STREAM_BUFFER_SIZE];
+  }
+
+  /**
+   * Creates a new instance that writes UTF-8 encoded JSON to a growable byte array. The bytes can
+   * be obtained with {@link #toByteArray()}.
+   */
+  public Utf8JsonWriter() {
+    this(256);
+  }
+
+  /**
+   * Creates a new instance that writes UTF-8 encoded JSON to a growable byte array with the given
+   * initial capacity. The bytes can be obtained with {@link #toByteArray()}.
+   */
+  public Utf8JsonWriter(int initialCapacity) {
+    super(UNWRITABLE_WRITER);
+    if (initialCapacity < 0) {
+      throw new IllegalArgumentException("Negative initial capacity: " + initialCapacity);
+    }
+    this.out = null;
+    this.buffer = new byte[initialCapacity];
+  }
+
+  /**
+   * Returns a copy of the bytes written so far, for a writer which writes to a growable byte array.
+   *
+   * @throws IllegalStateException if this writer writes to an {@code OutputStream}.
+   */
+  public byte[] toByteArray() {
+    if (out != null) {
+      throw new IllegalStateException("Writer writes to an OutputStream");
+    }
+    return Arrays.copyOf(buffer, count);
+  }
+
+  /**
+   * Returns the number of bytes written so far to the growable byte array, respectively the number
+   * of bytes currently buffered when writing to an {@code OutputStream}; the buffer is empty once a
+   * top-level value is complete.
+   */
+  public int size() {
+    return count;
+  }
+
+  /**
+   * Makes sure that at least {@code length} more bytes fit into the buffer, either by writing the
+   * buffered bytes to the output stream or by growing the buffer.
+   */
+  private void require(int length) throws IOException {
+    if (length > buffer.length - count) {
+      if (out != null) {
+        out.write(buffer, 0, count);
+        count = 0;
+        if (length <= buffer.length) {
+          return;
+        }
+      }
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + length));
+    }
+  }
+
+  @Override
+  void write(char c) throws IOException {
+    if (c < 0x80) {
+      require(1);
+      buffer[count++] = (byte) c;
+    } else {
+      write(String.valueOf(c));
+    }
+  }
+
+  @Override
+  void write(String s) throws IOException {
+    encode(s, null);
+  }
+
+  @Override
+  void write(CharSequence s) throws IOException {
+    encode(s, null);
+  }
+
+  @Override
+  void write(char[] chars, int length) throws IOException {
+    require(length);
+    for (int i = 0; i < length; i++) {
+      buffer[count++] = (byte) chars[i];
+    }
+  }
+
+  @Override
+  void string(CharSequence value) throws IOException {
+    byte[][] replacements =
+        issafeJsonToHtmlTranslation() ? HTML_SAFE_REPLACEMENT_BYTES : REPLACEMENT_BYTES;
+    require(1);
+    buffer[count++] = '"';
+    encode(value, replacements);
+    require(1);
+    buffer[count++] = '"';
+  }
+
+  @Override
+  void writeEncodedName(EncodedName name) throws IOException {
+    byte[] bytes = name.utf8Bytes(issafeJsonToHtmlTranslation());
+    require(bytes.length);
+    System.arraycopy(bytes, 0, buffer, count, bytes.length);
+    count += bytes.length;
+  }
+
+  /**
+   * Encodes {@code s} as UTF-8. If {@code replacements} is non-null, the characters which have to
+   * be escaped in JSON strings are replaced with their escape sequences.
+   */
+  private void encode(CharSequence s, byte[][] replacements) throws IOException {
+    int length = s.length();
+    int i = 0;
+    while (i < length) {
+      int chunkEnd = Math.min(length, i + CHUNK_SIZE);
+      require((chunkEnd - i) * MAX_BYTES_PER_CHAR);
+      // Use locals to avoid field access in the loop
+      byte[] buffer = this.buffer;
+      int count = this.count;
+
+      for (; i < chunkEnd; i++) {
+        char c = s.charAt(i);
+        if (c < 0x80) {
+          byte[] replacement = replacements == null ? null : replacements[c];
+          if (replacement == null) {
+            buffer[count++] = (byte) c;
+          } else {
+            System.arraycopy(replacement, 0, buffer, count, replacement.length);
+            count += replacement.length;
+          }
+        } else if (c < 0x800) {
+          buffer[count++] = (byte) (0xC0 | (c >> 6));
+          buffer[count++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+          char low;
+          if (Character.isHighSurrogate(c)
+              && i + 1 < length
+              && Character.isLowSurrogate(low = s.charAt(i + 1))) {
+            // The chunk check reserved enough space for the 4 bytes of the two chars
+            int codePoint = Character.toCodePoint(c, low);
+            buffer[count++] = (byte) (0xF0 | (codePoint >> 18));
+            buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            buffer[count++] = (byte) (0x80 | (codePoint & 0x3F));
+            i++;
+          } else {
+            buffer[count++] = '?';
+          }
+        } else if (replacements != null && (c == '\u2028' || c == '\u2029')) {
+          byte[] replacement = c == '\u2028' ? U2028_BYTES : U2029_BYTES;
+          System.arraycopy(replacement, 0, buffer, count, replacement.length);
+          count += replacement.length;
+        } else {
+          buffer[count++] = (byte) (0xE0 | (c >> 12));
+          buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+          buffer[count++] = (byte) (0x80 | (c & 0x3F));
+        }
+      }
+      this.count = count;
+    }
+  }
+
+  /** Writes the buffered bytes to the {@code OutputStream}, if any. */
+  private void flushBuffer() throws IOException {
+    if (out != null && count > 0) {
+      out.write(buffer, 0, count);
+      count = 0;
+    }
+  }
+
+  @Override
+  void afterTopLevelValue() throws IOException {
+    flushBuffer();
+  }
+
+  @Override
+  void flushOutput() throws IOException {
+    if (out != null) {
+      flushBuffer();
+      out.flush();
+    }
+  }
+
+  @Override
+  void closeOutput() throws IOException {
+    if (out != null) {
+      flushBuffer();
+      out.close();
+    }
+  }
+}
@@ -391,4 +391,39 @@ public class GsonBuilderTest {
             IllegalArgumentException.class, () -> builder.setDateFormat(DateFormat.FULL, -1));
     assertThat(e).hasMessageThat().isEqualTo("Invalid style: -1");
   }
+
+  @Test
+  public void testSetReaderBufferSize() {
+    String longString = "a".repeat(100);
+    Gson gson = new GsonBuilder().setReaderBufferSize(16).create();
+    assertThat(gson.fromJson("[\"" + longString + "\"]", String[].class))
+        .asList()
+        .containsExactly(longString);
+
+    IllegalArgumentException e =
+        assertThrows(
+            IllegalArgumentException.class, () -> new GsonBuilder().setReaderBufferSize(15));
+    assertThat(e).hasMessageThat().isEqualTo("Invalid buffer size: 15");
+  }
+
+  @Test
+  public void testEnableStringCache() throws IOException {
+    Gson gson = new GsonBuilder().enableStringCache(100).create();
+    String[] values = gson.fromJson("[\"a\", \"a\"]", String[].class);
+    assertThat(values[1]).isSameInstanceAs(values[0]);
+
+    JsonReader jsonReader = gson.newJsonReader(new StringReader("[]"));
+    assertThat(jsonReader.getStringCache().getCapacity()).isEqualTo(128);
+    assertThat(jsonReader.getStringCache().getHitCount()).isEqualTo(1);
+    // Caches are used by the thread only
+    assertThat(gson.newJsonReader(new StringReader("[]")).getStringCache())
+        .isSameInstanceAs(jsonReader.getStringCache());
+
+    assertThat(new GsonBuilder().create().newJsonReader(new StringReader("[]")).getStringCache())
+        .isNull();
+
+    IllegalArgumentException e =
+        assertThrows(IllegalArgumentException.class, () -> new GsonBuilder().enableStringCache(0));
+    assertThat(e).hasMessageThat().isEqualTo("Invalid capacity: 0");
+  }
 }
@@ -22,22 +22,35 @@ import static org.junit.Assert.assertThrows;
 import com.google.gson.Gson.FutureTypeAdapter;
 import com.google.gson.internal.Excluder;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonProjection;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
 import com.google.gson.stream.MalformedJsonException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.lang.reflect.Field;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.DateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 /**
  * Unit tests for {@link Gson}.
@@ -61,6 +74,8 @@ public final class GsonTest {
   private static final ToNumberStrategy CUSTOM_NUMBER_TO_NUMBER_STRATEGY =
       ToNumberPolicy.LAZILY_PARSED_NUMBER;
 
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   @Test
   public void testStrictnessDefault() {
     assertThat(new Gson().strictness).isNull();
@@ -90,7 +105,11 @@ public final class GsonTest {
             new ArrayList<TypeAdapterFactory>(),
             CUSTOM_OBJECT_TO_NUMBER_STRATEGY,
             CUSTOM_NUMBER_TO_NUMBER_STRATEGY,
-            Collections.<ReflectionAccessFilter>emptyList());
+            Collections.<ReflectionAccessFilter>emptyList(),
+            FieldAccessStrategy.REFLECTION,
+            -1,
+            1024,
+            0);
 
     assertThat(gson.excluder).isEqualTo(CUSTOM_EXCLUDER);
     assertThat(gson.fieldNamingStrategy()).isEqualTo(CUSTOM_FIELD_NAMING_STRATEGY);
@@ -122,7 +141,11 @@ public final class GsonTest {
             new ArrayList<TypeAdapterFactory>(),
             CUSTOM_OBJECT_TO_NUMBER_STRATEGY,
             CUSTOM_NUMBER_TO_NUMBER_STRATEGY,
-            Collections.<ReflectionAccessFilter>emptyList());
+            Collections.<ReflectionAccessFilter>emptyList(),
+            FieldAccessStrategy.REFLECTION,
+            -1,
+            1024,
+            0);
 
     Gson clone =
         original.newBuilder().registerTypeAdapter(int.class, new TestTypeAdapter()).create();
@@ -320,6 +343,261 @@ public final class GsonTest {
     assertThat(otherThreadAdapter.get().toJson(null)).isEqualTo("[[\"wrapped-nested\"]]");
   }
 
+  /**
+   * Verifies that when multiple threads concurrently request the adapter for the same type, the
+   * adapter is only created once and the other threads wait for it.
+   */
+  @Test
+  public void testGetAdapter_ConcurrentSingleCreation() throws Exception {
+    final int threadCount = 8;
+    final AtomicInteger adapterInstancesCreated = new AtomicInteger(0);
+    final CountDownLatch isCreating = new CountDownLatch(1);
+
+    final Gson gson =
+        new GsonBuilder()
+            .registerTypeAdapterFactory(
+                new TypeAdapterFactory() {
+                  @Override
+                  public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+                    if (type.getRawType() != CustomClass1.class) {
+                      return null;
+                    }
+                    adapterInstancesCreated.incrementAndGet();
+                    isCreating.countDown();
+
+                    // Keep running (instead of blocking) until all other threads are waiting
+                    long deadline = System.nanoTime() + 10_000_000_000L;
+                    while (gson.getAdapterCacheStats().getWaitCount() < threadCount - 1) {
+                      if (System.nanoTime() > deadline) {
+                        throw new AssertionError("Other threads did not wait");
+                      }
+                      Thread.onSpinWait();
+                    }
+                    return new TypeAdapter<T>() {
+                      @Override
+                      public void write(JsonWriter out, T value) {
+                        throw new AssertionError("not needed for this test");
+                      }
+
+                      @Override
+                      public T read(JsonReader in) {
+                        throw new AssertionError("not needed for this test");
+                      }
+                    };
+                  }
+                })
+            .create();
+
+    final List<TypeAdapter<?>> adapters = Collections.synchronizedList(new ArrayList<>());
+    Thread creatingThread =
+        new Thread() {
+          @Override
+          public void run() {
+            adapters.add(gson.getAdapter(CustomClass1.class));
+          }
+        };
+    creatingThread.start();
+    isCreating.await();
+
+    List<Thread> waitingThreads = new ArrayList<>();
+    for (int i = 0; i < threadCount - 1; i++) {
+      Thread thread =
+          new Thread() {
+            @Override
+            public void run() {
+              adapters.add(gson.getAdapter(CustomClass1.class));
+            }
+          };
+      thread.start();
+      waitingThreads.add(thread);
+    }
+
+    creatingThread.join();
+    for (Thread thread : waitingThreads) {
+      thread.join();
+    }
+
+    assertThat(adapterInstancesCreated.get()).isEqualTo(1);
+    assertThat(adapters).hasSize(threadCount);
+    for (TypeAdapter<?> adapter : adapters) {
+      assertThat(adapter).isSameInstanceAs(adapters.get(0));
+    }
+
+    AdapterCacheStats stats = gson.getAdapterCacheStats();
+    assertThat(stats.getWaitCount()).isEqualTo(threadCount - 1);
+    assertThat(stats.getDuplicateBuildCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testGetAdapterCacheStats() {
+    Gson gson = new Gson();
+    AdapterCacheStats initialStats = gson.getAdapterCacheStats();
+
+    TypeAdapter<CustomClass3> adapter = gson.getAdapter(CustomClass3.class);
+    AdapterCacheStats stats = gson.getAdapterCacheStats();
+    // Adapter for CustomClass3 and for its String field
+    assertThat(stats.getMissCount() - initialStats.getMissCount()).isAtLeast(1);
+    long missCount = stats.getMissCount();
+    long hitCount = stats.getHitCount();
+
+    assertThat(gson.getAdapter(CustomClass3.class)).isSameInstanceAs(adapter);
+    stats = gson.getAdapterCacheStats();
+    assertThat(stats.getHitCount()).isEqualTo(hitCount + 1);
+    assertThat(stats.getMissCount()).isEqualTo(missCount);
+    assertThat(stats.getWaitCount()).isEqualTo(0);
+    assertThat(stats.getDuplicateBuildCount()).isEqualTo(0);
+    assertThat(stats.toString())
+        .isEqualTo(
+            "{hits:" + (hitCount + 1) + ",misses:" + missCount + ",waits:0,duplicateBuilds:0}");
+  }
+
+  /**
+   * Verifies that a thread stops waiting for another thread creating an adapter after a timeout and
+   * then creates the adapter itself, even if the other thread is blocked by something else than
+   * {@code getAdapter}; here it waits until the first thread has its adapter, which would otherwise
+   * deadlock.
+   */
+  @Test
+  public void testGetAdapter_ConcurrentCreationWaitTimeout() throws Exception {
+    final CountDownLatch isCreating = new CountDownLatch(1);
+    final CountDownLatch otherThreadFinished = new CountDownLatch(1);
+
+    final Gson gson =
+        new GsonBuilder()
+            .registerTypeAdapterFactory(
+                new TypeAdapterFactory() {
+                  @Override
+                  public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+                    if (type.getRawType() != CustomClass1.class) {
+                      return null;
+                    }
+                    if (isCreating.getCount() != 0) {
+                      isCreating.countDown();
+                      try {
+                        if (!otherThreadFinished.await(10, TimeUnit.SECONDS)) {
+                          throw new AssertionError("Other thread did not stop waiting");
+                        }
+                      } catch (InterruptedException e) {
+                        throw new AssertionError(e);
+                      }
+                    }
+                    return new TypeAdapter<T>() {
+                      @Override
+                      public void write(JsonWriter out, T value) {
+                        throw new AssertionError("not needed for this test");
+                      }
+
+                      @Override
+                      public T read(JsonReader in) {
+                        throw new AssertionError("not needed for this test");
+                      }
+                    };
+                  }
+                })
+            .create();
+
+    final AtomicReference<TypeAdapter<?>> otherThreadAdapter = new AtomicReference<>();
+    final AtomicLong otherThreadWaitNanos = new AtomicLong();
+    Thread otherThread =
+        new Thread() {
+          @Override
+          public void run() {
+            try {
+              isCreating.await();
+            } catch (InterruptedException e) {
+              throw new AssertionError(e);
+            }
+            long start = System.nanoTime();
+            otherThreadAdapter.set(gson.getAdapter(CustomClass1.class));
+            otherThreadWaitNanos.set(System.nanoTime() - start);
+            otherThreadFinished.countDown();
+          }
+        };
+    otherThread.start();
+
+    TypeAdapter<?> adapter = gson.getAdapter(CustomClass1.class);
+    otherThread.join();
+    assertThat(otherThreadAdapter.get()).isNotSameInstanceAs(adapter);
+    // The wait timeout is 100 ms
+    assertThat(otherThreadWaitNanos.get()).isAtLeast(TimeUnit.MILLISECONDS.toNanos(100));
+
+    AdapterCacheStats stats = gson.getAdapterCacheStats();
+    assertThat(stats.getWaitCount()).isEqualTo(1);
+    assertThat(stats.getDuplicateBuildCount()).isEqualTo(1);
+  }
+
+  /**
+   * Verifies that a thread only waits for a limited time for another thread creating an adapter,
+   * because that thread might be waiting for it, without being blocked (for example while waiting
+   * for the initialization of a class by the other thread).
+   */
+  @Test
+  public void testGetAdapter_ConcurrentCreationWaitingForOtherThread() throws Exception {
+    final CountDownLatch isCreating = new CountDownLatch(1);
+    final AtomicReference<TypeAdapter<?>> otherThreadAdapter = new AtomicReference<>();
+
+    final Gson gson =
+        new GsonBuilder()
+            .registerTypeAdapterFactory(
+                new TypeAdapterFactory() {
+                  @Override
+                  public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+                    if (type.getRawType() != CustomClass1.class) {
+                      return null;
+                    }
+                    TypeAdapter<T> adapter =
+                        new TypeAdapter<T>() {
+                          @Override
+                          public void write(JsonWriter out, T value) {
+                            throw new AssertionError("not needed for this test");
+                          }
+
+                          @Override
+                          public T read(JsonReader in) {
+                            throw new AssertionError("not needed for this test");
+                          }
+                        };
+                    if (isCreating.getCount() == 0) {
+                      return adapter;
+                    }
+                    isCreating.countDown();
+
+                    // Keep running until the other thread got its adapter
+                    long deadline = System.nanoTime() + 10_000_000_000L;
+                    while (otherThreadAdapter.get() == null) {
+                      if (System.nanoTime() > deadline) {
+                        throw new AssertionError("Other thread did not stop waiting");
+                      }
+                      Thread.onSpinWait();
+                    }
+                    return adapter;
+                  }
+                })
+            .create();
+
+    Thread otherThread =
+        new Thread() {
+          @Override
+          public void run() {
+            try {
+              isCreating.await();
+            } catch (InterruptedException e) {
+              throw new AssertionError(e);
+            }
+            otherThreadAdapter.set(gson.getAdapter(CustomClass1.class));
+          }
+        };
+    otherThread.start();
+
+    TypeAdapter<?> adapter = gson.getAdapter(CustomClass1.class);
+    otherThread.join();
+    assertThat(otherThreadAdapter.get()).isNotSameInstanceAs(adapter);
+
+    AdapterCacheStats stats = gson.getAdapterCacheStats();
+    assertThat(stats.getWaitCount()).isEqualTo(1);
+    assertThat(stats.getDuplicateBuildCount()).isEqualTo(1);
+  }
+
   @Test
   public void testGetDelegateAdapter() {
     class DummyAdapter extends TypeAdapter<Number> {
@@ -470,6 +748,178 @@ public final class GsonTest {
     jsonReader.close();
   }
 
+  @Test
+  public void testNewJsonReader_InputStream() throws IOException {
+    byte[] json = "test".getBytes(StandardCharsets.UTF_8); // String without quotes
+    JsonReader jsonReader = new Gson().newJsonReader(new ByteArrayInputStream(json));
+    assertThrows(MalformedJsonException.class, jsonReader::nextString);
+    jsonReader.close();
+
+    jsonReader =
+        new GsonBuilder()
+            .setStrictness(Strictness.LENIENT)
+            .create()
+            .newJsonReader(new ByteArrayInputStream(json));
+    assertThat(jsonReader.nextString()).isEqualTo("test");
+    jsonReader.close();
+  }
+
+  @Test
+  public void testFromJson_Bytes() {
+    Gson gson = new Gson();
+    byte[] json = "{\"1\": \"\u00e9\u20ac\", \"2\": \"b\"}".getBytes(StandardCharsets.UTF_8);
+    HashMap<Integer, String> expected = new HashMap<>();
+    expected.put(1, "\u00e9\u20ac");
+    expected.put(2, "b");
+    assertThat(gson.fromJson(json, new TypeToken<HashMap<Integer, String>>() {}))
+        .isEqualTo(expected);
+
+    assertThat(gson.fromJson(new byte[0], String.class)).isNull();
+    assertThat(gson.fromJson((byte[]) null, String.class)).isNull();
+    assertThrows(
+        JsonSyntaxException.class,
+        () -> gson.fromJson("1 2".getBytes(StandardCharsets.UTF_8), int.class));
+  }
+
+  @Test
+  public void testFromJson_InputStream() {
+    Gson gson = new Gson();
+    byte[] json = "[\"\u00e9\", \"\ud83d\ude00\"]".getBytes(StandardCharsets.UTF_8);
+    Type type = new TypeToken<ArrayList<String>>() {}.getType();
+    ArrayList<String> list = gson.fromJson(new ByteArrayInputStream(json), type);
+    assertThat(list).containsExactly("\u00e9", "\ud83d\ude00").inOrder();
+
+    assertThat(gson.fromJson(new ByteArrayInputStream(new byte[0]), String.class)).isNull();
+  }
+
+  @Test
+  public void testFromJson_Path() throws IOException {
+    Gson gson = new Gson();
+    Path file = temporaryFolder.newFile().toPath();
+    Files.write(file, "[\"\u00e9\", \"\ud83d\ude00\"]".getBytes(StandardCharsets.UTF_8));
+    Type type = new TypeToken<ArrayList<String>>() {}.getType();
+    ArrayList<String> list = gson.fromJson(file, type);
+    assertThat(list).containsExactly("\u00e9", "\ud83d\ude00").inOrder();
+
+    Files.write(file, new byte[0]);
+    assertThat(gson.fromJson(file, String.class)).isNull();
+
+    Files.write(file, "1 2".getBytes(StandardCharsets.UTF_8));
+    assertThrows(JsonSyntaxException.class, () -> gson.fromJson(file, int.class));
+
+    Path missing = file.resolveSibling("missing.json");
+    assertThrows(JsonIOException.class, () -> gson.fromJson(missing, int.class));
+  }
+
+  @Test
+  public void testNewJsonWriter_OutputStream() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    JsonWriter jsonWriter =
+        new GsonBuilder()
+            .disableHtmlEscaping()
+            .generateNonExecutableJson()
+            .setPrettyPrinting()
+            .serializeNulls()
+            .create()
+            .newJsonWriter(out);
+    jsonWriter.beginObject();
+    jsonWriter.name("test");
+    jsonWriter.nullValue();
+    jsonWriter.name("<\u20ac");
+    jsonWriter.value(true);
+    jsonWriter.endObject();
+    jsonWriter.close();
+    assertThat(out.toString("UTF-8"))
+        .isEqualTo(")]}'\n{\n  \"test\": null,\n  \"<\u20ac\": true\n}");
+  }
+
+  @Test
+  public void testToJsonBytes() {
+    Gson gson = new Gson();
+    HashMap<String, Object> map = new HashMap<>();
+    map.put("a<", "\u00e9\ud83d\ude00");
+    assertThat(gson.toJsonBytes(map)).isEqualTo(gson.toJson(map).getBytes(StandardCharsets.UTF_8));
+    assertThat(
+            gson.toJsonBytes(
+                Collections.singletonList(1), new TypeToken<List<Integer>>() {}.getType()))
+        .isEqualTo("[1]".getBytes(StandardCharsets.UTF_8));
+    assertThat(gson.toJsonBytes(null)).isEqualTo("null".getBytes(StandardCharsets.UTF_8));
+
+    Gson nonExecutable = new GsonBuilder().generateNonExecutableJson().create();
+    assertThat(nonExecutable.toJsonBytes("\u20ac"))
+        .isEqualTo(")]}'\n\"\u20ac\"".getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testToJson_OutputStream() {
+    Gson gson = new Gson();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    gson.toJson(new ArrayList<>(Collections.singletonList("\u20ac")), out);
+    gson.toJson(null, out);
+    gson.toJson(new JsonPrimitive(1), out);
+    assertThat(out.toByteArray()).isEqualTo("[\"\u20ac\"]null1".getBytes(StandardCharsets.UTF_8));
+
+    OutputStream failing =
+        new OutputStream() {
+          @Override
+          public void write(int b) throws IOException {
+            throw new IOException("failed");
+          }
+        };
+    JsonIOException e = assertThrows(JsonIOException.class, () -> gson.toJson(1, failing));
+    assertThat(e).hasCauseThat().hasMessageThat().isEqualTo("failed");
+  }
+
+  @Test
+  public void testFromJsonProjection() {
+    Gson gson = new Gson();
+    JsonProjection projection = JsonProjection.of("$.id", "$.users[*].name");
+    String json =
+        "{\"id\":1,\"other\":[1,2,{}],\"users\":[{\"name\":\"a\",\"age\":20},{\"name\":\"b\"}]}";
+
+    ProjectedResponse response =
+        gson.fromJson(new StringReader(json), projection, TypeToken.get(ProjectedResponse.class));
+    assertThat(response.id).isEqualTo(1);
+    assertThat(response.users).hasSize(2);
+    assertThat(response.users.get(0).name).isEqualTo("a");
+    assertThat(response.users.get(0).age).isEqualTo(0);
+    assertThat(response.users.get(1).name).isEqualTo("b");
+
+    assertThat(
+            gson.fromJson(new StringReader(""), projection, TypeToken.get(ProjectedResponse.class)))
+        .isNull();
+
+    JsonSyntaxException e =
+        assertThrows(
+            JsonSyntaxException.class,
+            () ->
+                gson.fromJson(
+                    new StringReader("{\"id\":1} 1"),
+                    projection,
+                    TypeToken.get(ProjectedResponse.class)));
+    assertThat(e).hasCauseThat().isInstanceOf(MalformedJsonException.class);
+
+    e =
+        assertThrows(
+            JsonSyntaxException.class,
+            () ->
+                gson.fromJson(
+                    new StringReader("{\"id\":1,\"users\":["),
+                    projection,
+                    TypeToken.get(ProjectedResponse.class)));
+    assertThat(e).hasCauseThat().isInstanceOf(EOFException.class);
+  }
+
+  private static class ProjectedResponse {
+    int id;
+    List<ProjectedUser> users;
+  }
+
+  private static class ProjectedUser {
+    String name;
+    int age;
+  }
+
   /**
    * Modifying a GsonBuilder obtained from {@link Gson#newBuilder()} of a {@code new Gson()} should
    * not affect the Gson instance it came from.
@@ -17,11 +17,14 @@
 package com.google.gson;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.fail;
 
 import com.google.common.testing.EqualsTester;
 import com.google.gson.common.MoreAsserts;
 import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.List;
 import org.junit.Test;
 
 /**
@@ -376,4 +379,76 @@ public final class JsonArrayTest {
     assertThat(jsonArray.toString())
         .isEqualTo("[\"a\",\"a\",true,true,1212,1212,34.34,34.34,null,null]");
   }
+
+  @Test
+  public void testFreeze() {
+    JsonObject nested = new JsonObject();
+    JsonArray a = new JsonArray();
+    a.addElement(nested);
+    a.addNumber(1);
+
+    assertThat(a.freeze()).isSameInstanceAs(a);
+    assertThat(a.isFrozen()).isTrue();
+    assertThat(nested.isFrozen()).isTrue();
+
+    UnsupportedOperationException e =
+        assertThrows(UnsupportedOperationException.class, () -> a.addNumber(2));
+    assertThat(e).hasMessageThat().isEqualTo("JsonArray is frozen");
+    assertThrows(UnsupportedOperationException.class, () -> a.addElement(JsonNull.INSTANCE));
+    assertThrows(UnsupportedOperationException.class, () -> a.addAll(new JsonArray()));
+    assertThrows(UnsupportedOperationException.class, () -> a.set(0, JsonNull.INSTANCE));
+    assertThrows(UnsupportedOperationException.class, () -> a.remove(0));
+    assertThrows(UnsupportedOperationException.class, () -> a.remove(nested));
+
+    Iterator<JsonElement> iterator = a.iterator();
+    iterator.next();
+    assertThrows(UnsupportedOperationException.class, () -> iterator.remove());
+    List<JsonElement> list = a.asList();
+    assertThat(list).hasSize(2);
+    assertThrows(UnsupportedOperationException.class, () -> list.add(JsonNull.INSTANCE));
+    assertThrows(UnsupportedOperationException.class, () -> list.set(0, JsonNull.INSTANCE));
+
+    JsonArray copy = a.deepCopy();
+    assertThat(copy.isFrozen()).isFalse();
+    copy.addNumber(2);
+    assertThat(copy.get(0).isFrozen()).isFalse();
+  }
+
+  @Test
+  public void testFreezeHashCode() {
+    JsonArray a = new JsonArray();
+    a.addString("a");
+    int hashCode = a.hashCode();
+    a.freeze();
+    assertThat(a.hashCode()).isEqualTo(hashCode);
+    assertThat(a.hashCode()).isEqualTo(hashCode);
+    MoreAsserts.assertEqualsAndHashCode(a, a.deepCopy());
+  }
+
+  @Test
+  public void testWith() {
+    JsonObject nested = new JsonObject();
+    JsonArray a = new JsonArray();
+    a.addElement(nested);
+    a.addNumber(1);
+
+    IllegalStateException e =
+        assertThrows(IllegalStateException.class, () -> a.withAdded(JsonNull.INSTANCE));
+    assertThat(e).hasMessageThat().isEqualTo("JsonArray is not frozen; call freeze() first");
+    a.freeze();
+
+    JsonArray replaced = a.with(1, new JsonPrimitive(2));
+    assertThat(replaced.isFrozen()).isTrue();
+    assertThat(replaced.toString()).isEqualTo("[{},2]");
+    assertThat(replaced.get(0)).isSameInstanceAs(nested);
+    assertThat(a.toString()).isEqualTo("[{},1]");
+    assertThrows(IndexOutOfBoundsException.class, () -> a.with(2, JsonNull.INSTANCE));
+
+    JsonObject value = new JsonObject();
+    JsonArray added = a.withAdded(value).withAdded(null);
+    assertThat(added.toString()).isEqualTo("[{},1,{},null]");
+    assertThat(added.isFrozen()).isTrue();
+    assertThat(value.isFrozen()).isTrue();
+    assertThrows(UnsupportedOperationException.class, () -> added.addNumber(3));
+  }
 }
@@ -17,6 +17,7 @@
 package com.google.gson;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.fail;
 
 import com.google.common.testing.EqualsTester;
@@ -29,6 +30,7 @@ import java.util.Collections;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import org.junit.Test;
@@ -344,4 +346,93 @@ public class JsonObjectTest {
       assertThat(new ArrayList<>(o.entrySet())).isEqualTo(new ArrayList<>(expectedEntriesQueue));
     }
   }
+
+  @Test
+  public void testFreeze() {
+    JsonObject nested = new JsonObject();
+    nested.addProperty("n", 1);
+    JsonArray array = new JsonArray();
+    array.addElement(new JsonObject());
+    JsonObject o = new JsonObject();
+    o.add("nested", nested);
+    o.add("array", array);
+    o.addProperty("s", "value");
+    assertThat(o.isFrozen()).isFalse();
+
+    assertThat(o.freeze()).isSameInstanceAs(o);
+    assertThat(o.isFrozen()).isTrue();
+    assertThat(nested.isFrozen()).isTrue();
+    assertThat(array.isFrozen()).isTrue();
+    assertThat(array.get(0).isFrozen()).isTrue();
+    assertThat(o.get("s").isFrozen()).isTrue();
+
+    UnsupportedOperationException e =
+        assertThrows(UnsupportedOperationException.class, () -> o.addProperty("a", 1));
+    assertThat(e).hasMessageThat().isEqualTo("JsonObject is frozen");
+    assertThrows(UnsupportedOperationException.class, () -> o.remove("s"));
+    assertThrows(UnsupportedOperationException.class, () -> nested.addProperty("a", 1));
+    assertThrows(UnsupportedOperationException.class, () -> array.addString("a"));
+
+    Map<String, JsonElement> map = o.asMap();
+    assertThrows(UnsupportedOperationException.class, () -> map.put("a", JsonNull.INSTANCE));
+    assertThrows(UnsupportedOperationException.class, () -> map.remove("s"));
+    assertThrows(UnsupportedOperationException.class, () -> map.clear());
+    Iterator<Entry<String, JsonElement>> iterator = o.entrySet().iterator();
+    Entry<String, JsonElement> entry = iterator.next();
+    assertThrows(UnsupportedOperationException.class, () -> entry.setValue(JsonNull.INSTANCE));
+    assertThrows(UnsupportedOperationException.class, () -> iterator.remove());
+    assertThrows(UnsupportedOperationException.class, () -> o.keySet().remove("s"));
+    assertThat(o.toString()).isEqualTo("{\"nested\":{\"n\":1},\"array\":[{}],\"s\":\"value\"}");
+
+    // Deep copy is modifiable
+    JsonObject copy = o.deepCopy();
+    assertThat(copy.isFrozen()).isFalse();
+    assertThat(copy.getAsJsonObject("nested").isFrozen()).isFalse();
+    copy.getAsJsonObject("nested").addProperty("a", 1);
+    assertThat(nested.has("a")).isFalse();
+  }
+
+  @Test
+  public void testFreezeHashCode() {
+    JsonObject o = new JsonObject();
+    o.addProperty("a", 1);
+    int hashCode = o.hashCode();
+    o.freeze();
+    assertThat(o.hashCode()).isEqualTo(hashCode);
+    assertThat(o.hashCode()).isEqualTo(hashCode);
+    MoreAsserts.assertEqualsAndHashCode(o, o.deepCopy());
+  }
+
+  @Test
+  public void testWith() {
+    JsonObject nested = new JsonObject();
+    nested.addProperty("n", 1);
+    JsonObject o = new JsonObject();
+    o.add("nested", nested);
+    o.addProperty("a", 1);
+
+    IllegalStateException e =
+        assertThrows(IllegalStateException.class, () -> o.with("b", JsonNull.INSTANCE));
+    assertThat(e).hasMessageThat().isEqualTo("JsonObject is not frozen; call freeze() first");
+    o.freeze();
+
+    JsonObject replaced = o.with("a", new JsonPrimitive(2));
+    assertThat(replaced.isFrozen()).isTrue();
+    assertThat(replaced.toString()).isEqualTo("{\"nested\":{\"n\":1},\"a\":2}");
+    // Nested elements are shared
+    assertThat(replaced.get("nested")).isSameInstanceAs(nested);
+    // Original is unchanged
+    assertThat(o.toString()).isEqualTo("{\"nested\":{\"n\":1},\"a\":1}");
+
+    JsonArray value = new JsonArray();
+    JsonObject added = o.with("b", value).with("c", null);
+    assertThat(added.toString()).isEqualTo("{\"nested\":{\"n\":1},\"a\":1,\"b\":[],\"c\":null}");
+    assertThat(value.isFrozen()).isTrue();
+
+    JsonObject removed = added.without("a");
+    assertThat(removed.toString()).isEqualTo("{\"nested\":{\"n\":1},\"b\":[],\"c\":null}");
+    assertThat(removed.isFrozen()).isTrue();
+    assertThat(removed.without("missing")).isSameInstanceAs(removed);
+    assertThrows(UnsupportedOperationException.class, () -> removed.addProperty("d", 1));
+  }
 }
@@ -184,4 +184,140 @@ public class JsonParserTest {
     // Original strictness was restored
     assertThat(reader.getStrictness()).isEqualTo(strictness);
   }
+
+  @Test
+  public void testParseStringLazily() {
+    String json =
+        "{\"a\": [1, -2.5e3, true, false, null, \"s\"], \"b\": {\"c\": {}, \"d\": [[], [{}]]},"
+            + " \"e\": \"\\\"\\\\\\/\\b\\f\\n\\r\\t\\u00e9\\u20AC\", \"\\u0041\": 0,"
+            + " \"f\": [{\"g\": 1}, {\"g\": 2}], \"a\": [\"duplicate\"]}";
+    JsonElement lazy = JsonParser.parseStringLazily(json);
+    JsonElement eager = JsonParser.parseString(json);
+    assertThat(lazy).isEqualTo(eager);
+    assertThat(lazy.toString()).isEqualTo(eager.toString());
+
+    JsonObject object = JsonParser.parseStringLazily(json).getAsJsonObject();
+    assertThat(object.keySet()).containsExactly("a", "b", "e", "A", "f").inOrder();
+    assertThat(object.get("e").getAsString()).isEqualTo("\"\\/\b\f\n\r\t\u00e9\u20ac");
+    assertThat(object.getAsJsonArray("f").get(1).getAsJsonObject().get("g").getAsInt())
+        .isEqualTo(2);
+    assertThat(object.getAsJsonArray("a")).isEqualTo(eager.getAsJsonObject().get("a"));
+    assertThat(object.getAsJsonObject("b").getAsJsonArray("d").get(1))
+        .isEqualTo(JsonParser.parseString("[{}]"));
+  }
+
+  @Test
+  public void testParseStringLazilyTopLevelValues() {
+    assertThat(JsonParser.parseStringLazily("")).isEqualTo(JsonNull.INSTANCE);
+    assertThat(JsonParser.parseStringLazily(" \n\t")).isEqualTo(JsonNull.INSTANCE);
+    assertThat(JsonParser.parseStringLazily("null")).isEqualTo(JsonNull.INSTANCE);
+    assertThat(JsonParser.parseStringLazily(" 12 ")).isEqualTo(new JsonPrimitive(12));
+    assertThat(JsonParser.parseStringLazily("\"a\"")).isEqualTo(new JsonPrimitive("a"));
+    assertThat(JsonParser.parseStringLazily("true")).isEqualTo(new JsonPrimitive(true));
+    assertThat(JsonParser.parseStringLazily("[]")).isEqualTo(new JsonArray());
+    assertThat(JsonParser.parseStringLazily(" { } ")).isEqualTo(new JsonObject());
+  }
+
+  @Test
+  public void testParseStringLazilyModification() {
+    JsonObject object =
+        JsonParser.parseStringLazily("{\"a\": {\"b\": [1]}, \"c\": 2}").getAsJsonObject();
+    JsonArray array = object.getAsJsonObject("a").getAsJsonArray("b");
+    array.addNumber(3);
+    object.remove("c");
+    object.addProperty("d", "x");
+    assertThat(object.toString()).isEqualTo("{\"a\":{\"b\":[1,3]},\"d\":\"x\"}");
+
+    // Adding to an array which has not been accessed yet
+    JsonArray outer = JsonParser.parseStringLazily("[[1], [2]]").getAsJsonArray();
+    outer.get(1).getAsJsonArray().addNumber(5);
+    assertThat(outer.toString()).isEqualTo("[[1],[2,5]]");
+
+    JsonElement frozen = JsonParser.parseStringLazily("{\"a\": [{\"b\": 1}]}").freeze();
+    assertThat(frozen.getAsJsonObject().getAsJsonArray("a").get(0).isFrozen()).isTrue();
+    assertThat(frozen.deepCopy()).isEqualTo(frozen);
+  }
+
+  @Test
+  public void testParseStringLazilyDeeplyNested() {
+    int depth = 100_000;
+    StringBuilder json = new StringBuilder();
+    for (int i = 0; i < depth; i++) {
+      json.append("{\"a\":[");
+    }
+    for (int i = 0; i < depth; i++) {
+      json.append("]}");
+    }
+    JsonElement element = JsonParser.parseStringLazily(json.toString());
+    // Walk the tree iteratively; only the visited elements are created
+    for (int i = 0; i < depth; i++) {
+      JsonArray array = element.getAsJsonObject().getAsJsonArray("a");
+      element = i == depth - 1 ? null : array.get(0);
+      if (element == null) {
+        assertThat(array).isEmpty();
+      }
+    }
+  }
+
+  @Test
+  public void testParseStringLazilyMalformed() {
+    String[] malformed = {
+      "[a]",
+      "{a: 1}",
+      "{'a': 1}",
+      "[1,]",
+      "[1 2]",
+      "{\"a\" 1}",
+      "{\"a\": 1,}",
+      "[01]",
+      "[1.]",
+      "[-]",
+      "[1e]",
+      "[tru]",
+      "[truex]",
+      "[\"\\x\"]",
+      "[\"\\u12\"]",
+      "[\"\\u12g4\"]",
+      // Non-ASCII digits
+      "[\"\\u\u0661\u0662\u0663\u0664\"]",
+      "[\"\t\"]",
+      "[\"abc",
+      "[[]",
+      "{\"a\": 1",
+      "[1]]",
+      "1 2",
+      "/* comment */ 1",
+    };
+    for (String json : malformed) {
+      assertThrows(json, JsonSyntaxException.class, () -> JsonParser.parseStringLazily(json));
+    }
+
+    JsonSyntaxException e =
+        assertThrows(JsonSyntaxException.class, () -> JsonParser.parseStringLazily("[1,\n 2 3]"));
+    assertThat(e)
+        .hasMessageThat()
+        .isEqualTo(
+            "com.google.gson.stream.MalformedJsonException: Expected ',' or ']' at line 2 column"
+                + " 4");
+
+    e = assertThrows(JsonSyntaxException.class, () -> JsonParser.parseStringLazily("[1] [2]"));
+    assertThat(e).hasMessageThat().isEqualTo("Did not consume the entire document.");
+  }
+
+  @Test
+  public void testParseReaderLazily() {
+    StringBuilder json = new StringBuilder("[");
+    for (int i = 0; i < 1000; i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("{\"i\":").append(i).append('}');
+    }
+    json.append(']');
+    JsonElement element = JsonParser.parseReaderLazily(new StringReader(json.toString()));
+    assertThat(element.getAsJsonArray()).hasSize(1000);
+    assertThat(element.getAsJsonArray().get(999).getAsJsonObject().get("i").getAsInt())
+        .isEqualTo(999);
+    assertThat(element).isEqualTo(JsonParser.parseString(json.toString()));
+  }
 }
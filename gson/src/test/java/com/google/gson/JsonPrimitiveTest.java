@@ -321,4 +321,71 @@ public class JsonPrimitiveTest {
     JsonPrimitive a = new JsonPrimitive("a");
     assertThat(a).isSameInstanceAs(a.deepCopy()); // Primitives are immutable!
   }
+
+  @Test
+  public void testOfLong() {
+    for (long value : new long[] {0, 1, -128, 127, 128, -129, Long.MAX_VALUE, Long.MIN_VALUE}) {
+      JsonPrimitive primitive = JsonPrimitive.of(value);
+      assertThat(primitive.isNumber()).isTrue();
+      assertThat(primitive.getAsLong()).isEqualTo(value);
+      assertThat(primitive.getAsInt()).isEqualTo((int) value);
+      assertThat(primitive.getAsDouble()).isEqualTo((double) value);
+      assertThat(primitive.getAsNumber()).isEqualTo(value);
+      assertThat(primitive.getAsString()).isEqualTo(Long.toString(value));
+      assertThat(primitive.getAsBigInteger()).isEqualTo(BigInteger.valueOf(value));
+      assertThat(primitive.toString()).isEqualTo(Long.toString(value));
+      MoreAsserts.assertEqualsAndHashCode(primitive, new JsonPrimitive(value));
+    }
+
+    // Small values are shared
+    assertThat(JsonPrimitive.of(127)).isSameInstanceAs(JsonPrimitive.of(127));
+    assertThat(JsonPrimitive.of(-128)).isSameInstanceAs(JsonPrimitive.of(-128));
+    assertThat(JsonPrimitive.of(1)).isEqualTo(new JsonPrimitive(1));
+    assertThat(JsonPrimitive.of(1)).isEqualTo(new JsonPrimitive(new BigInteger("1")));
+    assertThat(JsonPrimitive.of(1)).isEqualTo(new JsonPrimitive(1.0));
+  }
+
+  @Test
+  public void testOfDouble() {
+    for (double value : new double[] {0.0, -0.0, 1.5, -3.25e100, Double.MIN_VALUE}) {
+      JsonPrimitive primitive = JsonPrimitive.of(value);
+      assertThat(primitive.isNumber()).isTrue();
+      assertThat(primitive.getAsDouble()).isEqualTo(value);
+      assertThat(primitive.getAsLong()).isEqualTo((long) value);
+      assertThat(primitive.getAsInt()).isEqualTo((int) value);
+      assertThat(primitive.getAsNumber()).isEqualTo(value);
+      assertThat(primitive.getAsString()).isEqualTo(Double.toString(value));
+      assertThat(primitive.getAsBigDecimal()).isEqualTo(new BigDecimal(Double.toString(value)));
+      MoreAsserts.assertEqualsAndHashCode(primitive, new JsonPrimitive(value));
+    }
+    assertThat(JsonPrimitive.of(Double.NaN)).isEqualTo(new JsonPrimitive(Double.NaN));
+    assertThat(JsonPrimitive.of(2.0)).isEqualTo(JsonPrimitive.of(2));
+  }
+
+  @Test
+  public void testOfBooleanAndString() {
+    assertThat(JsonPrimitive.of(true)).isSameInstanceAs(JsonPrimitive.of(true));
+    assertThat(JsonPrimitive.of(true)).isEqualTo(new JsonPrimitive(true));
+    assertThat(JsonPrimitive.of(false).getAsBoolean()).isFalse();
+    assertThat(JsonPrimitive.of("")).isSameInstanceAs(JsonPrimitive.of(""));
+    assertThat(JsonPrimitive.of("a")).isEqualTo(new JsonPrimitive("a"));
+    assertThat(JsonPrimitive.of("a").isString()).isTrue();
+  }
+
+  @Test
+  public void testParsedNumbers() {
+    JsonArray array =
+        JsonParser.parseString(
+                "[1, -42, 0, 1.5, -0.0, 10.25, 1.50, 1e3, -0, 123456789012345678901, 1e400]")
+            .getAsJsonArray();
+    assertThat(array.get(1).getAsLong()).isEqualTo(-42);
+    assertThat(array.get(3).getAsDouble()).isEqualTo(1.5);
+    assertThat(array.get(7).getAsInt()).isEqualTo(1000);
+    assertThat(array.get(0)).isSameInstanceAs(JsonPrimitive.of(1));
+    // String representation of numbers is preserved, regardless of how they are stored
+    assertThat(array.toString())
+        .isEqualTo("[1,-42,0,1.5,-0.0,10.25,1.50,1e3,-0,123456789012345678901,1e400]");
+    assertThat(JsonParser.parseStringLazily(array.toString()).toString())
+        .isEqualTo(array.toString());
+  }
 }
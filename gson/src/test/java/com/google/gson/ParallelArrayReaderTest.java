@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.gson.reflect.TypeToken;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.After;
+import org.junit.Test;
+
+/** Tests for {@link Gson#fromJsonArray(ByteBuffer, TypeToken, ForkJoinPool)}. */
+public class ParallelArrayReaderTest {
+  private final Gson gson = new Gson();
+  private final ForkJoinPool pool = new ForkJoinPool(4);
+
+  @After
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  private static class Item {
+    int id;
+    String name;
+    List<Double> values;
+  }
+
+  private static byte[] bytes(String json) {
+    return json.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private List<Object> fromJsonArray(String json) {
+    return gson.fromJsonArray(bytes(json), TypeToken.get(Object.class), pool);
+  }
+
+  @Test
+  public void testLargeArray() {
+    StringBuilder json = new StringBuilder("[\n");
+    int count = 10 * ParallelArrayReader.MIN_TASK_BYTES / 50;
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        json.append(",\n");
+      }
+      json.append("  {\"id\": ")
+          .append(i)
+          .append(", \"name\": \"\\\"[\u20ac")
+          .append(i)
+          .append("}\", \"values\": [")
+          .append(i)
+          .append(".5]}");
+    }
+    json.append("\n]");
+
+    List<Item> items = gson.fromJsonArray(bytes(json.toString()), TypeToken.get(Item.class), pool);
+    assertThat(items).hasSize(count);
+    for (int i = 0; i < count; i++) {
+      Item item = items.get(i);
+      assertThat(item.id).isEqualTo(i);
+      assertThat(item.name).isEqualTo("\"[\u20ac" + i + "}");
+      assertThat(item.values).containsExactly(i + 0.5);
+    }
+  }
+
+  @Test
+  public void testSameResultAsFromJson() {
+    String[] jsons = {
+      "[]",
+      " [ ] ",
+      "[1]",
+      "[1, \"a\", true, null, [], {}, [[1], {\"a\": [2]}]]",
+      "[\"\\\\\", \"\\u005d\", \"]\"]",
+      "\ufeff[1]",
+      // Lenient syntax, which is read sequentially
+      "[1, /* ] */ 2]",
+      "[1, # ]\n 2]",
+      "['a', 'b']",
+      "[1,,2]",
+      "null",
+    };
+    TypeToken<List<Object>> listType = new TypeToken<List<Object>>() {};
+    for (String json : jsons) {
+      assertThat(fromJsonArray(json)).isEqualTo(gson.fromJson(bytes(json), listType));
+    }
+    assertThat(fromJsonArray("")).isNull();
+  }
+
+  @Test
+  public void testResultIsMutable() {
+    List<Object> list = fromJsonArray("[1]");
+    assertThat(list).isInstanceOf(ArrayList.class);
+    list.add(2);
+  }
+
+  @Test
+  public void testByteBuffer() {
+    byte[] bytes = bytes("xx[1, 2]yy");
+    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+    buffer.put(bytes);
+    buffer.position(2);
+    buffer.limit(8);
+
+    List<Integer> list = gson.fromJsonArray(buffer, TypeToken.get(Integer.class), pool);
+    assertThat(list).containsExactly(1, 2).inOrder();
+    assertThat(buffer.position()).isEqualTo(2);
+
+    ByteBuffer heapBuffer = ByteBuffer.wrap(bytes, 2, 6).slice();
+    assertThat(gson.fromJsonArray(heapBuffer, TypeToken.get(Integer.class), pool))
+        .containsExactly(1, 2)
+        .inOrder();
+  }
+
+  @Test
+  public void testInvalidElement() {
+    JsonSyntaxException e =
+        assertThrows(
+            JsonSyntaxException.class,
+            () ->
+                gson.fromJsonArray(
+                    bytes("[1, 2, \"a\", true]"), TypeToken.get(Integer.class), pool));
+    assertThat(e).hasMessageThat().isEqualTo("Failed to deserialize element 2 of JSON array");
+    assertThat(e).hasCauseThat().isInstanceOf(JsonSyntaxException.class);
+
+    // Missing comma between two elements
+    e =
+        assertThrows(
+            JsonSyntaxException.class,
+            () -> gson.fromJsonArray(bytes("[1, 2 3]"), TypeToken.get(Integer.class), pool));
+    assertThat(e).hasMessageThat().isEqualTo("Failed to deserialize element 1 of JSON array");
+  }
+
+  @Test
+  public void testLowestInvalidElement() {
+    // All elements from `firstInvalid` on are invalid, so tasks for later ranges fail right away
+    StringBuilder json = new StringBuilder("[\n");
+    int count = 10 * ParallelArrayReader.MIN_TASK_BYTES / 50;
+    int firstInvalid = count / 4 + 1;
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        json.append(",\n");
+      }
+      json.append("  {\"id\": ")
+          .append(i < firstInvalid ? String.valueOf(i) : "\"invalid\"")
+          .append(", \"name\": \"name ")
+          .append(i)
+          .append("\", \"values\": []}");
+    }
+    json.append("\n]");
+    byte[] bytes = bytes(json.toString());
+
+    for (int attempt = 0; attempt < 10; attempt++) {
+      JsonSyntaxException e =
+          assertThrows(
+              JsonSyntaxException.class,
+              () -> gson.fromJsonArray(bytes, TypeToken.get(Item.class), pool));
+      assertThat(e)
+          .hasMessageThat()
+          .isEqualTo("Failed to deserialize element " + firstInvalid + " of JSON array");
+    }
+  }
+
+  @Test
+  public void testMalformed() {
+    String[] jsons = {"[1", "[1}", "[1] 2", "{}", "[\"a]"};
+    for (String json : jsons) {
+      assertThrows(JsonSyntaxException.class, () -> fromJsonArray(json));
+    }
+  }
+}
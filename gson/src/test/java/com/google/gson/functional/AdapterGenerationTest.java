@@ -0,0 +1,366 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.functional;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assume.assumeTrue;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.InstanceCreator;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.ReflectionAccessFilter;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+/** Functional tests for {@link GsonBuilder#enableAdapterGeneration(int)}. */
+public class AdapterGenerationTest {
+  private static final String GENERATED_ADAPTER_SUFFIX = "$$GsonAdapter";
+
+  /**
+   * Adapter for {@link Marker} which records whether it was called by a generated adapter, by
+   * inspecting the stack.
+   */
+  private static class MarkerAdapter extends TypeAdapter<Marker> {
+    final List<Boolean> calledByGenerated = new ArrayList<>();
+
+    private void record() {
+      // Frames of hidden classes are omitted from stack traces by default
+      boolean generated =
+          StackWalker.getInstance(StackWalker.Option.SHOW_HIDDEN_FRAMES)
+              .walk(
+                  frames ->
+                      frames.anyMatch(
+                          frame -> frame.getClassName().contains(GENERATED_ADAPTER_SUFFIX)));
+      calledByGenerated.add(generated);
+    }
+
+    @Override
+    public void write(JsonWriter out, Marker value) throws IOException {
+      record();
+      out.value(value == null ? null : value.value);
+    }
+
+    @Override
+    public Marker read(JsonReader in) throws IOException {
+      record();
+      Marker marker = new Marker();
+      marker.value = in.nextString();
+      return marker;
+    }
+  }
+
+  private static class Marker {
+    String value;
+  }
+
+  static class Base {
+    int baseInt;
+    String baseString;
+  }
+
+  @SuppressWarnings("unused")
+  static class WithFields extends Base {
+    private boolean b;
+    private byte by;
+    private char c;
+    private short s;
+    private int i;
+    private long l;
+    private float f;
+    private double d;
+    private Integer boxed;
+
+    @SerializedName(
+        value = "renamed",
+        alternate = {"alt"})
+    private String string;
+
+    private int[] array;
+    private List<String> list;
+    private WithFields self;
+    private Marker marker;
+  }
+
+  private static WithFields createWithFields() {
+    WithFields o = new WithFields();
+    o.baseInt = -3;
+    o.baseString = "base";
+    o.b = true;
+    o.by = 1;
+    o.c = 'x';
+    o.s = 2;
+    o.i = 3;
+    o.l = 4;
+    o.f = 5.5f;
+    o.d = 6.5;
+    o.boxed = 7;
+    o.string = "str";
+    o.array = new int[] {1, 2};
+    o.list = Arrays.asList("a", "b");
+    o.self = o;
+    o.marker = new Marker();
+    o.marker.value = "m";
+    return o;
+  }
+
+  private static final String WITH_FIELDS_JSON =
+      "{\"b\":true,\"by\":1,\"c\":\"x\",\"s\":2,\"i\":3,\"l\":4,\"f\":5.5,\"d\":6.5,\"boxed\":7,"
+          + "\"renamed\":\"str\",\"array\":[1,2],\"list\":[\"a\",\"b\"],\"marker\":\"m\","
+          + "\"baseInt\":-3,\"baseString\":\"base\"}";
+
+  private static Gson createGson(int threshold, MarkerAdapter markerAdapter) {
+    return new GsonBuilder()
+        .enableAdapterGeneration(threshold)
+        .registerTypeAdapter(Marker.class, markerAdapter)
+        .create();
+  }
+
+  @Test
+  public void testRoundTrip() {
+    // Hidden classes were added in Java 15
+    assumeTrue(Runtime.version().feature() >= 15);
+    MarkerAdapter markerAdapter = new MarkerAdapter();
+    Gson gson = createGson(0, markerAdapter);
+
+    assertThat(gson.toJson(createWithFields())).isEqualTo(WITH_FIELDS_JSON);
+    // Same output as the reflection-based adapter
+    Gson reflectiveGson =
+        new GsonBuilder().registerTypeAdapter(Marker.class, new MarkerAdapter()).create();
+    assertThat(reflectiveGson.toJson(createWithFields())).isEqualTo(WITH_FIELDS_JSON);
+
+    WithFields deserialized = gson.fromJson(WITH_FIELDS_JSON, WithFields.class);
+    assertThat(deserialized.baseInt).isEqualTo(-3);
+    assertThat(deserialized.baseString).isEqualTo("base");
+    assertThat(deserialized.b).isTrue();
+    assertThat(deserialized.by).isEqualTo((byte) 1);
+    assertThat(deserialized.c).isEqualTo('x');
+    assertThat(deserialized.s).isEqualTo((short) 2);
+    assertThat(deserialized.i).isEqualTo(3);
+    assertThat(deserialized.l).isEqualTo(4L);
+    assertThat(deserialized.f).isEqualTo(5.5f);
+    assertThat(deserialized.d).isEqualTo(6.5);
+    assertThat(deserialized.boxed).isEqualTo(7);
+    assertThat(deserialized.string).isEqualTo("str");
+    assertThat(deserialized.array).asList().containsExactly(1, 2).inOrder();
+    assertThat(deserialized.list).containsExactly("a", "b").inOrder();
+    assertThat(deserialized.self).isNull();
+    assertThat(deserialized.marker.value).isEqualTo("m");
+
+    assertThat(markerAdapter.calledByGenerated).containsExactly(true, true).inOrder();
+  }
+
+  @Test
+  public void testAlternateName() {
+    Gson gson = createGson(0, new MarkerAdapter());
+    WithFields deserialized = gson.fromJson("{\"alt\":\"value\"}", WithFields.class);
+    assertThat(deserialized.string).isEqualTo("value");
+  }
+
+  @Test
+  public void testThreshold() {
+    // Hidden classes were added in Java 15
+    assumeTrue(Runtime.version().feature() >= 15);
+    MarkerAdapter markerAdapter = new MarkerAdapter();
+    Gson gson = createGson(2, markerAdapter);
+    for (int i = 0; i < 4; i++) {
+      assertThat(gson.toJson(createWithFields())).isEqualTo(WITH_FIELDS_JSON);
+    }
+    assertThat(markerAdapter.calledByGenerated).containsExactly(false, false, true, true).inOrder();
+  }
+
+  @Test
+  public void testDisabledByDefault() {
+    MarkerAdapter markerAdapter = new MarkerAdapter();
+    Gson gson = new GsonBuilder().registerTypeAdapter(Marker.class, markerAdapter).create();
+    for (int i = 0; i < 3; i++) {
+      gson.toJson(createWithFields());
+    }
+    assertThat(markerAdapter.calledByGenerated).containsExactly(false, false, false);
+  }
+
+  @Test
+  public void testNull() {
+    Gson gson = createGson(0, new MarkerAdapter());
+    assertThat(gson.toJson(null, WithFields.class)).isEqualTo("null");
+    assertThat(gson.fromJson("null", WithFields.class)).isNull();
+
+    WithFields o = new WithFields();
+    assertThat(gson.toJson(o)).isEqualTo(new Gson().toJson(o));
+    assertThat(new GsonBuilder().enableAdapterGeneration(0).serializeNulls().create().toJson(o))
+        .isEqualTo(new GsonBuilder().serializeNulls().create().toJson(o));
+  }
+
+  @Test
+  public void testPrimitiveNullIgnored() {
+    Gson gson = createGson(0, new MarkerAdapter());
+    WithFields deserialized = gson.fromJson("{\"i\":null,\"boxed\":null}", WithFields.class);
+    assertThat(deserialized.i).isEqualTo(0);
+    assertThat(deserialized.boxed).isNull();
+  }
+
+  @Test
+  public void testPrimitiveValues() {
+    Gson gson = createGson(0, new MarkerAdapter());
+    WithFields deserialized =
+        gson.fromJson(
+            "{\"b\":\"true\",\"i\":\"3\",\"l\":-9223372036854775808,\"f\":1.1,\"d\":\"NaN\"}",
+            WithFields.class);
+    assertThat(deserialized.b).isTrue();
+    assertThat(deserialized.i).isEqualTo(3);
+    assertThat(deserialized.l).isEqualTo(Long.MIN_VALUE);
+    assertThat(deserialized.f).isEqualTo(1.1f);
+    assertThat(deserialized.d).isNaN();
+
+    for (String json : new String[] {"{\"i\":1.5}", "{\"i\":2147483648}", "{\"l\":\"a\"}"}) {
+      JsonSyntaxException e =
+          assertThrows(JsonSyntaxException.class, () -> gson.fromJson(json, WithFields.class));
+      assertThat(e).hasCauseThat().isInstanceOf(NumberFormatException.class);
+    }
+
+    // Non-finite values are rejected unless enabled, like by the reflection-based adapter
+    WithFields o = new WithFields();
+    o.d = Double.NaN;
+    IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> gson.toJson(o));
+    assertThat(e)
+        .hasMessageThat()
+        .isEqualTo(
+            "NaN is not a valid double value as per JSON specification. To override this"
+                + " behavior, use GsonBuilder.serializeSpecialFloatingPointValues() method.");
+    Gson specialValuesGson =
+        new GsonBuilder().enableAdapterGeneration(0).serializeSpecialFloatingPointValues().create();
+    assertThat(specialValuesGson.toJson(o)).contains("\"d\":NaN");
+  }
+
+  @Test
+  public void testCustomPrimitiveAdapter() {
+    TypeAdapter<Integer> intAdapter =
+        new TypeAdapter<Integer>() {
+          @Override
+          public void write(JsonWriter out, Integer value) throws IOException {
+            out.value("int " + value);
+          }
+
+          @Override
+          public Integer read(JsonReader in) throws IOException {
+            return Integer.parseInt(in.nextString().substring(4));
+          }
+        };
+    Gson gson =
+        new GsonBuilder()
+            .enableAdapterGeneration(0)
+            .registerTypeAdapter(int.class, intAdapter)
+            // Used for serialization, which considers the runtime type
+            .registerTypeAdapter(Integer.class, intAdapter)
+            .create();
+    Base o = new Base();
+    o.baseInt = 2;
+    assertThat(gson.toJson(o)).isEqualTo("{\"baseInt\":\"int 2\"}");
+    assertThat(gson.fromJson("{\"baseInt\":\"int 3\"}", Base.class).baseInt).isEqualTo(3);
+  }
+
+  @Test
+  public void testUnknownPropertySkipped() {
+    Gson gson = createGson(0, new MarkerAdapter());
+    WithFields deserialized =
+        gson.fromJson("{\"unknown\":{\"i\":1},\"i\":2,\"other\":[3]}", WithFields.class);
+    assertThat(deserialized.i).isEqualTo(2);
+  }
+
+  @Test
+  public void testIllegalStateException() {
+    Gson gson = createGson(0, new MarkerAdapter());
+    JsonSyntaxException e =
+        assertThrows(
+            JsonSyntaxException.class, () -> gson.fromJson("{\"i\":[]}", WithFields.class));
+    assertThat(e).hasCauseThat().isInstanceOf(IllegalStateException.class);
+
+    e = assertThrows(JsonSyntaxException.class, () -> gson.fromJson("[]", WithFields.class));
+    assertThat(e).hasCauseThat().isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  public void testInstanceCreator() {
+    Gson gson =
+        new GsonBuilder()
+            .enableAdapterGeneration(0)
+            .registerTypeAdapter(
+                Base.class,
+                (InstanceCreator<Base>)
+                    type -> {
+                      Base base = new Base();
+                      base.baseString = "created";
+                      return base;
+                    })
+            .create();
+    Base deserialized = gson.fromJson("{\"baseInt\":1}", Base.class);
+    assertThat(deserialized.baseInt).isEqualTo(1);
+    assertThat(deserialized.baseString).isEqualTo("created");
+  }
+
+  @SuppressWarnings("unused")
+  private static class WithFinalField {
+    final Marker marker = new Marker();
+    int i;
+  }
+
+  @Test
+  public void testFallbackFinalField() {
+    MarkerAdapter markerAdapter = new MarkerAdapter();
+    Gson gson = createGson(0, markerAdapter);
+    WithFinalField deserialized = gson.fromJson("{\"i\":1,\"marker\":\"m\"}", WithFinalField.class);
+    assertThat(deserialized.i).isEqualTo(1);
+    assertThat(markerAdapter.calledByGenerated).containsExactly(false);
+  }
+
+  public static class PublicFields {
+    public Marker marker;
+  }
+
+  @Test
+  public void testFallbackReflectionAccessFilter() {
+    MarkerAdapter markerAdapter = new MarkerAdapter();
+    Gson gson =
+        new GsonBuilder()
+            .enableAdapterGeneration(0)
+            .registerTypeAdapter(Marker.class, markerAdapter)
+            .addReflectionAccessFilter(c -> ReflectionAccessFilter.FilterResult.BLOCK_INACCESSIBLE)
+            .create();
+    PublicFields o = new PublicFields();
+    o.marker = new Marker();
+    o.marker.value = "m";
+    // Uses the reflection-based adapter, which performs access checks
+    assertThat(gson.toJson(o)).isEqualTo("{\"marker\":\"m\"}");
+    assertThat(markerAdapter.calledByGenerated).containsExactly(false);
+  }
+
+  @Test
+  public void testNegativeThreshold() {
+    GsonBuilder builder = new GsonBuilder();
+    IllegalArgumentException e =
+        assertThrows(IllegalArgumentException.class, () -> builder.enableAdapterGeneration(-1));
+    assertThat(e).hasMessageThat().isEqualTo("Invalid threshold: -1");
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.functional;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.gson.FieldAccessStrategy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
+import com.google.gson.ReflectionAccessFilter;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+/** Functional tests for {@link GsonBuilder#setFieldAccessStrategy(FieldAccessStrategy)}. */
+public class FieldAccessStrategyTest {
+  private final Gson gson =
+      new GsonBuilder().setFieldAccessStrategy(FieldAccessStrategy.GENERATED_ACCESSORS).create();
+
+  @SuppressWarnings("unused")
+  private static class Base {
+    private int baseValue;
+  }
+
+  @SuppressWarnings("unused")
+  private static class AllTypes extends Base {
+    private boolean z;
+    private byte b;
+    private char c;
+    private short s;
+    private int i;
+    private long j;
+    private float f;
+    private double d;
+    private Integer boxed;
+    private String string;
+    private List<String> list;
+  }
+
+  @Test
+  public void testRoundTrip() {
+    String json =
+        "{\"z\":true,\"b\":-1,\"c\":\"x\",\"s\":2,\"i\":3,\"j\":4,\"f\":5.5,\"d\":6.5,"
+            + "\"boxed\":7,\"string\":\"text\",\"list\":[\"a\",\"b\"],\"baseValue\":8}";
+    AllTypes value = gson.fromJson(json, AllTypes.class);
+    assertThat(value.z).isTrue();
+    assertThat(value.b).isEqualTo(-1);
+    assertThat(value.c).isEqualTo('x');
+    assertThat(value.s).isEqualTo(2);
+    assertThat(value.i).isEqualTo(3);
+    assertThat(value.j).isEqualTo(4);
+    assertThat(value.f).isEqualTo(5.5f);
+    assertThat(value.d).isEqualTo(6.5);
+    assertThat(value.boxed).isEqualTo(7);
+    assertThat(value.string).isEqualTo("text");
+    assertThat(value.list).isEqualTo(Arrays.asList("a", "b"));
+    assertThat(((Base) value).baseValue).isEqualTo(8);
+
+    assertThat(gson.toJson(value)).isEqualTo(json);
+    assertThat(gson.toJson(value)).isEqualTo(new Gson().toJson(value));
+  }
+
+  @Test
+  public void testNullForPrimitiveIsIgnored() {
+    AllTypes value = gson.fromJson("{\"i\":null,\"boxed\":null}", AllTypes.class);
+    assertThat(value.i).isEqualTo(0);
+    assertThat(value.boxed).isNull();
+  }
+
+  @SuppressWarnings("unused")
+  private static class StaticFinal {
+    static final int VALUE = 1;
+  }
+
+  @Test
+  public void testStaticFinalField() {
+    Gson gson =
+        new GsonBuilder()
+            .setFieldAccessStrategy(FieldAccessStrategy.GENERATED_ACCESSORS)
+            .excludeFieldsWithModifiers(Modifier.TRANSIENT)
+            .create();
+    assertThat(gson.toJson(new StaticFinal())).isEqualTo("{\"VALUE\":1}");
+    JsonIOException e =
+        assertThrows(
+            JsonIOException.class, () -> gson.fromJson("{\"VALUE\":2}", StaticFinal.class));
+    assertThat(e)
+        .hasMessageThat()
+        .isEqualTo(
+            "Cannot set value of 'static final' field"
+                + " 'com.google.gson.functional.FieldAccessStrategyTest$StaticFinal#VALUE'");
+  }
+
+  @SuppressWarnings("unused")
+  public static class PublicFields {
+    public int i;
+    private int hidden;
+  }
+
+  @Test
+  public void testBlockInaccessible() {
+    Gson gson =
+        new GsonBuilder()
+            .setFieldAccessStrategy(FieldAccessStrategy.GENERATED_ACCESSORS)
+            .addReflectionAccessFilter(
+                c ->
+                    c == PublicFields.class
+                        ? ReflectionAccessFilter.FilterResult.BLOCK_INACCESSIBLE
+                        : ReflectionAccessFilter.FilterResult.INDECISIVE)
+            .create();
+    JsonIOException e = assertThrows(JsonIOException.class, () -> gson.toJson(new PublicFields()));
+    assertThat(e).hasMessageThat().contains("PublicFields#hidden' is not accessible");
+  }
+
+  @Test
+  public void testNewBuilder() {
+    Gson copy = gson.newBuilder().create();
+    AllTypes value = copy.fromJson("{\"j\":9}", AllTypes.class);
+    assertThat(value.j).isEqualTo(9);
+  }
+}
@@ -17,6 +17,7 @@
 package com.google.gson.functional;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.fail;
 
 import com.google.gson.ExclusionStrategy;
@@ -30,6 +31,7 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
 import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSerializer;
+import com.google.gson.JsonSyntaxException;
 import com.google.gson.common.TestTypes.ArrayOfObjects;
 import com.google.gson.common.TestTypes.BagOfPrimitiveWrappers;
 import com.google.gson.common.TestTypes.BagOfPrimitives;
@@ -146,6 +148,48 @@ public class ObjectTest {
     assertThat(target.transientLongValue).isEqualTo(1);
   }
 
+  @Test
+  public void testUnknownFieldsDeserialization() {
+    String json =
+        "{\"unknown\":{\"a\":[1.5e3, -0, \"]}\\\"\", true, null],\n\"b\":{}},\"intValue\":3}";
+    BagOfPrimitives target = gson.fromJson(json, BagOfPrimitives.class);
+    assertThat(target.intValue).isEqualTo(3);
+  }
+
+  @Test
+  public void testUnknownFieldsDeserializationMalformed() {
+    // Skipped values are validated, even though Gson reads them leniently by default
+    JsonSyntaxException e =
+        assertThrows(
+            JsonSyntaxException.class,
+            () -> gson.fromJson("{\"unknown\":{\"a\":1 \"b\":2}}", BagOfPrimitives.class));
+    assertThat(e)
+        .hasMessageThat()
+        .startsWith(
+            "com.google.gson.stream.MalformedJsonException: Unterminated object at line 1 column 20"
+                + " path $.unknown.");
+
+    e =
+        assertThrows(
+            JsonSyntaxException.class,
+            () -> gson.fromJson("{\"unknown\":{\"a\" 1}}", BagOfPrimitives.class));
+    assertThat(e)
+        .hasMessageThat()
+        .startsWith(
+            "com.google.gson.stream.MalformedJsonException: Expected ':' at line 1 column 18"
+                + " path $.unknown.");
+
+    e =
+        assertThrows(
+            JsonSyntaxException.class,
+            () -> gson.fromJson("{\"unknown\":[[1], [2 3]]}", BagOfPrimitives.class));
+    assertThat(e)
+        .hasMessageThat()
+        .startsWith(
+            "com.google.gson.stream.MalformedJsonException: Unterminated array at line 1 column 22"
+                + " path $.unknown[0][0]");
+  }
+
   @Test
   public void testClassWithNoFieldsSerialization() {
     assertThat(gson.toJson(new ClassWithNoFields())).isEqualTo("{}");
@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.functional;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.gson.FieldAccessStrategy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.LongSerializationPolicy;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+/**
+ * Functional tests for fields of primitive type, which are read and written without boxing their
+ * values when they use the built-in adapters.
+ */
+@RunWith(Parameterized.class)
+public class PrimitiveFieldsTest {
+  @Parameterized.Parameters(name = "{0}")
+  public static FieldAccessStrategy[] getStrategies() {
+    return FieldAccessStrategy.values();
+  }
+
+  @Parameterized.Parameter public FieldAccessStrategy strategy;
+
+  private GsonBuilder builder() {
+    return new GsonBuilder().setFieldAccessStrategy(strategy);
+  }
+
+  private static class Primitives {
+    boolean z;
+    byte b;
+    char c;
+    short s;
+    int i;
+    long j;
+    float f;
+    double d;
+  }
+
+  private static final String JSON =
+      "{\"z\":true,\"b\":-1,\"c\":\"x\",\"s\":-300,\"i\":70000,\"j\":9007199254740993,"
+          + "\"f\":1.5,\"d\":-2.25}";
+
+  @Test
+  public void testRoundTrip() {
+    Gson gson = builder().create();
+    Primitives value = gson.fromJson(JSON, Primitives.class);
+    assertThat(value.z).isTrue();
+    assertThat(value.b).isEqualTo(-1);
+    assertThat(value.c).isEqualTo('x');
+    assertThat(value.s).isEqualTo(-300);
+    assertThat(value.i).isEqualTo(70000);
+    assertThat(value.j).isEqualTo(9007199254740993L);
+    assertThat(value.f).isEqualTo(1.5f);
+    assertThat(value.d).isEqualTo(-2.25);
+    assertThat(gson.toJson(value)).isEqualTo(JSON);
+    assertThat(gson.toJsonTree(value)).isEqualTo(JsonParser.parseString(JSON));
+    assertThat(gson.fromJson(JsonParser.parseString(JSON), Primitives.class).j)
+        .isEqualTo(9007199254740993L);
+  }
+
+  @Test
+  public void testNullsAreIgnored() {
+    Gson gson = builder().create();
+    Primitives value =
+        gson.fromJson(
+            "{\"z\":null,\"b\":null,\"c\":null,\"s\":null,\"i\":null,\"j\":null}",
+            Primitives.class);
+    assertThat(value.z).isFalse();
+    assertThat(value.i).isEqualTo(0);
+    assertThat(value.j).isEqualTo(0);
+  }
+
+  @Test
+  public void testLenientValues() {
+    Gson gson = builder().create();
+    Primitives value =
+        gson.fromJson(
+            "{\"z\":\"TRUE\",\"b\":255,\"s\":\"65535\",\"i\":\"12\",\"j\":1e3}", Primitives.class);
+    assertThat(value.z).isTrue();
+    assertThat(value.b).isEqualTo(-1);
+    assertThat(value.s).isEqualTo(-1);
+    assertThat(value.i).isEqualTo(12);
+    assertThat(value.j).isEqualTo(1000);
+  }
+
+  @Test
+  public void testInvalidValues() {
+    Gson gson = builder().create();
+    JsonSyntaxException e =
+        assertThrows(
+            JsonSyntaxException.class, () -> gson.fromJson("{\"b\":256}", Primitives.class));
+    assertThat(e).hasMessageThat().isEqualTo("Lossy conversion from 256 to byte; at path $.b");
+
+    e =
+        assertThrows(
+            JsonSyntaxException.class, () -> gson.fromJson("{\"c\":\"ab\"}", Primitives.class));
+    assertThat(e).hasMessageThat().isEqualTo("Expecting character, got: ab; at $.c");
+
+    e =
+        assertThrows(
+            JsonSyntaxException.class, () -> gson.fromJson("{\"i\":1.5}", Primitives.class));
+    assertThat(e).hasCauseThat().isInstanceOf(NumberFormatException.class);
+
+    e =
+        assertThrows(
+            JsonSyntaxException.class, () -> gson.fromJson("{\"j\":[]}", Primitives.class));
+    assertThat(e).hasCauseThat().isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  public void testSpecialFloatingPointValues() {
+    Primitives value = new Primitives();
+    value.d = Double.NaN;
+    Gson gson = builder().create();
+    IllegalArgumentException e =
+        assertThrows(IllegalArgumentException.class, () -> gson.toJson(value));
+    assertThat(e)
+        .hasMessageThat()
+        .isEqualTo(
+            "NaN is not a valid double value as per JSON specification. To override this"
+                + " behavior, use GsonBuilder.serializeSpecialFloatingPointValues() method.");
+
+    value.d = 0;
+    value.f = Float.NEGATIVE_INFINITY;
+    assertThrows(IllegalArgumentException.class, () -> gson.toJson(value));
+
+    Gson specialGson = builder().serializeSpecialFloatingPointValues().create();
+    assertThat(specialGson.toJson(value)).contains("\"f\":-Infinity,\"d\":0.0");
+  }
+
+  @Test
+  public void testLongSerializationPolicy() {
+    Gson gson = builder().setLongSerializationPolicy(LongSerializationPolicy.STRING).create();
+    Primitives value = new Primitives();
+    value.j = 5;
+    assertThat(gson.toJson(value)).contains("\"j\":\"5\"");
+  }
+
+  private static final TypeAdapter<Integer> PLUS_ONE =
+      new TypeAdapter<Integer>() {
+        @Override
+        public void write(JsonWriter out, Integer value) throws IOException {
+          out.value(value + 1);
+        }
+
+        @Override
+        public Integer read(JsonReader in) throws IOException {
+          return in.nextInt() + 1;
+        }
+      };
+
+  @Test
+  public void testRegisteredAdapters() {
+    Primitives value = new Primitives();
+    value.i = 1;
+
+    // For serialization the adapter for the wrapper type is used, based on the runtime type
+    Gson primitiveGson = builder().registerTypeAdapter(int.class, PLUS_ONE).create();
+    assertThat(primitiveGson.toJson(value)).contains("\"i\":1");
+    assertThat(primitiveGson.fromJson("{\"i\":1}", Primitives.class).i).isEqualTo(2);
+
+    Gson wrapperGson = builder().registerTypeAdapter(Integer.class, PLUS_ONE).create();
+    assertThat(wrapperGson.toJson(value)).contains("\"i\":2");
+    assertThat(wrapperGson.fromJson("{\"i\":1}", Primitives.class).i).isEqualTo(1);
+  }
+
+  private static class PlusOneAdapter extends TypeAdapter<Integer> {
+    @Override
+    public void write(JsonWriter out, Integer value) throws IOException {
+      PLUS_ONE.write(out, value);
+    }
+
+    @Override
+    public Integer read(JsonReader in) throws IOException {
+      return PLUS_ONE.read(in);
+    }
+  }
+
+  private static class Annotated {
+    @JsonAdapter(PlusOneAdapter.class)
+    int i;
+  }
+
+  @Test
+  public void testJsonAdapterAnnotation() {
+    Gson gson = builder().create();
+    Annotated value = new Annotated();
+    value.i = 1;
+    assertThat(gson.toJson(value)).isEqualTo("{\"i\":2}");
+    assertThat(gson.fromJson("{\"i\":1}", Annotated.class).i).isEqualTo(2);
+  }
+
+  /** Custom writers which do not override {@code value(float)} still get a {@code Float}. */
+  @Test
+  public void testCustomWriterFloat() throws IOException {
+    StringWriter output = new StringWriter();
+    JsonWriter writer =
+        new JsonWriter(output) {
+          @Override
+          public JsonWriter value(Number value) throws IOException {
+            assertThat(value).isInstanceOf(Float.class);
+            return super.value(value);
+          }
+        };
+    Primitives value = new Primitives();
+    value.f = 2.5f;
+    builder().create().toJson(value, Primitives.class, writer);
+    JsonObject json = JsonParser.parseString(output.toString()).getAsJsonObject();
+    assertThat(json.get("f").getAsFloat()).isEqualTo(2.5f);
+  }
+}
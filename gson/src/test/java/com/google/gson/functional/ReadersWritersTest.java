@@ -189,10 +189,12 @@ public class ReadersWritersTest {
     }
 
     CustomAppendable appendable = new CustomAppendable();
-    gson.toJson(Arrays.asList("test", 123, true), appendable);
+    // JsonWriter buffers its output, so use a string which does not fit into a single buffer
+    String longString = "test".repeat(2000);
+    gson.toJson(Arrays.asList(longString, 123, true), appendable);
     // Make sure CharSequence.toString() was called at least two times to verify that
     // CurrentWrite.cachedString is properly overwritten when char array changes
     assertThat(appendable.toStringCallCount).isAtLeast(2);
-    assertThat(appendable.stringBuilder.toString()).isEqualTo("[\"test\",123,true]");
+    assertThat(appendable.stringBuilder.toString()).isEqualTo("[\"" + longString + "\",123,true]");
   }
 }
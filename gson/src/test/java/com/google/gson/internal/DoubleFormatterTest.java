@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class DoubleFormatterTest {
+  /** Whether {@link Double#toString(double)} uses the shortest representation (JDK 19 and newer) */
+  private static final boolean JDK_IS_SHORTEST =
+      !Double.toString(Double.parseDouble("1e23")).equals("9.999999999999999E22");
+
+  private static void assertRoundTrip(double value) {
+    String string = DoubleFormatter.toString(value);
+    String jdkString = Double.toString(value);
+    assertWithMessage(jdkString).that(Double.parseDouble(string)).isEqualTo(value);
+    if (JDK_IS_SHORTEST) {
+      assertThat(string).isEqualTo(jdkString);
+    } else {
+      // Same format, but older JDKs sometimes use more digits than necessary
+      assertWithMessage(jdkString).that(string.length()).isAtMost(jdkString.length());
+      assertWithMessage(jdkString).that(string.contains("E")).isEqualTo(jdkString.contains("E"));
+    }
+  }
+
+  @Test
+  public void testSpecialValues() {
+    assertThat(DoubleFormatter.toString(0.0)).isEqualTo("0.0");
+    assertThat(DoubleFormatter.toString(-0.0)).isEqualTo("-0.0");
+    assertThat(DoubleFormatter.toString(Double.NaN)).isEqualTo("NaN");
+    assertThat(DoubleFormatter.toString(Double.POSITIVE_INFINITY)).isEqualTo("Infinity");
+    assertThat(DoubleFormatter.toString(Double.NEGATIVE_INFINITY)).isEqualTo("-Infinity");
+    assertThat(DoubleFormatter.toString(Double.MAX_VALUE)).isEqualTo("1.7976931348623157E308");
+    assertThat(DoubleFormatter.toString(Double.MIN_VALUE)).isEqualTo("4.9E-324");
+    assertThat(DoubleFormatter.toString(-Double.MIN_NORMAL)).isEqualTo("-2.2250738585072014E-308");
+  }
+
+  @Test
+  public void testFormat() {
+    assertThat(DoubleFormatter.toString(1)).isEqualTo("1.0");
+    assertThat(DoubleFormatter.toString(-100)).isEqualTo("-100.0");
+    assertThat(DoubleFormatter.toString(123.456)).isEqualTo("123.456");
+    assertThat(DoubleFormatter.toString(1234567)).isEqualTo("1234567.0");
+    assertThat(DoubleFormatter.toString(1e7)).isEqualTo("1.0E7");
+    assertThat(DoubleFormatter.toString(12345678.9)).isEqualTo("1.23456789E7");
+    assertThat(DoubleFormatter.toString(0.001)).isEqualTo("0.001");
+    assertThat(DoubleFormatter.toString(0.00123)).isEqualTo("0.00123");
+    assertThat(DoubleFormatter.toString(1e-4)).isEqualTo("1.0E-4");
+    assertThat(DoubleFormatter.toString(0.1)).isEqualTo("0.1");
+    assertThat(DoubleFormatter.toString(1e100)).isEqualTo("1.0E100");
+    // Shortest representation, which older JDKs do not use
+    assertThat(DoubleFormatter.toString(Double.parseDouble("2e23"))).isEqualTo("2.0E23");
+    assertThat(DoubleFormatter.toString(Double.parseDouble("1e23"))).isEqualTo("1.0E23");
+  }
+
+  @Test
+  public void testFormatAtOffset() {
+    char[] chars = new char[DoubleFormatter.MAX_LENGTH + 2];
+    chars[0] = '[';
+    int end = DoubleFormatter.format(-2.5e-300, chars, 1);
+    chars[end] = ']';
+    assertThat(new String(chars, 0, end + 1)).isEqualTo("[-2.5E-300]");
+  }
+
+  @Test
+  public void testRoundTripPowersOfTwoAndTen() {
+    for (int e = -1074; e <= 1023; e++) {
+      double value = Math.scalb(1.0, e);
+      assertRoundTrip(value);
+      assertRoundTrip(Math.nextUp(value));
+      assertRoundTrip(Math.nextDown(value));
+    }
+    for (int e = -323; e <= 308; e++) {
+      double value = Double.parseDouble("1e" + e);
+      assertRoundTrip(value);
+      assertRoundTrip(Math.nextUp(value));
+      assertRoundTrip(Math.nextDown(value));
+    }
+    for (long bits = 1; bits < 1000; bits++) {
+      // Subnormal values
+      assertRoundTrip(Double.longBitsToDouble(bits));
+    }
+  }
+
+  @Test
+  public void testRoundTripRandom() {
+    Random random = new Random(7934682345L);
+    for (int i = 0; i < 1_000_000; i++) {
+      double value = Double.longBitsToDouble(random.nextLong());
+      if (!Double.isNaN(value) && !Double.isInfinite(value)) {
+        assertRoundTrip(value);
+      }
+      assertRoundTrip(random.nextDouble() * Math.pow(10, random.nextInt(30) - 15));
+      // Values with few digits
+      assertRoundTrip(random.nextInt(100_000) / 1000.0);
+    }
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.Utf8JsonReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.Test;
+
+public class DoubleParserTest {
+  /**
+   * Asserts that the fast paths either produce the same result as the JDK, or report that they
+   * cannot handle the number.
+   */
+  private static void assertParsed(String number) {
+    long expected = Double.doubleToRawLongBits(Double.parseDouble(number));
+    double parsed = DoubleParser.parse(number.toCharArray(), 0, number.length());
+    if (!Double.isNaN(parsed)) {
+      assertWithMessage(number).that(Double.doubleToRawLongBits(parsed)).isEqualTo(expected);
+    }
+    double parsedBytes =
+        DoubleParser.parse(number.getBytes(StandardCharsets.US_ASCII), 0, number.length());
+    assertWithMessage(number)
+        .that(Double.doubleToRawLongBits(parsedBytes))
+        .isEqualTo(Double.doubleToRawLongBits(parsed));
+  }
+
+  private static double parse(String number) {
+    return DoubleParser.parse(number.toCharArray(), 0, number.length());
+  }
+
+  @Test
+  public void testParse() {
+    assertThat(parse("0")).isEqualTo(0.0);
+    assertThat(parse("-0")).isEqualTo(-0.0);
+    assertThat(parse("-0.0e5")).isEqualTo(-0.0);
+    assertThat(parse("1")).isEqualTo(1.0);
+    assertThat(parse("-12.5")).isEqualTo(-12.5);
+    assertThat(parse("0.1")).isEqualTo(0.1);
+    assertThat(parse("1E+2")).isEqualTo(100.0);
+    assertThat(parse("123e-2")).isEqualTo(1.23);
+    assertThat(parse("1.7976931348623157e308")).isEqualTo(Double.MAX_VALUE);
+    assertThat(parse("9007199254740994")).isEqualTo(9007199254740994.0);
+    assertThat(parse("0.000000000000000000000000000001")).isEqualTo(1e-30);
+    assertThat(parse("1e00000000000000000000000001")).isEqualTo(10.0);
+  }
+
+  @Test
+  public void testNotHandled() {
+    // More than 19 significant digits
+    assertThat(parse("12345678901234567890")).isNaN();
+    // Exactly halfway between two doubles
+    assertThat(parse("9007199254740993")).isNaN();
+    // Out of range, or subnormal
+    assertThat(parse("1e400")).isNaN();
+    assertThat(parse("1e-400")).isNaN();
+    assertThat(parse("4.9e-324")).isNaN();
+    assertThat(parse("1e99999999999")).isNaN();
+  }
+
+  @Test
+  public void testEdgeCases() {
+    String[] numbers = {
+      "1.7976931348623158e308",
+      "1.7976931348623159e308",
+      "2.2250738585072014e-308",
+      "2.2250738585072011e-308",
+      "2.2250738585072012e-308",
+      "9007199254740993",
+      "9007199254740995",
+      "9223372036854775807",
+      "9223372036854775808",
+      "18446744073709551615",
+      "1844674407370955161",
+      "7.2057594037927933e16",
+      "0.30000000000000004",
+      "1e23",
+      "8.98846567431158e307",
+      "1.1754943508222875e-38",
+    };
+    for (String number : numbers) {
+      assertParsed(number);
+      assertParsed("-" + number);
+    }
+    for (int e = -350; e <= 350; e++) {
+      assertParsed("1e" + e);
+      assertParsed("9.999999999999999e" + e);
+      assertParsed("5e" + e);
+    }
+  }
+
+  @Test
+  public void testRoundTripRandom() {
+    Random random = new Random(2873465234L);
+    for (int i = 0; i < 500_000; i++) {
+      double value = Double.longBitsToDouble(random.nextLong());
+      if (!Double.isNaN(value) && !Double.isInfinite(value)) {
+        assertParsed(Double.toString(value));
+        assertParsed(DoubleFormatter.toString(value));
+      }
+      assertParsed(Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(40) - 20)));
+
+      // Random decimal digits, with random decimal point and exponent
+      StringBuilder number = new StringBuilder();
+      if (random.nextBoolean()) {
+        number.append('-');
+      }
+      number.append((char) ('1' + random.nextInt(9)));
+      int digits = random.nextInt(19);
+      for (int d = 0; d < digits; d++) {
+        number.append((char) ('0' + random.nextInt(10)));
+      }
+      if (random.nextBoolean()) {
+        number.append('.').append(random.nextInt(1000));
+      }
+      if (random.nextBoolean()) {
+        number.append('e').append(random.nextInt(700) - 350);
+      }
+      assertParsed(number.toString());
+    }
+  }
+
+  @Test
+  public void testJsonReaders() throws IOException {
+    String json = "[0.1, -2.5e-3, 1e400, 12345678901234567890.5, 3]";
+    double[] expected = {
+      0.1, -2.5e-3, Double.POSITIVE_INFINITY, Double.parseDouble("12345678901234567890.5"), 3
+    };
+
+    JsonReader reader = new JsonReader(new StringReader(json));
+    JsonReader utf8Reader =
+        new Utf8JsonReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    for (JsonReader r : new JsonReader[] {reader, utf8Reader}) {
+      r.setStrictness(Strictness.LENIENT);
+      r.beginArray();
+      for (double value : expected) {
+        assertThat(r.nextDouble()).isEqualTo(value);
+      }
+      r.endArray();
+    }
+  }
+}
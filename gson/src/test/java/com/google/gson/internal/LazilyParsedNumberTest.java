@@ -51,4 +51,21 @@ public class LazilyParsedNumberTest {
     Number deserialized = (Number) objIn.readObject();
     assertThat(deserialized).isEqualTo(new BigDecimal("123"));
   }
+
+  @Test
+  public void testNumberValues() {
+    String[] values = {"0", "-1", "2147483648", "-9223372036854775809", "1.5", "-2.5e3", "1e30"};
+    for (String value : values) {
+      LazilyParsedNumber number = new LazilyParsedNumber(value);
+      BigDecimal expected = new BigDecimal(value);
+      // Repeated calls return the cached values
+      for (int i = 0; i < 2; i++) {
+        assertThat(number.intValue()).isEqualTo(expected.intValue());
+        assertThat(number.longValue()).isEqualTo(expected.longValue());
+        assertThat(number.doubleValue()).isEqualTo(Double.parseDouble(value));
+        assertThat(number.floatValue()).isEqualTo(Float.parseFloat(value));
+      }
+      assertThat(number.toString()).isEqualTo(value);
+    }
+  }
 }
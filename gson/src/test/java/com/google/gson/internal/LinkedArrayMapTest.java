@@ -0,0 +1,299 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.gson.common.MoreAsserts;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import org.junit.Test;
+
+public final class LinkedArrayMapTest {
+
+  @Test
+  public void testIterationOrder() {
+    LinkedArrayMap<String> map = new LinkedArrayMap<>();
+    map.put("a", "android");
+    map.put("c", "cola");
+    map.put("b", "bbq");
+    assertThat(map.keySet()).containsExactly("a", "c", "b").inOrder();
+    assertThat(map.values()).containsExactly("android", "cola", "bbq").inOrder();
+
+    // Replacing value keeps position
+    assertThat(map.put("a", "apple")).isEqualTo("android");
+    assertThat(map.keySet()).containsExactly("a", "c", "b").inOrder();
+    assertThat(map.get("a")).isEqualTo("apple");
+  }
+
+  @Test
+  public void testPutNull() {
+    LinkedArrayMap<String> map = new LinkedArrayMap<>();
+    NullPointerException e = assertThrows(NullPointerException.class, () -> map.put(null, "a"));
+    assertThat(e).hasMessageThat().isEqualTo("key == null");
+
+    e = assertThrows(NullPointerException.class, () -> map.put("a", null));
+    assertThat(e).hasMessageThat().isEqualTo("value == null");
+    assertThat(map).isEmpty();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <V> Map<Object, V> asObjectKeyMap(Map<String, V> map) {
+    return (Map<Object, V>) (Map<?, V>) map;
+  }
+
+  @Test
+  public void testGetNonStringKey() {
+    Map<Object, String> map = asObjectKeyMap(new LinkedArrayMap<String>());
+    map.put("1", "one");
+    assertThat(map.get(1)).isNull();
+    assertThat(map.get(null)).isNull();
+    assertThat(map.containsKey(1)).isFalse();
+    assertThat(map.remove(1)).isNull();
+  }
+
+  @Test
+  public void testIteratorRemove() {
+    LinkedArrayMap<String> map = new LinkedArrayMap<>();
+    map.put("a", "android");
+    map.put("c", "cola");
+    map.put("b", "bbq");
+    Iterator<Entry<String, String>> it = map.entrySet().iterator();
+    it.next();
+    it.next();
+    it.remove();
+    assertThrows(IllegalStateException.class, it::remove);
+    assertThat(it.next().getKey()).isEqualTo("b");
+    assertThat(it.hasNext()).isFalse();
+    assertThat(map.keySet()).containsExactly("a", "b").inOrder();
+
+    // Re-adding removed key appends it
+    map.put("c", "cake");
+    assertThat(map.keySet()).containsExactly("a", "b", "c").inOrder();
+  }
+
+  @Test
+  public void testIteratorRemoveAll() {
+    LinkedArrayMap<String> map = new LinkedArrayMap<>();
+    for (int i = 0; i < 20; i++) {
+      map.put("key" + i, "value" + i);
+    }
+    Iterator<String> it = map.keySet().iterator();
+    while (it.hasNext()) {
+      it.next();
+      it.remove();
+    }
+    assertThat(map).isEmpty();
+    assertThat(map.get("key1")).isNull();
+
+    map.put("new", "value");
+    assertThat(map).containsExactly("new", "value");
+  }
+
+  @Test
+  public void testConcurrentModification() {
+    LinkedArrayMap<String> map = new LinkedArrayMap<>();
+    map.put("a", "android");
+    map.put("b", "bbq");
+    Iterator<String> it = map.keySet().iterator();
+    it.next();
+    map.put("c", "cola");
+    assertThrows(ConcurrentModificationException.class, it::next);
+
+    // Replacing a value is not a structural modification
+    it = map.keySet().iterator();
+    it.next();
+    map.put("a", "apple");
+    assertThat(it.next()).isEqualTo("b");
+  }
+
+  @Test
+  public void testEntrySetValue() {
+    LinkedArrayMap<String> map = new LinkedArrayMap<>();
+    map.put("a", "1");
+    Entry<String, String> entry = map.entrySet().iterator().next();
+    assertThat(entry.setValue("2")).isEqualTo("1");
+    assertThat(entry.getValue()).isEqualTo("2");
+    assertThat(map.get("a")).isEqualTo("2");
+
+    NullPointerException e = assertThrows(NullPointerException.class, () -> entry.setValue(null));
+    assertThat(e).hasMessageThat().isEqualTo("value == null");
+
+    Map<String, String> expected = new HashMap<>();
+    expected.put("a", "2");
+    MoreAsserts.assertEqualsAndHashCode(entry, expected.entrySet().iterator().next());
+    assertThat(entry.toString()).isEqualTo("a=2");
+  }
+
+  @Test
+  public void testEqualsAndHashCode() {
+    LinkedArrayMap<Integer> map1 = new LinkedArrayMap<>();
+    map1.put("A", 1);
+    map1.put("B", 2);
+    map1.put("C", 3);
+    map1.put("D", 4);
+
+    LinkedArrayMap<Integer> map2 = new LinkedArrayMap<>();
+    map2.put("C", 3);
+    map2.put("B", 2);
+    map2.put("D", 4);
+    map2.put("A", 1);
+
+    MoreAsserts.assertEqualsAndHashCode(map1, map2);
+    MoreAsserts.assertEqualsAndHashCode(map1, new HashMap<>(map1));
+  }
+
+  /** Keys which all have the same {@link String#hashCode()} */
+  private static List<String> collidingKeys(int bits) {
+    List<String> keys = new ArrayList<>();
+    for (int i = 0; i < 1 << bits; i++) {
+      StringBuilder key = new StringBuilder();
+      for (int bit = 0; bit < bits; bit++) {
+        // "Aa" and "BB" have the same hash code
+        key.append((i & (1 << bit)) != 0 ? "Aa" : "BB");
+      }
+      keys.add(key.toString());
+    }
+    return keys;
+  }
+
+  @Test
+  public void testCollidingKeys() {
+    List<String> keys = collidingKeys(8);
+    assertThat(keys.get(0).hashCode()).isEqualTo(keys.get(keys.size() - 1).hashCode());
+
+    LinkedArrayMap<Integer> map = new LinkedArrayMap<>();
+    for (int i = 0; i < keys.size(); i++) {
+      map.put(keys.get(i), i);
+    }
+    assertThat(map).hasSize(keys.size());
+    assertThat(new ArrayList<>(map.keySet())).isEqualTo(keys);
+    for (int i = 0; i < keys.size(); i++) {
+      assertThat(map.get(keys.get(i))).isEqualTo(i);
+    }
+
+    for (int i = 0; i < keys.size(); i += 2) {
+      assertThat(map.remove(keys.get(i))).isEqualTo(i);
+    }
+    for (int i = 0; i < keys.size(); i++) {
+      assertThat(map.containsKey(keys.get(i))).isEqualTo(i % 2 != 0);
+    }
+  }
+
+  /** Performs random operations and compares the result with a {@link LinkedHashMap}. */
+  @Test
+  public void testRandomOperations() {
+    Random random = new Random(1367593214724L);
+    for (int run = 0; run < 20; run++) {
+      LinkedArrayMap<Integer> map = new LinkedArrayMap<>();
+      Map<String, Integer> expected = new LinkedHashMap<>();
+      // Vary the key range so that both small and large maps are covered
+      int keyRange = 1 + random.nextInt(200);
+
+      for (int i = 0; i < 2000; i++) {
+        String key = Integer.toString(random.nextInt(keyRange));
+        int operation = random.nextInt(10);
+        if (operation < 6) {
+          assertThat(map.put(key, i)).isEqualTo(expected.put(key, i));
+        } else if (operation < 9) {
+          assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+        } else {
+          assertThat(map.get(key)).isEqualTo(expected.get(key));
+        }
+        assertThat(map.size()).isEqualTo(expected.size());
+      }
+
+      assertThat(new ArrayList<>(map.entrySet())).isEqualTo(new ArrayList<>(expected.entrySet()));
+      for (String key : expected.keySet()) {
+        assertThat(map.get(key)).isEqualTo(expected.get(key));
+      }
+    }
+  }
+
+  @Test
+  public void testClear() {
+    LinkedArrayMap<String> map = new LinkedArrayMap<>();
+    for (int i = 0; i < 20; i++) {
+      map.put("key" + i, "value" + i);
+    }
+    map.clear();
+    assertThat(map).isEmpty();
+    assertThat(map.get("key1")).isNull();
+    map.put("key1", "value");
+    assertThat(map).containsExactly("key1", "value");
+  }
+
+  @Test
+  public void testFreeze() {
+    LinkedArrayMap<String> map = new LinkedArrayMap<>();
+    map.put("a", "android");
+    assertThat(map.isFrozen()).isFalse();
+    map.freeze();
+    assertThat(map.isFrozen()).isTrue();
+
+    UnsupportedOperationException e =
+        assertThrows(UnsupportedOperationException.class, () -> map.put("b", "bbq"));
+    assertThat(e).hasMessageThat().isEqualTo("Map is read-only");
+    assertThrows(UnsupportedOperationException.class, () -> map.put("a", "apple"));
+    assertThrows(UnsupportedOperationException.class, () -> map.remove("a"));
+    assertThrows(UnsupportedOperationException.class, () -> map.clear());
+    assertThrows(
+        UnsupportedOperationException.class, () -> map.entrySet().iterator().next().setValue("x"));
+    assertThat(map).containsExactly("a", "android");
+  }
+
+  @Test
+  public void testCopy() {
+    for (int size : new int[] {0, 3, 50}) {
+      LinkedArrayMap<Integer> map = new LinkedArrayMap<>();
+      for (int i = 0; i < size; i++) {
+        map.put("key" + i, i);
+      }
+      map.remove("key1");
+      map.freeze();
+
+      LinkedArrayMap<Integer> copy = new LinkedArrayMap<>(map);
+      assertThat(copy.isFrozen()).isFalse();
+      assertThat(new ArrayList<>(copy.entrySet())).isEqualTo(new ArrayList<>(map.entrySet()));
+      copy.put("new", -1);
+      assertThat(copy.get("new")).isEqualTo(-1);
+      assertThat(map.containsKey("new")).isFalse();
+      for (String key : map.keySet()) {
+        assertThat(copy.get(key)).isEqualTo(map.get(key));
+      }
+    }
+
+    // Copy of map using tree index
+    LinkedArrayMap<Integer> map = new LinkedArrayMap<>();
+    List<String> keys = collidingKeys(8);
+    for (int i = 0; i < keys.size(); i++) {
+      map.put(keys.get(i), i);
+    }
+    LinkedArrayMap<Integer> copy = new LinkedArrayMap<>(map);
+    for (int i = 0; i < keys.size(); i++) {
+      assertThat(copy.get(keys.get(i))).isEqualTo(i);
+    }
+  }
+}
@@ -154,7 +154,9 @@ public class JsonTreeReaderTest {
             "setLenient(boolean)",
             "isLenient()",
             "setStrictness(com.google.gson.Strictness)",
-            "getStrictness()");
+            "getStrictness()",
+            "setStringCache(com.google.gson.stream.StringCache)",
+            "getStringCache()");
     MoreAsserts.assertOverridesMethods(JsonReader.class, JsonTreeReader.class, ignoredMethods);
   }
 }
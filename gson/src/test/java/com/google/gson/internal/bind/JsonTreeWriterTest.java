@@ -24,8 +24,10 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonNull;
 import com.google.gson.Strictness;
 import com.google.gson.common.MoreAsserts;
+import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
 import java.io.IOException;
+import java.io.StringReader;
 import java.io.Writer;
 import java.util.Arrays;
 import java.util.List;
@@ -85,6 +87,16 @@ public final class JsonTreeWriterTest {
     assertThat(writer.get().toString()).isEqualTo("{\"A\":{\"B\":{}},\"C\":{}}");
   }
 
+  @Test
+  public void testCopyValue() throws IOException {
+    JsonReader reader = new JsonReader(new StringReader("{\"a\":[1,\"b\",null],\"c\":{}}"));
+    JsonTreeWriter writer = new JsonTreeWriter();
+    writer.beginArray();
+    writer.copyValue(reader);
+    writer.endArray();
+    assertThat(writer.get().toString()).isEqualTo("[{\"a\":[1,\"b\",null],\"c\":{}}]");
+  }
+
   @Test
   public void testWriteAfterClose() throws Exception {
     JsonTreeWriter writer = new JsonTreeWriter();
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.internal.reflect;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.gson.FieldAccessStrategy;
+import java.lang.reflect.Field;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public class FieldAccessorTest {
+  @Parameterized.Parameters(name = "{0}")
+  public static FieldAccessStrategy[] getStrategies() {
+    return FieldAccessStrategy.values();
+  }
+
+  @Parameterized.Parameter public FieldAccessStrategy strategy;
+
+  @SuppressWarnings({"unused", "NonFinalStaticField"})
+  private static class Fields {
+    private boolean z;
+    private byte b;
+    private char c;
+    private short s;
+    private int i;
+    private long j;
+    private float f;
+    private double d;
+    private String string;
+    private final int finalInt = 1;
+    private static int staticInt;
+  }
+
+  private FieldAccessor accessor(String name) throws NoSuchFieldException {
+    Field field = Fields.class.getDeclaredField(name);
+    field.setAccessible(true);
+    return FieldAccessor.create(field, strategy);
+  }
+
+  @Test
+  public void testPrimitives() throws Exception {
+    Fields target = new Fields();
+
+    accessor("z").setBoolean(target, true);
+    accessor("b").setByte(target, (byte) -2);
+    accessor("c").setChar(target, 'x');
+    accessor("s").setShort(target, (short) 300);
+    accessor("i").setInt(target, 70000);
+    accessor("j").setLong(target, Long.MAX_VALUE);
+    accessor("f").setFloat(target, 1.5f);
+    accessor("d").setDouble(target, -2.5);
+
+    assertThat(target.z).isTrue();
+    assertThat(target.b).isEqualTo(-2);
+    assertThat(target.c).isEqualTo('x');
+    assertThat(target.s).isEqualTo(300);
+    assertThat(target.i).isEqualTo(70000);
+    assertThat(target.j).isEqualTo(Long.MAX_VALUE);
+    assertThat(target.f).isEqualTo(1.5f);
+    assertThat(target.d).isEqualTo(-2.5);
+
+    assertThat(accessor("z").getBoolean(target)).isTrue();
+    assertThat(accessor("b").getByte(target)).isEqualTo(-2);
+    assertThat(accessor("c").getChar(target)).isEqualTo('x');
+    assertThat(accessor("s").getShort(target)).isEqualTo(300);
+    assertThat(accessor("i").getInt(target)).isEqualTo(70000);
+    assertThat(accessor("j").getLong(target)).isEqualTo(Long.MAX_VALUE);
+    assertThat(accessor("f").getFloat(target)).isEqualTo(1.5f);
+    assertThat(accessor("d").getDouble(target)).isEqualTo(-2.5);
+  }
+
+  @Test
+  public void testObjects() throws Exception {
+    Fields target = new Fields();
+    FieldAccessor string = accessor("string");
+    string.set(target, "value");
+    assertThat(target.string).isEqualTo("value");
+    assertThat(string.get(target)).isEqualTo("value");
+    string.set(target, null);
+    assertThat(string.get(target)).isNull();
+
+    // Boxing for primitive fields
+    FieldAccessor i = accessor("i");
+    i.set(target, 5);
+    assertThat(i.get(target)).isEqualTo(5);
+  }
+
+  @Test
+  public void testWrongTarget() throws Exception {
+    FieldAccessor i = accessor("i");
+    assertThrows(RuntimeException.class, () -> i.getInt(null));
+    assertThrows(RuntimeException.class, () -> i.get("not a Fields instance"));
+  }
+
+  @Test
+  public void testStaticField() throws Exception {
+    FieldAccessor staticInt = accessor("staticInt");
+    staticInt.setInt(null, 3);
+    assertThat(Fields.staticInt).isEqualTo(3);
+    assertThat(staticInt.getInt(null)).isEqualTo(3);
+    assertThat(staticInt.get(new Fields())).isEqualTo(3);
+  }
+
+  @Test
+  public void testFinalField() throws Exception {
+    Fields target = new Fields();
+    FieldAccessor finalInt = accessor("finalInt");
+    assertThat(finalInt.getInt(target)).isEqualTo(1);
+    finalInt.setInt(target, 2);
+    assertThat(finalInt.getInt(target)).isEqualTo(2);
+  }
+
+  @Test
+  public void testAccessorClass() throws Exception {
+    Class<?> accessorClass = accessor("i").getClass();
+    if (strategy == FieldAccessStrategy.GENERATED_ACCESSORS && HiddenClassDefiner.isSupported()) {
+      assertThat(accessorClass).isNotEqualTo(FieldAccessor.class);
+      assertThat(accessorClass.isHidden()).isTrue();
+    } else {
+      assertThat(accessorClass).isEqualTo(FieldAccessor.class);
+    }
+    // Static fields always use reflection
+    assertThat(accessor("staticInt").getClass()).isEqualTo(FieldAccessor.class);
+  }
+
+  @Test
+  public void testInaccessibleField() throws Exception {
+    Field field = Fields.class.getDeclaredField("i");
+    // Falls back to reflection, which reports the missing access
+    FieldAccessor accessor = FieldAccessor.create(field, strategy);
+    assertThrows(IllegalAccessException.class, () -> accessor.getInt(new Fields()));
+  }
+}
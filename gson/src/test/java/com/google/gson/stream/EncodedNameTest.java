@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.stream;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.gson.FormattingStyle;
+import com.google.gson.internal.bind.JsonTreeWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+@SuppressWarnings("resource")
+public final class EncodedNameTest {
+
+  private static final String[] NAMES = {
+    "", "name", "a\"b\\c\n\u0000", "<html & 'x'=y>", "\u00e9\u20ac\ud83d\ude00", "\u2028"
+  };
+
+  @Test
+  public void testEncodedRepresentation() {
+    EncodedName name = EncodedName.of("<\u00e9\n");
+    assertThat(name.getName()).isEqualTo("<\u00e9\n");
+    assertThat(name.toString()).isEqualTo("<\u00e9\n");
+    assertThat(new String(name.chars(false))).isEqualTo("\"<\u00e9\\n\"");
+    assertThat(new String(name.chars(true))).isEqualTo("\"\\u003c\u00e9\\n\"");
+    assertThat(name.utf8Bytes(false)).isEqualTo("\"<\u00e9\\n\"".getBytes(StandardCharsets.UTF_8));
+    assertThat(name.utf8Bytes(true))
+        .isEqualTo("\"\\u003c\u00e9\\n\"".getBytes(StandardCharsets.UTF_8));
+
+    EncodedName plain = EncodedName.of("plain");
+    assertThat(plain.chars(true)).isSameInstanceAs(plain.chars(false));
+    assertThat(plain.utf8Bytes(true)).isSameInstanceAs(plain.utf8Bytes(false));
+
+    assertThrows(NullPointerException.class, () -> EncodedName.of(null));
+  }
+
+  @Test
+  public void testEquals() {
+    assertThat(EncodedName.of("a")).isEqualTo(EncodedName.of("a"));
+    assertThat(EncodedName.of("a").hashCode()).isEqualTo(EncodedName.of("a").hashCode());
+    assertThat(EncodedName.of("a")).isNotEqualTo(EncodedName.of("b"));
+  }
+
+  @Test
+  public void testSameOutputAsStringNames() throws IOException {
+    for (boolean htmlSafe : new boolean[] {false, true}) {
+      for (FormattingStyle style :
+          new FormattingStyle[] {FormattingStyle.COMPACT, FormattingStyle.PRETTY}) {
+        StringWriter expected = new StringWriter();
+        write(configure(new JsonWriter(expected), htmlSafe, style), false);
+
+        StringWriter actual = new StringWriter();
+        write(configure(new JsonWriter(actual), htmlSafe, style), true);
+        assertThat(actual.toString()).isEqualTo(expected.toString());
+
+        Utf8JsonWriter utf8Writer = new Utf8JsonWriter();
+        write(configure(utf8Writer, htmlSafe, style), true);
+        assertThat(utf8Writer.toByteArray())
+            .isEqualTo(expected.toString().getBytes(StandardCharsets.UTF_8));
+      }
+    }
+  }
+
+  @Test
+  public void testSkippedNullValue() throws IOException {
+    StringWriter stringWriter = new StringWriter();
+    JsonWriter writer = new JsonWriter(stringWriter);
+    writer.setSerializeNulls(false);
+    writer.beginObject();
+    writer.encodedName(EncodedName.of("a")).nullValue();
+    writer.name("b").value(1);
+    writer.endObject();
+    assertThat(stringWriter.toString()).isEqualTo("{\"b\":1}");
+  }
+
+  @Test
+  public void testStateChecks() throws IOException {
+    JsonWriter writer = new JsonWriter(new StringWriter());
+    assertThrows(IllegalStateException.class, () -> writer.encodedName(EncodedName.of("a")));
+    writer.beginObject();
+    writer.encodedName(EncodedName.of("a"));
+    assertThrows(IllegalStateException.class, () -> writer.encodedName(EncodedName.of("b")));
+    assertThrows(IllegalStateException.class, writer::endObject);
+    assertThrows(NullPointerException.class, () -> writer.encodedName(null));
+  }
+
+  /** Subclasses overriding {@link JsonWriter#name(String)} must see the name. */
+  @Test
+  public void testSubclassOverridingName() throws IOException {
+    JsonTreeWriter treeWriter = new JsonTreeWriter();
+    treeWriter.beginObject();
+    treeWriter.encodedName(EncodedName.of("a")).value(1);
+    treeWriter.endObject();
+    assertThat(treeWriter.get().toString()).isEqualTo("{\"a\":1}");
+  }
+
+  private static JsonWriter configure(JsonWriter writer, boolean htmlSafe, FormattingStyle style) {
+    writer.setsafeJsonToHtmlTranslation(htmlSafe);
+    writer.setFormattingStyle(style);
+    return writer;
+  }
+
+  private static void write(JsonWriter writer, boolean encoded) throws IOException {
+    writer.beginObject();
+    for (String name : NAMES) {
+      if (encoded) {
+        writer.encodedName(EncodedName.of(name));
+      } else {
+        writer.name(name);
+      }
+      writer.beginObject();
+      if (encoded) {
+        writer.encodedName(EncodedName.of(name));
+      } else {
+        writer.name(name);
+      }
+      writer.value(name.length());
+      writer.endObject();
+    }
+    writer.endObject();
+    writer.flush();
+  }
+}
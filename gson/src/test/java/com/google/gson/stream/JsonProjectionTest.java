@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.stream;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import org.junit.Test;
+
+public class JsonProjectionTest {
+  private static final String JSON =
+      "{\"id\":1,\"name\":\"n\",\"users\":[{\"name\":\"a\",\"age\":20,\"tags\":[\"x\",\"y\"]},"
+          + "{\"name\":\"b\",\"age\":30,\"tags\":[]},{\"name\":\"c\"}],\"meta\":{\"total\":3}}";
+
+  private static String project(String json, String... paths) throws IOException {
+    JsonReader reader = new JsonReader(new StringReader(json));
+    StringWriter stringWriter = new StringWriter();
+    JsonProjection.of(paths).project(reader, new JsonWriter(stringWriter));
+    assertThat(reader.peek()).isEqualTo(JsonToken.END_DOCUMENT);
+    return stringWriter.toString();
+  }
+
+  @Test
+  public void testMembers() throws IOException {
+    assertThat(project(JSON, "$.id", "$.meta.total"))
+        .isEqualTo("{\"id\":1,\"meta\":{\"total\":3}}");
+    assertThat(project(JSON, "$.meta")).isEqualTo("{\"meta\":{\"total\":3}}");
+    assertThat(project(JSON, "$.missing")).isEqualTo("{}");
+  }
+
+  @Test
+  public void testRoot() throws IOException {
+    assertThat(project(JSON, "$")).isEqualTo(JSON);
+    assertThat(project(JSON, "$", "$.id")).isEqualTo(JSON);
+  }
+
+  @Test
+  public void testElements() throws IOException {
+    assertThat(project(JSON, "$.users[1].name")).isEqualTo("{\"users\":[{\"name\":\"b\"}]}");
+    assertThat(project(JSON, "$.users[*].name"))
+        .isEqualTo("{\"users\":[{\"name\":\"a\"},{\"name\":\"b\"},{\"name\":\"c\"}]}");
+    assertThat(project(JSON, "$.users[*].tags[0]"))
+        .isEqualTo("{\"users\":[{\"tags\":[\"x\"]},{\"tags\":[]},{}]}");
+    assertThat(project("[1,2,3]", "$[0]", "$[2]")).isEqualTo("[1,3]");
+  }
+
+  @Test
+  public void testWildcardMergedWithIndex() throws IOException {
+    assertThat(project(JSON, "$.users[*].name", "$.users[0].age"))
+        .isEqualTo("{\"users\":[{\"name\":\"a\",\"age\":20},{\"name\":\"b\"},{\"name\":\"c\"}]}");
+  }
+
+  @Test
+  public void testStructureMismatch() throws IOException {
+    assertThat(project("{\"a\":1,\"b\":[1]}", "$.a.b", "$.b.c")).isEqualTo("{}");
+    assertThat(project("[1]", "$.a")).isEqualTo("null");
+    assertThat(project("{\"a\":{\"b\":1}}", "$[0]")).isEqualTo("null");
+  }
+
+  @Test
+  public void testEmptyName() throws IOException {
+    assertThat(project("{\"\":1,\"a\":2}", "$.")).isEqualTo("{\"\":1}");
+  }
+
+  @Test
+  public void testMatchesGetPath() throws IOException {
+    JsonReader reader = new JsonReader(new StringReader("{\"a\":[{\"b\":1}]}"));
+    reader.beginObject();
+    reader.nextName();
+    reader.beginArray();
+    reader.beginObject();
+    reader.nextName();
+    String path = reader.getPathFile();
+    assertThat(path).isEqualTo("$.a[0].b");
+    assertThat(project("{\"a\":[{\"b\":1}]}", path)).isEqualTo("{\"a\":[{\"b\":1}]}");
+  }
+
+  @Test
+  public void testInvalidPaths() {
+    String[] invalidPaths = {"", "a", "$a", "$[", "$[]", "$[a]", "$[-1]", "$[1234567890]", "$.a["};
+    for (String path : invalidPaths) {
+      IllegalArgumentException e =
+          assertThrows(IllegalArgumentException.class, () -> JsonProjection.of(path));
+      assertThat(e).hasMessageThat().isEqualTo("Invalid JSON path: " + path);
+    }
+  }
+}
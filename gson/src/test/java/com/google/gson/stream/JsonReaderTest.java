@@ -2189,6 +2189,166 @@ public final class JsonReaderTest {
     assertThat(reader.peek()).isEqualTo(JsonToken.END_DOCUMENT);
   }
 
+  @Test
+  public void testSkipValueLenientNested() throws IOException {
+    String json =
+        "{\"a\": [\"]}\\\"[\", '}', /* ] */ // }\n # ]\n {\"b\": [1, 2]}, x\"y, z'w ],\n"
+            + " \"c\": 3}";
+    for (int bufferSize : new int[] {JsonReader.MIN_BUFFER_SIZE, 1024}) {
+      JsonReader reader = new JsonReader(reader(json), bufferSize);
+      reader.setStrictness(Strictness.LENIENT);
+      reader.beginObject();
+      assertThat(reader.nextName()).isEqualTo("a");
+      reader.skipValue();
+      assertThat(reader.getPathFile()).isEqualTo("$.a");
+      assertThat(reader.nextName()).isEqualTo("c");
+      assertThat(reader.toString()).isEqualTo("JsonReader at line 4 column 5 path $.c");
+      assertThat(reader.nextInt()).isEqualTo(3);
+      reader.endObject();
+    }
+  }
+
+  @Test
+  public void testSkipValueLenientMalformed() throws IOException {
+    JsonReader reader = new JsonReader(reader("[[1, [2]"));
+    reader.setStrictness(Strictness.LENIENT);
+    reader.beginArray();
+    EOFException eof = assertThrows(EOFException.class, reader::skipValue);
+    assertThat(eof).hasMessageThat().isEqualTo("End of input at line 1 column 9 path $[0][0]");
+
+    reader = new JsonReader(reader("[{/* }]"));
+    reader.setStrictness(Strictness.LENIENT);
+    reader.beginArray();
+    MalformedJsonException e = assertThrows(MalformedJsonException.class, reader::skipValue);
+    assertThat(e).hasMessageThat().startsWith("Unterminated comment");
+
+    reader = new JsonReader(reader("[[\"]]"));
+    reader.setStrictness(Strictness.LENIENT);
+    reader.beginArray();
+    e = assertThrows(MalformedJsonException.class, reader::skipValue);
+    assertThat(e).hasMessageThat().startsWith("Unterminated string");
+
+    reader = new JsonReader(reader("[[1, {\"a\": [2}]]"));
+    reader.setStrictness(Strictness.LENIENT);
+    reader.beginArray();
+    e = assertThrows(MalformedJsonException.class, reader::skipValue);
+    assertThat(e).hasMessageThat().startsWith("Unterminated array at line 1 column 15 path $[0]");
+
+    reader = new JsonReader(reader("{\"a\": {\"b\": 1]}"));
+    reader.setStrictness(Strictness.LENIENT);
+    reader.beginObject();
+    reader.nextName();
+    e = assertThrows(MalformedJsonException.class, reader::skipValue);
+    assertThat(e).hasMessageThat().startsWith("Unterminated object at line 1 column 15 path $.a");
+  }
+
+  @Test
+  public void testSkipValueLenientDeeplyNested() throws IOException {
+    // Deeper than the initial size of the scope stack
+    int depth = 200;
+    StringBuilder json = new StringBuilder();
+    for (int i = 0; i < depth; i++) {
+      json.append(i % 3 == 0 ? "{\"a\":" : "[");
+    }
+    json.append('1');
+    for (int i = depth - 1; i >= 0; i--) {
+      json.append(i % 3 == 0 ? "}" : "]");
+    }
+    JsonReader reader = new JsonReader(reader("[" + json + ", 1]"));
+    reader.setStrictness(Strictness.LENIENT);
+    reader.beginArray();
+    reader.skipValue();
+    assertThat(reader.nextInt()).isEqualTo(1);
+    reader.endArray();
+
+    // Mismatch at the deepest level
+    json.setCharAt(json.length() - depth, '}');
+    reader = new JsonReader(reader("[" + json + "]"));
+    reader.setStrictness(Strictness.LENIENT);
+    reader.beginArray();
+    MalformedJsonException e = assertThrows(MalformedJsonException.class, reader::skipValue);
+    assertThat(e).hasMessageThat().startsWith("Unterminated array");
+  }
+
+  @Test
+  public void testSkipValueStrictValidatesNested() throws IOException {
+    String json = "{\"a\": [1; 2], \"b\": 1}";
+    JsonReader reader = new JsonReader(reader(json));
+    reader.beginObject();
+    assertThat(reader.nextName()).isEqualTo("a");
+    MalformedJsonException e = assertThrows(MalformedJsonException.class, reader::skipValue);
+    assertStrictError(e, "line 1 column 8 path $.a[0]");
+
+    reader = new JsonReader(reader(json));
+    reader.setStrictness(Strictness.LENIENT);
+    reader.beginObject();
+    assertThat(reader.nextName()).isEqualTo("a");
+    reader.skipValue();
+    assertThat(reader.nextName()).isEqualTo("b");
+  }
+
+  @Test
+  public void testSkipValueNested() throws IOException {
+    String json =
+        "{\"a\": [\n"
+            + "  {\"b\": -1.5E+3, \"c\" : [true, false, null, 0, \"\\\"]}\"]},\n"
+            + "  {}, [], \"x\"\n"
+            + "], \"d\": 1}";
+    for (Strictness strictness : Strictness.values()) {
+      for (int bufferSize : new int[] {JsonReader.MIN_BUFFER_SIZE, 1024}) {
+        JsonReader reader = new JsonReader(reader(json), bufferSize);
+        reader.setStrictness(strictness);
+        reader.beginObject();
+        assertThat(reader.nextName()).isEqualTo("a");
+        reader.skipValue();
+        assertThat(reader.getPathFile()).isEqualTo("$.a");
+        assertThat(reader.nextName()).isEqualTo("d");
+        assertThat(reader.toString()).isEqualTo("JsonReader at line 4 column 7 path $.d");
+        assertThat(reader.nextInt()).isEqualTo(1);
+        reader.endObject();
+      }
+    }
+  }
+
+  @Test
+  public void testSkipValueNestedMalformed() throws IOException {
+    String[][] cases = {
+      {"[1 2]", "Unterminated array at line 1 column 6 path $[0][0]"},
+      {"[1}", "Unterminated array at line 1 column 5 path $[0][0]"},
+      {"{\"a\":1 \"b\":2}", "Unterminated object at line 1 column 10 path $[0]."},
+      {"{\"a\":1]", "Unterminated object at line 1 column 9 path $[0]."},
+      {"{\"a\" 1}", "Expected ':' at line 1 column 8 path $[0]."},
+      {"{\"a\":1,}", "Expected name at line 1 column 10 path $[0]."},
+      {"[[1],\n[2 3]]", "Unterminated array at line 2 column 5 path $[0][0][0]"},
+    };
+    for (Strictness strictness : Strictness.values()) {
+      for (String[] testCase : cases) {
+        JsonReader reader = new JsonReader(reader("[" + testCase[0] + "]"));
+        reader.setStrictness(strictness);
+        reader.beginArray();
+        MalformedJsonException e = assertThrows(MalformedJsonException.class, reader::skipValue);
+        assertThat(e).hasMessageThat().startsWith(testCase[1]);
+      }
+    }
+  }
+
+  @Test
+  public void testSkipValueNestedLenientSyntax() throws IOException {
+    // The separator and its whitespace are read again when a token needs lenient mode
+    String json = "[[1,\n'a',\n2] , 3]";
+    JsonReader reader = new JsonReader(reader(json));
+    reader.setStrictness(Strictness.LENIENT);
+    reader.beginArray();
+    reader.skipValue();
+    assertThat(reader.toString()).isEqualTo("JsonReader at line 3 column 3 path $[1]");
+    assertThat(reader.nextInt()).isEqualTo(3);
+
+    reader = new JsonReader(reader(json));
+    reader.beginArray();
+    MalformedJsonException e = assertThrows(MalformedJsonException.class, reader::skipValue);
+    assertStrictError(e, "line 2 column 2 path $[0][0]");
+  }
+
   @Test
   public void testStringAsNumberWithTruncatedExponent() throws IOException {
     JsonReader reader = new JsonReader(reader("[123e]"));
@@ -2353,6 +2513,239 @@ public final class JsonReaderTest {
     assertThat(token).isEqualTo(JsonToken.NUMBER);
   }
 
+  @Test
+  public void testNextStringView() throws IOException {
+    String longString = "a".repeat(JsonReader.BUFFER_SIZE * 2);
+    JsonReader reader =
+        new JsonReader(
+            reader("[\"a\nb\", 'c', \"d\\\"e\", 1.5, 12, true, \"" + longString + "\", f]"));
+    reader.setStrictness(Strictness.LENIENT);
+    reader.beginArray();
+    CharSequence value = reader.nextStringView();
+    assertThat(value.toString()).isEqualTo("a\nb");
+    assertThat(value.length()).isEqualTo(3);
+    assertThat(value.charAt(2)).isEqualTo('b');
+    assertThat(value.subSequence(1, 3).toString()).isEqualTo("\nb");
+    assertThrows(IndexOutOfBoundsException.class, () -> value.charAt(3));
+    assertThrows(IndexOutOfBoundsException.class, () -> value.subSequence(2, 4));
+
+    assertThat(reader.nextStringView().toString()).isEqualTo("c");
+    assertThat(reader.nextStringView().toString()).isEqualTo("d\"e");
+    assertThat(reader.nextStringView().toString()).isEqualTo("1.5");
+    assertThat(reader.nextStringView().toString()).isEqualTo("12");
+    assertThrows(IllegalStateException.class, reader::nextStringView);
+    assertThat(reader.nextBoolean()).isTrue();
+    assertThat(reader.nextStringView().toString()).isEqualTo(longString);
+    assertThat(reader.getPathFile()).isEqualTo("$[7]");
+    assertThat(reader.nextStringView().toString()).isEqualTo("f");
+    reader.endArray();
+  }
+
+  @Test
+  public void testNextNameView() throws IOException {
+    String longName = "n".repeat(JsonReader.BUFFER_SIZE * 2);
+    JsonReader reader =
+        new JsonReader(reader("{\"a\": {\"b\\\"c\": 1, \"" + longName + "\": 2}, 'd': 3, e: 4}"));
+    reader.setStrictness(Strictness.LENIENT);
+    reader.beginObject();
+    CharSequence name = reader.nextNameView();
+    assertThat(name.toString()).isEqualTo("a");
+    assertThat(reader.getPathFile()).isEqualTo("$.a");
+    reader.beginObject();
+    assertThat(reader.nextNameView().toString()).isEqualTo("b\"c");
+    assertThat(reader.getPathFile()).isEqualTo("$.a.b\"c");
+    assertThat(reader.nextInt()).isEqualTo(1);
+    assertThat(reader.nextNameView().toString()).isEqualTo(longName);
+    assertThat(reader.nextInt()).isEqualTo(2);
+    // The path keeps the name although the view is no longer valid
+    assertThat(reader.getPathFile()).isEqualTo("$.a." + longName);
+    reader.endObject();
+    assertThat(reader.getPathFile()).isEqualTo("$.a");
+    assertThat(reader.nextNameView().toString()).isEqualTo("d");
+    assertThat(reader.nextInt()).isEqualTo(3);
+    assertThat(reader.nextNameView().toString()).isEqualTo("e");
+    assertThat(reader.getPathFile()).isEqualTo("$.e");
+    assertThrows(IllegalStateException.class, reader::nextNameView);
+    assertThat(reader.nextInt()).isEqualTo(4);
+    reader.endObject();
+  }
+
+  /**
+   * Reader for a JSON array containing a string of {@code length} chars, returning at most {@code
+   * chunkSize} chars per {@code read} call, like many stream-based readers do.
+   */
+  private static Reader chunkedLongStringReader(int length, int chunkSize) {
+    return new Reader() {
+      private int pos = -2;
+      private final int end = length + 2;
+
+      @Override
+      public int read(char[] buffer, int offset, int count) {
+        if (pos == end) {
+          return -1;
+        }
+        int read = Math.min(Math.min(count, chunkSize), end - pos);
+        for (int i = 0; i < read; i++, pos++) {
+          char c;
+          if (pos == -2) {
+            c = '[';
+          } else if (pos == -1 || pos == length) {
+            c = '"';
+          } else if (pos == length + 1) {
+            c = ']';
+          } else {
+            c = 'a';
+          }
+          buffer[offset + i] = c;
+        }
+        return read;
+      }
+
+      @Override
+      public void close() {}
+    };
+  }
+
+  /**
+   * Strings which are kept in the buffer while more chars are read must not cause the buffer to be
+   * copied for every chunk; that made reading them quadratic, taking several seconds here.
+   */
+  @Test(timeout = 3000)
+  public void testMultiMegabyteStringFromChunkedReader() throws IOException {
+    int length = 20_000_000;
+    JsonReader reader = new JsonReader(chunkedLongStringReader(length, 8192));
+    reader.beginArray();
+    assertThat(reader.nextString()).hasLength(length);
+    reader.endArray();
+    assertThat(reader.peek()).isEqualTo(JsonToken.END_DOCUMENT);
+  }
+
+  /** Like {@link #testMultiMegabyteStringFromChunkedReader()}, but for the buffer view. */
+  @Test(timeout = 3000)
+  public void testNextStringViewMultiMegabyteStringFromChunkedReader() throws IOException {
+    int length = 20_000_000;
+    JsonReader reader = new JsonReader(chunkedLongStringReader(length, 8192));
+    reader.beginArray();
+    CharSequence value = reader.nextStringView();
+    assertThat(value.length()).isEqualTo(length);
+    assertThat(value.charAt(length - 1)).isEqualTo('a');
+    reader.endArray();
+    assertThat(reader.peek()).isEqualTo(JsonToken.END_DOCUMENT);
+  }
+
+  @Test
+  public void testNextStringViewStrict() throws IOException {
+    String json = "[\"a\", \"b\u0000\"]";
+    JsonReader reader = new JsonReader(reader(json));
+    reader.setStrictness(Strictness.STRICT);
+    reader.beginArray();
+    assertThat(reader.nextStringView().toString()).isEqualTo("a");
+    MalformedJsonException e = assertThrows(MalformedJsonException.class, reader::nextStringView);
+
+    // Reports the same error as nextString()
+    JsonReader stringReader = new JsonReader(reader(json));
+    stringReader.setStrictness(Strictness.STRICT);
+    stringReader.beginArray();
+    assertThat(stringReader.nextString()).isEqualTo("a");
+    MalformedJsonException expected =
+        assertThrows(MalformedJsonException.class, stringReader::nextString);
+    assertThat(e).hasMessageThat().isEqualTo(expected.getMessage());
+  }
+
+  @Test
+  public void testInvalidBufferSize() {
+    IllegalArgumentException e =
+        assertThrows(IllegalArgumentException.class, () -> new JsonReader(reader("[]"), 15));
+    assertThat(e).hasMessageThat().isEqualTo("Invalid buffer size: 15");
+  }
+
+  @Test
+  public void testSmallBuffer() throws IOException {
+    String longString = "a\nb".repeat(100);
+    String number = "1234567890".repeat(10);
+    String json =
+        "{\"name\": \""
+            + longString
+            + "\", \"escaped\": \""
+            + longString
+            + "\\t\", \""
+            + longString
+            + "\": "
+            + number
+            + "}";
+    JsonReader reader = new JsonReader(reader(json), 16);
+    reader.beginObject();
+    assertThat(reader.nextName()).isEqualTo("name");
+    assertThat(reader.nextString()).isEqualTo(longString);
+    assertThat(reader.nextName()).isEqualTo("escaped");
+    assertThat(reader.nextString()).isEqualTo(longString + "\t");
+    assertThat(reader.nextName()).isEqualTo(longString);
+    assertThat(reader.peek()).isEqualTo(JsonToken.NUMBER);
+    assertThat(reader.nextString()).isEqualTo(number);
+    reader.endObject();
+    assertThat(reader.peek()).isEqualTo(JsonToken.END_DOCUMENT);
+  }
+
+  /** Strings which do not fit into the buffer are kept in the buffer, which grows. */
+  @Test
+  public void testStringLongerThanBuffer() throws IOException {
+    String longString = "\n" + "a".repeat(JsonReader.BUFFER_SIZE * 3);
+    JsonReader reader = new JsonReader(reader("[\"" + longString + "\", true, x]"));
+    reader.beginArray();
+    assertThat(reader.nextString()).isEqualTo(longString);
+    assertThat(reader.nextBoolean()).isTrue();
+    // Line and column are tracked correctly for the grown buffer
+    MalformedJsonException e = assertThrows(MalformedJsonException.class, reader::peek);
+    assertStrictError(e, "line 2 column " + (JsonReader.BUFFER_SIZE * 3 + 10) + " path $[2]");
+  }
+
+  /** The buffer shrinks to its configured size again once the long string has been consumed. */
+  @Test
+  public void testBufferShrinksAfterLongString() throws IOException {
+    String longString = "a".repeat(JsonReader.BUFFER_SIZE * 4);
+    StringBuilder json = new StringBuilder("[\"" + longString + "\"");
+    for (int i = 0; i < 1000; i++) {
+      json.append(", ").append(i);
+    }
+    json.append(']');
+
+    int[] maxReadLength = {0};
+    Reader reader =
+        new StringReader(json.toString()) {
+          @Override
+          public int read(char[] buffer, int offset, int length) throws IOException {
+            maxReadLength[0] = Math.max(maxReadLength[0], length);
+            return super.read(buffer, offset, length);
+          }
+        };
+    JsonReader jsonReader = new JsonReader(reader, 16);
+    jsonReader.beginArray();
+    assertThat(jsonReader.nextString()).isEqualTo(longString);
+    assertThat(maxReadLength[0]).isGreaterThan(16);
+
+    maxReadLength[0] = 0;
+    for (int i = 0; i < 1000; i++) {
+      assertThat(jsonReader.nextInt()).isEqualTo(i);
+    }
+    jsonReader.endArray();
+    assertThat(jsonReader.peek()).isEqualTo(JsonToken.END_DOCUMENT);
+    assertThat(maxReadLength[0]).isAtMost(16);
+  }
+
+  @Test
+  public void testUnterminatedStringLongerThanBuffer() throws IOException {
+    String longString = "a".repeat(JsonReader.BUFFER_SIZE * 2);
+    JsonReader reader = new JsonReader(reader("[\"" + longString));
+    reader.beginArray();
+    MalformedJsonException e = assertThrows(MalformedJsonException.class, reader::nextString);
+    assertThat(e)
+        .hasMessageThat()
+        .startsWith(
+            "Unterminated string at line 1 column "
+                + (JsonReader.BUFFER_SIZE * 2 + 3)
+                + " path $[0]");
+  }
+
   private static void assertStrictError(MalformedJsonException exception, String expectedLocation) {
     assertThat(exception)
         .hasMessageThat()
@@ -21,26 +21,29 @@ import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.fail;
 
 import com.google.gson.FormattingStyle;
-
+import com.google.gson.JsonArray;
+import com.google.gson.JsonPrimitive;
 import com.google.gson.Strictness;
 import com.google.gson.internal.LazilyParsedNumber;
+import com.google.gson.internal.bind.JsonTreeReader;
 import java.io.IOException;
+import java.io.StringReader;
 import java.io.StringWriter;
 import java.math.BigDecimal;
 import java.math.BigInteger;
-
+import java.nio.charset.StandardCharsets;
 import org.junit.Before;
 import org.junit.Test;
 
-
 @SuppressWarnings("resource")
 public class JsonWriterTest {
   protected StringWriter stringWriter;
   protected JsonWriter jsonWriter;
+
   @Before
-  public void setUp(){
-    this.stringWriter= new StringWriter();
-    this.jsonWriter= new JsonWriter(this.stringWriter);
+  public void setUp() {
+    this.stringWriter = new StringWriter();
+    this.jsonWriter = new JsonWriter(this.stringWriter);
   }
 
   @Test
@@ -451,6 +454,165 @@ public class JsonWriterTest {
                 + "2.718281828459045]");
   }
 
+  @Test
+  public void testDoublesShortestRepresentation() throws IOException {
+    this.jsonWriter.beginArray();
+    // Older JDKs format these with more digits than necessary
+    this.jsonWriter.value(Double.parseDouble("2e23"));
+    this.jsonWriter.value(Double.valueOf("1e23"));
+    this.jsonWriter.value(1.2345678e-5);
+    this.jsonWriter.endArray();
+    this.jsonWriter.close();
+    assertThat(this.stringWriter.toString()).isEqualTo("[2.0E23,1.0E23,1.2345678E-5]");
+  }
+
+  @Test
+  public void testBufferedOutput() throws IOException {
+    this.jsonWriter.beginArray();
+    this.jsonWriter.value("a");
+    // Incomplete document is only written once the writer is flushed
+    assertThat(this.stringWriter.toString()).isEmpty();
+    this.jsonWriter.flush();
+    assertThat(this.stringWriter.toString()).isEqualTo("[\"a\"");
+
+    this.jsonWriter.beginObject().name("b").value(true).endObject();
+    this.jsonWriter.endArray();
+    // Complete top-level value is written without flushing
+    assertThat(this.stringWriter.toString()).isEqualTo("[\"a\",{\"b\":true}]");
+  }
+
+  @Test
+  public void testStringsLongerThanBuffer() throws IOException {
+    StringBuilder value = new StringBuilder();
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < JsonWriter.BUFFER_SIZE; i++) {
+      value.append("a\"\u2028\u00e9\u0001");
+      expected.append("a\\\"\\u2028\u00e9\\u0001");
+    }
+    String longName = "n".repeat(JsonWriter.BUFFER_SIZE + 1);
+
+    this.jsonWriter.beginObject();
+    this.jsonWriter.name(longName).value(value.toString());
+    this.jsonWriter.name("raw").jsonValue(longName);
+    this.jsonWriter.endObject();
+    assertThat(this.stringWriter.toString())
+        .isEqualTo("{\"" + longName + "\":\"" + expected + "\",\"raw\":" + longName + "}");
+  }
+
+  @Test
+  public void testCopyValue() throws IOException {
+    String json =
+        "{\"a\":[1,-2.50,3e10,12345678901234567890],\"b\":\"text\",\"c\":\"\\u00e9\\n<\","
+            + "\"d\":{\"e\":true,\"f\":null,\"g\":[[],{}]}} [1]";
+    JsonReader reader = new JsonReader(new StringReader(json));
+    // Multiple top-level values
+    reader.setStrictness(Strictness.LENIENT);
+
+    this.jsonWriter.setsafeJsonToHtmlTranslation(true);
+    this.jsonWriter.beginArray();
+    this.jsonWriter.copyValue(reader);
+    this.jsonWriter.copyValue(reader);
+    this.jsonWriter.endArray();
+    assertThat(this.stringWriter.toString())
+        .isEqualTo(
+            "[{\"a\":[1,-2.50,3e10,12345678901234567890],\"b\":\"text\",\"c\":\"\u00e9\\n\\u003c\","
+                + "\"d\":{\"e\":true,\"f\":null,\"g\":[[],{}]}},[1]]");
+    assertThat(reader.peek()).isEqualTo(JsonToken.END_DOCUMENT);
+  }
+
+  @Test
+  public void testCopyValueNested() throws IOException {
+    JsonReader reader = new JsonReader(new StringReader("{\"a\":[1,{\"b\":\"c\"}],\"d\":2}"));
+    reader.beginObject();
+    assertThat(reader.nextName()).isEqualTo("a");
+
+    this.jsonWriter.setSerializeNulls(false);
+    this.jsonWriter.beginObject();
+    this.jsonWriter.name("copy").copyValue(reader);
+    this.jsonWriter.name("null").copyValue(new JsonReader(new StringReader("null")));
+    this.jsonWriter.endObject();
+    assertThat(this.stringWriter.toString()).isEqualTo("{\"copy\":[1,{\"b\":\"c\"}]}");
+    assertThat(reader.nextName()).isEqualTo("d");
+  }
+
+  @Test
+  public void testCopyValueLongString() throws IOException {
+    String value = "ab\u00e9".repeat(JsonWriter.BUFFER_SIZE);
+    JsonReader reader = new JsonReader(new StringReader("\"" + value + "\""));
+    this.jsonWriter.copyValue(reader);
+    assertThat(this.stringWriter.toString()).isEqualTo("\"" + value + "\"");
+  }
+
+  @Test
+  public void testCopyValueUtf8() throws IOException {
+    String json = "{\"a\":[1.5,\"\u00e9\\\"\",false]}";
+    Utf8JsonReader reader = new Utf8JsonReader(json.getBytes(StandardCharsets.UTF_8));
+    Utf8JsonWriter writer = new Utf8JsonWriter();
+    writer.copyValue(reader);
+    assertThat(new String(writer.toByteArray(), StandardCharsets.UTF_8)).isEqualTo(json);
+  }
+
+  @Test
+  public void testCopyValueNames() throws IOException {
+    String longName = "n".repeat(JsonReader.BUFFER_SIZE * 2);
+    String json = "{\"a\":{\"b\\\"c\":1,\"" + longName + "\":{\"d\":null}},\"e\":[]}";
+    JsonReader reader = new JsonReader(new StringReader(json));
+    this.jsonWriter.copyValue(reader);
+    assertThat(this.stringWriter.toString()).isEqualTo(json);
+  }
+
+  @Test
+  public void testCopyValueNamesOmittedNull() throws IOException {
+    JsonReader reader = new JsonReader(new StringReader("{\"a\":null,\"b\":1,\"c\":null}"));
+    this.jsonWriter.setSerializeNulls(false);
+    this.jsonWriter.copyValue(reader);
+    assertThat(this.stringWriter.toString()).isEqualTo("{\"b\":1}");
+  }
+
+  /** {@link JsonTreeReader} reports non-finite numbers, which a strict writer must not write. */
+  @Test
+  public void testCopyValueNonFiniteNumbers() throws IOException {
+    JsonArray array = new JsonArray();
+    array.addElement(new JsonPrimitive(Double.NaN));
+    array.addElement(new JsonPrimitive(1.5));
+
+    this.jsonWriter.setStrictness(Strictness.STRICT);
+    IllegalArgumentException e =
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> this.jsonWriter.copyValue(new JsonTreeReader(array)));
+    assertThat(e).hasMessageThat().isEqualTo("Numeric values must be finite, but was NaN");
+
+    for (double value : new double[] {Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY}) {
+      JsonWriter writer = new JsonWriter(new StringWriter());
+      e =
+          assertThrows(
+              IllegalArgumentException.class,
+              () -> writer.copyValue(new JsonTreeReader(new JsonPrimitive(value))));
+      assertThat(e).hasMessageThat().isEqualTo("Numeric values must be finite, but was " + value);
+    }
+
+    StringWriter lenientOutput = new StringWriter();
+    JsonWriter lenientWriter = new JsonWriter(lenientOutput);
+    lenientWriter.setStrictness(Strictness.LENIENT);
+    lenientWriter.copyValue(new JsonTreeReader(array));
+    assertThat(lenientOutput.toString()).isEqualTo("[NaN,1.5]");
+  }
+
+  @Test
+  public void testCopyValueNotAtValue() throws IOException {
+    JsonReader reader = new JsonReader(new StringReader("{\"a\":1}"));
+    reader.beginObject();
+    IllegalStateException e =
+        assertThrows(IllegalStateException.class, () -> this.jsonWriter.copyValue(reader));
+    assertThat(e).hasMessageThat().isEqualTo("Expected a value but was NAME at path $.");
+
+    reader.nextName();
+    reader.nextInt();
+    e = assertThrows(IllegalStateException.class, () -> this.jsonWriter.copyValue(reader));
+    assertThat(e).hasMessageThat().isEqualTo("Expected a value but was END_OBJECT at path $.a");
+  }
+
   @Test
   public void testLongs() throws IOException {
     this.jsonWriter.beginArray();
@@ -483,41 +645,41 @@ public class JsonWriterTest {
   }
 
   @Test
-public void testNumbersCustomClass() throws IOException {
-  String[] validNumbers = {
-    "-0.0",
-    "1.0",
-    "1.7976931348623157E308",
-    "4.9E-324",
-    "0.0",
-    "0.00",
-    "-0.5",
-    "2.2250738585072014E-308",
-    "3.141592653589793",
-    "2.718281828459045",
-    "0",
-    "0.01",
-    "0e0",
-    "1e+0",
-    "1e-0",
-    "1e0000", // leading 0 is allowed for exponent
-    "1e00001",
-    "1e+1",
-  };
-
-  this.jsonWriter.beginArray(); // Start the JSON array
-
-  for (String validNumber : validNumbers) {
-    this.jsonWriter.value(new LazilyParsedNumber(validNumber));
-  }
-
-  this.jsonWriter.endArray(); // End the JSON array
-  this.jsonWriter.close();
-
-  // Check the result after all numbers have been written
-  String expected = "[" + String.join(",", validNumbers) + "]";
-  assertThat(this.stringWriter.toString()).isEqualTo(expected);
-}
+  public void testNumbersCustomClass() throws IOException {
+    String[] validNumbers = {
+      "-0.0",
+      "1.0",
+      "1.7976931348623157E308",
+      "4.9E-324",
+      "0.0",
+      "0.00",
+      "-0.5",
+      "2.2250738585072014E-308",
+      "3.141592653589793",
+      "2.718281828459045",
+      "0",
+      "0.01",
+      "0e0",
+      "1e+0",
+      "1e-0",
+      "1e0000", // leading 0 is allowed for exponent
+      "1e00001",
+      "1e+1",
+    };
+
+    this.jsonWriter.beginArray(); // Start the JSON array
+
+    for (String validNumber : validNumbers) {
+      this.jsonWriter.value(new LazilyParsedNumber(validNumber));
+    }
+
+    this.jsonWriter.endArray(); // End the JSON array
+    this.jsonWriter.close();
+
+    // Check the result after all numbers have been written
+    String expected = "[" + String.join(",", validNumbers) + "]";
+    assertThat(this.stringWriter.toString()).isEqualTo(expected);
+  }
 
   @Test
   public void testMalformedNumbers() throws IOException {
@@ -574,353 +736,356 @@ public void testNumbersCustomClass() throws IOException {
 
   @Test
   public void testBoxedBooleans() throws IOException {
-      jsonWriter.beginArray();
-      jsonWriter.value((Boolean) true);
-      jsonWriter.value((Boolean) false);
-      jsonWriter.value((Boolean) null);
-      jsonWriter.endArray();
-      assertThat(stringWriter.toString()).isEqualTo("[true,false,null]");
+    jsonWriter.beginArray();
+    jsonWriter.value((Boolean) true);
+    jsonWriter.value((Boolean) false);
+    jsonWriter.value((Boolean) null);
+    jsonWriter.endArray();
+    assertThat(stringWriter.toString()).isEqualTo("[true,false,null]");
   }
 
   @Test
   public void testNulls() throws IOException {
-      jsonWriter.beginArray();
-      jsonWriter.nullValue();
-      jsonWriter.endArray();
-      assertThat(stringWriter.toString()).isEqualTo("[null]");
+    jsonWriter.beginArray();
+    jsonWriter.nullValue();
+    jsonWriter.endArray();
+    assertThat(stringWriter.toString()).isEqualTo("[null]");
   }
 
   @Test
   public void testStrings() throws IOException {
-      jsonWriter.beginArray();
-      jsonWriter.value("a");
-      jsonWriter.value("a\"");
-      jsonWriter.value("\"");
-      jsonWriter.value(":");
-      jsonWriter.value(",");
-      jsonWriter.value("\b");
-      jsonWriter.value("\f");
-      jsonWriter.value("\n");
-      jsonWriter.value("\r");
-      jsonWriter.value("\t");
-      jsonWriter.value(" ");
-      jsonWriter.value("\\");
-      jsonWriter.value("{");
-      jsonWriter.value("}");
-      jsonWriter.value("[");
-      jsonWriter.value("]");
-      jsonWriter.value("\0");
-      jsonWriter.value("\u0019");
-      jsonWriter.endArray();
-      assertThat(stringWriter.toString())
-          .isEqualTo(
-              "[\"a\","
-                  + "\"a\\\"\","
-                  + "\"\\\"\","
-                  + "\":\","
-                  + "\",\","
-                  + "\"\\b\","
-                  + "\"\\f\","
-                  + "\"\\n\","
-                  + "\"\\r\","
-                  + "\"\\t\","
-                  + "\" \","
-                  + "\"\\\\\","
-                  + "\"{\","
-                  + "\"}\","
-                  + "\"[\","
-                  + "\"]\","
-                  + "\"\\u0000\","
-                  + "\"\\u0019\"]");
+    jsonWriter.beginArray();
+    jsonWriter.value("a");
+    jsonWriter.value("a\"");
+    jsonWriter.value("\"");
+    jsonWriter.value(":");
+    jsonWriter.value(",");
+    jsonWriter.value("\b");
+    jsonWriter.value("\f");
+    jsonWriter.value("\n");
+    jsonWriter.value("\r");
+    jsonWriter.value("\t");
+    jsonWriter.value(" ");
+    jsonWriter.value("\\");
+    jsonWriter.value("{");
+    jsonWriter.value("}");
+    jsonWriter.value("[");
+    jsonWriter.value("]");
+    jsonWriter.value("\0");
+    jsonWriter.value("\u0019");
+    jsonWriter.endArray();
+    assertThat(stringWriter.toString())
+        .isEqualTo(
+            "[\"a\","
+                + "\"a\\\"\","
+                + "\"\\\"\","
+                + "\":\","
+                + "\",\","
+                + "\"\\b\","
+                + "\"\\f\","
+                + "\"\\n\","
+                + "\"\\r\","
+                + "\"\\t\","
+                + "\" \","
+                + "\"\\\\\","
+                + "\"{\","
+                + "\"}\","
+                + "\"[\","
+                + "\"]\","
+                + "\"\\u0000\","
+                + "\"\\u0019\"]");
   }
 
   @Test
   public void testUnicodeLineBreaksEscaped() throws IOException {
-      jsonWriter.beginArray();
-      jsonWriter.value("\u2028 \u2029");
-      jsonWriter.endArray();
-      // JSON specification does not require that they are escaped, but Gson escapes them for
-      // compatibility with JavaScript where they are considered line breaks
-      assertThat(stringWriter.toString()).isEqualTo("[\"\\u2028 \\u2029\"]");
+    jsonWriter.beginArray();
+    jsonWriter.value("\u2028 \u2029");
+    jsonWriter.endArray();
+    // JSON specification does not require that they are escaped, but Gson escapes them for
+    // compatibility with JavaScript where they are considered line breaks
+    assertThat(stringWriter.toString()).isEqualTo("[\"\\u2028 \\u2029\"]");
   }
 
   @Test
   public void testEmptyArray() throws IOException {
-      jsonWriter.beginArray();
-      jsonWriter.endArray();
-      assertThat(stringWriter.toString()).isEqualTo("[]");
+    jsonWriter.beginArray();
+    jsonWriter.endArray();
+    assertThat(stringWriter.toString()).isEqualTo("[]");
   }
 
   @Test
   public void testEmptyObject() throws IOException {
-      jsonWriter.beginObject();
-      jsonWriter.endObject();
-      assertThat(stringWriter.toString()).isEqualTo("{}");
+    jsonWriter.beginObject();
+    jsonWriter.endObject();
+    assertThat(stringWriter.toString()).isEqualTo("{}");
   }
 
   @Test
   public void testObjectsInArrays() throws IOException {
-      jsonWriter.beginArray();
-      jsonWriter.beginObject();
-      jsonWriter.name("a").value(5);
-      jsonWriter.name("b").value(false);
-      jsonWriter.endObject();
-      jsonWriter.beginObject();
-      jsonWriter.name("c").value(6);
-      jsonWriter.name("d").value(true);
-      jsonWriter.endObject();
-      jsonWriter.endArray();
-      assertThat(stringWriter.toString())
-          .isEqualTo("[{\"a\":5,\"b\":false}," + "{\"c\":6,\"d\":true}]");
+    jsonWriter.beginArray();
+    jsonWriter.beginObject();
+    jsonWriter.name("a").value(5);
+    jsonWriter.name("b").value(false);
+    jsonWriter.endObject();
+    jsonWriter.beginObject();
+    jsonWriter.name("c").value(6);
+    jsonWriter.name("d").value(true);
+    jsonWriter.endObject();
+    jsonWriter.endArray();
+    assertThat(stringWriter.toString())
+        .isEqualTo("[{\"a\":5,\"b\":false}," + "{\"c\":6,\"d\":true}]");
   }
 
   @Test
   public void testArraysInObjects() throws IOException {
-      jsonWriter.beginObject();
-      jsonWriter.name("a");
-      jsonWriter.beginArray();
-      jsonWriter.value(5);
-      jsonWriter.value(false);
-      jsonWriter.endArray();
-      jsonWriter.name("b");
-      jsonWriter.beginArray();
-      jsonWriter.value(6);
-      jsonWriter.value(true);
-      jsonWriter.endArray();
-      jsonWriter.endObject();
-      assertThat(stringWriter.toString()).isEqualTo("{\"a\":[5,false]," + "\"b\":[6,true]}");
+    jsonWriter.beginObject();
+    jsonWriter.name("a");
+    jsonWriter.beginArray();
+    jsonWriter.value(5);
+    jsonWriter.value(false);
+    jsonWriter.endArray();
+    jsonWriter.name("b");
+    jsonWriter.beginArray();
+    jsonWriter.value(6);
+    jsonWriter.value(true);
+    jsonWriter.endArray();
+    jsonWriter.endObject();
+    assertThat(stringWriter.toString()).isEqualTo("{\"a\":[5,false]," + "\"b\":[6,true]}");
   }
 
   @Test
   public void testDeepNestingArrays() throws IOException {
-      for (int i = 0; i < 20; i++) {
-        jsonWriter.beginArray();
-      }
-      for (int i = 0; i < 20; i++) {
-        jsonWriter.endArray();
-      }
-      assertThat(stringWriter.toString()).isEqualTo("[[[[[[[[[[[[[[[[[[[[]]]]]]]]]]]]]]]]]]]]");
+    for (int i = 0; i < 20; i++) {
+      jsonWriter.beginArray();
+    }
+    for (int i = 0; i < 20; i++) {
+      jsonWriter.endArray();
+    }
+    assertThat(stringWriter.toString()).isEqualTo("[[[[[[[[[[[[[[[[[[[[]]]]]]]]]]]]]]]]]]]]");
   }
 
   @Test
   public void testDeepNestingObjects() throws IOException {
+    jsonWriter.beginObject();
+    for (int i = 0; i < 20; i++) {
+      jsonWriter.name("a");
       jsonWriter.beginObject();
-      for (int i = 0; i < 20; i++) {
-        jsonWriter.name("a");
-        jsonWriter.beginObject();
-      }
-      for (int i = 0; i < 20; i++) {
-        jsonWriter.endObject();
-      }
+    }
+    for (int i = 0; i < 20; i++) {
       jsonWriter.endObject();
-      assertThat(stringWriter.toString())
-          .isEqualTo(
-              "{\"a\":{\"a\":{\"a\":{\"a\":{\"a\":{\"a\":{\"a\":{\"a\":{\"a\":{\"a\":"
-                  + "{\"a\":{\"a\":{\"a\":{\"a\":{\"a\":{\"a\":{\"a\":{\"a\":{\"a\":{\"a\":{"
-                  + "}}}}}}}}}}}}}}}}}}}}}");
+    }
+    jsonWriter.endObject();
+    assertThat(stringWriter.toString())
+        .isEqualTo(
+            "{\"a\":{\"a\":{\"a\":{\"a\":{\"a\":{\"a\":{\"a\":{\"a\":{\"a\":{\"a\":"
+                + "{\"a\":{\"a\":{\"a\":{\"a\":{\"a\":{\"a\":{\"a\":{\"a\":{\"a\":{\"a\":{"
+                + "}}}}}}}}}}}}}}}}}}}}}");
   }
+
   @Test
   public void testRepeatedName() throws IOException {
-      jsonWriter.beginObject();
-      jsonWriter.name("a").value(true);
-      jsonWriter.name("a").value(false);
-      jsonWriter.endObject();
-      // JsonWriter doesn't attempt to detect duplicate names
-      assertThat(stringWriter.toString()).isEqualTo("{\"a\":true,\"a\":false}");
+    jsonWriter.beginObject();
+    jsonWriter.name("a").value(true);
+    jsonWriter.name("a").value(false);
+    jsonWriter.endObject();
+    // JsonWriter doesn't attempt to detect duplicate names
+    assertThat(stringWriter.toString()).isEqualTo("{\"a\":true,\"a\":false}");
   }
 
   @Test
   public void testPrettyPrintObject() throws IOException {
-      jsonWriter.setIndent("   ");
+    jsonWriter.setIndent("   ");
 
-      jsonWriter.beginObject();
-      jsonWriter.name("a").value(true);
-      jsonWriter.name("b").value(false);
-      jsonWriter.name("c").value(5.0);
-      jsonWriter.name("e").nullValue();
-      jsonWriter.name("f").beginArray();
-      jsonWriter.value(6.0);
-      jsonWriter.value(7.0);
-      jsonWriter.endArray();
-      jsonWriter.name("g").beginObject();
-      jsonWriter.name("h").value(8.0);
-      jsonWriter.name("i").value(9.0);
-      jsonWriter.endObject();
-      jsonWriter.endObject();
+    jsonWriter.beginObject();
+    jsonWriter.name("a").value(true);
+    jsonWriter.name("b").value(false);
+    jsonWriter.name("c").value(5.0);
+    jsonWriter.name("e").nullValue();
+    jsonWriter.name("f").beginArray();
+    jsonWriter.value(6.0);
+    jsonWriter.value(7.0);
+    jsonWriter.endArray();
+    jsonWriter.name("g").beginObject();
+    jsonWriter.name("h").value(8.0);
+    jsonWriter.name("i").value(9.0);
+    jsonWriter.endObject();
+    jsonWriter.endObject();
 
-      String expected =
-          "{\n"
-              + "   \"a\": true,\n"
-              + "   \"b\": false,\n"
-              + "   \"c\": 5.0,\n"
-              + "   \"e\": null,\n"
-              + "   \"f\": [\n"
-              + "      6.0,\n"
-              + "      7.0\n"
-              + "   ],\n"
-              + "   \"g\": {\n"
-              + "      \"h\": 8.0,\n"
-              + "      \"i\": 9.0\n"
-              + "   }\n"
-              + "}";
-      assertThat(stringWriter.toString()).isEqualTo(expected);
+    String expected =
+        "{\n"
+            + "   \"a\": true,\n"
+            + "   \"b\": false,\n"
+            + "   \"c\": 5.0,\n"
+            + "   \"e\": null,\n"
+            + "   \"f\": [\n"
+            + "      6.0,\n"
+            + "      7.0\n"
+            + "   ],\n"
+            + "   \"g\": {\n"
+            + "      \"h\": 8.0,\n"
+            + "      \"i\": 9.0\n"
+            + "   }\n"
+            + "}";
+    assertThat(stringWriter.toString()).isEqualTo(expected);
   }
 
   @Test
   public void testPrettyPrintArray() throws IOException {
-      jsonWriter.setIndent("   ");
+    jsonWriter.setIndent("   ");
 
-      jsonWriter.beginArray();
-      jsonWriter.value(true);
-      jsonWriter.value(false);
-      jsonWriter.value(5.0);
-      jsonWriter.nullValue();
-      jsonWriter.beginObject();
-      jsonWriter.name("a").value(6.0);
-      jsonWriter.name("b").value(7.0);
-      jsonWriter.endObject();
-      jsonWriter.beginArray();
-      jsonWriter.value(8.0);
-      jsonWriter.value(9.0);
-      jsonWriter.endArray();
-      jsonWriter.endArray();
+    jsonWriter.beginArray();
+    jsonWriter.value(true);
+    jsonWriter.value(false);
+    jsonWriter.value(5.0);
+    jsonWriter.nullValue();
+    jsonWriter.beginObject();
+    jsonWriter.name("a").value(6.0);
+    jsonWriter.name("b").value(7.0);
+    jsonWriter.endObject();
+    jsonWriter.beginArray();
+    jsonWriter.value(8.0);
+    jsonWriter.value(9.0);
+    jsonWriter.endArray();
+    jsonWriter.endArray();
 
-      String expected =
-          "[\n"
-              + "   true,\n"
-              + "   false,\n"
-              + "   5.0,\n"
-              + "   null,\n"
-              + "   {\n"
-              + "      \"a\": 6.0,\n"
-              + "      \"b\": 7.0\n"
-              + "   },\n"
-              + "   [\n"
-              + "      8.0,\n"
-              + "      9.0\n"
-              + "   ]\n"
-              + "]";
-      assertThat(stringWriter.toString()).isEqualTo(expected);
+    String expected =
+        "[\n"
+            + "   true,\n"
+            + "   false,\n"
+            + "   5.0,\n"
+            + "   null,\n"
+            + "   {\n"
+            + "      \"a\": 6.0,\n"
+            + "      \"b\": 7.0\n"
+            + "   },\n"
+            + "   [\n"
+            + "      8.0,\n"
+            + "      9.0\n"
+            + "   ]\n"
+            + "]";
+    assertThat(stringWriter.toString()).isEqualTo(expected);
   }
 
   @Test
   public void testClosedWriterThrowsOnStructure() throws IOException {
+    jsonWriter.beginArray();
+    jsonWriter.endArray();
+    jsonWriter.close();
+    try {
       jsonWriter.beginArray();
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+    try {
       jsonWriter.endArray();
-      jsonWriter.close();
-      try {
-        jsonWriter.beginArray();
-        fail();
-      } catch (IllegalStateException expected) {
-      }
-      try {
-        jsonWriter.endArray();
-        fail();
-      } catch (IllegalStateException expected) {
-      }
-      try {
-        jsonWriter.beginObject();
-        fail();
-      } catch (IllegalStateException expected) {
-      }
-      try {
-        jsonWriter.endObject();
-        fail();
-      } catch (IllegalStateException expected) {
-      }
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+    try {
+      jsonWriter.beginObject();
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+    try {
+      jsonWriter.endObject();
+      fail();
+    } catch (IllegalStateException expected) {
+    }
   }
 
   @Test
   public void testClosedWriterThrowsOnName() throws IOException {
-      jsonWriter.beginArray();
-      jsonWriter.endArray();
-      jsonWriter.close();
-      try {
-        jsonWriter.name("a");
-        fail();
-      } catch (IllegalStateException expected) {
-      }
+    jsonWriter.beginArray();
+    jsonWriter.endArray();
+    jsonWriter.close();
+    try {
+      jsonWriter.name("a");
+      fail();
+    } catch (IllegalStateException expected) {
+    }
   }
+
   @Test
   public void testClosedWriterThrowsOnValue() throws IOException {
-      jsonWriter.beginArray();
-      jsonWriter.endArray();
-      jsonWriter.close();
-      try {
-        jsonWriter.value("a");
-        fail();
-      } catch (IllegalStateException expected) {
-      }
+    jsonWriter.beginArray();
+    jsonWriter.endArray();
+    jsonWriter.close();
+    try {
+      jsonWriter.value("a");
+      fail();
+    } catch (IllegalStateException expected) {
+    }
   }
 
   @Test
   public void testClosedWriterThrowsOnFlush() throws IOException {
-      jsonWriter.beginArray();
-      jsonWriter.endArray();
-      jsonWriter.close();
-      try {
-        jsonWriter.flush();
-        fail();
-      } catch (IllegalStateException expected) {
-      }
+    jsonWriter.beginArray();
+    jsonWriter.endArray();
+    jsonWriter.close();
+    try {
+      jsonWriter.flush();
+      fail();
+    } catch (IllegalStateException expected) {
+    }
   }
 
   @Test
   public void testWriterCloseIsIdempotent() throws IOException {
-      jsonWriter.beginArray();
-      jsonWriter.endArray();
-      jsonWriter.close();
-      jsonWriter.close();
+    jsonWriter.beginArray();
+    jsonWriter.endArray();
+    jsonWriter.close();
+    jsonWriter.close();
   }
 
   @Test
   public void testSetGetFormattingStyle() throws IOException {
-      String lineSeparator = "\r\n";
+    String lineSeparator = "\r\n";
 
-      // Default should be FormattingStyle.COMPACT
-      assertThat(jsonWriter.getFormattingStyle()).isSameInstanceAs(FormattingStyle.COMPACT);
-      jsonWriter.setFormattingStyle(
-          FormattingStyle.PRETTY.withIndent(" \t ").withNewline(lineSeparator));
+    // Default should be FormattingStyle.COMPACT
+    assertThat(jsonWriter.getFormattingStyle()).isSameInstanceAs(FormattingStyle.COMPACT);
+    jsonWriter.setFormattingStyle(
+        FormattingStyle.PRETTY.withIndent(" \t ").withNewline(lineSeparator));
 
-      jsonWriter.beginArray();
-      jsonWriter.value(true);
-      jsonWriter.value("text");
-      jsonWriter.value(5.0);
-      jsonWriter.nullValue();
-      jsonWriter.endArray();
+    jsonWriter.beginArray();
+    jsonWriter.value(true);
+    jsonWriter.value("text");
+    jsonWriter.value(5.0);
+    jsonWriter.nullValue();
+    jsonWriter.endArray();
 
-      String expected =
-          "[\r\n" //
-              + " \t true,\r\n" //
-              + " \t \"text\",\r\n" //
-              + " \t 5.0,\r\n" //
-              + " \t null\r\n" //
-              + "]";
-      assertThat(stringWriter.toString()).isEqualTo(expected);
+    String expected =
+        "[\r\n" //
+            + " \t true,\r\n" //
+            + " \t \"text\",\r\n" //
+            + " \t 5.0,\r\n" //
+            + " \t null\r\n" //
+            + "]";
+    assertThat(stringWriter.toString()).isEqualTo(expected);
 
-      assertThat(jsonWriter.getFormattingStyle().getNewline()).isEqualTo(lineSeparator);
+    assertThat(jsonWriter.getFormattingStyle().getNewline()).isEqualTo(lineSeparator);
   }
+
   @Test
   public void testIndentOverwritesFormattingStyle() throws IOException {
-      jsonWriter.setFormattingStyle(FormattingStyle.COMPACT);
-      // Should overwrite formatting style
-      jsonWriter.setIndent("  ");
+    jsonWriter.setFormattingStyle(FormattingStyle.COMPACT);
+    // Should overwrite formatting style
+    jsonWriter.setIndent("  ");
 
-      jsonWriter.beginObject();
-      jsonWriter.name("a");
-      jsonWriter.beginArray();
-      jsonWriter.value(1);
-      jsonWriter.value(2);
-      jsonWriter.endArray();
-      jsonWriter.endObject();
+    jsonWriter.beginObject();
+    jsonWriter.name("a");
+    jsonWriter.beginArray();
+    jsonWriter.value(1);
+    jsonWriter.value(2);
+    jsonWriter.endArray();
+    jsonWriter.endObject();
 
-      String expected =
-          "{\n" //
-              + "  \"a\": [\n" //
-              + "    1,\n" //
-              + "    2\n" //
-              + "  ]\n" //
-              + "}";
-      assertThat(stringWriter.toString()).isEqualTo(expected);
+    String expected =
+        "{\n" //
+            + "  \"a\": [\n" //
+            + "    1,\n" //
+            + "    2\n" //
+            + "  ]\n" //
+            + "}";
+    assertThat(stringWriter.toString()).isEqualTo(expected);
   }
 }
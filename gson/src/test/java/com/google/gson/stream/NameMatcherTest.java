@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.stream;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.gson.JsonParser;
+import com.google.gson.Strictness;
+import com.google.gson.internal.bind.JsonTreeReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+@SuppressWarnings("resource")
+public final class NameMatcherTest {
+
+  @Test
+  public void testIndexOf() {
+    NameMatcher matcher = NameMatcher.of("a", "b", "", "\u00e9\u20ac", "long name");
+    assertThat(matcher.size()).isEqualTo(5);
+    assertThat(matcher.indexOf("a")).isEqualTo(0);
+    assertThat(matcher.indexOf("b")).isEqualTo(1);
+    assertThat(matcher.indexOf("")).isEqualTo(2);
+    assertThat(matcher.indexOf("\u00e9\u20ac")).isEqualTo(3);
+    assertThat(matcher.indexOf("long name")).isEqualTo(4);
+    assertThat(matcher.indexOf("c")).isEqualTo(-1);
+    assertThat(matcher.indexOf("long")).isEqualTo(-1);
+    assertThat(matcher.name(3)).isEqualTo("\u00e9\u20ac");
+
+    NameMatcher empty = NameMatcher.of();
+    assertThat(empty.size()).isEqualTo(0);
+    assertThat(empty.indexOf("a")).isEqualTo(-1);
+  }
+
+  @Test
+  public void testManyNames() {
+    List<String> names = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      names.add("field" + i);
+    }
+    NameMatcher matcher = NameMatcher.of(names);
+    for (int i = 0; i < names.size(); i++) {
+      assertThat(matcher.indexOf(names.get(i))).isEqualTo(i);
+    }
+    assertThat(matcher.indexOf("field2000")).isEqualTo(-1);
+  }
+
+  /** Names with the same hash code can never be placed collision free. */
+  @Test
+  public void testSameHashCode() throws IOException {
+    assertThat("Aa".hashCode()).isEqualTo("BB".hashCode());
+    NameMatcher matcher = NameMatcher.of("Aa", "BB", "AaBB", "BBAa");
+    assertThat(matcher.indexOf("Aa")).isEqualTo(0);
+    assertThat(matcher.indexOf("BB")).isEqualTo(1);
+    assertThat(matcher.indexOf("AaBB")).isEqualTo(2);
+    assertThat(matcher.indexOf("BBAa")).isEqualTo(3);
+    assertThat(matcher.indexOf("AaAa")).isEqualTo(-1);
+
+    assertThat(readNames("{\"BB\": 1, \"AaAa\": 2, \"Aa\": 3}", matcher))
+        .containsExactly(1, -1, 0)
+        .inOrder();
+  }
+
+  @Test
+  public void testInvalidNames() {
+    assertThrows(IllegalArgumentException.class, () -> NameMatcher.of("a", "b", "a"));
+    assertThrows(NullPointerException.class, () -> NameMatcher.of("a", null));
+  }
+
+  @Test
+  public void testReaders() throws IOException {
+    NameMatcher matcher = NameMatcher.of("a", "b\"c", "\u00e9", "line\nbreak", "x");
+    String json =
+        "{\"a\": 1, \"unknown\": {\"a\": 2}, \"b\\\"c\": 3, \"\\u0078\": 4, \"\u00e9\": 5,"
+            + " \"line\nbreak\": 6}";
+    assertThat(readNames(json, matcher)).containsExactly(0, -1, 1, 4, 2, 3).inOrder();
+  }
+
+  @Test
+  public void testLenientNames() throws IOException {
+    NameMatcher matcher = NameMatcher.of("a", "b", "c");
+    assertThat(readNames("{a: 1, 'b': 2, \"c\": 3, d: 4}", matcher))
+        .containsExactly(0, 1, 2, -1)
+        .inOrder();
+  }
+
+  @Test
+  public void testNameSpanningBufferBoundary() throws IOException {
+    StringBuilder padding = new StringBuilder();
+    for (int i = 0; i < 1100; i++) {
+      padding.append(' ');
+    }
+    NameMatcher matcher = NameMatcher.of("abcdefghijklmnopqrstuvwxyz");
+    for (int i = 0; i < 30; i++) {
+      // Shift the name across the buffer boundary of the readers
+      String json = padding.substring(0, 1024 - i) + "{\"abcdefghijklmnopqrstuvwxyz\": 1}";
+      JsonReader reader = new JsonReader(new StringReader(json));
+      reader.beginObject();
+      assertThat(reader.nextName(matcher)).isEqualTo(0);
+      assertThat(reader.nextInt()).isEqualTo(1);
+      reader.endObject();
+    }
+  }
+
+  @Test
+  public void testPath() throws IOException {
+    NameMatcher matcher = NameMatcher.of("known");
+    for (JsonReader reader : readers("{\"known\": 1, \"other\": 2}")) {
+      reader.beginObject();
+      assertThat(reader.nextName(matcher)).isEqualTo(0);
+      assertThat(reader.getPathFile()).isEqualTo("$.known");
+      reader.skipValue();
+      assertThat(reader.nextName(matcher)).isEqualTo(-1);
+      assertThat(reader.getPathFile()).isEqualTo("$.other");
+      reader.skipValue();
+      reader.endObject();
+    }
+  }
+
+  @Test
+  public void testNotAName() throws IOException {
+    for (JsonReader reader : readers("{\"a\": 1}")) {
+      assertThrows(IllegalStateException.class, () -> reader.nextName(NameMatcher.of("a")));
+    }
+  }
+
+  private static List<Integer> readNames(String json, NameMatcher matcher) throws IOException {
+    List<Integer> result = null;
+    for (JsonReader reader : readers(json)) {
+      reader.setStrictness(Strictness.LENIENT);
+      List<Integer> indices = new ArrayList<>();
+      reader.beginObject();
+      while (reader.hasNext()) {
+        indices.add(reader.nextName(matcher));
+        reader.skipValue();
+      }
+      reader.endObject();
+      assertThat(reader.peek()).isEqualTo(JsonToken.END_DOCUMENT);
+      if (result == null) {
+        result = indices;
+      } else {
+        assertThat(indices).isEqualTo(result);
+      }
+    }
+    return result;
+  }
+
+  private static List<JsonReader> readers(String json) {
+    return Arrays.asList(
+        new JsonReader(new StringReader(json)),
+        new Utf8JsonReader(json.getBytes(StandardCharsets.UTF_8)),
+        new JsonTreeReader(JsonParser.parseString(json)));
+  }
+}
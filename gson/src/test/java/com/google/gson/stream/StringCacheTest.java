@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.stream;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+public final class StringCacheTest {
+  @Test
+  public void testCapacity() {
+    assertThat(new StringCache(1).getCapacity()).isEqualTo(1);
+    assertThat(new StringCache(100).getCapacity()).isEqualTo(128);
+    assertThat(new StringCache(128).getCapacity()).isEqualTo(128);
+    assertThat(new StringCache(128).getMaxLength()).isEqualTo(StringCache.DEFAULT_MAX_LENGTH);
+
+    IllegalArgumentException e =
+        assertThrows(IllegalArgumentException.class, () -> new StringCache(0));
+    assertThat(e).hasMessageThat().isEqualTo("Invalid capacity: 0");
+    e = assertThrows(IllegalArgumentException.class, () -> new StringCache(16, -1));
+    assertThat(e).hasMessageThat().isEqualTo("Invalid max length: -1");
+  }
+
+  @Test
+  public void testChars() {
+    StringCache cache = new StringCache(16, 4);
+    char[] chars = "xabcdabcdeabcd".toCharArray();
+    String first = cache.get(chars, 1, 4);
+    assertThat(first).isEqualTo("abcd");
+    assertThat(cache.get(chars, 10, 4)).isSameInstanceAs(first);
+    assertThat(cache.get(chars, 1, 3)).isEqualTo("abc");
+    // Too long
+    assertThat(cache.get(chars, 5, 5)).isEqualTo("abcde");
+    assertThat(cache.getHitCount()).isEqualTo(1);
+    assertThat(cache.getMissCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void testBytes() {
+    StringCache cache = new StringCache(16);
+    byte[] bytes = "name é name".getBytes(StandardCharsets.UTF_8);
+    String first = cache.get(bytes, 0, 4);
+    assertThat(first).isEqualTo("name");
+    assertThat(cache.get(bytes, 8, 4)).isSameInstanceAs(first);
+    // Not ASCII
+    assertThat(cache.get(bytes, 5, 2)).isNull();
+    assertThat(cache.getHitCount()).isEqualTo(1);
+    assertThat(cache.getMissCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testCollision() {
+    // Only a single slot, strings replace each other
+    StringCache cache = new StringCache(1);
+    char[] chars = "ab".toCharArray();
+    assertThat(cache.get(chars, 0, 1)).isEqualTo("a");
+    assertThat(cache.get(chars, 1, 1)).isEqualTo("b");
+    assertThat(cache.get(chars, 0, 1)).isEqualTo("a");
+    assertThat(cache.getHitCount()).isEqualTo(0);
+    assertThat(cache.getMissCount()).isEqualTo(3);
+  }
+
+  @Test
+  public void testReaders() throws IOException {
+    StringCache cache = new StringCache(64);
+    String json =
+        "[{\"type\": \"a\\\"\", \"id\": 1}, {\"type\": \"b\", \"id\": 2}, {\"type\": \"b\"}]";
+
+    JsonReader reader = new JsonReader(new StringReader(json));
+    reader.setStringCache(cache);
+    assertThat(reader.getStringCache()).isSameInstanceAs(cache);
+    String[] strings = readStrings(reader);
+
+    Utf8JsonReader utf8Reader = new Utf8JsonReader(json.getBytes(StandardCharsets.UTF_8));
+    utf8Reader.setStringCache(cache);
+    String[] utf8Strings = readStrings(utf8Reader);
+
+    assertThat(strings).asList().containsExactly("type", "a\"", "type", "b", "type", "b");
+    assertThat(utf8Strings).asList().containsExactlyElementsIn(strings).inOrder();
+    for (int i = 0; i < strings.length; i++) {
+      if (i != 1) {
+        assertThat(utf8Strings[i]).isSameInstanceAs(strings[i % 2 == 0 ? 0 : 3]);
+      }
+    }
+    // Misses: "type", "id" and "b"; the string with escape sequence is not cached
+    assertThat(cache.getMissCount()).isEqualTo(3);
+    assertThat(cache.getHitCount()).isEqualTo(11);
+  }
+
+  private static String[] readStrings(JsonReader reader) throws IOException {
+    String[] strings = new String[6];
+    int count = 0;
+    reader.beginArray();
+    while (reader.hasNext()) {
+      reader.beginObject();
+      while (reader.hasNext()) {
+        String name = reader.nextName();
+        if (name.equals("type")) {
+          strings[count++] = name;
+          strings[count++] = reader.nextString();
+        } else {
+          reader.skipValue();
+        }
+      }
+      reader.endObject();
+    }
+    reader.endArray();
+    return strings;
+  }
+}
@@ -0,0 +1,412 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.stream;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.gson.Strictness;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link Utf8JsonReader}. Most of the parsing logic is the same as for {@link
+ * JsonReader}, so these tests mainly verify that both readers produce the same results, and cover
+ * the byte specific behavior.
+ */
+@SuppressWarnings("resource")
+public final class Utf8JsonReaderTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private static final String[] DOCUMENTS = {
+    "{}",
+    "[]",
+    "[1, -2, 3.5, -0, 1e10, 1.5E-3, 9223372036854775807, -9223372036854775808,"
+        + " 92233720368547758070]",
+    "{\"a\": true, \"b\": false, \"c\": null, \"d\": \"text\"}",
+    "{\"nested\": {\"array\": [[], [{}], [1, [2, [3]]]]}}",
+    "[\"escapes \\\" \\\\ \\/ \\b \\f \\n \\r \\t \\u00e9\"]",
+    "  \n\t\r [ \"whitespace\" ] \n",
+    "\"top-level string\"",
+    "12345",
+    "[true, TRUE, False, nULL]",
+    "[01]",
+    "{\"a\": 1,}",
+    "[1,]",
+    "[1 2]",
+    "{\"a\" 1}",
+    "[\"unterminated",
+    "[\"bad escape \\x\"]",
+    "[\"bad unicode \\u12G4\"]",
+    "[nullsoft, truey]",
+    "{a: b, 'c': 'd', e = f, g => h; i: [1; 2,, 3]}",
+    "// comment\n[1, /* block */ 2, # hash\n 3]",
+    ")]}'\n[\"prefix\"]",
+    "[NaN, Infinity, -Infinity]",
+    "[1] [2]",
+    "",
+  };
+
+  @Test
+  public void testSameTokensAsJsonReader() throws IOException {
+    for (Strictness strictness : Strictness.values()) {
+      for (String json : DOCUMENTS) {
+        String expected = tokens(new JsonReader(new StringReader(json)), strictness);
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+        assertThat(tokens(new Utf8JsonReader(bytes), strictness)).isEqualTo(expected);
+        assertThat(tokens(new Utf8JsonReader(new ByteArrayInputStream(bytes)), strictness))
+            .isEqualTo(expected);
+        assertThat(tokens(new Utf8JsonReader(new TricklingInputStream(bytes)), strictness))
+            .isEqualTo(expected);
+        assertThat(tokens(new Utf8JsonReader(directBuffer(bytes)), strictness)).isEqualTo(expected);
+      }
+    }
+  }
+
+  @Test
+  public void testMultiByteCharacters() throws IOException {
+    // 1, 2, 3 and 4 byte UTF-8 sequences
+    String s = "a\u00e9\u20ac\ud83d\ude00";
+    StringBuilder value = new StringBuilder();
+    while (value.length() < 3 * Utf8JsonReader.STREAM_BUFFER_SIZE) {
+      value.append(s);
+    }
+    String json = "{\"" + s + "\": [\"" + value + "\", \"" + s + "\\n" + value + "\"]}";
+    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+    for (JsonReader reader :
+        Arrays.asList(
+            new Utf8JsonReader(bytes),
+            new Utf8JsonReader(new ByteArrayInputStream(bytes)),
+            new Utf8JsonReader(new TricklingInputStream(bytes)),
+            new Utf8JsonReader(directBuffer(bytes)))) {
+      reader.beginObject();
+      assertThat(reader.nextName()).isEqualTo(s);
+      reader.beginArray();
+      assertThat(reader.nextString()).isEqualTo(value.toString());
+      assertThat(reader.nextString()).isEqualTo(s + "\n" + value);
+      reader.endArray();
+      reader.endObject();
+      assertThat(reader.peek()).isEqualTo(JsonToken.END_DOCUMENT);
+    }
+  }
+
+  @Test
+  public void testLongUnquotedValueWithMultiByteCharacters() throws IOException {
+    StringBuilder value = new StringBuilder();
+    while (value.length() < 2 * Utf8JsonReader.STREAM_BUFFER_SIZE) {
+      value.append("\u00e9\u20ac\ud83d\ude00");
+    }
+    byte[] bytes = ("[" + value + "]").getBytes(StandardCharsets.UTF_8);
+
+    JsonReader reader = new Utf8JsonReader(new ByteArrayInputStream(bytes));
+    reader.setStrictness(Strictness.LENIENT);
+    reader.beginArray();
+    assertThat(reader.nextString()).isEqualTo(value.toString());
+    reader.endArray();
+  }
+
+  @Test
+  public void testMalformedUtf8() throws IOException {
+    byte[] bytes = {'[', '"', 'a', (byte) 0xC3, '"', ',', '"', (byte) 0xFF, 'b', '"', ']'};
+    JsonReader reader = new Utf8JsonReader(bytes);
+    reader.beginArray();
+    assertThat(reader.nextString()).isEqualTo("a\ufffd");
+    assertThat(reader.nextString()).isEqualTo("\ufffdb");
+    reader.endArray();
+  }
+
+  @Test
+  public void testByteOrderMark() throws IOException {
+    byte[] bytes = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF, '[', '1', ']'};
+    for (JsonReader reader :
+        Arrays.asList(
+            new Utf8JsonReader(bytes),
+            new Utf8JsonReader(new TricklingInputStream(bytes)),
+            new Utf8JsonReader(directBuffer(bytes)))) {
+      reader.beginArray();
+      assertThat(reader.nextInt()).isEqualTo(1);
+      reader.endArray();
+      assertThat(reader.peek()).isEqualTo(JsonToken.END_DOCUMENT);
+    }
+  }
+
+  @Test
+  public void testIncompleteByteOrderMark() {
+    byte[] bytes = {(byte) 0xEF, (byte) 0xBB};
+    JsonReader reader = new Utf8JsonReader(new TricklingInputStream(bytes));
+    assertThrows(MalformedJsonException.class, reader::peek);
+  }
+
+  @Test
+  public void testArrayRange() throws IOException {
+    byte[] bytes = "xx[\"a\"]yy".getBytes(StandardCharsets.UTF_8);
+    JsonReader reader = new Utf8JsonReader(bytes, 2, 5);
+    reader.beginArray();
+    assertThat(reader.nextString()).isEqualTo("a");
+    reader.endArray();
+    assertThat(reader.peek()).isEqualTo(JsonToken.END_DOCUMENT);
+
+    assertThrows(IndexOutOfBoundsException.class, () -> new Utf8JsonReader(bytes, -1, 2));
+    assertThrows(IndexOutOfBoundsException.class, () -> new Utf8JsonReader(bytes, 8, 2));
+  }
+
+  @Test
+  public void testByteBufferPositionUnchanged() throws IOException {
+    byte[] bytes = "xx[true]".getBytes(StandardCharsets.UTF_8);
+    for (ByteBuffer buffer :
+        Arrays.asList(
+            ByteBuffer.wrap(bytes),
+            directBuffer(bytes),
+            ByteBuffer.wrap(bytes).asReadOnlyBuffer())) {
+      buffer.position(2);
+      JsonReader reader = new Utf8JsonReader(buffer);
+      reader.beginArray();
+      assertThat(reader.nextBoolean()).isTrue();
+      reader.endArray();
+      assertThat(buffer.position()).isEqualTo(2);
+    }
+  }
+
+  @Test
+  public void testSkipValue() throws IOException {
+    byte[] bytes =
+        "{\"a\": {\"b\": [\"\u20ac\\\"\", 1.5, {}]}, \"c\": 2}".getBytes(StandardCharsets.UTF_8);
+    JsonReader reader = new Utf8JsonReader(bytes);
+    reader.beginObject();
+    assertThat(reader.nextName()).isEqualTo("a");
+    reader.skipValue();
+    assertThat(reader.getPathFile()).isEqualTo("$.a");
+    assertThat(reader.nextName()).isEqualTo("c");
+    assertThat(reader.nextInt()).isEqualTo(2);
+    reader.endObject();
+  }
+
+  @Test
+  public void testSkipValueLenient() throws IOException {
+    byte[] bytes =
+        "{\"a\": [\"\u20ac]\\\"\", '\u00e9}', /* ] */ # }\n \u20ac\"x], \"c\": 2}"
+            .getBytes(StandardCharsets.UTF_8);
+    JsonReader reader = new Utf8JsonReader(bytes);
+    reader.setStrictness(Strictness.LENIENT);
+    reader.beginObject();
+    assertThat(reader.nextName()).isEqualTo("a");
+    reader.skipValue();
+    assertThat(reader.getPathFile()).isEqualTo("$.a");
+    assertThat(reader.nextName()).isEqualTo("c");
+    assertThat(reader.nextInt()).isEqualTo(2);
+    reader.endObject();
+  }
+
+  @Test
+  public void testSkipValueLenientMismatchedBrackets() throws IOException {
+    JsonReader reader =
+        new Utf8JsonReader("[[1, {\"\u20ac\": [2}]]".getBytes(StandardCharsets.UTF_8));
+    reader.setStrictness(Strictness.LENIENT);
+    reader.beginArray();
+    MalformedJsonException e = assertThrows(MalformedJsonException.class, reader::skipValue);
+    assertThat(e).hasMessageThat().startsWith("Unterminated array");
+  }
+
+  @Test
+  public void testSkipValueNestedMalformed() throws IOException {
+    for (Strictness strictness : Strictness.values()) {
+      JsonReader reader =
+          new Utf8JsonReader(
+              "[{\"\u20ac\": [\"\u00e9\"], \"a\" 1}]".getBytes(StandardCharsets.UTF_8));
+      reader.setStrictness(strictness);
+      reader.beginArray();
+      MalformedJsonException e = assertThrows(MalformedJsonException.class, reader::skipValue);
+      assertThat(e).hasMessageThat().startsWith("Expected ':' at line 1 column 23 path $[0].");
+    }
+  }
+
+  @Test
+  public void testErrorLocation() throws IOException {
+    JsonReader reader = new Utf8JsonReader("[\n  1,\n  x]".getBytes(StandardCharsets.UTF_8));
+    reader.beginArray();
+    assertThat(reader.nextInt()).isEqualTo(1);
+    MalformedJsonException e = assertThrows(MalformedJsonException.class, reader::peek);
+    assertThat(e)
+        .hasMessageThat()
+        .startsWith(
+            "Use JsonReader.setStrictness(Strictness.LENIENT)"
+                + " to accept malformed JSON at line 3 column 3 path $[1]");
+  }
+
+  @Test
+  public void testClose() throws IOException {
+    final boolean[] closed = {false};
+    InputStream in =
+        new ByteArrayInputStream(new byte[] {'[', ']'}) {
+          @Override
+          public void close() {
+            closed[0] = true;
+          }
+        };
+    JsonReader reader = new Utf8JsonReader(in);
+    reader.close();
+    assertThat(closed[0]).isTrue();
+    IllegalStateException e = assertThrows(IllegalStateException.class, reader::peek);
+    assertThat(e).hasMessageThat().isEqualTo("JsonReader is closed");
+  }
+
+  @Test
+  public void testFileChannel() throws IOException {
+    File file = temporaryFolder.newFile();
+    for (String json : DOCUMENTS) {
+      byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+      Files.write(file.toPath(), bytes);
+      String expected = tokens(new Utf8JsonReader(bytes), Strictness.LEGACY_STRICT);
+      // Tiny regions, so that tokens span multiple mapped regions
+      for (int windowSize : new int[] {1, 3, Utf8JsonReader.MAP_WINDOW_SIZE}) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+          assertThat(tokens(new Utf8JsonReader(channel, windowSize), Strictness.LEGACY_STRICT))
+              .isEqualTo(expected);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testFileChannelRegions() throws IOException {
+    String s = "a\u00e9\u20ac\ud83d\ude00";
+    StringBuilder value = new StringBuilder();
+    while (value.length() < 3 * Utf8JsonReader.STREAM_BUFFER_SIZE) {
+      value.append(s);
+    }
+    byte[] bytes = ("xx\ufeff[\"" + value + "\", 12345]").getBytes(StandardCharsets.UTF_8);
+    File file = temporaryFolder.newFile();
+    Files.write(file.toPath(), bytes);
+
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      // Starts reading at the current position of the channel
+      channel.position(2);
+      JsonReader reader = new Utf8JsonReader(channel, 7);
+      reader.beginArray();
+      assertThat(reader.nextString()).isEqualTo(value.toString());
+      assertThat(reader.nextInt()).isEqualTo(12345);
+      reader.endArray();
+      assertThat(reader.peek()).isEqualTo(JsonToken.END_DOCUMENT);
+      assertThat(channel.position()).isEqualTo(2);
+
+      reader.close();
+      assertThat(channel.isOpen()).isFalse();
+    }
+  }
+
+  /**
+   * Reads all tokens of the document and returns them together with the path, or the exception
+   * which occurred.
+   */
+  private static String tokens(JsonReader reader, Strictness strictness) {
+    reader.setStrictness(strictness);
+    List<String> tokens = new ArrayList<>();
+    try {
+      while (true) {
+        JsonToken token = reader.peek();
+        String path = reader.getPathFile();
+        switch (token) {
+          case BEGIN_ARRAY:
+            reader.beginArray();
+            break;
+          case END_ARRAY:
+            reader.endArray();
+            break;
+          case BEGIN_OBJECT:
+            reader.beginObject();
+            break;
+          case END_OBJECT:
+            reader.endObject();
+            break;
+          case NAME:
+            tokens.add("name:" + reader.nextName());
+            break;
+          case STRING:
+            tokens.add("string:" + reader.nextString());
+            break;
+          case NUMBER:
+            tokens.add("number:" + reader.nextString());
+            break;
+          case BOOLEAN:
+            tokens.add("boolean:" + reader.nextBoolean());
+            break;
+          case NULL:
+            reader.nextNull();
+            break;
+          case END_DOCUMENT:
+            tokens.add("end");
+            return tokens.toString();
+        }
+        tokens.add(token + "@" + path);
+      }
+    } catch (IOException | RuntimeException e) {
+      tokens.add(e.getClass().getSimpleName() + ": " + e.getMessage());
+      return tokens.toString();
+    }
+  }
+
+  private static ByteBuffer directBuffer(byte[] bytes) {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+    buffer.put(bytes);
+    buffer.flip();
+    return buffer;
+  }
+
+  /** Input stream which returns at most one byte per read call. */
+  private static class TricklingInputStream extends InputStream {
+    private final byte[] bytes;
+    private int position;
+
+    TricklingInputStream(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    @Override
+    public int read() {
+      return position < bytes.length ? bytes[position++] & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (len == 0) {
+        return 0;
+      }
+      int value = read();
+      if (value == -1) {
+        return -1;
+      }
+      b[off] = (byte) value;
+      return 1;
+    }
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.stream;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.gson.FormattingStyle;
+import com.google.gson.Strictness;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+/**
+ * Tests for {@link Utf8JsonWriter}. The writer logic is inherited from {@link JsonWriter}, so these
+ * tests mainly verify that the UTF-8 encoded output is the same as the one of {@link JsonWriter}.
+ */
+@SuppressWarnings("resource")
+public final class Utf8JsonWriterTest {
+
+  private static final String[] STRINGS = {
+    "",
+    "ascii",
+    "\" \\ / \b \f \n \r \t \u0000 \u001f \u007f",
+    "< > & = '",
+    "\u00e9 \u07ff \u0800 \u20ac \uffff",
+    "\u2028 \u2029",
+    "\ud83d\ude00 \udbff\udfff",
+    "unpaired \ud83d high",
+    "unpaired \ude00 low",
+    "trailing high \ud83d",
+  };
+
+  /** Writer actions producing a JSON document, used for comparing the output of both writers. */
+  private interface Document {
+    void write(JsonWriter writer) throws IOException;
+  }
+
+  private static final Document DOCUMENT =
+      writer -> {
+        writer.beginObject();
+        writer.name("strings").beginArray();
+        for (String s : STRINGS) {
+          writer.value(s);
+        }
+        writer.endArray();
+        for (String s : STRINGS) {
+          writer.name(s).value(s.length());
+        }
+        writer.name("numbers").beginArray();
+        writer.value(-1).value(1.5).value(Long.MIN_VALUE).value(new BigDecimal("1e400"));
+        writer.value(Double.valueOf(2.5f)).value(3.5f).jsonValue("[ raw \u20ac ]");
+        writer.endArray();
+        writer.name("literals").beginArray();
+        writer.value(true).value(false).nullValue().value((Boolean) null);
+        writer.endArray();
+        writer.name("nested").beginArray().beginObject().endObject().beginArray().endArray();
+        writer.endArray();
+        writer.name("skipped").nullValue();
+        writer.endObject();
+      };
+
+  @Test
+  public void testSameOutputAsJsonWriter() throws IOException {
+    for (boolean htmlSafe : new boolean[] {false, true}) {
+      for (boolean serializeNulls : new boolean[] {false, true}) {
+        for (FormattingStyle style :
+            new FormattingStyle[] {FormattingStyle.COMPACT, FormattingStyle.PRETTY}) {
+          StringWriter stringWriter = new StringWriter();
+          JsonWriter expectedWriter = new JsonWriter(stringWriter);
+          configure(expectedWriter, htmlSafe, serializeNulls, style);
+          DOCUMENT.write(expectedWriter);
+          String expected = stringWriter.toString();
+
+          Utf8JsonWriter arrayWriter = new Utf8JsonWriter();
+          configure(arrayWriter, htmlSafe, serializeNulls, style);
+          DOCUMENT.write(arrayWriter);
+          assertThat(arrayWriter.toByteArray()).isEqualTo(utf8(expected));
+
+          ByteArrayOutputStream out = new ByteArrayOutputStream();
+          Utf8JsonWriter streamWriter = new Utf8JsonWriter(out);
+          configure(streamWriter, htmlSafe, serializeNulls, style);
+          DOCUMENT.write(streamWriter);
+          streamWriter.flush();
+          assertThat(out.toByteArray()).isEqualTo(utf8(expected));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testLargeStrings() throws IOException {
+    StringBuilder builder = new StringBuilder();
+    while (builder.length() < 5 * Utf8JsonWriter.STREAM_BUFFER_SIZE) {
+      // Surrogate pairs at all offsets relative to the chunk and buffer boundaries
+      builder.append("a\"\u00e9\u20ac\ud83d\ude00\u2028");
+    }
+    String value = builder.toString();
+
+    StringWriter stringWriter = new StringWriter();
+    new JsonWriter(stringWriter).beginArray().value(value).value(value).endArray().flush();
+    byte[] expected = utf8(stringWriter.toString());
+
+    Utf8JsonWriter arrayWriter = new Utf8JsonWriter(0);
+    arrayWriter.beginArray().value(value).value(value).endArray();
+    assertThat(arrayWriter.toByteArray()).isEqualTo(expected);
+    assertThat(arrayWriter.size()).isEqualTo(expected.length);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Utf8JsonWriter streamWriter = new Utf8JsonWriter(out);
+    streamWriter.beginArray().value(value).value(value).endArray();
+    streamWriter.close();
+    assertThat(out.toByteArray()).isEqualTo(expected);
+  }
+
+  @Test
+  public void testUnpairedSurrogatesLikeOutputStreamWriter() throws IOException {
+    String s = "a\ud83d\ude00\ude00\udbffb";
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    try (OutputStreamWriter writer = new OutputStreamWriter(expected, StandardCharsets.UTF_8)) {
+      writer.write(s);
+    }
+
+    Utf8JsonWriter writer = new Utf8JsonWriter();
+    writer.setStrictness(Strictness.LENIENT);
+    writer.jsonValue(s);
+    assertThat(writer.toByteArray()).isEqualTo(expected.toByteArray());
+  }
+
+  @Test
+  public void testOutputStreamBuffering() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Utf8JsonWriter writer = new Utf8JsonWriter(out);
+    writer.beginArray().value("text");
+    assertThat(out.size()).isEqualTo(0);
+    assertThat(writer.size()).isEqualTo(7);
+
+    writer.flush();
+    assertThat(out.toString("UTF-8")).isEqualTo("[\"text\"");
+    assertThat(writer.size()).isEqualTo(0);
+
+    // Complete top-level values are written to the stream without flushing
+    writer.endArray();
+    assertThat(out.toString("UTF-8")).isEqualTo("[\"text\"]");
+    assertThat(writer.size()).isEqualTo(0);
+
+    writer.close();
+    assertThat(out.toString("UTF-8")).isEqualTo("[\"text\"]");
+
+    IllegalStateException e = assertThrows(IllegalStateException.class, writer::toByteArray);
+    assertThat(e).hasMessageThat().isEqualTo("Writer writes to an OutputStream");
+  }
+
+  @Test
+  public void testClose() throws IOException {
+    final boolean[] closed = {false};
+    ByteArrayOutputStream out =
+        new ByteArrayOutputStream() {
+          @Override
+          public void close() {
+            closed[0] = true;
+          }
+        };
+    Utf8JsonWriter writer = new Utf8JsonWriter(out);
+    writer.value(1);
+    writer.close();
+    assertThat(closed[0]).isTrue();
+    assertThat(out.toString("UTF-8")).isEqualTo("1");
+
+    IllegalStateException e = assertThrows(IllegalStateException.class, writer::flush);
+    assertThat(e).hasMessageThat().isEqualTo("JsonWriter is closed.");
+  }
+
+  @Test
+  public void testCloseIncompleteDocument() {
+    Utf8JsonWriter writer = new Utf8JsonWriter();
+    assertThrows(IOException.class, () -> writer.beginArray().close());
+  }
+
+  @Test
+  public void testInvalidInitialCapacity() {
+    assertThrows(IllegalArgumentException.class, () -> new Utf8JsonWriter(-1));
+  }
+
+  private static void configure(
+      JsonWriter writer, boolean htmlSafe, boolean serializeNulls, FormattingStyle style) {
+    writer.setsafeJsonToHtmlTranslation(htmlSafe);
+    writer.setSerializeNulls(serializeNulls);
+    writer.setFormattingStyle(style);
+  }
+
+  private static byte[] utf8(String s) {
+    return s.getBytes(StandardCharsets.UTF_8);
+  }
+}
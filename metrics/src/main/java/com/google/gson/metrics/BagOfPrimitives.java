@@ -15,7 +15,7 @@
  */
 package com.google.gson.metrics;
 
-import com.google.common.base.Objects;
+import java.util.Objects;
 
 /**
  * Class with a bunch of primitive fields
@@ -84,7 +84,7 @@ public class BagOfPrimitives {
     return longValue == that.longValue
         && intValue == that.intValue
         && booleanValue == that.booleanValue
-        && Objects.equal(stringValue, that.stringValue);
+        && Objects.equals(stringValue, that.stringValue);
   }
 
   @Override
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.gson.metrics;
+
+import java.util.regex.Pattern;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ProfilerConfig;
+
+/**
+ * Runs the JMH benchmarks of a single class from its {@code main} method.
+ *
+ * <p>Regular JMH command line arguments can be passed to the {@code main} method. Unless specified
+ * otherwise, the {@linkplain GCProfiler GC profiler} is enabled and the results are written as JSON
+ * to {@code target/jmh-<class name>.json}. Besides the throughput, the JSON results then contain
+ * the {@code gc.alloc.rate.norm} secondary metric (bytes allocated per operation), which can be
+ * used to detect allocation regressions.
+ */
+class BenchmarkRunner {
+  private BenchmarkRunner() {}
+
+  public static void run(Class<?> c, String[] args) throws Exception {
+    CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+    ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLineOptions);
+
+    if (commandLineOptions.getIncludes().isEmpty()) {
+      options.include("^" + Pattern.quote(c.getName()) + "\\.");
+    }
+    if (!hasGcProfiler(commandLineOptions)) {
+      options.addProfiler(GCProfiler.class);
+    }
+    if (!commandLineOptions.getResultFormat().hasValue()) {
+      options.resultFormat(ResultFormatType.JSON);
+    }
+    if (!commandLineOptions.getResult().hasValue()) {
+      options.result("target/jmh-" + c.getSimpleName() + ".json");
+    }
+
+    new Runner(options.build()).run();
+  }
+
+  private static boolean hasGcProfiler(CommandLineOptions commandLineOptions) {
+    for (ProfilerConfig profiler : commandLineOptions.getProfilers()) {
+      if (profiler.getKlass().equals(GCProfiler.class.getName())
+          || profiler.getKlass().equals("gc")) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
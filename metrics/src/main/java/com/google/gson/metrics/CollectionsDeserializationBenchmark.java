@@ -15,7 +15,6 @@
  */
 package com.google.gson.metrics;
 
-import com.google.caliper.BeforeExperiment;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
@@ -25,12 +24,17 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
 
 /**
- * Caliper based micro benchmarks for Gson
+ * JMH based micro benchmarks for Gson
  *
  * @author Inderjeet Singh
  */
+@State(Scope.Benchmark)
 public class CollectionsDeserializationBenchmark {
 
   private static final TypeToken<List<BagOfPrimitives>> LIST_TYPE_TOKEN =
@@ -39,12 +43,12 @@ public class CollectionsDeserializationBenchmark {
   private Gson gson;
   private String json;
 
-  public static void main(String[] args) {
-    CaliperRunnerBenchmark.run(CollectionsDeserializationBenchmark.class, args);
+  public static void main(String[] args) throws Exception {
+    BenchmarkRunner.run(CollectionsDeserializationBenchmark.class, args);
   }
 
-  @BeforeExperiment
-  void setUp() throws Exception {
+  @Setup
+  public void setUp() throws Exception {
     this.gson = new Gson();
     List<BagOfPrimitives> bags = new ArrayList<>();
     for (int i = 0; i < 100; ++i) {
@@ -54,85 +58,82 @@ public class CollectionsDeserializationBenchmark {
   }
 
   /** Benchmark to measure Gson performance for deserializing an object */
-  public void timeCollectionsDefault(int reps) {
-    for (int i = 0; i < reps; ++i) {
-      gson.fromJson(json, LIST_TYPE_TOKEN);
-    }
+  @Benchmark
+  public List<BagOfPrimitives> collectionsDefault() {
+    return gson.fromJson(json, LIST_TYPE_TOKEN);
   }
 
   /** Benchmark to measure deserializing objects by hand */
-  @SuppressWarnings("ModifiedButNotUsed")
-  public void timeCollectionsStreaming(int reps) throws IOException {
-    for (int i = 0; i < reps; ++i) {
-      StringReader reader = new StringReader(json);
-      JsonReader jr = new JsonReader(reader);
-      jr.beginArray();
-      List<BagOfPrimitives> bags = new ArrayList<>();
+  @Benchmark
+  public List<BagOfPrimitives> collectionsStreaming() throws IOException {
+    StringReader reader = new StringReader(json);
+    JsonReader jr = new JsonReader(reader);
+    jr.beginArray();
+    List<BagOfPrimitives> bags = new ArrayList<>();
+    while (jr.hasNext()) {
+      jr.beginObject();
+      long longValue = 0;
+      int intValue = 0;
+      boolean booleanValue = false;
+      String stringValue = null;
       while (jr.hasNext()) {
-        jr.beginObject();
-        long longValue = 0;
-        int intValue = 0;
-        boolean booleanValue = false;
-        String stringValue = null;
-        while (jr.hasNext()) {
-          String name = jr.nextName();
-          if (name.equals("longValue")) {
-            longValue = jr.nextLong();
-          } else if (name.equals("intValue")) {
-            intValue = jr.nextInt();
-          } else if (name.equals("booleanValue")) {
-            booleanValue = jr.nextBoolean();
-          } else if (name.equals("stringValue")) {
-            stringValue = jr.nextString();
-          } else {
-            throw new IOException("Unexpected name: " + name);
-          }
+        String name = jr.nextName();
+        if (name.equals("longValue")) {
+          longValue = jr.nextLong();
+        } else if (name.equals("intValue")) {
+          intValue = jr.nextInt();
+        } else if (name.equals("booleanValue")) {
+          booleanValue = jr.nextBoolean();
+        } else if (name.equals("stringValue")) {
+          stringValue = jr.nextString();
+        } else {
+          throw new IOException("Unexpected name: " + name);
         }
-        jr.endObject();
-        bags.add(new BagOfPrimitives(longValue, intValue, booleanValue, stringValue));
       }
-      jr.endArray();
+      jr.endObject();
+      bags.add(new BagOfPrimitives(longValue, intValue, booleanValue, stringValue));
     }
+    jr.endArray();
+    return bags;
   }
 
   /**
    * This benchmark measures the ideal Gson performance: the cost of parsing a JSON stream and
    * setting object values by reflection. We should strive to reduce the discrepancy between this
-   * and {@link #timeCollectionsDefault(int)} .
+   * and {@link #collectionsDefault()} .
    */
-  @SuppressWarnings("ModifiedButNotUsed")
-  public void timeCollectionsReflectionStreaming(int reps) throws Exception {
-    for (int i = 0; i < reps; ++i) {
-      StringReader reader = new StringReader(json);
-      JsonReader jr = new JsonReader(reader);
-      jr.beginArray();
-      List<BagOfPrimitives> bags = new ArrayList<>();
+  @Benchmark
+  public List<BagOfPrimitives> collectionsReflectionStreaming() throws Exception {
+    StringReader reader = new StringReader(json);
+    JsonReader jr = new JsonReader(reader);
+    jr.beginArray();
+    List<BagOfPrimitives> bags = new ArrayList<>();
+    while (jr.hasNext()) {
+      jr.beginObject();
+      BagOfPrimitives bag = new BagOfPrimitives();
       while (jr.hasNext()) {
-        jr.beginObject();
-        BagOfPrimitives bag = new BagOfPrimitives();
-        while (jr.hasNext()) {
-          String name = jr.nextName();
-          for (Field field : BagOfPrimitives.class.getDeclaredFields()) {
-            if (field.getName().equals(name)) {
-              Class<?> fieldType = field.getType();
-              if (fieldType.equals(long.class)) {
-                field.setLong(bag, jr.nextLong());
-              } else if (fieldType.equals(int.class)) {
-                field.setInt(bag, jr.nextInt());
-              } else if (fieldType.equals(boolean.class)) {
-                field.setBoolean(bag, jr.nextBoolean());
-              } else if (fieldType.equals(String.class)) {
-                field.set(bag, jr.nextString());
-              } else {
-                throw new RuntimeException("Unexpected: type: " + fieldType + ", name: " + name);
-              }
+        String name = jr.nextName();
+        for (Field field : BagOfPrimitives.class.getDeclaredFields()) {
+          if (field.getName().equals(name)) {
+            Class<?> fieldType = field.getType();
+            if (fieldType.equals(long.class)) {
+              field.setLong(bag, jr.nextLong());
+            } else if (fieldType.equals(int.class)) {
+              field.setInt(bag, jr.nextInt());
+            } else if (fieldType.equals(boolean.class)) {
+              field.setBoolean(bag, jr.nextBoolean());
+            } else if (fieldType.equals(String.class)) {
+              field.set(bag, jr.nextString());
+            } else {
+              throw new RuntimeException("Unexpected: type: " + fieldType + ", name: " + name);
             }
           }
         }
-        jr.endObject();
-        bags.add(bag);
       }
-      jr.endArray();
+      jr.endObject();
+      bags.add(bag);
     }
+    jr.endArray();
+    return bags;
   }
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.gson.metrics;
+
+import com.google.gson.FieldAccessStrategy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.internal.reflect.FieldAccessor;
+import java.lang.reflect.Field;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares serializing and deserializing a class with reflection-based adapters using the different
+ * {@link FieldAccessStrategy} values.
+ */
+@State(Scope.Benchmark)
+public class FieldAccessBenchmark {
+  @Param public FieldAccessStrategy strategy;
+
+  private Gson gson;
+  private Item item;
+  private String json;
+  private FieldAccessor intAccessor;
+  private FieldAccessor stringAccessor;
+
+  static class Item {
+    int a;
+    int b;
+    long c;
+    long d;
+    double e;
+    double f;
+    boolean g;
+    String h;
+    String i;
+  }
+
+  public static void main(String[] args) throws Exception {
+    BenchmarkRunner.run(FieldAccessBenchmark.class, args);
+  }
+
+  @Setup
+  public void setUp() throws Exception {
+    gson = new GsonBuilder().setFieldAccessStrategy(strategy).create();
+    item = new Item();
+    item.a = 1;
+    item.b = 22;
+    item.c = 333;
+    item.d = 4444;
+    item.e = 5.5;
+    item.f = 6.25;
+    item.g = true;
+    item.h = "h";
+    item.i = "i";
+    json = gson.toJson(item);
+    intAccessor = accessor("a");
+    stringAccessor = accessor("h");
+  }
+
+  private FieldAccessor accessor(String name) throws NoSuchFieldException {
+    Field field = Item.class.getDeclaredField(name);
+    field.setAccessible(true);
+    return FieldAccessor.create(field, strategy);
+  }
+
+  @Benchmark
+  public String serialize() {
+    return gson.toJson(item);
+  }
+
+  @Benchmark
+  public Item deserialize() {
+    return gson.fromJson(json, Item.class);
+  }
+
+  /** Measures only reading and writing the fields, without any JSON processing. */
+  @Benchmark
+  public int accessFields() throws IllegalAccessException {
+    intAccessor.setInt(item, intAccessor.getInt(item) + 1);
+    stringAccessor.set(item, stringAccessor.get(item));
+    return item.a;
+  }
+}
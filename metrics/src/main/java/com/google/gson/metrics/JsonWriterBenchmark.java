@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.gson.metrics;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the throughput of {@link JsonWriter} for different kinds of underlying {@link Writer}.
+ *
+ * <p>{@code JsonWriter} buffers its output internally, so writing to an unbuffered writer should be
+ * about as fast as writing to a {@link BufferedWriter}. Running this benchmark against an older
+ * Gson version, which wrote every token directly to the underlying writer, shows the difference.
+ */
+@State(Scope.Benchmark)
+public class JsonWriterBenchmark {
+  @Param public Output output;
+  @Param public Content content;
+
+  public enum Output {
+    /** Encoding writer without buffer, each write call goes through the charset encoder */
+    UNBUFFERED {
+      @Override
+      Writer newWriter() {
+        return new OutputStreamWriter(NULL_OUTPUT_STREAM, StandardCharsets.UTF_8);
+      }
+    },
+    BUFFERED {
+      @Override
+      Writer newWriter() {
+        return new BufferedWriter(UNBUFFERED.newWriter());
+      }
+    },
+    STRING_WRITER {
+      @Override
+      Writer newWriter() {
+        return new StringWriter();
+      }
+    };
+
+    abstract Writer newWriter();
+  }
+
+  public enum Content {
+    /** Objects with short names and values */
+    OBJECTS,
+    /** Long strings containing characters which have to be escaped */
+    ESCAPED_STRINGS,
+    NUMBERS
+  }
+
+  private static final OutputStream NULL_OUTPUT_STREAM =
+      new OutputStream() {
+        @Override
+        public void write(int b) {}
+
+        @Override
+        public void write(byte[] b, int off, int len) {}
+      };
+
+  private static final int SIZE = 1000;
+
+  private String longString;
+
+  public static void main(String[] args) throws Exception {
+    BenchmarkRunner.run(JsonWriterBenchmark.class, args);
+  }
+
+  @Setup
+  public void setUp() throws Exception {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 20; i++) {
+      builder.append("Some \"quoted\" text,\twith a tab\nand a new line. ");
+    }
+    longString = builder.toString();
+  }
+
+  @Benchmark
+  public void write() throws IOException {
+    JsonWriter writer = new JsonWriter(output.newWriter());
+    writer.beginArray();
+    for (int i = 0; i < SIZE; i++) {
+      switch (content) {
+        case OBJECTS:
+          writer.beginObject();
+          writer.name("id").value(i);
+          writer.name("name").value("name");
+          writer.name("active").value(true);
+          writer.name("tags").beginArray().value("a").value("b").endArray();
+          writer.endObject();
+          break;
+        case ESCAPED_STRINGS:
+          writer.value(longString);
+          break;
+        case NUMBERS:
+          writer.value(i * 1.25);
+          break;
+      }
+    }
+    writer.endArray();
+    writer.close();
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2024 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.gson.metrics;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Compares deserializing a JSON file read with a {@link Reader} and read memory-mapped with {@link
+ * Gson#fromJson(Path, TypeToken)}.
+ */
+@State(Scope.Benchmark)
+public class MappedFileBenchmark {
+  @Param({"1000", "100000"})
+  public int size;
+
+  private static final TypeToken<List<Item>> LIST_TYPE = new TypeToken<List<Item>>() {};
+
+  private final Gson gson = new Gson();
+  private Path file;
+
+  static class Item {
+    long id;
+    String name;
+    boolean active;
+    List<Double> values;
+  }
+
+  public static void main(String[] args) throws Exception {
+    BenchmarkRunner.run(MappedFileBenchmark.class, args);
+  }
+
+  @Setup
+  public void setUp() throws IOException {
+    StringBuilder builder = new StringBuilder("[");
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        builder.append(',');
+      }
+      builder
+          .append("{\"id\":")
+          .append(i)
+          .append(",\"name\":\"item ")
+          .append(i)
+          .append("\",\"active\":")
+          .append(i % 2 == 0)
+          .append(",\"values\":[1.5,2.25,")
+          .append(i)
+          .append("]}");
+    }
+    file = Files.createTempFile("gson-benchmark", ".json");
+    Files.write(file, builder.append(']').toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.delete(file);
+  }
+
+  @Benchmark
+  public List<Item> reader() throws IOException {
+    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      return gson.fromJson(reader, LIST_TYPE);
+    }
+  }
+
+  @Benchmark
+  public List<Item> mapped() {
+    return gson.fromJson(file, LIST_TYPE);
+  }
+}
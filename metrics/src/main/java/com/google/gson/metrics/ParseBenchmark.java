@@ -25,8 +25,6 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.json.JsonMapper;
-import com.google.caliper.BeforeExperiment;
-import com.google.caliper.Param;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonParser;
@@ -34,19 +32,23 @@ import com.google.gson.annotations.SerializedName;
 import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
 import java.io.CharArrayReader;
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringWriter;
-import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
 
 /**
  * Measure Gson and Jackson parsing and binding performance.
@@ -54,11 +56,16 @@ import java.util.zip.ZipFile;
  * <p>This benchmark requires that ParseBenchmarkData.zip is on the classpath. That file contains
  * Twitter feed data, which is representative of what applications will be parsing.
  */
-public final class ParseBenchmark {
-  @Param Document document;
-  @Param Api api;
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+  @Param public Document document;
+  @Param public Api api;
 
-  private enum Document {
+  /** Initial buffer size of the Gson {@link JsonReader}; not used by the Jackson APIs */
+  @Param({"1024", "8192"})
+  public int readerBufferSize;
+
+  public enum Document {
     TWEETS(new TypeToken<List<Tweet>>() {}, new TypeReference<List<Tweet>>() {}),
     READER_SHORT(new TypeToken<Feed>() {}, new TypeReference<Feed>() {}),
     READER_LONG(new TypeToken<Feed>() {}, new TypeReference<Feed>() {});
@@ -75,96 +82,91 @@ public final class ParseBenchmark {
     }
   }
 
-  private enum Api {
+  public enum Api {
     JACKSON_STREAM {
       @Override
-      Parser newParser() {
+      Parser newParser(int readerBufferSize) {
         return new JacksonStreamParser();
       }
     },
     JACKSON_BIND {
       @Override
-      Parser newParser() {
+      Parser newParser(int readerBufferSize) {
         return new JacksonBindParser();
       }
     },
     GSON_STREAM {
       @Override
-      Parser newParser() {
-        return new GsonStreamParser();
+      Parser newParser(int readerBufferSize) {
+        return new GsonStreamParser(readerBufferSize);
       }
     },
     GSON_SKIP {
       @Override
-      Parser newParser() {
-        return new GsonSkipParser();
+      Parser newParser(int readerBufferSize) {
+        return new GsonSkipParser(readerBufferSize);
       }
     },
     GSON_DOM {
       @Override
-      Parser newParser() {
+      Parser newParser(int readerBufferSize) {
         return new GsonDomParser();
       }
     },
     GSON_BIND {
       @Override
-      Parser newParser() {
-        return new GsonBindParser();
+      Parser newParser(int readerBufferSize) {
+        return new GsonBindParser(readerBufferSize);
       }
     };
 
-    abstract Parser newParser();
+    abstract Parser newParser(int readerBufferSize);
   }
 
   private char[] text;
   private Parser parser;
 
-  @BeforeExperiment
-  void setUp() throws Exception {
+  @Setup
+  public void setUp() throws Exception {
     text = resourceToString(document.name() + ".json").toCharArray();
-    parser = api.newParser();
+    parser = api.newParser(readerBufferSize);
   }
 
-  public void timeParse(int reps) throws Exception {
-    for (int i = 0; i < reps; i++) {
-      parser.parse(text, document);
-    }
+  @Benchmark
+  public void parse() throws Exception {
+    parser.parse(text, document);
   }
 
-  private static File getResourceFile(String path) throws Exception {
-    URL url = ParseBenchmark.class.getResource(path);
-    if (url == null) {
+  /**
+   * Reads an entry of the ParseBenchmarkData.zip resource. The resource is read as stream so that
+   * this also works when it is contained in the benchmarks JAR file.
+   */
+  private static String resourceToString(String fileName) throws Exception {
+    String path = "/ParseBenchmarkData.zip";
+    InputStream resource = ParseBenchmark.class.getResourceAsStream(path);
+    if (resource == null) {
       throw new IllegalArgumentException("Resource " + path + " does not exist");
     }
-    File file = new File(url.toURI());
-    if (!file.isFile()) {
-      throw new IllegalArgumentException("Resource " + path + " is not a file");
-    }
-    return file;
-  }
-
-  private static String resourceToString(String fileName) throws Exception {
-    ZipFile zipFile = new ZipFile(getResourceFile("/ParseBenchmarkData.zip"));
-    try {
-      ZipEntry zipEntry = zipFile.getEntry(fileName);
-      Reader reader =
-          new InputStreamReader(zipFile.getInputStream(zipEntry), StandardCharsets.UTF_8);
-      char[] buffer = new char[8192];
-      StringWriter writer = new StringWriter();
-      int count;
-      while ((count = reader.read(buffer)) != -1) {
-        writer.write(buffer, 0, count);
+    try (ZipInputStream zipIn = new ZipInputStream(resource)) {
+      ZipEntry zipEntry;
+      while ((zipEntry = zipIn.getNextEntry()) != null) {
+        if (zipEntry.getName().equals(fileName)) {
+          Reader reader = new InputStreamReader(zipIn, StandardCharsets.UTF_8);
+          char[] buffer = new char[8192];
+          StringWriter writer = new StringWriter();
+          int count;
+          while ((count = reader.read(buffer)) != -1) {
+            writer.write(buffer, 0, count);
+          }
+          return writer.toString();
+        }
       }
-      reader.close();
-      return writer.toString();
-
-    } finally {
-      zipFile.close();
     }
+    throw new IllegalArgumentException("Resource " + path + " has no entry " + fileName);
   }
 
   public static void main(String[] args) throws Exception {
-    CaliperRunnerBenchmark.run(ParseBenchmark.class, args);
+    BenchmarkRunner.run(ParseBenchmark.class, args);
   }
 
   interface Parser {
@@ -172,9 +174,15 @@ public final class ParseBenchmark {
   }
 
   private static class GsonStreamParser implements Parser {
+    private final int bufferSize;
+
+    GsonStreamParser(int bufferSize) {
+      this.bufferSize = bufferSize;
+    }
+
     @Override
     public void parse(char[] data, Document document) throws Exception {
-      JsonReader jsonReader = new JsonReader(new CharArrayReader(data));
+      JsonReader jsonReader = new JsonReader(new CharArrayReader(data), bufferSize);
       readToken(jsonReader);
       jsonReader.close();
     }
@@ -217,9 +225,15 @@ public final class ParseBenchmark {
   }
 
   private static class GsonSkipParser implements Parser {
+    private final int bufferSize;
+
+    GsonSkipParser(int bufferSize) {
+      this.bufferSize = bufferSize;
+    }
+
     @Override
     public void parse(char[] data, Document document) throws Exception {
-      JsonReader jsonReader = new JsonReader(new CharArrayReader(data));
+      JsonReader jsonReader = new JsonReader(new CharArrayReader(data), bufferSize);
       jsonReader.skipValue();
       jsonReader.close();
     }
@@ -279,8 +293,15 @@ public final class ParseBenchmark {
   }
 
   private static class GsonBindParser implements Parser {
-    private static final Gson gson =
-        new GsonBuilder().setDateFormat("EEE MMM dd HH:mm:ss Z yyyy").create();
+    private final Gson gson;
+
+    GsonBindParser(int bufferSize) {
+      gson =
+          new GsonBuilder()
+              .setDateFormat("EEE MMM dd HH:mm:ss Z yyyy")
+              .setReaderBufferSize(bufferSize)
+              .create();
+    }
 
     @Override
     public void parse(char[] data, Document document) throws Exception {
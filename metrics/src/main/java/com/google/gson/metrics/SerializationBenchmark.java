@@ -15,37 +15,42 @@
  */
 package com.google.gson.metrics;
 
-import com.google.caliper.BeforeExperiment;
-import com.google.caliper.Param;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
 
 /**
- * Caliper based micro benchmarks for Gson serialization
+ * JMH based micro benchmarks for Gson serialization
  *
  * @author Inderjeet Singh
  * @author Jesse Wilson
  * @author Joel Leitch
  */
+@State(Scope.Benchmark)
 public class SerializationBenchmark {
 
   private Gson gson;
   private BagOfPrimitives bag;
-  @Param private boolean pretty;
 
-  public static void main(String[] args) {
-    CaliperRunnerBenchmark.run(SerializationBenchmark.class, args);
+  @Param({"false", "true"})
+  public boolean pretty;
+
+  public static void main(String[] args) throws Exception {
+    BenchmarkRunner.run(SerializationBenchmark.class, args);
   }
 
-  @BeforeExperiment
-  void setUp() throws Exception {
+  @Setup
+  public void setUp() throws Exception {
     this.gson = pretty ? new GsonBuilder().setPrettyPrinting().create() : new Gson();
     this.bag = new BagOfPrimitives(10L, 1, false, "foo");
   }
 
-  public void timeObjectSerialization(int reps) {
-    for (int i = 0; i < reps; ++i) {
-      gson.toJson(bag);
-    }
+  @Benchmark
+  public String objectSerialization() {
+    return gson.toJson(bag);
   }
 }